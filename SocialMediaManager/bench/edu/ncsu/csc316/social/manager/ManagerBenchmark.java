@@ -0,0 +1,278 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import edu.ncsu.csc316.social.dsa.Algorithm;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * ManagerBenchmark measures SocialMediaManager and ReportManager for every
+ * map type at several network sizes. It times loading the network, ranking
+ * the people, building the PersonIndex and the PlatformIndex from the loaded
+ * connections, building the maps by person and by platform from those
+ * indexes, and rendering both reports, and prints the throughput, latency
+ * percentiles and bytes allocated per operation. The networks are written
+ * by NetworkGenerator with one person for every ten connections.
+ * The comparison sorter is only used to rank the people, so only loading
+ * and ranking are measured with every sorter. The other operations are
+ * measured once for each map type, with quicksort, and show "-" as their
+ * sorter.
+ * Each map type, and each sorter of loading and ranking, is measured in a
+ * JVM of its own, so the code the JIT compiled for one configuration does
+ * not speed up or slow down the next. A forked JVM is started with the same
+ * class path and JVM options as the benchmark. Each operation is run a
+ * number of warmup times before it is measured. The indexes are built from scratch on every run. The maps and reports are
+ * cached by the manager, so it is invalidated before every run of them,
+ * which drops the maps and reports but keeps the indexes they are built
+ * from. Both maps are built together, so they are measured as one
+ * operation. Allocation is read from the JVM's per-thread counters for every live
+ * thread, so work done on the fork-join pool is counted too. A counter is
+ * lost when its thread exits, so the readers and builders of the
+ * NetworkLoader run on a pool of the benchmark's own whose threads stay
+ * alive between runs, and the allocation of a load is counted in full.
+ * Usage: ManagerBenchmark [sizes] [warmups] [iterations], where sizes is a
+ * comma-separated list of connection counts and defaults to 1000,10000,100000,1000000,
+ * warmups defaults to 5 and iterations to 10.
+ * @author Arnold Elamthuruthil
+ */
+public class ManagerBenchmark {
+	/** Sorters that take quadratic time are only measured up to this many connections */
+	private static final int QUADRATIC_LIMIT = 20000;
+	/** First argument of a forked JVM */
+	private static final String FORK = "fork";
+	/** Sorter column of the operations that do not use the comparison sorter */
+	private static final String NO_SORTER = "-";
+
+	/** Number of runs of each operation before it is measured */
+	private int warmups;
+	/** Number of measured runs of each operation */
+	private int iterations;
+	/** JVM counters of the bytes allocated by each thread, or null if they are not supported */
+	private com.sun.management.ThreadMXBean threads;
+	/** Threads the network loads run on, kept alive so their allocation can be read */
+	private ExecutorService loaderThreads = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 1, TimeUnit.HOURS,
+			new SynchronousQueue<Runnable>(), task -> {
+				Thread thread = new Thread(task, "benchmark-loader");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/**
+	 * Creates a ManagerBenchmark
+	 * @param warmups number of runs of each operation before it is measured
+	 * @param iterations number of measured runs of each operation
+	 */
+	public ManagerBenchmark(int warmups, int iterations) {
+		this.warmups = warmups;
+		this.iterations = iterations;
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+			threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+			threads.setThreadAllocatedMemoryEnabled(true);
+		}
+	}
+
+	/**
+	 * Runs the benchmark, or one configuration of it in a forked JVM
+	 * @param args sizes, warmups and iterations, or the configuration of a forked JVM
+	 * @throws IOException if the network files cannot be written or a forked JVM fails
+	 * @throws InterruptedException if the benchmark is interrupted while a forked JVM runs
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length > 0 && args[0].equals(FORK)) {
+			ManagerBenchmark benchmark = new ManagerBenchmark(Integer.parseInt(args[6]), Integer.parseInt(args[7]));
+			benchmark.run(Integer.parseInt(args[1]), DataStructure.valueOf(args[2]), args[3], args[4], args[5]);
+			return;
+		}
+		String sizes = args.length > 0 ? args[0] : "1000,10000,100000,1000000";
+		int warmups = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		ManagerBenchmark benchmark = new ManagerBenchmark(warmups, iterations);
+		System.out.printf("%-9s %-18s %-14s %-20s %10s %10s %10s %10s %14s%n", "edges", "map", "sorter",
+				"operation", "ops/s", "p50 ms", "p90 ms", "p99 ms", "alloc B/op");
+		for (String size : sizes.split(",")) {
+			benchmark.run(Integer.parseInt(size.trim()));
+		}
+	}
+
+	/**
+	 * Measures every configuration on a generated network, each in a forked JVM
+	 * @param connections number of connections in the network
+	 * @throws IOException if the network files cannot be written or a forked JVM fails
+	 * @throws InterruptedException if the benchmark is interrupted while a forked JVM runs
+	 */
+	public void run(int connections) throws IOException, InterruptedException {
+		File people = File.createTempFile("people", ".txt");
+		File edges = File.createTempFile("connections", ".txt");
+		try {
+			NetworkGenerator generator = new NetworkGenerator(connections);
+			generator.setPeople(Math.max(2, connections / 10));
+			generator.setConnections(connections);
+			generator.writePeople(people.getPath());
+			generator.writeConnections(edges.getPath());
+			for (DataStructure map : new DataStructure[] { DataStructure.SKIPLIST, DataStructure.SEARCHTABLE,
+					DataStructure.UNORDEREDLINKEDMAP }) {
+				fork(connections, map, NO_SORTER, people.getPath(), edges.getPath());
+				for (Algorithm sorter : new Algorithm[] { Algorithm.QUICKSORT, Algorithm.MERGESORT,
+						Algorithm.INSERTION_SORT, Algorithm.SELECTION_SORT, Algorithm.BUBBLE_SORT }) {
+					boolean quadratic = sorter != Algorithm.QUICKSORT && sorter != Algorithm.MERGESORT;
+					if (quadratic && connections > QUADRATIC_LIMIT) {
+						continue;
+					}
+					fork(connections, map, sorter.name(), people.getPath(), edges.getPath());
+				}
+			}
+		} finally {
+			people.delete();
+			edges.delete();
+		}
+	}
+
+	/**
+	 * Measures one configuration in a forked JVM, which prints its results
+	 * @param connections number of connections in the network
+	 * @param map type of map
+	 * @param sorter name of the comparison sorter, or NO_SORTER for the operations that do not use it
+	 * @param peopleFile people file of the network
+	 * @param connectionFile connection file of the network
+	 * @throws IOException if the JVM cannot be started or fails
+	 * @throws InterruptedException if the benchmark is interrupted while the JVM runs
+	 */
+	private void fork(int connections, DataStructure map, String sorter, String peopleFile, String connectionFile)
+			throws IOException, InterruptedException {
+		List<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), ManagerBenchmark.class.getName(),
+				FORK, Integer.toString(connections), map.name(), sorter, peopleFile, connectionFile,
+				Integer.toString(warmups), Integer.toString(iterations)));
+		int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+		if (exit != 0) {
+			throw new IOException("Benchmark of " + connections + " " + map + " " + sorter + " exited with " + exit);
+		}
+	}
+
+	/**
+	 * Measures one configuration. With a sorter it measures loading the
+	 * network and ranking its people, and with NO_SORTER it measures the
+	 * operations that do not use the comparison sorter.
+	 * @param connections number of connections in the network
+	 * @param map type of map
+	 * @param sorter name of the comparison sorter, or NO_SORTER
+	 * @param peopleFile people file of the network
+	 * @param connectionFile connection file of the network
+	 * @throws FileNotFoundException if a file is not found
+	 */
+	private void run(int connections, DataStructure map, String sorter, String peopleFile, String connectionFile)
+			throws FileNotFoundException {
+		String label = String.format("%-9d %-18s %-14s", connections, map, sorter);
+		if (!sorter.equals(NO_SORTER)) {
+			DataStructureFactory factory = new DataStructureFactory(map)
+					.withComparisonSorter(Algorithm.valueOf(sorter));
+			measure(label, "construct", () -> SocialMediaManager.loadAsync(
+					new NetworkLoader(peopleFile, connectionFile, factory, null, 0, loaderThreads), factory).join());
+			SocialMediaManager manager = new SocialMediaManager(peopleFile, connectionFile, factory);
+			measure(label, "ranking", () -> new PersonRanking(manager.getState().getPeople(), factory));
+			return;
+		}
+		DataStructureFactory factory = new DataStructureFactory(map);
+		SocialMediaManager manager = new SocialMediaManager(peopleFile, connectionFile, factory);
+		NetworkState state = manager.getState();
+		measure(label, "personIndex",
+				() -> new PersonIndex(state.getConnections(), state.getPersonIndex().getRanking()));
+		measure(label, "platformIndex", () -> new PlatformIndex(state.getConnections(), factory));
+		measure(label, "maps", () -> {
+			manager.invalidate();
+			manager.getConnectionsByPerson();
+		});
+		ReportManager reports = new ReportManager(peopleFile, connectionFile, factory);
+		measure(label, "reportByPerson", () -> {
+			reports.invalidate();
+			reports.getConnectionsByPerson();
+		});
+		measure(label, "reportByPlatform", () -> {
+			reports.invalidate();
+			reports.getConnectionsByPlatform();
+		});
+	}
+
+	/**
+	 * Runs an operation warmups times, then measures it iterations times and
+	 * prints the results
+	 * @param label configuration the operation is run with
+	 * @param name name of the operation
+	 * @param operation operation to measure
+	 * @throws FileNotFoundException if the operation cannot find a file
+	 */
+	private void measure(String label, String name, Operation operation) throws FileNotFoundException {
+		for (int i = 0; i < warmups; i++) {
+			operation.run();
+		}
+		long[] times = new long[iterations];
+		long allocated = 0;
+		for (int i = 0; i < iterations; i++) {
+			long before = allocatedBytes();
+			long start = System.nanoTime();
+			operation.run();
+			times[i] = System.nanoTime() - start;
+			allocated += allocatedBytes() - before;
+		}
+		Arrays.sort(times);
+		long total = 0;
+		for (long time : times) {
+			total += time;
+		}
+		System.out.printf("%s %-20s %10.1f %10.3f %10.3f %10.3f %14s%n", label, name,
+				iterations * 1e9 / total, percentile(times, 50), percentile(times, 90), percentile(times, 99),
+				threads == null ? "n/a" : Long.toString(allocated / iterations));
+	}
+
+	/**
+	 * Returns a percentile of sorted times in milliseconds
+	 * @param times sorted times in nanoseconds
+	 * @param percent percentile to return
+	 * @return the percentile in milliseconds
+	 */
+	private static double percentile(long[] times, int percent) {
+		int index = (int) Math.ceil(percent / 100.0 * times.length) - 1;
+		return times[Math.max(0, index)] / 1e6;
+	}
+
+	/**
+	 * Returns the number of bytes allocated so far by every live thread
+	 * @return bytes allocated, or 0 if the JVM does not count them
+	 */
+	private long allocatedBytes() {
+		if (threads == null) {
+			return 0;
+		}
+		long total = 0;
+		for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+			if (bytes > 0) {
+				total += bytes;
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Operation that is measured
+	 * @author Arnold Elamthuruthil
+	 */
+	private interface Operation {
+		/**
+		 * Runs the operation once
+		 * @throws FileNotFoundException if the operation cannot find a file
+		 */
+		void run() throws FileNotFoundException;
+	}
+}
@@ -0,0 +1,209 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import edu.ncsu.csc316.dsa.list.ArrayBasedList;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.data.Person;
+
+/**
+ * ServerLoadTest measures ManagerServer under many concurrent clients. It
+ * generates a network with NetworkGenerator, serves it on a free local port,
+ * and runs clients that each send requests for random people, and for a
+ * percentage of requests a random platform, one after another for a fixed
+ * time. A platform's block is far larger than a person's, so the percentage
+ * of platform requests has a large effect on the results. The clients
+ * run on the same kind of executor as the server, so with virtual threads
+ * thousands of clients can run at once. When the time is up it prints the
+ * throughput, the latency percentiles and the number of failed requests.
+ * Usage: ServerLoadTest [connections] [clients] [seconds] [platformPercent],
+ * which default to 100000, 1000, 10 and 1.
+ * @author Arnold Elamthuruthil
+ */
+public class ServerLoadTest {
+	/** Platforms the generated connections are on */
+	private static final String[] PLATFORMS = { "Facebook", "Instagram", "WhatsApp", "TikTok", "Twitter",
+		"Telegram", "Discord", "Reddit", "LinkedIn", "Twitch", "WeChat", "Snapchat" };
+
+	/**
+	 * Runs the load test
+	 * @param args connections, clients, seconds and percentage of platform requests
+	 * @throws Exception if the network cannot be written or the server cannot start
+	 */
+	public static void main(String[] args) throws Exception {
+		int connections = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		int platformPercent = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+		File people = File.createTempFile("people", ".txt");
+		File edges = File.createTempFile("connections", ".txt");
+		try {
+			NetworkGenerator generator = new NetworkGenerator(connections);
+			generator.setPeople(Math.max(2, connections / 10));
+			generator.setConnections(connections);
+			generator.writePeople(people.getPath());
+			generator.writeConnections(edges.getPath());
+			List<Person> list = ParallelInputReader.readPersonData(people.getPath());
+			String[] usernames = new String[list.size()];
+			int i = 0;
+			for (Person p : list) {
+				usernames[i] = p.getId();
+				i++;
+			}
+			ManagerServer server = new ManagerServer(new ReportManager(people.getPath(), edges.getPath()), 0);
+			server.start();
+			try {
+				run(server.getPort(), usernames, clients, seconds, platformPercent);
+			} finally {
+				server.stop();
+			}
+		} finally {
+			people.delete();
+			edges.delete();
+		}
+	}
+
+	/**
+	 * Runs the clients against a server and prints the results
+	 * @param port port of the server
+	 * @param usernames usernames the clients ask for
+	 * @param clients number of concurrent clients
+	 * @param seconds number of seconds the clients run
+	 * @param platformPercent percentage of requests that ask for a platform
+	 * @throws Exception if a client cannot be run
+	 */
+	private static void run(int port, String[] usernames, int clients, int seconds, int platformPercent)
+			throws Exception {
+		HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		String base = "http://localhost:" + port;
+		long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		ExecutorService executor = ManagerServer.newRequestExecutor();
+		List<Future<Client>> futures = new ArrayBasedList<Future<Client>>();
+		for (int c = 0; c < clients; c++) {
+			Client client = new Client(http, base, usernames, platformPercent, c, end);
+			futures.addLast(executor.submit(client::call));
+		}
+		Client[] results = new Client[clients];
+		int requests = 0;
+		int failures = 0;
+		for (int c = 0; c < clients; c++) {
+			results[c] = futures.get(c).get();
+			requests += results[c].count;
+			failures += results[c].failures;
+		}
+		executor.shutdown();
+
+		long[] all = new long[requests];
+		int n = 0;
+		for (Client client : results) {
+			System.arraycopy(client.times, 0, all, n, client.count);
+			n += client.count;
+		}
+		Arrays.sort(all);
+		System.out.printf("%d clients, %d requests in %d s, %d failed%n", clients, requests, seconds, failures);
+		System.out.printf("throughput %.1f requests/s%n", requests / (double) seconds);
+		System.out.printf("latency ms p50 %.3f p90 %.3f p99 %.3f p99.9 %.3f max %.3f%n", percentile(all, 50),
+				percentile(all, 90), percentile(all, 99), percentile(all, 99.9), percentile(all, 100));
+	}
+
+	/**
+	 * Returns a percentile of sorted times in milliseconds
+	 * @param times sorted times in nanoseconds
+	 * @param percent percentile to return
+	 * @return the percentile in milliseconds, or 0 if there are no times
+	 */
+	private static double percentile(long[] times, double percent) {
+		if (times.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(percent / 100.0 * times.length) - 1;
+		return times[Math.max(0, index)] / 1e6;
+	}
+
+	/**
+	 * Client that sends one request after another until the end time
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class Client {
+		/** HTTP client shared by every client */
+		private HttpClient http;
+		/** Address of the server */
+		private String base;
+		/** Usernames the client asks for */
+		private String[] usernames;
+		/** Percentage of requests that ask for a platform */
+		private int platformPercent;
+		/** Source of the random people and platforms */
+		private Random random;
+		/** Time the client stops, from System.nanoTime */
+		private long end;
+		/** Latency of each request in nanoseconds */
+		private long[] times = new long[1024];
+		/** Number of requests sent */
+		private int count;
+		/** Number of requests that failed */
+		private int failures;
+
+		/**
+		 * Creates a Client
+		 * @param http HTTP client shared by every client
+		 * @param base address of the server
+		 * @param usernames usernames the client asks for
+		 * @param platformPercent percentage of requests that ask for a platform
+		 * @param seed seed of the client's random choices
+		 * @param end time the client stops, from System.nanoTime
+		 */
+		Client(HttpClient http, String base, String[] usernames, int platformPercent, long seed, long end) {
+			this.http = http;
+			this.base = base;
+			this.usernames = usernames;
+			this.platformPercent = platformPercent;
+			this.random = new Random(seed);
+			this.end = end;
+		}
+
+		/**
+		 * Sends requests until the end time
+		 * @return this client, with its results
+		 */
+		Client call() {
+			while (System.nanoTime() < end) {
+				String path;
+				if (random.nextInt(100) < platformPercent) {
+					path = "/platform/" + PLATFORMS[random.nextInt(PLATFORMS.length)];
+				} else {
+					path = "/person/" + usernames[random.nextInt(usernames.length)];
+				}
+				HttpRequest request = HttpRequest.newBuilder(URI.create(base + path)).build();
+				long start = System.nanoTime();
+				try {
+					HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+					if (response.statusCode() != 200 && response.statusCode() != 404) {
+						failures++;
+					}
+				} catch (IOException e) {
+					failures++;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+				if (count == times.length) {
+					times = Arrays.copyOf(times, count * 2);
+				}
+				times[count++] = System.nanoTime() - start;
+			}
+			return this;
+		}
+	}
+}
@@ -0,0 +1,357 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * BatchRunner runs the reports of many networks in one process without a
+ * prompt. A manifest lists one job on each line as a people file, a
+ * connection file and an output directory separated by commas. Blank lines
+ * and lines that start with # are skipped, and relative paths are relative
+ * to the folder of the manifest. Each job's network is loaded and its report
+ * by person and report by platform are written to connectionsByPerson.txt
+ * and connectionsByPlatform.txt in its output directory, which is created if
+ * it does not exist. A fixed number of jobs run at the same time, so at most
+ * that many networks are in memory at once. A job that fails is reported and
+ * the rest still run, even if it failed with an Error such as
+ * OutOfMemoryError. When every job is done a summary of the throughput of
+ * the batch is printed.
+ * @author Arnold Elamthuruthil
+ */
+public class BatchRunner {
+	/** Name of the file each job's report by person is written to */
+	public static final String PERSON_REPORT = "connectionsByPerson.txt";
+	/** Name of the file each job's report by platform is written to */
+	public static final String PLATFORM_REPORT = "connectionsByPlatform.txt";
+	/** Character that starts a comment line of a manifest */
+	private static final String COMMENT = "#";
+	/** Number of fields of each job of a manifest */
+	private static final int JOB_FIELDS = 3;
+	/** Number of bytes in a megabyte */
+	private static final double BYTES_PER_MB = 1 << 20;
+	/** Number of nanoseconds in a second */
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	/** Factory of the maps, lists and sorters of every job's network */
+	private DataStructureFactory factory;
+	/** Number of jobs run at the same time */
+	private int parallelism;
+
+	/**
+	 * Creates a BatchRunner
+	 * @param factory factory of the maps, lists and sorters of every job's network
+	 * @param parallelism number of jobs run at the same time
+	 * @throws IllegalArgumentException if parallelism is less than 1
+	 */
+	public BatchRunner(DataStructureFactory factory, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+		}
+		this.factory = factory;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Reads the jobs of a manifest
+	 * @param manifestFile manifest file
+	 * @return jobs in the order of the manifest
+	 * @throws IOException if the manifest cannot be read
+	 * @throws IllegalArgumentException if a line does not have three fields
+	 */
+	public List<Job> readManifest(String manifestFile) throws IOException {
+		File folder = new File(manifestFile).getAbsoluteFile().getParentFile();
+		List<Job> jobs = factory.getIndexedList();
+		try (BufferedReader in = new BufferedReader(new FileReader(manifestFile))) {
+			String line;
+			int number = 0;
+			while ((line = in.readLine()) != null) {
+				number++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith(COMMENT)) {
+					continue;
+				}
+				String[] fields = line.split(",", -1);
+				if (fields.length != JOB_FIELDS) {
+					throw new IllegalArgumentException("Line " + number + " of " + manifestFile
+							+ " must have a people file, a connection file and an output directory");
+				}
+				jobs.addLast(new Job(resolve(folder, fields[0]), resolve(folder, fields[1]),
+						resolve(folder, fields[2])));
+			}
+		}
+		return jobs;
+	}
+
+	/**
+	 * Returns the path of a field of a manifest
+	 * @param folder folder of the manifest
+	 * @param field field of a job
+	 * @return the field itself if it is absolute, or else the field within the folder
+	 */
+	private static String resolve(File folder, String field) {
+		File file = new File(field.trim());
+		return file.isAbsolute() ? file.getPath() : new File(folder, file.getPath()).getPath();
+	}
+
+	/**
+	 * Runs every job, a fixed number at a time, and waits for them all
+	 * @param jobs jobs to run
+	 * @return result of each job, in the order of the jobs
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public List<Result> run(List<Job> jobs) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, jobs.size())));
+		try {
+			List<Future<Result>> futures = factory.getIndexedList();
+			for (Job job : jobs) {
+				futures.addLast(executor.submit(() -> run(job)));
+			}
+			List<Result> results = factory.getIndexedList();
+			for (Future<Result> future : futures) {
+				try {
+					results.addLast(future.get());
+				} catch (ExecutionException e) {
+					//run records what a job throws, so this only happens if the task itself could not run
+					results.addLast(new Result(jobs.get(results.size()), 0, 0, 0, describe(e.getCause())));
+				}
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Loads a job's network and writes its reports
+	 * @param job job to run
+	 * @return result of the job
+	 */
+	private Result run(Job job) {
+		long start = System.nanoTime();
+		long read = new File(job.peopleFile).length() + new File(job.connectionFile).length();
+		try {
+			ReportManager reports = new ReportManager(job.peopleFile, job.connectionFile, factory);
+			File folder = new File(job.outputDirectory);
+			if (!folder.isDirectory() && !folder.mkdirs()) {
+				throw new IOException("Unable to create " + folder);
+			}
+			File byPerson = new File(folder, PERSON_REPORT);
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(byPerson))) {
+				reports.writeConnectionsByPerson(out);
+			}
+			File byPlatform = new File(folder, PLATFORM_REPORT);
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(byPlatform))) {
+				reports.writeConnectionsByPlatform(out);
+			}
+			return new Result(job, read, byPerson.length() + byPlatform.length(), System.nanoTime() - start,
+					null);
+		} catch (IOException | RuntimeException | Error e) {
+			//An Error such as OutOfMemoryError fails only this job, and its memory is freed for the others
+			return new Result(job, read, 0, System.nanoTime() - start, describe(e));
+		}
+	}
+
+	/**
+	 * Returns why a job failed
+	 * @param failure what the job threw
+	 * @return name and message of what was thrown
+	 */
+	private static String describe(Throwable failure) {
+		return failure.getClass().getSimpleName() + ": " + failure.getMessage();
+	}
+
+	/**
+	 * Returns a summary of the throughput of a batch
+	 * @param results results of the jobs
+	 * @param nanos time the whole batch took, in nanoseconds
+	 * @return summary of the batch
+	 */
+	public String summarize(List<Result> results, long nanos) {
+		int failed = 0;
+		long read = 0;
+		long written = 0;
+		Result slowest = null;
+		for (Result r : results) {
+			if (r.failure != null) {
+				failed++;
+			} else {
+				read += r.bytesRead;
+				written += r.bytesWritten;
+			}
+			if (slowest == null || r.nanos > slowest.nanos) {
+				slowest = r;
+			}
+		}
+		double seconds = nanos / NANOS_PER_SECOND;
+		StringBuilder summary = new StringBuilder();
+		summary.append(String.format("Ran %d jobs, %d at a time, in %.2f s: %d succeeded, %d failed%n",
+				results.size(), parallelism, seconds, results.size() - failed, failed));
+		summary.append(String.format("Read %.1f MB and wrote %.1f MB: %.2f jobs/s, %.1f MB/s read%n",
+				read / BYTES_PER_MB, written / BYTES_PER_MB, results.size() / seconds, read / BYTES_PER_MB / seconds));
+		if (slowest != null) {
+			summary.append(String.format("Slowest job: %s in %.2f s%n", slowest.job.outputDirectory,
+					slowest.nanos / NANOS_PER_SECOND));
+		}
+		return summary.toString();
+	}
+
+	/**
+	 * Runs the jobs of a manifest from the command line. Usage: BatchRunner
+	 * manifestFile [parallelism] [mapType], which default to the number of
+	 * processors and SKIPLIST. The process exits with status 1 if any job fails.
+	 * @param args manifest file, then the optional parallelism and map type
+	 * @throws IOException if the manifest cannot be read
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length == 0) {
+			System.out.println("Usage: BatchRunner manifestFile [parallelism] [mapType]");
+			System.out.println("Each line of the manifest is peopleFile,connectionFile,outputDirectory");
+			return;
+		}
+		int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		DataStructure mapType = args.length > 2 ? DataStructure.valueOf(args[2]) : DataStructure.SKIPLIST;
+		BatchRunner runner = new BatchRunner(new DataStructureFactory(mapType), parallelism);
+		List<Job> jobs = runner.readManifest(args[0]);
+		long start = System.nanoTime();
+		List<Result> results = runner.run(jobs);
+		long nanos = System.nanoTime() - start;
+		boolean failed = false;
+		for (Result r : results) {
+			if (r.failure != null) {
+				System.out.println("Failed " + r.job.outputDirectory + ": " + r.failure);
+				failed = true;
+			}
+		}
+		System.out.print(runner.summarize(results, nanos));
+		if (failed) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * People file, connection file and output directory of one job of a batch
+	 * @author Arnold Elamthuruthil
+	 */
+	public static class Job {
+		/** People file of the network */
+		private String peopleFile;
+		/** Connection file of the network */
+		private String connectionFile;
+		/** Directory the reports are written to */
+		private String outputDirectory;
+
+		/**
+		 * Creates a job
+		 * @param peopleFile people file of the network
+		 * @param connectionFile connection file of the network
+		 * @param outputDirectory directory the reports are written to
+		 */
+		public Job(String peopleFile, String connectionFile, String outputDirectory) {
+			this.peopleFile = peopleFile;
+			this.connectionFile = connectionFile;
+			this.outputDirectory = outputDirectory;
+		}
+
+		/**
+		 * Returns the people file of the network
+		 * @return people file
+		 */
+		public String getPeopleFile() {
+			return peopleFile;
+		}
+
+		/**
+		 * Returns the connection file of the network
+		 * @return connection file
+		 */
+		public String getConnectionFile() {
+			return connectionFile;
+		}
+
+		/**
+		 * Returns the directory the reports are written to
+		 * @return output directory
+		 */
+		public String getOutputDirectory() {
+			return outputDirectory;
+		}
+	}
+
+	/**
+	 * Outcome of one job of a batch
+	 * @author Arnold Elamthuruthil
+	 */
+	public static class Result {
+		/** Job the result is for */
+		private Job job;
+		/** Number of bytes of the job's input files */
+		private long bytesRead;
+		/** Number of bytes of the job's reports */
+		private long bytesWritten;
+		/** Time the job took, in nanoseconds */
+		private long nanos;
+		/** Why the job failed, or null if it succeeded */
+		private String failure;
+
+		/**
+		 * Creates the result of a job
+		 * @param job job the result is for
+		 * @param bytesRead number of bytes of the job's input files
+		 * @param bytesWritten number of bytes of the job's reports
+		 * @param nanos time the job took, in nanoseconds
+		 * @param failure why the job failed, or null if it succeeded
+		 */
+		Result(Job job, long bytesRead, long bytesWritten, long nanos, String failure) {
+			this.job = job;
+			this.bytesRead = bytesRead;
+			this.bytesWritten = bytesWritten;
+			this.nanos = nanos;
+			this.failure = failure;
+		}
+
+		/**
+		 * Returns the job the result is for
+		 * @return the job
+		 */
+		public Job getJob() {
+			return job;
+		}
+
+		/**
+		 * Returns the number of bytes of the job's reports
+		 * @return bytes written
+		 */
+		public long getBytesWritten() {
+			return bytesWritten;
+		}
+
+		/**
+		 * Returns the time the job took
+		 * @return time in nanoseconds
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		/**
+		 * Returns why the job failed
+		 * @return the failure, or null if the job succeeded
+		 */
+		public String getFailure() {
+			return failure;
+		}
+	}
+}
@@ -0,0 +1,282 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ComponentAnalysis finds the connected components of a network, both for the
+ * whole network and for the connections on each platform. People are the
+ * vertices, numbered by rank, and connections are the edges. Connections with
+ * a person who is not in the people file are left out. Every person is in a
+ * component of the whole network, so people without connections are
+ * components of one. Only people with a connection on a platform are in that
+ * platform's components.
+ * The components are found by union-find over int arrays. The edges are split
+ * into partitions that fork-join workers union into forests of their own, and
+ * the forests are merged pairwise as the tasks are joined. Merging a forest
+ * into another only unions each person with their parent, so it costs time
+ * proportional to the number of people, not the number of edges.
+ * @author Arnold Elamthuruthil
+ */
+public class ComponentAnalysis {
+	/** Smallest number of edges worth handing to its own fork-join task */
+	private static final int MIN_EDGES_PER_TASK = 1 << 16;
+	/** Number of partitions made for each worker of the pool, so busy workers can be helped */
+	private static final int TASKS_PER_WORKER = 2;
+
+	/** Components of the whole network */
+	private Components network;
+	/** Components of the connections on each platform, by code */
+	private Components[] platforms;
+
+	/**
+	 * Finds the components of a network
+	 * @param index index of the people and connections of the network
+	 * @param platformIndex index of the connections on each platform
+	 */
+	public ComponentAnalysis(PersonIndex index, PlatformIndex platformIndex) {
+		this(index, platformIndex, 0);
+	}
+
+	/**
+	 * Finds the components of a network, splitting the edges into partitions
+	 * of at most the given size
+	 * @param index index of the people and connections of the network
+	 * @param platformIndex index of the connections on each platform
+	 * @param partitionSize largest number of edges a task unions, or 0 to give
+	 * every worker of the common pool a share of the edges
+	 */
+	ComponentAnalysis(PersonIndex index, PlatformIndex platformIndex, int partitionSize) {
+		network = find(index, null, 0, index.size(), true, partitionSize);
+		platforms = new Components[platformIndex.size()];
+		//Platforms are found one after another so that only one platform's
+		//forests are held at a time
+		for (int code = 0; code < platforms.length; code++) {
+			platforms[code] = find(index, platformIndex, platformIndex.start(code), platformIndex.end(code),
+					false, partitionSize);
+		}
+	}
+
+	/**
+	 * Returns the components of the whole network
+	 * @return components of the network
+	 */
+	public Components getComponents() {
+		return network;
+	}
+
+	/**
+	 * Returns the components of the connections on one platform
+	 * @param code code of the platform
+	 * @return components of the platform
+	 */
+	public Components getComponents(int code) {
+		return platforms[code];
+	}
+
+	/**
+	 * Finds the components of a range of edges
+	 * @param index index of the people and connections of the network
+	 * @param order platform index whose positions the range is in, or null if
+	 * the range is of connection positions
+	 * @param from first position of the range
+	 * @param to position after the range
+	 * @param everyone true to put every person in a component, false for only
+	 * the people with an edge in the range
+	 * @param partitionSize largest number of edges a task unions, or 0 for the default
+	 * @return components of the edges
+	 */
+	private static Components find(PersonIndex index, PlatformIndex order, int from, int to, boolean everyone,
+			int partitionSize) {
+		int people = index.getRanking().size();
+		if (partitionSize <= 0) {
+			int perWorker = (to - from) / (ForkJoinPool.getCommonPoolParallelism() * TASKS_PER_WORKER) + 1;
+			partitionSize = Math.max(MIN_EDGES_PER_TASK, perWorker);
+		}
+		UnionTask task = new UnionTask(index, order, from, to, people, partitionSize);
+		int[] parent = to - from > partitionSize ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+
+		boolean[] present = new boolean[people];
+		if (everyone) {
+			for (int rank = 0; rank < people; rank++) {
+				present[rank] = true;
+			}
+		} else {
+			for (int i = from; i < to; i++) {
+				int edge = order == null ? i : order.edgeAt(i);
+				int r1 = index.firstRankOf(edge);
+				int r2 = index.secondRankOf(edge);
+				if (r1 >= 0 && r2 >= 0) {
+					present[r1] = true;
+					present[r2] = true;
+				}
+			}
+		}
+		return label(parent, present);
+	}
+
+	/**
+	 * Numbers the trees of a forest as components, largest first, and lists
+	 * their members
+	 * @param parent forest of every person, which is flattened
+	 * @param present whether each person is in a component
+	 * @return components of the forest
+	 */
+	private static Components label(int[] parent, boolean[] present) {
+		int people = parent.length;
+		//Each root is numbered in the order its smallest member is seen, and
+		//the number is kept in the root's slot of first
+		int[] first = new int[people];
+		int[] sizes = new int[people];
+		int count = 0;
+		int total = 0;
+		for (int rank = 0; rank < people; rank++) {
+			if (!present[rank]) {
+				continue;
+			}
+			int root = root(parent, rank);
+			parent[rank] = root;
+			if (root == rank) {
+				first[rank] = count;
+				count++;
+			}
+			sizes[first[root]]++;
+			total++;
+		}
+
+		//Stable counting sort of the components by size, largest first
+		int[] bySize = new int[total + 2];
+		for (int c = 0; c < count; c++) {
+			bySize[total - sizes[c] + 1]++;
+		}
+		for (int s = 1; s < bySize.length; s++) {
+			bySize[s] += bySize[s - 1];
+		}
+		int[] number = new int[count];
+		for (int c = 0; c < count; c++) {
+			number[c] = bySize[total - sizes[c]]++;
+		}
+
+		int[] offsets = new int[count + 1];
+		for (int c = 0; c < count; c++) {
+			offsets[number[c] + 1] = sizes[c];
+		}
+		for (int c = 0; c < count; c++) {
+			offsets[c + 1] += offsets[c];
+		}
+		int[] next = new int[count];
+		System.arraycopy(offsets, 0, next, 0, count);
+		int[] members = new int[total];
+		int[] componentOf = new int[people];
+		for (int rank = 0; rank < people; rank++) {
+			if (!present[rank]) {
+				componentOf[rank] = -1;
+				continue;
+			}
+			int component = number[first[parent[rank]]];
+			componentOf[rank] = component;
+			members[next[component]++] = rank;
+		}
+		return new Components(offsets, members, componentOf);
+	}
+
+	/**
+	 * Returns the root of a person's tree, halving the path to it on the way
+	 * @param parent forest of every person
+	 * @param rank rank of the person
+	 * @return rank of the root
+	 */
+	private static int root(int[] parent, int rank) {
+		while (parent[rank] != rank) {
+			parent[rank] = parent[parent[rank]];
+			rank = parent[rank];
+		}
+		return rank;
+	}
+
+	/**
+	 * Joins the trees of two people. The root with the larger rank is linked
+	 * under the other, so the result does not depend on which worker unions first.
+	 * @param parent forest of every person
+	 * @param r1 rank of the first person
+	 * @param r2 rank of the second person
+	 */
+	private static void union(int[] parent, int r1, int r2) {
+		int root1 = root(parent, r1);
+		int root2 = root(parent, r2);
+		if (root1 < root2) {
+			parent[root2] = root1;
+		} else if (root2 < root1) {
+			parent[root1] = root2;
+		}
+	}
+
+	/**
+	 * Fork-join task that unions a range of edges into a forest of every person
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class UnionTask extends RecursiveTask<int[]> {
+		/** Index of the people and connections of the network */
+		private PersonIndex index;
+		/** Platform index the range is in, or null for connection positions */
+		private PlatformIndex order;
+		/** First position of the range */
+		private int from;
+		/** Position after the range */
+		private int to;
+		/** Number of people in the network */
+		private int people;
+		/** Largest number of edges the task unions itself */
+		private int partitionSize;
+
+		/**
+		 * Creates a UnionTask
+		 * @param index index of the people and connections of the network
+		 * @param order platform index the range is in, or null for connection positions
+		 * @param from first position of the range
+		 * @param to position after the range
+		 * @param people number of people in the network
+		 * @param partitionSize largest number of edges the task unions itself
+		 */
+		UnionTask(PersonIndex index, PlatformIndex order, int from, int to, int people, int partitionSize) {
+			this.index = index;
+			this.order = order;
+			this.from = from;
+			this.to = to;
+			this.people = people;
+			this.partitionSize = partitionSize;
+		}
+
+		@Override
+		protected int[] compute() {
+			if (to - from > partitionSize) {
+				int mid = (from + to) >>> 1;
+				UnionTask left = new UnionTask(index, order, from, mid, people, partitionSize);
+				left.fork();
+				int[] right = new UnionTask(index, order, mid, to, people, partitionSize).compute();
+				int[] parent = left.join();
+				//Every edge of the right forest's partition is implied by the
+				//links from each person to their parent, so only those are unioned
+				for (int rank = 0; rank < people; rank++) {
+					if (right[rank] != rank) {
+						union(parent, rank, right[rank]);
+					}
+				}
+				return parent;
+			}
+			int[] parent = new int[people];
+			for (int rank = 0; rank < people; rank++) {
+				parent[rank] = rank;
+			}
+			for (int i = from; i < to; i++) {
+				int edge = order == null ? i : order.edgeAt(i);
+				int r1 = index.firstRankOf(edge);
+				int r2 = index.secondRankOf(edge);
+				if (r1 >= 0 && r2 >= 0) {
+					union(parent, r1, r2);
+				}
+			}
+			return parent;
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package edu.ncsu.csc316.social.manager;
+
+/**
+ * Components holds the connected components of one part of a network, such
+ * as the whole network or the connections on one platform. People are
+ * numbered by their rank in the network's PersonRanking. The components are
+ * listed largest first, and components of the same size are listed in the
+ * rank order of their first member. The members of each component are in
+ * rank order. A Components is never changed once it is built.
+ * @author Arnold Elamthuruthil
+ */
+public class Components {
+	/** Start of each component's members in members, with the total at the end */
+	private int[] offsets;
+	/** Ranks of the members of every component, one component after another */
+	private int[] members;
+	/** Component of the person with each rank, or -1 if the person is not in any */
+	private int[] componentOf;
+
+	/**
+	 * Creates a Components from arrays built by ComponentAnalysis
+	 * @param offsets start of each component's members, with the total at the end
+	 * @param members ranks of the members of every component
+	 * @param componentOf component of each rank, or -1 for people not in any
+	 */
+	Components(int[] offsets, int[] members, int[] componentOf) {
+		this.offsets = offsets;
+		this.members = members;
+		this.componentOf = componentOf;
+	}
+
+	/**
+	 * Returns the number of components
+	 * @return number of components
+	 */
+	public int count() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * Returns the number of people in a component
+	 * @param component number of the component
+	 * @return number of members of the component
+	 */
+	public int size(int component) {
+		return offsets[component + 1] - offsets[component];
+	}
+
+	/**
+	 * Returns the rank of one member of a component
+	 * @param component number of the component
+	 * @param i position of the member in the component, from 0
+	 * @return rank of the member
+	 */
+	public int memberAt(int component, int i) {
+		return members[offsets[component] + i];
+	}
+
+	/**
+	 * Returns the component the person with a rank is in
+	 * @param rank rank of the person
+	 * @return number of the person's component, or -1 if the person has no
+	 * connections in this part of the network
+	 */
+	public int componentOf(int rank) {
+		return componentOf[rank];
+	}
+
+	/**
+	 * Returns the number of people in any component
+	 * @return number of people in the components
+	 */
+	public int people() {
+		return members.length;
+	}
+}
@@ -0,0 +1,122 @@
+package edu.ncsu.csc316.social.manager;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.data.Connection;
+
+/**
+ * ConnectionArray is a ConnectionTable that keeps every connection as a
+ * Connection object in an array on the heap. The array may be longer than
+ * the table. The first table appended to grows into the room at the end of
+ * the array, since no table reads past its own size, so a run of appends
+ * copies the array a logarithmic number of times instead of every time.
+ * @author Arnold Elamthuruthil
+ */
+public class ConnectionArray implements ConnectionTable {
+	/** Connections of the network, by position, with room for more at the end */
+	private Connection[] connections;
+	/** Number of connections in the table */
+	private int size;
+	/** Whether a table appended to this one already uses the room at the end of the array */
+	private boolean tailClaimed;
+
+	/**
+	 * Creates a table of the connections in an array, which is not copied
+	 * @param connections connections of the network, by position
+	 */
+	public ConnectionArray(Connection[] connections) {
+		this(connections, connections.length);
+	}
+
+	/**
+	 * Creates a table of the first connections of an array
+	 * @param connections connections of the network, by position
+	 * @param size number of connections in the table
+	 */
+	private ConnectionArray(Connection[] connections, int size) {
+		this.connections = connections;
+		this.size = size;
+	}
+
+	/**
+	 * Creates a table of the connections in a list
+	 * @param connections connections of the network, in order
+	 */
+	public ConnectionArray(List<Connection> connections) {
+		this.connections = new Connection[connections.size()];
+		int i = 0;
+		for (Connection c : connections) {
+			this.connections[i] = c;
+			i++;
+		}
+		size = i;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Connection get(int edge) {
+		return connections[edge];
+	}
+
+	@Override
+	public String id(int edge) {
+		return connections[edge].getId();
+	}
+
+	@Override
+	public String firstPerson(int edge) {
+		return connections[edge].getPeople()[0];
+	}
+
+	@Override
+	public String secondPerson(int edge) {
+		return connections[edge].getPeople()[1];
+	}
+
+	@Override
+	public long date(int edge) {
+		return connections[edge].getDate().getTime();
+	}
+
+	@Override
+	public String platform(int edge) {
+		return connections[edge].getPlatform();
+	}
+
+	@Override
+	public int compareIds(int e1, int e2) {
+		return connections[e1].getId().compareTo(connections[e2].getId());
+	}
+
+	@Override
+	public ConnectionTable append(List<Connection> added) {
+		//Writes into the room at the end of the array if no other table has, or else into a copy with more room
+		int grownSize = size + added.size();
+		Connection[] grown = connections;
+		if (!claimTail() || grown.length < grownSize) {
+			grown = new Connection[Math.max(grownSize, size + (size >> 1))];
+			System.arraycopy(connections, 0, grown, 0, size);
+		}
+		int i = size;
+		for (Connection c : added) {
+			grown[i] = c;
+			i++;
+		}
+		return new ConnectionArray(grown, grownSize);
+	}
+
+	/**
+	 * Claims the room at the end of the array for a table appended to this one
+	 * @return true if no table had claimed it before
+	 */
+	private synchronized boolean claimTail() {
+		if (tailClaimed) {
+			return false;
+		}
+		tailClaimed = true;
+		return true;
+	}
+}
@@ -0,0 +1,138 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.data.Connection;
+
+/**
+ * Read-only List of the connections at a range of positions in an index
+ * column. The list does not copy the connections, so it is only a view over
+ * the index it was created from, and gets each connection from the
+ * ConnectionTable of the network when it is read. Methods that would change the list throw
+ * UnsupportedOperationException.
+ * @author Arnold Elamthuruthil
+ */
+public class ConnectionListView implements List<Connection> {
+	/** Connections of the network, by position */
+	private ConnectionTable connections;
+	/** Connection positions the view reads from */
+	private IntColumn positions;
+	/** First position of the view in positions */
+	private int from;
+	/** Number of connections in the view */
+	private int size;
+
+	/**
+	 * Creates a view of the connection positions at indexes from to to - 1 of a column
+	 * @param connections connections of the network, by position
+	 * @param positions connection positions the view reads from
+	 * @param from first position of the view
+	 * @param to position after the view
+	 */
+	public ConnectionListView(ConnectionTable connections, IntColumn positions, int from, int to) {
+		this.connections = connections;
+		this.positions = positions;
+		this.from = from;
+		this.size = to - from;
+	}
+
+	@Override
+	public Connection get(int index) {
+		checkIndex(index);
+		return connections.get(positions.get(from + index));
+	}
+
+	@Override
+	public Connection first() {
+		if (isEmpty()) {
+			throw new IndexOutOfBoundsException("The list is empty");
+		}
+		return get(0);
+	}
+
+	@Override
+	public Connection last() {
+		if (isEmpty()) {
+			throw new IndexOutOfBoundsException("The list is empty");
+		}
+		return get(size - 1);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Iterator<Connection> iterator() {
+		return new Iterator<Connection>() {
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+
+			@Override
+			public Connection next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return connections.get(positions.get(from + index++));
+			}
+		};
+	}
+
+	@Override
+	public void add(int index, Connection value) {
+		throw new UnsupportedOperationException("Connection views cannot be changed");
+	}
+
+	@Override
+	public void addFirst(Connection value) {
+		throw new UnsupportedOperationException("Connection views cannot be changed");
+	}
+
+	@Override
+	public void addLast(Connection value) {
+		throw new UnsupportedOperationException("Connection views cannot be changed");
+	}
+
+	@Override
+	public Connection remove(int index) {
+		throw new UnsupportedOperationException("Connection views cannot be changed");
+	}
+
+	@Override
+	public Connection removeFirst() {
+		throw new UnsupportedOperationException("Connection views cannot be changed");
+	}
+
+	@Override
+	public Connection removeLast() {
+		throw new UnsupportedOperationException("Connection views cannot be changed");
+	}
+
+	@Override
+	public Connection set(int index, Connection value) {
+		throw new UnsupportedOperationException("Connection views cannot be changed");
+	}
+
+	/**
+	 * Checks that an index is in the view
+	 * @param index index to check
+	 * @throws IndexOutOfBoundsException if the index is not in the view
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index is invalid: " + index + " (size=" + size + ")");
+		}
+	}
+}
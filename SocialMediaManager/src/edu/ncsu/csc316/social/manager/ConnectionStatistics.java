@@ -0,0 +1,187 @@
+package edu.ncsu.csc316.social.manager;
+
+import edu.ncsu.csc316.social.data.Connection;
+
+/**
+ * ConnectionStatistics holds the statistics of one part of a network, such as
+ * the whole network or the connections on one platform: the number of
+ * connections, the people with the most connections, how many people have
+ * each number of connections, the number of connections made in each year and
+ * the oldest and newest connections. People are numbered by rank and
+ * connections by their position in the network. NetworkStatistics builds them,
+ * and they are never changed once they are built.
+ * @author Arnold Elamthuruthil
+ */
+public class ConnectionStatistics {
+	/** Index the ranks and connection positions belong to */
+	private PersonIndex index;
+	/** Number of connections */
+	private int connections;
+	/** Ranks of the people with the most connections, most first */
+	private int[] topRanks;
+	/** Number of connections of each person in topRanks */
+	private long[] topDegrees;
+	/** Number of people with each number of connections */
+	private int[] histogram;
+	/** First year with a connection */
+	private int firstYear;
+	/** Number of connections made in each year from firstYear on */
+	private int[] years;
+	/** Positions of the oldest connections, oldest first */
+	private int[] oldest;
+	/** Positions of the newest connections, newest first */
+	private int[] newest;
+
+	/**
+	 * Creates a ConnectionStatistics from arrays built by NetworkStatistics
+	 * @param index index the ranks and connection positions belong to
+	 * @param connections number of connections
+	 * @param topRanks ranks of the people with the most connections, most first
+	 * @param topDegrees number of connections of each person in topRanks
+	 * @param histogram number of people with each number of connections
+	 * @param firstYear first year with a connection
+	 * @param years number of connections made in each year from firstYear on
+	 * @param oldest positions of the oldest connections, oldest first
+	 * @param newest positions of the newest connections, newest first
+	 */
+	ConnectionStatistics(PersonIndex index, int connections, int[] topRanks, long[] topDegrees, int[] histogram,
+			int firstYear, int[] years, int[] oldest, int[] newest) {
+		this.index = index;
+		this.connections = connections;
+		this.topRanks = topRanks;
+		this.topDegrees = topDegrees;
+		this.histogram = histogram;
+		this.firstYear = firstYear;
+		this.years = years;
+		this.oldest = oldest;
+		this.newest = newest;
+	}
+
+	/**
+	 * Returns the number of connections
+	 * @return number of connections
+	 */
+	public int getConnectionCount() {
+		return connections;
+	}
+
+	/**
+	 * Returns the number of people in the list of people with the most connections
+	 * @return number of top people, at most k
+	 */
+	public int getTopCount() {
+		return topRanks.length;
+	}
+
+	/**
+	 * Returns the rank of a person in the list of people with the most
+	 * connections. People with the same number are in rank order.
+	 * @param i position in the list, from 0
+	 * @return rank of the person
+	 */
+	public int getTopRank(int i) {
+		return topRanks[i];
+	}
+
+	/**
+	 * Returns the number of connections of a person in the list of people with
+	 * the most connections
+	 * @param i position in the list, from 0
+	 * @return number of connections of the person
+	 */
+	public int getTopDegree(int i) {
+		return (int) topDegrees[i];
+	}
+
+	/**
+	 * Returns the largest number of connections anyone has
+	 * @return largest number of connections of a person
+	 */
+	public int getMaxDegree() {
+		return histogram.length - 1;
+	}
+
+	/**
+	 * Returns the number of people with a number of connections
+	 * @param degree number of connections
+	 * @return number of people with exactly that many connections
+	 */
+	public int getPeopleWithDegree(int degree) {
+		if (degree < 0 || degree >= histogram.length) {
+			return 0;
+		}
+		return histogram[degree];
+	}
+
+	/**
+	 * Returns the first year a connection was made in
+	 * @return first year with a connection, or 0 if there are no connections
+	 */
+	public int getFirstYear() {
+		return firstYear;
+	}
+
+	/**
+	 * Returns the last year a connection was made in
+	 * @return last year with a connection, or -1 if there are no connections
+	 */
+	public int getLastYear() {
+		return firstYear + years.length - 1;
+	}
+
+	/**
+	 * Returns the number of connections made in a year, in the default time zone
+	 * @param year year to count
+	 * @return number of connections made in the year
+	 */
+	public int getConnectionsIn(int year) {
+		if (year < firstYear || year > getLastYear()) {
+			return 0;
+		}
+		return years[year - firstYear];
+	}
+
+	/**
+	 * Returns the number of oldest and of newest connections kept
+	 * @return number of oldest connections, which is also the number of newest
+	 */
+	public int getExtremeCount() {
+		return oldest.length;
+	}
+
+	/**
+	 * Returns one of the oldest connections
+	 * @param i position in the list of oldest connections, oldest first
+	 * @return the connection
+	 */
+	public Connection getOldest(int i) {
+		return index.connection(oldest[i]);
+	}
+
+	/**
+	 * Returns one of the newest connections
+	 * @param i position in the list of newest connections, newest first
+	 * @return the connection
+	 */
+	public Connection getNewest(int i) {
+		return index.connection(newest[i]);
+	}
+
+	/**
+	 * Returns the position in the network of one of the oldest connections
+	 * @param i position in the list of oldest connections, oldest first
+	 * @return position of the connection
+	 */
+	int oldestEdge(int i) {
+		return oldest[i];
+	}
+
+	/**
+	 * Returns the position in the network of one of the newest connections
+	 * @param i position in the list of newest connections, newest first
+	 * @return position of the connection
+	 */
+	int newestEdge(int i) {
+		return newest[i];
+	}
+}
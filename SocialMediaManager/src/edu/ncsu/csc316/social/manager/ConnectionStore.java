@@ -0,0 +1,485 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Date;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.social.data.Connection;
+
+/**
+ * ConnectionStore is a ConnectionTable that keeps the fields of every
+ * connection in fixed-width columns off the heap, so a network can have far
+ * more connections than would fit on the heap as Connection objects. Each
+ * connection takes 26 bytes: the int keys of its two people, its date as a
+ * long of epoch milliseconds, its id as a long and the short code of its
+ * platform. Usernames and platforms are dictionary-encoded, so each distinct
+ * name is kept once on the heap. Ids of up to eight ASCII characters are
+ * packed into the long itself in an order that compares like the Strings;
+ * any other id is interned in an array on the heap and the column holds its
+ * negated key. A Connection is only created when one is asked for, such as
+ * when a report lists it.
+ * The columns are direct ByteBuffers split into segments of at most 2^20
+ * connections, each segment holding every column of its connections one
+ * column after another, so no buffer is near the 2 GB limit of a buffer.
+ * Direct memory is limited by -XX:MaxDirectMemorySize, which is the maximum
+ * heap size unless it is set, and is freed when the store is collected.
+ * A store is filled by one thread with add before it is shared. After that
+ * the connections it sees are never changed, but its columns and
+ * dictionaries are shared with the stores appended from it: append writes
+ * new connections after the last one of this store and returns a new store
+ * that sees them. Appending may grow the arrays of segments, usernames,
+ * platforms and ids while other threads read the older store, so a grown
+ * array is filled before it is stored in its volatile field. A reader then
+ * either sees the old array or a complete copy of it, and never reads past
+ * the connections and names its own store was published with.
+ * Only the connections themselves move off the heap. PersonIndex and
+ * PlatformIndex still keep about 36 bytes of int and long arrays on the heap
+ * for each connection, including a copy of its date in each index so they
+ * can compare dates without reading the columns, and building a
+ * PlatformIndex briefly creates one entry object per connection. On a
+ * generated network of a million connections and 100,000 people, the heap
+ * held about 390 bytes per connection with the connections on the heap and
+ * about 100 with them in a store, the rest being the indexes, the people
+ * and the dictionaries.
+ * @author Arnold Elamthuruthil
+ */
+public class ConnectionStore implements ConnectionTable {
+	/** Number of bytes of each connection's columns */
+	private static final int ROW_BYTES = 26;
+	/** Log2 of the fewest connections in a segment */
+	private static final int MIN_SEGMENT_SHIFT = 10;
+	/** Log2 of the most connections in a segment */
+	private static final int MAX_SEGMENT_SHIFT = 20;
+	/** Longest id that is packed into its column */
+	private static final int MAX_PACKED_LENGTH = 8;
+	/** Largest number of platforms a short code can hold */
+	private static final int MAX_PLATFORMS = 1 << 16;
+	/** Value pack returns for an id that cannot be packed */
+	private static final long NOT_PACKED = -1;
+
+	/** Columns and dictionaries, shared with the stores appended from this one */
+	private Columns columns;
+	/** Number of connections of this store */
+	private int size;
+
+	/**
+	 * Creates an empty store that add fills in
+	 * @param factory factory of the maps of the dictionaries
+	 * @param expected number of connections expected, which sets the size of the segments
+	 */
+	public ConnectionStore(DataStructureFactory factory, int expected) {
+		this(new Columns(factory, expected), 0);
+	}
+
+	/**
+	 * Creates a store of the first connections of some columns
+	 * @param columns columns of the connections
+	 * @param size number of connections of the store
+	 */
+	private ConnectionStore(Columns columns, int size) {
+		this.columns = columns;
+		this.size = size;
+	}
+
+	/**
+	 * Adds a connection to a store that is being filled
+	 * @param id id of the connection
+	 * @param first username of the first person
+	 * @param second username of the second person
+	 * @param date date of the connection in epoch milliseconds
+	 * @param platform name of the platform
+	 * @throws IllegalArgumentException if the store would have more platforms than a short code can hold
+	 */
+	void add(String id, String first, String second, long date, String platform) {
+		columns.put(size, columns.personKey(first), columns.personKey(second), date, columns.idValue(id),
+				columns.platformCode(platform));
+		size++;
+	}
+
+	/**
+	 * Returns one store of the connections of some stores, in order
+	 * @param parts stores to join, in order
+	 * @param factory factory of the maps of the dictionaries
+	 * @return store of every connection of the parts
+	 */
+	static ConnectionStore join(ConnectionStore[] parts, DataStructureFactory factory) {
+		if (parts.length == 1) {
+			return parts[0];
+		}
+		int total = 0;
+		for (ConnectionStore part : parts) {
+			total += part.size;
+		}
+		ConnectionStore joined = new ConnectionStore(factory, total);
+		for (ConnectionStore part : parts) {
+			joined.copyRows(part, part.size);
+		}
+		return joined;
+	}
+
+	/**
+	 * Adds every connection of another store to a store that is being filled,
+	 * in order
+	 * @param from store to add the connections of
+	 * @throws IllegalArgumentException if the store would have more platforms than a short code can hold
+	 */
+	void addAll(ConnectionStore from) {
+		copyRows(from, from.size);
+	}
+
+	/**
+	 * Copies the first connections of a store after the connections of this
+	 * one, translating the keys of its dictionaries into this store's
+	 * @param from store to copy from
+	 * @param count number of connections to copy
+	 */
+	private void copyRows(ConnectionStore from, int count) {
+		Columns source = from.columns;
+		int[] people = new int[source.peopleCount];
+		for (int key = 0; key < people.length; key++) {
+			people[key] = columns.personKey(source.people[key]);
+		}
+		int[] platforms = new int[source.platformCount];
+		for (int code = 0; code < platforms.length; code++) {
+			platforms[code] = columns.platformCode(source.platforms[code]);
+		}
+		for (int edge = 0; edge < count; edge++) {
+			long id = source.idAt(edge);
+			if (id < 0) {
+				id = columns.intern(source.ids[(int) -(id + 1)]);
+			}
+			columns.put(size, people[source.firstAt(edge)], people[source.secondAt(edge)], source.dateAt(edge),
+					id, platforms[source.platformAt(edge)]);
+			size++;
+		}
+	}
+
+	/**
+	 * Returns the number of bytes of direct memory the columns of this store use
+	 * @return bytes of direct memory
+	 */
+	public long getOffHeapBytes() {
+		return (long) columns.segmentCount * (ROW_BYTES << columns.shift);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Connection get(int edge) {
+		Columns c = columns;
+		return new Connection(id(edge), new String[] { c.people[c.firstAt(edge)], c.people[c.secondAt(edge)] },
+				new Date(c.dateAt(edge)), c.platforms[c.platformAt(edge)]);
+	}
+
+	@Override
+	public String firstPerson(int edge) {
+		return columns.people[columns.firstAt(edge)];
+	}
+
+	@Override
+	public String secondPerson(int edge) {
+		return columns.people[columns.secondAt(edge)];
+	}
+
+	@Override
+	public long date(int edge) {
+		return columns.dateAt(edge);
+	}
+
+	@Override
+	public String platform(int edge) {
+		return columns.platforms[columns.platformAt(edge)];
+	}
+
+	@Override
+	public int compareIds(int e1, int e2) {
+		long id1 = columns.idAt(e1);
+		long id2 = columns.idAt(e2);
+		if (id1 >= 0 && id2 >= 0) {
+			return Long.compare(id1, id2);
+		}
+		return id(e1).compareTo(id(e2));
+	}
+
+	@Override
+	public String id(int edge) {
+		long id = columns.idAt(edge);
+		if (id < 0) {
+			return columns.ids[(int) -(id + 1)];
+		}
+		return unpack(id);
+	}
+
+	/**
+	 * Returns a store of the connections of this store followed by new
+	 * connections. If nothing has been appended to this store's columns, the
+	 * new connections are written after its last connection and the columns
+	 * are shared, so only the new connections are written. Otherwise the
+	 * connections of this store are copied to new columns first.
+	 * @param added connections to add, in order
+	 * @return store of both
+	 */
+	@Override
+	public ConnectionTable append(List<Connection> added) {
+		ConnectionStore grown;
+		synchronized (columns) {
+			if (columns.written == size) {
+				grown = new ConnectionStore(columns, size);
+			} else {
+				grown = new ConnectionStore(columns.factory, size + added.size());
+				grown.copyRows(this, size);
+			}
+			for (Connection c : added) {
+				grown.add(c.getId(), c.getPeople()[0], c.getPeople()[1], c.getDate().getTime(), c.getPlatform());
+			}
+		}
+		return grown;
+	}
+
+	/**
+	 * Packs an id of up to eight ASCII characters into a long, one byte per
+	 * character from the highest byte down, so packed ids compare like the Strings
+	 * @param id id to pack
+	 * @return packed id, or NOT_PACKED if the id is too long or has other characters
+	 */
+	static long pack(String id) {
+		if (id.length() > MAX_PACKED_LENGTH) {
+			return NOT_PACKED;
+		}
+		long packed = 0;
+		for (int i = 0; i < MAX_PACKED_LENGTH; i++) {
+			int c = 0;
+			if (i < id.length()) {
+				c = id.charAt(i);
+				if (c == 0 || c > Byte.MAX_VALUE) {
+					return NOT_PACKED;
+				}
+			}
+			packed = packed << Byte.SIZE | c;
+		}
+		return packed;
+	}
+
+	/**
+	 * Returns the id packed into a long
+	 * @param packed packed id
+	 * @return the id
+	 */
+	static String unpack(long packed) {
+		char[] id = new char[MAX_PACKED_LENGTH];
+		int length = 0;
+		for (int i = MAX_PACKED_LENGTH - 1; i >= 0; i--) {
+			char c = (char) (packed >>> (i * Byte.SIZE) & 0xFF);
+			if (c == 0) {
+				break;
+			}
+			id[length++] = c;
+		}
+		return new String(id, 0, length);
+	}
+
+	/**
+	 * Off-heap columns of connections and the dictionaries of their names,
+	 * which stores made from one another share
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class Columns {
+		/** Factory of the maps of the dictionaries */
+		private DataStructureFactory factory;
+		/** Log2 of the number of connections in a segment */
+		private int shift;
+		/** Mask of the position of a connection inside its segment */
+		private int mask;
+		/** Segments of the columns, each holding every column of its connections, replaced by a filled copy when it grows */
+		private volatile ByteBuffer[] segments = new ByteBuffer[1];
+		/** Number of segments allocated */
+		private int segmentCount;
+		/** Number of connections written */
+		private int written;
+		/** Usernames, by key, replaced by a filled copy when it grows */
+		private volatile String[] people = new String[16];
+		/** Number of usernames */
+		private int peopleCount;
+		/** Map of each username to its key */
+		private Map<String, Integer> personKeys;
+		/** Platform names, by code, replaced by a filled copy when it grows */
+		private volatile String[] platforms = new String[4];
+		/** Number of platforms */
+		private int platformCount;
+		/** Map of each platform name to its code */
+		private Map<String, Integer> platformCodes;
+		/** Ids that are not packed, by key, replaced by a filled copy when it grows */
+		private volatile String[] ids = new String[0];
+		/** Number of ids that are not packed */
+		private int idCount;
+
+		/**
+		 * Creates empty columns
+		 * @param factory factory of the maps of the dictionaries
+		 * @param expected number of connections expected
+		 */
+		Columns(DataStructureFactory factory, int expected) {
+			this.factory = factory;
+			shift = MIN_SEGMENT_SHIFT;
+			while (shift < MAX_SEGMENT_SHIFT && 1 << shift < expected) {
+				shift++;
+			}
+			mask = (1 << shift) - 1;
+			personKeys = factory.getMap();
+			platformCodes = factory.getMap();
+		}
+
+		/**
+		 * Writes a connection
+		 * @param edge position of the connection
+		 * @param first key of the first person
+		 * @param second key of the second person
+		 * @param date date in epoch milliseconds
+		 * @param id packed id, or the negated key of the id plus one
+		 * @param platform code of the platform
+		 */
+		void put(int edge, int first, int second, long date, long id, int platform) {
+			int segment = edge >>> shift;
+			if (segment == segmentCount) {
+				if (segmentCount == segments.length) {
+					ByteBuffer[] grown = new ByteBuffer[segments.length * 2];
+					System.arraycopy(segments, 0, grown, 0, segmentCount);
+					segments = grown;
+				}
+				segments[segmentCount++] = ByteBuffer.allocateDirect(ROW_BYTES << shift)
+						.order(ByteOrder.nativeOrder());
+			}
+			ByteBuffer buffer = segments[segment];
+			int row = edge & mask;
+			buffer.putInt(row << 2, first);
+			buffer.putInt((4 << shift) + (row << 2), second);
+			buffer.putLong((8 << shift) + (row << 3), date);
+			buffer.putLong((16 << shift) + (row << 3), id);
+			buffer.putShort((24 << shift) + (row << 1), (short) platform);
+			written = edge + 1;
+		}
+
+		/**
+		 * Returns the key of the first person of a connection
+		 * @param edge position of the connection
+		 * @return key of the username
+		 */
+		int firstAt(int edge) {
+			return segments[edge >>> shift].getInt((edge & mask) << 2);
+		}
+
+		/**
+		 * Returns the key of the second person of a connection
+		 * @param edge position of the connection
+		 * @return key of the username
+		 */
+		int secondAt(int edge) {
+			return segments[edge >>> shift].getInt((4 << shift) + ((edge & mask) << 2));
+		}
+
+		/**
+		 * Returns the date of a connection
+		 * @param edge position of the connection
+		 * @return date in epoch milliseconds
+		 */
+		long dateAt(int edge) {
+			return segments[edge >>> shift].getLong((8 << shift) + ((edge & mask) << 3));
+		}
+
+		/**
+		 * Returns the id column of a connection
+		 * @param edge position of the connection
+		 * @return packed id, or the negated key of the id plus one
+		 */
+		long idAt(int edge) {
+			return segments[edge >>> shift].getLong((16 << shift) + ((edge & mask) << 3));
+		}
+
+		/**
+		 * Returns the platform code of a connection
+		 * @param edge position of the connection
+		 * @return code of the platform
+		 */
+		int platformAt(int edge) {
+			return segments[edge >>> shift].getShort((24 << shift) + ((edge & mask) << 1)) & 0xFFFF;
+		}
+
+		/**
+		 * Returns the key of a username, giving it the next key if it is new
+		 * @param name username
+		 * @return key of the username
+		 */
+		int personKey(String name) {
+			Integer key = personKeys.get(name);
+			if (key == null) {
+				key = peopleCount;
+				personKeys.put(name, key);
+				if (peopleCount == people.length) {
+					String[] grown = new String[people.length * 2];
+					System.arraycopy(people, 0, grown, 0, peopleCount);
+					people = grown;
+				}
+				people[peopleCount++] = name;
+			}
+			return key;
+		}
+
+		/**
+		 * Returns the code of a platform, giving it the next code if it is new
+		 * @param name platform name
+		 * @return code of the platform
+		 * @throws IllegalArgumentException if there are more platforms than a short code can hold
+		 */
+		int platformCode(String name) {
+			Integer code = platformCodes.get(name);
+			if (code == null) {
+				if (platformCount == MAX_PLATFORMS) {
+					throw new IllegalArgumentException("More than " + MAX_PLATFORMS + " platforms");
+				}
+				code = platformCount;
+				platformCodes.put(name, code);
+				if (platformCount == platforms.length) {
+					String[] grown = new String[platforms.length * 2];
+					System.arraycopy(platforms, 0, grown, 0, platformCount);
+					platforms = grown;
+				}
+				platforms[platformCount++] = name;
+			}
+			return code;
+		}
+
+		/**
+		 * Returns the value of the id column for an id
+		 * @param id id of a connection
+		 * @return packed id, or the negated key of the interned id plus one
+		 */
+		long idValue(String id) {
+			long packed = pack(id);
+			if (packed == NOT_PACKED) {
+				return intern(id);
+			}
+			return packed;
+		}
+
+		/**
+		 * Interns an id that cannot be packed
+		 * @param id id of a connection
+		 * @return negated key of the id plus one
+		 */
+		long intern(String id) {
+			if (idCount == ids.length) {
+				String[] grown = new String[Math.max(16, ids.length * 2)];
+				System.arraycopy(ids, 0, grown, 0, idCount);
+				ids = grown;
+			}
+			ids[idCount] = id;
+			idCount++;
+			return -idCount;
+		}
+	}
+}
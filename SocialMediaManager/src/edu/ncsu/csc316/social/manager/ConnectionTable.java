@@ -0,0 +1,82 @@
+package edu.ncsu.csc316.social.manager;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.data.Connection;
+
+/**
+ * ConnectionTable holds the connections of a network by position, which is
+ * their order in the connection file. The indexes of a network read the
+ * fields they sort and group by from the table, and only ask for a Connection
+ * when one is listed. A ConnectionArray keeps Connection objects on the heap,
+ * a ConnectionStore keeps the fields in off-heap columns, and a
+ * MappedConnections reads them from a mapped snapshot file. The last two
+ * create a Connection each time one is asked for. A table is never changed once it
+ * is built, so it can be read by any number of threads.
+ * @author Arnold Elamthuruthil
+ */
+public interface ConnectionTable {
+
+	/**
+	 * Returns the number of connections
+	 * @return number of connections
+	 */
+	int size();
+
+	/**
+	 * Returns the connection at a position
+	 * @param edge position of the connection
+	 * @return the connection
+	 */
+	Connection get(int edge);
+
+	/**
+	 * Returns the id of a connection
+	 * @param edge position of the connection
+	 * @return id of the connection
+	 */
+	String id(int edge);
+
+	/**
+	 * Returns the username of the first person of a connection
+	 * @param edge position of the connection
+	 * @return username of the first person
+	 */
+	String firstPerson(int edge);
+
+	/**
+	 * Returns the username of the second person of a connection
+	 * @param edge position of the connection
+	 * @return username of the second person
+	 */
+	String secondPerson(int edge);
+
+	/**
+	 * Returns the date of a connection
+	 * @param edge position of the connection
+	 * @return date of the connection in epoch milliseconds
+	 */
+	long date(int edge);
+
+	/**
+	 * Returns the platform of a connection
+	 * @param edge position of the connection
+	 * @return name of the platform
+	 */
+	String platform(int edge);
+
+	/**
+	 * Compares the ids of two connections in the order of String.compareTo
+	 * @param e1 position of the first connection
+	 * @param e2 position of the second connection
+	 * @return negative, zero or positive as the first id comes before, with or after the second
+	 */
+	int compareIds(int e1, int e2);
+
+	/**
+	 * Returns a table of the connections of this table followed by new
+	 * connections. This table is not changed.
+	 * @param added connections to add, in order
+	 * @return table of both
+	 */
+	ConnectionTable append(List<Connection> added);
+}
@@ -0,0 +1,210 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.util.Comparator;
+
+import edu.ncsu.csc316.dsa.data.Identifiable;
+import edu.ncsu.csc316.dsa.list.ArrayBasedList;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.list.SinglyLinkedList;
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.dsa.map.SearchTableMap;
+import edu.ncsu.csc316.dsa.map.SkipListMap;
+import edu.ncsu.csc316.dsa.map.UnorderedLinkedMap;
+import edu.ncsu.csc316.dsa.sorter.BubbleSorter;
+import edu.ncsu.csc316.dsa.sorter.CountingSorter;
+import edu.ncsu.csc316.dsa.sorter.InsertionSorter;
+import edu.ncsu.csc316.dsa.sorter.MergeSorter;
+import edu.ncsu.csc316.dsa.sorter.QuickSorter;
+import edu.ncsu.csc316.dsa.sorter.RadixSorter;
+import edu.ncsu.csc316.dsa.sorter.SelectionSorter;
+import edu.ncsu.csc316.dsa.sorter.Sorter;
+import edu.ncsu.csc316.social.dsa.Algorithm;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * DataStructureFactory creates the maps, lists and sorters a manager uses.
+ * It makes the same choices as DSAFactory, but the types are fields of the
+ * factory instead of static fields, so managers with different types can be
+ * built and used at the same time on different threads. A factory cannot be
+ * changed once it is created, so it can be shared by any number of threads.
+ * A factory also says whether the connections of a network are kept on the
+ * heap as Connection objects or in the off-heap columns of a ConnectionStore.
+ * @author Arnold Elamthuruthil
+ */
+public class DataStructureFactory {
+	/** Type of map */
+	private DataStructure mapType;
+	/** Type of indexed list */
+	private DataStructure listType;
+	/** Type of comparison-based sorter */
+	private Algorithm comparisonSorterType;
+	/** Type of non-comparison-based sorter */
+	private Algorithm nonComparisonSorterType;
+	/** Whether connections are kept in an off-heap ConnectionStore */
+	private boolean offHeapConnections;
+
+	/**
+	 * Creates a factory with the given map type, array-based lists, quicksort
+	 * and counting sort, the types the managers have always used
+	 * @param mapType type of map
+	 */
+	public DataStructureFactory(DataStructure mapType) {
+		this(mapType, DataStructure.ARRAYBASEDLIST, Algorithm.QUICKSORT, Algorithm.COUNTING_SORT);
+	}
+
+	/**
+	 * Creates a factory with the given types
+	 * @param mapType type of map
+	 * @param listType type of indexed list
+	 * @param comparisonSorterType type of comparison-based sorter
+	 * @param nonComparisonSorterType type of non-comparison-based sorter
+	 * @throws IllegalArgumentException if a type is null or is not a type of that kind
+	 */
+	public DataStructureFactory(DataStructure mapType, DataStructure listType, Algorithm comparisonSorterType,
+			Algorithm nonComparisonSorterType) {
+		if (mapType != DataStructure.SKIPLIST && mapType != DataStructure.SEARCHTABLE
+				&& mapType != DataStructure.UNORDEREDLINKEDMAP) {
+			throw new IllegalArgumentException("Not a type of map: " + mapType);
+		}
+		if (listType != DataStructure.ARRAYBASEDLIST && listType != DataStructure.SINGLYLINKEDLIST) {
+			throw new IllegalArgumentException("Not a type of list: " + listType);
+		}
+		if (comparisonSorterType == null || comparisonSorterType == Algorithm.COUNTING_SORT
+				|| comparisonSorterType == Algorithm.RADIX_SORT) {
+			throw new IllegalArgumentException("Not a comparison-based sorter: " + comparisonSorterType);
+		}
+		if (nonComparisonSorterType != Algorithm.COUNTING_SORT && nonComparisonSorterType != Algorithm.RADIX_SORT) {
+			throw new IllegalArgumentException("Not a non-comparison-based sorter: " + nonComparisonSorterType);
+		}
+		this.mapType = mapType;
+		this.listType = listType;
+		this.comparisonSorterType = comparisonSorterType;
+		this.nonComparisonSorterType = nonComparisonSorterType;
+	}
+
+	/**
+	 * Returns a new factory with the same types except for the comparison-based sorter
+	 * @param sorterType type of comparison-based sorter
+	 * @return factory with the sorter type
+	 */
+	public DataStructureFactory withComparisonSorter(Algorithm sorterType) {
+		DataStructureFactory factory = new DataStructureFactory(mapType, listType, sorterType,
+				nonComparisonSorterType);
+		factory.offHeapConnections = offHeapConnections;
+		return factory;
+	}
+
+	/**
+	 * Returns a new factory with the same types that keeps connections on or off the heap
+	 * @param offHeap true to keep connections in an off-heap ConnectionStore
+	 * @return factory with the connection storage
+	 */
+	public DataStructureFactory withOffHeapConnections(boolean offHeap) {
+		DataStructureFactory factory = new DataStructureFactory(mapType, listType, comparisonSorterType,
+				nonComparisonSorterType);
+		factory.offHeapConnections = offHeap;
+		return factory;
+	}
+
+	/**
+	 * Returns the type of map
+	 * @return type of map
+	 */
+	public DataStructure getMapType() {
+		return mapType;
+	}
+
+	/**
+	 * Returns the type of indexed list
+	 * @return type of indexed list
+	 */
+	public DataStructure getListType() {
+		return listType;
+	}
+
+	/**
+	 * Returns the type of comparison-based sorter
+	 * @return type of comparison-based sorter
+	 */
+	public Algorithm getComparisonSorterType() {
+		return comparisonSorterType;
+	}
+
+	/**
+	 * Returns the type of non-comparison-based sorter
+	 * @return type of non-comparison-based sorter
+	 */
+	public Algorithm getNonComparisonSorterType() {
+		return nonComparisonSorterType;
+	}
+
+	/**
+	 * Returns whether connections are kept in an off-heap ConnectionStore
+	 * @return true if connections are kept off the heap
+	 */
+	public boolean isOffHeapConnections() {
+		return offHeapConnections;
+	}
+
+	/**
+	 * Returns a new empty map that orders its keys by their natural order
+	 * @param <K> type of the keys
+	 * @param <V> type of the values
+	 * @return the new map
+	 */
+	public <K extends Comparable<K>, V> Map<K, V> getMap() {
+		switch (mapType) {
+			case SKIPLIST:
+				return new SkipListMap<K, V>(null);
+			case SEARCHTABLE:
+				return new SearchTableMap<K, V>(null);
+			default:
+				return new UnorderedLinkedMap<K, V>();
+		}
+	}
+
+	/**
+	 * Returns a new empty indexed list
+	 * @param <E> type of the elements
+	 * @return the new list
+	 */
+	public <E> List<E> getIndexedList() {
+		if (listType == DataStructure.SINGLYLINKEDLIST) {
+			return new SinglyLinkedList<E>();
+		}
+		return new ArrayBasedList<E>();
+	}
+
+	/**
+	 * Returns a new comparison-based sorter
+	 * @param <E> type of the elements
+	 * @param comparator comparator of the elements, or null for their natural order
+	 * @return the new sorter
+	 */
+	public <E extends Comparable<E>> Sorter<E> getComparisonSorter(Comparator<E> comparator) {
+		switch (comparisonSorterType) {
+			case BUBBLE_SORT:
+				return new BubbleSorter<E>(comparator);
+			case INSERTION_SORT:
+				return new InsertionSorter<E>(comparator);
+			case SELECTION_SORT:
+				return new SelectionSorter<E>(comparator);
+			case MERGESORT:
+				return new MergeSorter<E>(comparator);
+			default:
+				return new QuickSorter<E>(comparator);
+		}
+	}
+
+	/**
+	 * Returns a new non-comparison-based sorter, which sorts by id
+	 * @param <E> type of the elements
+	 * @return the new sorter
+	 */
+	public <E extends Identifiable> Sorter<E> getNonComparisonSorter() {
+		if (nonComparisonSorterType == Algorithm.RADIX_SORT) {
+			return new RadixSorter<E>();
+		}
+		return new CountingSorter<E>();
+	}
+}
@@ -0,0 +1,73 @@
+package edu.ncsu.csc316.social.manager;
+
+/**
+ * IntColumn is a read-only column of ints that the indexes of a network read
+ * by position. A column an index builds is an int array on the heap, and a
+ * column of a loaded snapshot reads its ints straight from the mapped file,
+ * so loading a snapshot does not copy its index arrays onto the heap.
+ * @author Arnold Elamthuruthil
+ */
+public abstract class IntColumn {
+
+	/**
+	 * Returns a column of the ints of an array, which is not copied
+	 * @param values ints of the column
+	 * @return column of the ints
+	 */
+	public static IntColumn of(int[] values) {
+		return new HeapInts(values);
+	}
+
+	/**
+	 * Returns the int at a position
+	 * @param i position of the int
+	 * @return the int
+	 */
+	public abstract int get(int i);
+
+	/**
+	 * Returns the number of ints of the column
+	 * @return number of ints
+	 */
+	public abstract int length();
+
+	/**
+	 * Returns the ints of the column in an array on the heap. A column on the
+	 * heap returns its own array, which must not be changed where the column
+	 * can read it, and any other column copies its ints into a new array.
+	 * @return ints of the column
+	 */
+	abstract int[] heapArray();
+
+	/**
+	 * Column of the ints of an array on the heap
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class HeapInts extends IntColumn {
+		/** Ints of the column */
+		private int[] values;
+
+		/**
+		 * Creates a column of the ints of an array
+		 * @param values ints of the column
+		 */
+		HeapInts(int[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public int get(int i) {
+			return values[i];
+		}
+
+		@Override
+		public int length() {
+			return values.length;
+		}
+
+		@Override
+		int[] heapArray() {
+			return values;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package edu.ncsu.csc316.social.manager;
+
+/**
+ * LongColumn is a read-only column of longs that the indexes of a network
+ * read by position, such as the dates of the connections. A column an index
+ * builds is a long array on the heap, and a column of a loaded snapshot reads
+ * its longs straight from the mapped file.
+ * @author Arnold Elamthuruthil
+ */
+public abstract class LongColumn {
+
+	/**
+	 * Returns a column of the longs of an array, which is not copied
+	 * @param values longs of the column
+	 * @return column of the longs
+	 */
+	public static LongColumn of(long[] values) {
+		return new HeapLongs(values);
+	}
+
+	/**
+	 * Returns the long at a position
+	 * @param i position of the long
+	 * @return the long
+	 */
+	public abstract long get(int i);
+
+	/**
+	 * Returns the number of longs of the column
+	 * @return number of longs
+	 */
+	public abstract int length();
+
+	/**
+	 * Returns the longs of the column in an array on the heap. A column on the
+	 * heap returns its own array, which must not be changed where the column
+	 * can read it, and any other column copies its longs into a new array.
+	 * @return longs of the column
+	 */
+	abstract long[] heapArray();
+
+	/**
+	 * Column of the longs of an array on the heap
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class HeapLongs extends LongColumn {
+		/** Longs of the column */
+		private long[] values;
+
+		/**
+		 * Creates a column of the longs of an array
+		 * @param values longs of the column
+		 */
+		HeapLongs(long[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public long get(int i) {
+			return values[i];
+		}
+
+		@Override
+		public int length() {
+			return values.length;
+		}
+
+		@Override
+		long[] heapArray() {
+			return values;
+		}
+	}
+}
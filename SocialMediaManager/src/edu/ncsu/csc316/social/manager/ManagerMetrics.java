@@ -0,0 +1,354 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * ManagerMetrics records where the time of loading a network and rendering
+ * its reports goes: parsing the files, building the people map, ranking the
+ * people, bucketing and sorting the person index, building the platform index,
+ * building the maps of a state and rendering reports. Each of these phases is
+ * timed as a whole, and the sorts count their comparisons in plain fields
+ * that are added to the totals once the sort is done, so the cost is a few
+ * adds per phase, never per record.
+ * Every phase is committed as a JFR event when a recording has the event
+ * enabled, and its totals are kept in LongAdders that the one ManagerMetrics
+ * instance shows as a JMX MBean. Totals are only kept while the metrics are
+ * enabled, which they are if the socialmedia.metrics system property is true
+ * or a JMX client turns them on. When neither is on, a phase costs one
+ * volatile read and one check of the JFR event.
+ * @author Arnold Elamthuruthil
+ */
+public class ManagerMetrics implements ManagerMetricsMBean {
+	/** Name the MBean is registered under */
+	public static final String OBJECT_NAME = "edu.ncsu.csc316.social.manager:type=ManagerMetrics";
+	/** System property that turns the metrics on when the class is loaded */
+	public static final String ENABLED_PROPERTY = "socialmedia.metrics";
+
+	/** The only instance, which holds every total */
+	private static final ManagerMetrics INSTANCE = new ManagerMetrics();
+
+	/** Whether totals are kept */
+	private static volatile boolean enabled;
+
+	static {
+		if (Boolean.getBoolean(ENABLED_PROPERTY)) {
+			enabled = true;
+			register();
+		}
+	}
+
+	/** Number of times each phase ran */
+	private final LongAdder[] runs = adders();
+	/** Time spent in each phase in nanoseconds */
+	private final LongAdder[] nanos = adders();
+	/** Records, connections or chars handled by each phase */
+	private final LongAdder[] items = adders();
+	/** Comparisons made by each phase */
+	private final LongAdder[] comparisons = adders();
+	/** Bytes of input read by each phase */
+	private final LongAdder[] bytes = adders();
+
+	/**
+	 * Phase of loading a network or rendering a report that is timed
+	 * @author Arnold Elamthuruthil
+	 */
+	enum Phase {
+		/** Parsing a people or connection file */
+		PARSE("Parse"),
+		/** Building the map of people by username */
+		PEOPLE_MAP("People map"),
+		/** Sorting people into their ranking */
+		RANKING("Ranking"),
+		/** Placing connections in each person's slice of the person index */
+		BUCKETING("Bucketing"),
+		/** Sorting each person's slice of connections */
+		PERSON_SORT("Person sort"),
+		/** Scanning, sorting and bucketing connections by platform */
+		PLATFORM_INDEX("Platform index"),
+		/** Building the maps of connections by person and by platform */
+		STATE_MAPS("State maps"),
+		/** Rendering or writing a report */
+		REPORT("Report");
+
+		/** Name of the phase in JFR events */
+		private final String label;
+
+		/**
+		 * Creates a Phase
+		 * @param label name of the phase in JFR events
+		 */
+		Phase(String label) {
+			this.label = label;
+		}
+	}
+
+	/**
+	 * Creates the ManagerMetrics instance
+	 */
+	private ManagerMetrics() {
+		//Only INSTANCE is created
+	}
+
+	/**
+	 * Returns the one ManagerMetrics instance
+	 * @return the metrics of the process
+	 */
+	public static ManagerMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server, so JMX clients can
+	 * read them and turn them on or off. Registering more than once does nothing.
+	 */
+	public static void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			server.registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+		} catch (InstanceAlreadyExistsException e) {
+			//Already registered
+		} catch (JMException e) {
+			throw new IllegalStateException("Unable to register metrics: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Returns the start time of a phase, or 0 if neither the metrics nor the
+	 * JFR event are on, so the phase is not timed
+	 * @return start time from System.nanoTime, or 0
+	 */
+	static long start() {
+		if (enabled || new PhaseEvent().isEnabled()) {
+			return System.nanoTime();
+		}
+		return 0;
+	}
+
+	/**
+	 * Records a phase that has finished
+	 * @param phase phase that finished
+	 * @param start start time returned by start
+	 * @param count number of records, connections or chars the phase handled
+	 * @param compared number of comparisons the phase made
+	 */
+	static void record(Phase phase, long start, long count, long compared) {
+		if (start != 0) {
+			add(phase, System.nanoTime() - start, count, compared, 0);
+		}
+	}
+
+	/**
+	 * Records the parse of a file that has finished
+	 * @param start start time returned by start
+	 * @param records number of records read from the file
+	 * @param read number of bytes of the file
+	 */
+	static void recordParse(long start, long records, long read) {
+		if (start != 0) {
+			add(Phase.PARSE, System.nanoTime() - start, records, 0, read);
+		}
+	}
+
+	/**
+	 * Records a phase that ran in pieces, as the total time of its pieces
+	 * @param phase phase that finished
+	 * @param elapsed time the pieces took in nanoseconds
+	 * @param count number of records, connections or chars the phase handled
+	 * @param compared number of comparisons the phase made
+	 */
+	static void recordElapsed(Phase phase, long elapsed, long count, long compared) {
+		add(phase, elapsed, count, compared, 0);
+	}
+
+	/**
+	 * Adds a finished phase to the totals and commits its JFR event
+	 * @param phase phase that finished
+	 * @param elapsed time the phase took in nanoseconds
+	 * @param count number of records, connections or chars the phase handled
+	 * @param compared number of comparisons the phase made
+	 * @param read number of bytes of input the phase read
+	 */
+	private static void add(Phase phase, long elapsed, long count, long compared, long read) {
+		if (enabled) {
+			int i = phase.ordinal();
+			INSTANCE.runs[i].increment();
+			INSTANCE.nanos[i].add(elapsed);
+			INSTANCE.items[i].add(count);
+			INSTANCE.comparisons[i].add(compared);
+			INSTANCE.bytes[i].add(read);
+		}
+		PhaseEvent event = new PhaseEvent();
+		if (event.shouldCommit()) {
+			event.phase = phase.label;
+			event.elapsed = elapsed;
+			event.items = count;
+			event.comparisons = compared;
+			event.bytes = read;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Returns one LongAdder for each phase
+	 * @return new adders, by phase
+	 */
+	private static LongAdder[] adders() {
+		LongAdder[] adders = new LongAdder[Phase.values().length];
+		for (int i = 0; i < adders.length; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		ManagerMetrics.enabled = enabled;
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < runs.length; i++) {
+			runs[i].reset();
+			nanos[i].reset();
+			items[i].reset();
+			comparisons[i].reset();
+			bytes[i].reset();
+		}
+	}
+
+	@Override
+	public long getRecordsParsed() {
+		return items[Phase.PARSE.ordinal()].sum();
+	}
+
+	@Override
+	public long getBytesParsed() {
+		return bytes[Phase.PARSE.ordinal()].sum();
+	}
+
+	@Override
+	public long getParseNanos() {
+		return nanos[Phase.PARSE.ordinal()].sum();
+	}
+
+	@Override
+	public double getParseRecordsPerSecond() {
+		long time = getParseNanos();
+		if (time == 0) {
+			return 0;
+		}
+		return getRecordsParsed() * 1e9 / time;
+	}
+
+	@Override
+	public long getPeopleMapNanos() {
+		return nanos[Phase.PEOPLE_MAP.ordinal()].sum();
+	}
+
+	@Override
+	public long getRankingNanos() {
+		return nanos[Phase.RANKING.ordinal()].sum();
+	}
+
+	@Override
+	public long getPersonComparisons() {
+		return comparisons[Phase.RANKING.ordinal()].sum();
+	}
+
+	@Override
+	public long getBucketingNanos() {
+		return nanos[Phase.BUCKETING.ordinal()].sum();
+	}
+
+	@Override
+	public long getPersonSortNanos() {
+		return nanos[Phase.PERSON_SORT.ordinal()].sum();
+	}
+
+	@Override
+	public long getConnectionComparisons() {
+		return comparisons[Phase.PERSON_SORT.ordinal()].sum();
+	}
+
+	@Override
+	public long getPlatformIndexNanos() {
+		return nanos[Phase.PLATFORM_INDEX.ordinal()].sum();
+	}
+
+	@Override
+	public long getPlatformConnectionsScanned() {
+		return items[Phase.PLATFORM_INDEX.ordinal()].sum();
+	}
+
+	@Override
+	public long getDateComparisons() {
+		return comparisons[Phase.PLATFORM_INDEX.ordinal()].sum();
+	}
+
+	@Override
+	public long getStateMapsNanos() {
+		return nanos[Phase.STATE_MAPS.ordinal()].sum();
+	}
+
+	@Override
+	public long getReportsRendered() {
+		return runs[Phase.REPORT.ordinal()].sum();
+	}
+
+	@Override
+	public long getReportRenderNanos() {
+		return nanos[Phase.REPORT.ordinal()].sum();
+	}
+
+	@Override
+	public long getReportChars() {
+		return items[Phase.REPORT.ordinal()].sum();
+	}
+
+	/**
+	 * JFR event committed when a phase finishes
+	 * @author Arnold Elamthuruthil
+	 */
+	@Name("edu.ncsu.csc316.social.Phase")
+	@Label("Social Media Manager Phase")
+	@Category("Social Media Manager")
+	@Description("A timed phase of loading a network or rendering a report")
+	static class PhaseEvent extends Event {
+		/** Name of the phase */
+		@Label("Phase")
+		String phase;
+		/** Time the phase took */
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+		/** Records, connections or chars the phase handled */
+		@Label("Items")
+		long items;
+		/** Comparisons the phase made */
+		@Label("Comparisons")
+		long comparisons;
+		/** Bytes of input the phase read */
+		@Label("Bytes")
+		@DataAmount(DataAmount.BYTES)
+		long bytes;
+	}
+}
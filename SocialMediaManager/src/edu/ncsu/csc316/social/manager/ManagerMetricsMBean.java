@@ -0,0 +1,130 @@
+package edu.ncsu.csc316.social.manager;
+
+/**
+ * Management interface of ManagerMetrics, the attributes and operations
+ * JMX clients such as JConsole see. Times are in nanoseconds and every value
+ * is a total since the metrics were last reset.
+ * @author Arnold Elamthuruthil
+ */
+public interface ManagerMetricsMBean {
+
+	/**
+	 * Returns whether the metrics are being collected
+	 * @return true if metrics are collected
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Turns collecting metrics on or off
+	 * @param enabled true to collect metrics
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * Sets every total back to zero
+	 */
+	void reset();
+
+	/**
+	 * Returns the number of people and connection records parsed from files
+	 * @return number of records parsed
+	 */
+	long getRecordsParsed();
+
+	/**
+	 * Returns the number of bytes of people and connection files parsed
+	 * @return number of bytes parsed
+	 */
+	long getBytesParsed();
+
+	/**
+	 * Returns the time spent parsing people and connection files
+	 * @return parse time in nanoseconds
+	 */
+	long getParseNanos();
+
+	/**
+	 * Returns the number of records parsed per second of parse time
+	 * @return parse rate, or 0 if nothing has been parsed
+	 */
+	double getParseRecordsPerSecond();
+
+	/**
+	 * Returns the time spent building the map of people by username
+	 * @return build time in nanoseconds
+	 */
+	long getPeopleMapNanos();
+
+	/**
+	 * Returns the time spent sorting people into their ranking
+	 * @return ranking time in nanoseconds
+	 */
+	long getRankingNanos();
+
+	/**
+	 * Returns the number of comparisons of two people made while ranking
+	 * @return number of person comparisons
+	 */
+	long getPersonComparisons();
+
+	/**
+	 * Returns the time spent placing connections in each person's slice of the
+	 * person index, including looking up the rank of each person
+	 * @return bucketing time in nanoseconds
+	 */
+	long getBucketingNanos();
+
+	/**
+	 * Returns the time spent sorting each person's slice of connections
+	 * @return sort time in nanoseconds
+	 */
+	long getPersonSortNanos();
+
+	/**
+	 * Returns the number of comparisons of two connections of the same person
+	 * @return number of comparisons by other person, then date
+	 */
+	long getConnectionComparisons();
+
+	/**
+	 * Returns the time spent scanning, sorting and bucketing connections by platform
+	 * @return platform index time in nanoseconds
+	 */
+	long getPlatformIndexNanos();
+
+	/**
+	 * Returns the number of connections scanned into the platform index
+	 * @return number of connections scanned
+	 */
+	long getPlatformConnectionsScanned();
+
+	/**
+	 * Returns the number of comparisons of two connections by date, then id
+	 * @return number of date comparisons
+	 */
+	long getDateComparisons();
+
+	/**
+	 * Returns the time spent building the maps of connections by person and by platform
+	 * @return map build time in nanoseconds
+	 */
+	long getStateMapsNanos();
+
+	/**
+	 * Returns the number of reports rendered or written
+	 * @return number of reports
+	 */
+	long getReportsRendered();
+
+	/**
+	 * Returns the time spent rendering or writing reports
+	 * @return render time in nanoseconds
+	 */
+	long getReportRenderNanos();
+
+	/**
+	 * Returns the number of chars of reports rendered or written
+	 * @return number of chars
+	 */
+	long getReportChars();
+}
@@ -0,0 +1,217 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * ManagerServer serves the reports of one loaded network over HTTP on the
+ * loopback address, using the HTTP server built into the JDK. Every request
+ * runs on its own thread. A virtual thread is used for each request when the
+ * JDK has them, and otherwise a cached pool of platform threads is used.
+ * Requests only read the manager's current network state, so any number of
+ * them can run at the same time. The server answers GET requests for:
+ * <ul>
+ * <li>/report/person, the full report of connections by person</li>
+ * <li>/report/platform, the full report of connections by platform</li>
+ * <li>/person/{username}, the block of one person in the report by person</li>
+ * <li>/platform/{name}, the block of one platform in the report by platform</li>
+ * </ul>
+ * The full reports are streamed with chunked encoding as they are rendered,
+ * so a report is never held in memory for a request. The server registers
+ * ManagerMetrics as a JMX MBean, so its metrics can be turned on and read
+ * while it runs.
+ * Usage: ManagerServer peopleFile connectionFile [port], or
+ * ManagerServer snapshotFile [port].
+ * @author Arnold Elamthuruthil
+ */
+public class ManagerServer {
+	/** Port the server listens on when none is given */
+	public static final int DEFAULT_PORT = 8316;
+	/** Extension of snapshot files, which are loaded instead of a people and connection file */
+	private static final String SNAPSHOT_EXTENSION = ".snapshot";
+	/** Content type of every response */
+	private static final String CONTENT_TYPE = "text/plain; charset=utf-8";
+	/** Number of seconds stop waits for requests that are running to finish */
+	private static final int STOP_DELAY = 1;
+	/** System property that turns on TCP_NODELAY for the connections of the JDK's server */
+	private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+	static {
+		//The JDK's server leaves Nagle's algorithm on by default, so a small
+		//response written after its headers waits for the client's delayed ACK,
+		//which adds about 40 ms to every request. The property is read once,
+		//when the first server is created.
+		if (System.getProperty(NODELAY_PROPERTY) == null) {
+			System.setProperty(NODELAY_PROPERTY, "true");
+		}
+	}
+
+	/** Reports of the network that is served */
+	private ReportManager reports;
+	/** Server the requests are received by */
+	private HttpServer server;
+	/** Executor every request runs on */
+	private ExecutorService executor;
+
+	/**
+	 * Creates a ManagerServer for a loaded network. The server does not accept
+	 * requests until start is called.
+	 * @param reports reports of the network to serve
+	 * @param port port to listen on, or 0 for any free port
+	 * @throws IOException if the server cannot listen on the port
+	 */
+	public ManagerServer(ReportManager reports, int port) throws IOException {
+		this.reports = reports;
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/", this::handle);
+		executor = newRequestExecutor();
+		server.setExecutor(executor);
+	}
+
+	/**
+	 * Starts accepting requests
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops accepting requests, waits a moment for the requests that are running
+	 * to finish and shuts down the threads of the server
+	 */
+	public void stop() {
+		server.stop(STOP_DELAY);
+		executor.shutdown();
+		try {
+			executor.awaitTermination(STOP_DELAY, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the port the server listens on
+	 * @return port of the server
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Returns an executor that runs each task on a new virtual thread if the
+	 * JDK has virtual threads, or on a cached pool of platform threads if not.
+	 * Executors.newVirtualThreadPerTaskExecutor is found by reflection, so the
+	 * project still compiles and runs on JDKs without it.
+	 * @return executor for the tasks of many concurrent clients
+	 */
+	public static ExecutorService newRequestExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	/**
+	 * Answers one request
+	 * @param exchange request and its response
+	 * @throws IOException if the response cannot be written
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				exchange.getResponseHeaders().set("Allow", "GET");
+				send(exchange, 405, "Only GET requests are supported.\n");
+				return;
+			}
+			String path = exchange.getRequestURI().getPath();
+			if ("/report/person".equals(path)) {
+				exchange.sendResponseHeaders(200, 0);
+				reports.writeConnectionsByPerson(exchange.getResponseBody());
+			} else if ("/report/platform".equals(path)) {
+				exchange.sendResponseHeaders(200, 0);
+				reports.writeConnectionsByPlatform(exchange.getResponseBody());
+			} else if (path.startsWith("/person/")) {
+				String username = path.substring("/person/".length());
+				String section = reports.getPersonSection(username);
+				if (section == null) {
+					send(exchange, 404, "No person has the username " + username + ".\n");
+				} else {
+					send(exchange, 200, section);
+				}
+			} else if (path.startsWith("/platform/")) {
+				String platform = path.substring("/platform/".length());
+				String section = reports.getPlatformSection(platform);
+				if (section == null) {
+					send(exchange, 404, "No connections exist on " + platform + ".\n");
+				} else {
+					send(exchange, 200, section);
+				}
+			} else {
+				send(exchange, 404, "Unknown query: " + path + "\n");
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Sends a response with a body of known length
+	 * @param exchange request the response is for
+	 * @param status HTTP status code
+	 * @param body body of the response
+	 * @throws IOException if the response cannot be written
+	 */
+	private static void send(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(status, bytes.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(bytes);
+	}
+
+	/**
+	 * Loads a network and serves it until the process is stopped
+	 * @param args people and connection file, or a snapshot file, then an optional port
+	 * @throws IOException if the server cannot listen on the port
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.out.println("Usage: ManagerServer peopleFile connectionFile [port]");
+			System.out.println("       ManagerServer snapshotFile [port]");
+			return;
+		}
+		ManagerMetrics.register();
+		ReportManager reports;
+		int next;
+		try {
+			if (args[0].endsWith(SNAPSHOT_EXTENSION)) {
+				reports = ReportManager.loadSnapshot(args[0]);
+				next = 1;
+			} else if (args.length > 1) {
+				reports = new ReportManager(args[0], args[1]);
+				next = 2;
+			} else {
+				System.out.println("A connection file is needed with a people file.");
+				return;
+			}
+		} catch (FileNotFoundException e) {
+			System.out.println("File not found: " + e.getMessage());
+			return;
+		}
+		int port = args.length > next ? Integer.parseInt(args[next]) : DEFAULT_PORT;
+		ManagerServer server = new ManagerServer(reports, port);
+		server.start();
+		System.out.println("Serving on http://localhost:" + server.getPort() + "/");
+	}
+}
@@ -0,0 +1,194 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.data.Connection;
+
+/**
+ * MappedConnections is a ConnectionTable that reads the connections of a
+ * loaded snapshot straight from the mapped file. The ranks of the people,
+ * the platform codes, the dates and the positions of the ids are columns of
+ * the file, and the ranks and dates are the same columns the PersonIndex of
+ * the snapshot reads. A username that was not ranked when the snapshot was
+ * saved is kept on the heap by the connection it is in. A Connection is
+ * only created when one is asked for.
+ * Connections appended after the snapshot was loaded are kept in a table of
+ * their own after the mapped ones, on the heap or off it as the factory asks.
+ * @author Arnold Elamthuruthil
+ */
+public class MappedConnections implements ConnectionTable {
+	/** Mapped snapshot file */
+	private MappedFile file;
+	/** Number of connections in the file */
+	private int mappedSize;
+	/** Username of each person the snapshot ranked, by rank */
+	private String[] usernames;
+	/** Platform names, by code */
+	private String[] platforms;
+	/** Rank of the first person of each connection, or -1 if the person was not ranked */
+	private IntColumn firstRank;
+	/** Rank of the second person of each connection, or -1 if the person was not ranked */
+	private IntColumn secondRank;
+	/** Platform code of each connection */
+	private IntColumn codes;
+	/** Date of each connection in epoch milliseconds */
+	private LongColumn dates;
+	/** Start of each connection's id in the id bytes, with the total at the end */
+	private LongColumn idOffsets;
+	/** Position of the id bytes in the file */
+	private long idStart;
+	/** Positions of the connections whose first person was not ranked, in order */
+	private int[] firstEdges;
+	/** Usernames of the first people who were not ranked, in the order of firstEdges */
+	private String[] firstNames;
+	/** Positions of the connections whose second person was not ranked, in order */
+	private int[] secondEdges;
+	/** Usernames of the second people who were not ranked, in the order of secondEdges */
+	private String[] secondNames;
+	/** Factory that sets how appended connections are kept */
+	private DataStructureFactory factory;
+	/** Connections appended after the mapped ones, or null if there are none */
+	private ConnectionTable appended;
+
+	/**
+	 * Creates a table of the connections of a snapshot file
+	 * @param file mapped snapshot file
+	 * @param usernames username of each ranked person, by rank
+	 * @param platforms platform names, by code
+	 * @param firstRank rank of the first person of each connection
+	 * @param secondRank rank of the second person of each connection
+	 * @param codes platform code of each connection
+	 * @param dates date of each connection in epoch milliseconds
+	 * @param idOffsets start of each connection's id in the id bytes
+	 * @param idStart position of the id bytes in the file
+	 * @param firstEdges positions of the connections whose first person was not ranked
+	 * @param firstNames usernames of those first people
+	 * @param secondEdges positions of the connections whose second person was not ranked
+	 * @param secondNames usernames of those second people
+	 * @param factory factory that sets how appended connections are kept
+	 */
+	MappedConnections(MappedFile file, String[] usernames, String[] platforms, IntColumn firstRank,
+			IntColumn secondRank, IntColumn codes, LongColumn dates, LongColumn idOffsets, long idStart,
+			int[] firstEdges, String[] firstNames, int[] secondEdges, String[] secondNames,
+			DataStructureFactory factory) {
+		this.file = file;
+		this.mappedSize = dates.length();
+		this.usernames = usernames;
+		this.platforms = platforms;
+		this.firstRank = firstRank;
+		this.secondRank = secondRank;
+		this.codes = codes;
+		this.dates = dates;
+		this.idOffsets = idOffsets;
+		this.idStart = idStart;
+		this.firstEdges = firstEdges;
+		this.firstNames = firstNames;
+		this.secondEdges = secondEdges;
+		this.secondNames = secondNames;
+		this.factory = factory;
+	}
+
+	/**
+	 * Creates a table of the mapped connections of another table followed by
+	 * appended ones
+	 * @param mapped table whose mapped connections are read
+	 * @param appended connections after the mapped ones
+	 */
+	private MappedConnections(MappedConnections mapped, ConnectionTable appended) {
+		this(mapped.file, mapped.usernames, mapped.platforms, mapped.firstRank, mapped.secondRank, mapped.codes,
+				mapped.dates, mapped.idOffsets, mapped.idStart, mapped.firstEdges, mapped.firstNames,
+				mapped.secondEdges, mapped.secondNames, mapped.factory);
+		this.appended = appended;
+	}
+
+	@Override
+	public int size() {
+		return appended == null ? mappedSize : mappedSize + appended.size();
+	}
+
+	@Override
+	public Connection get(int edge) {
+		if (edge >= mappedSize) {
+			return appended.get(edge - mappedSize);
+		}
+		return new Connection(id(edge), new String[] { firstPerson(edge), secondPerson(edge) },
+				new Date(dates.get(edge)), platforms[codes.get(edge)]);
+	}
+
+	@Override
+	public String id(int edge) {
+		if (edge >= mappedSize) {
+			return appended.id(edge - mappedSize);
+		}
+		long start = idOffsets.get(edge);
+		byte[] bytes = new byte[(int) (idOffsets.get(edge + 1) - start)];
+		file.get(idStart + start, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String firstPerson(int edge) {
+		if (edge >= mappedSize) {
+			return appended.firstPerson(edge - mappedSize);
+		}
+		int rank = firstRank.get(edge);
+		return rank >= 0 ? usernames[rank] : firstNames[Arrays.binarySearch(firstEdges, edge)];
+	}
+
+	@Override
+	public String secondPerson(int edge) {
+		if (edge >= mappedSize) {
+			return appended.secondPerson(edge - mappedSize);
+		}
+		int rank = secondRank.get(edge);
+		return rank >= 0 ? usernames[rank] : secondNames[Arrays.binarySearch(secondEdges, edge)];
+	}
+
+	@Override
+	public long date(int edge) {
+		if (edge >= mappedSize) {
+			return appended.date(edge - mappedSize);
+		}
+		return dates.get(edge);
+	}
+
+	@Override
+	public String platform(int edge) {
+		if (edge >= mappedSize) {
+			return appended.platform(edge - mappedSize);
+		}
+		return platforms[codes.get(edge)];
+	}
+
+	@Override
+	public int compareIds(int e1, int e2) {
+		return id(e1).compareTo(id(e2));
+	}
+
+	/**
+	 * Returns a table of the connections of this table followed by new
+	 * connections. The mapped connections are shared, and the new ones are
+	 * appended to the table of connections appended before them.
+	 * @param added connections to add, in order
+	 * @return table of both
+	 */
+	@Override
+	public ConnectionTable append(List<Connection> added) {
+		ConnectionTable grown;
+		if (appended != null) {
+			grown = appended.append(added);
+		} else if (factory.isOffHeapConnections()) {
+			ConnectionStore store = new ConnectionStore(factory, added.size());
+			for (Connection c : added) {
+				store.add(c.getId(), c.getPeople()[0], c.getPeople()[1], c.getDate().getTime(), c.getPlatform());
+			}
+			grown = store;
+		} else {
+			grown = new ConnectionArray(added);
+		}
+		return new MappedConnections(this, grown);
+	}
+}
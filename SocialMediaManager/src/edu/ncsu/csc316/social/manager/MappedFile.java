@@ -0,0 +1,221 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * MappedFile maps a whole file into memory read-only, one window of 2^30
+ * bytes at a time, so a file can be larger than the 2 GB limit of a single
+ * buffer. Each window also maps the first bytes of the next one, so an int or
+ * a long is always read from one window wherever it starts. Ints and longs
+ * are big-endian. The mapping stays valid after the channel is closed, until
+ * the file is collected, and can be read by any number of threads.
+ * @author Arnold Elamthuruthil
+ */
+public class MappedFile {
+	/** Log2 of the number of bytes of a window */
+	static final int WINDOW_SHIFT = 30;
+	/** Number of bytes each window maps past its end, enough for a long */
+	private static final int OVERLAP = Long.BYTES;
+
+	/** Log2 of the number of bytes of a window of this file */
+	private int shift;
+	/** Mask of the position of a byte inside its window */
+	private long mask;
+	/** Windows of the file, in order */
+	private ByteBuffer[] windows;
+	/** Number of bytes of the file */
+	private long size;
+
+	/**
+	 * Maps a file read-only
+	 * @param channel channel of the file
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public MappedFile(FileChannel channel) throws IOException {
+		this(channel, WINDOW_SHIFT);
+	}
+
+	/**
+	 * Maps a file read-only in windows of a given size, so a small file can
+	 * be read across windows
+	 * @param channel channel of the file
+	 * @param shift log2 of the number of bytes of a window, at least 3
+	 * @throws IOException if the file cannot be mapped
+	 */
+	MappedFile(FileChannel channel, int shift) throws IOException {
+		this.shift = shift;
+		mask = (1L << shift) - 1;
+		size = channel.size();
+		windows = new ByteBuffer[(int) ((size + mask) >>> shift)];
+		for (int w = 0; w < windows.length; w++) {
+			long start = (long) w << shift;
+			long length = Math.min(size - start, (1L << shift) + OVERLAP);
+			windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+		}
+	}
+
+	/**
+	 * Returns the number of bytes of the file
+	 * @return size of the file
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns the int at a position of the file
+	 * @param position position of the int
+	 * @return the int
+	 */
+	public int getInt(long position) {
+		return windows[(int) (position >>> shift)].getInt((int) (position & mask));
+	}
+
+	/**
+	 * Returns the long at a position of the file
+	 * @param position position of the long
+	 * @return the long
+	 */
+	public long getLong(long position) {
+		return windows[(int) (position >>> shift)].getLong((int) (position & mask));
+	}
+
+	/**
+	 * Copies bytes of the file into an array, across windows if needed
+	 * @param position position of the first byte
+	 * @param bytes array the bytes are copied into, which sets how many are copied
+	 * @throws BufferUnderflowException if the bytes go past the end of the file
+	 */
+	public void get(long position, byte[] bytes) {
+		if (position < 0 || position + bytes.length > size) {
+			throw new BufferUnderflowException();
+		}
+		int done = 0;
+		while (done < bytes.length) {
+			long at = position + done;
+			int offset = (int) (at & mask);
+			int length = (int) Math.min(bytes.length - done, (1L << shift) - offset);
+			windows[(int) (at >>> shift)].get(offset, bytes, done, length);
+			done += length;
+		}
+	}
+
+	/**
+	 * Returns a column of ints stored one after another in the file
+	 * @param position position of the first int
+	 * @param length number of ints
+	 * @return column that reads the ints from the file
+	 * @throws BufferUnderflowException if the ints go past the end of the file
+	 */
+	public IntColumn ints(long position, int length) {
+		check(position, (long) length * Integer.BYTES);
+		return new MappedInts(position, length);
+	}
+
+	/**
+	 * Returns a column of longs stored one after another in the file
+	 * @param position position of the first long
+	 * @param length number of longs
+	 * @return column that reads the longs from the file
+	 * @throws BufferUnderflowException if the longs go past the end of the file
+	 */
+	public LongColumn longs(long position, int length) {
+		check(position, (long) length * Long.BYTES);
+		return new MappedLongs(position, length);
+	}
+
+	/**
+	 * Checks that a range of bytes is inside the file
+	 * @param position position of the first byte
+	 * @param length number of bytes
+	 * @throws BufferUnderflowException if the range goes past the end of the file
+	 */
+	private void check(long position, long length) {
+		if (position < 0 || length < 0 || position + length > size) {
+			throw new BufferUnderflowException();
+		}
+	}
+
+	/**
+	 * Column of ints read from the file
+	 * @author Arnold Elamthuruthil
+	 */
+	private class MappedInts extends IntColumn {
+		/** Position of the first int in the file */
+		private long start;
+		/** Number of ints */
+		private int length;
+
+		/**
+		 * Creates a column of ints of the file
+		 * @param start position of the first int
+		 * @param length number of ints
+		 */
+		MappedInts(long start, int length) {
+			this.start = start;
+			this.length = length;
+		}
+
+		@Override
+		public int get(int i) {
+			return getInt(start + ((long) i << 2));
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		int[] heapArray() {
+			int[] values = new int[length];
+			for (int i = 0; i < length; i++) {
+				values[i] = get(i);
+			}
+			return values;
+		}
+	}
+
+	/**
+	 * Column of longs read from the file
+	 * @author Arnold Elamthuruthil
+	 */
+	private class MappedLongs extends LongColumn {
+		/** Position of the first long in the file */
+		private long start;
+		/** Number of longs */
+		private int length;
+
+		/**
+		 * Creates a column of longs of the file
+		 * @param start position of the first long
+		 * @param length number of longs
+		 */
+		MappedLongs(long start, int length) {
+			this.start = start;
+			this.length = length;
+		}
+
+		@Override
+		public long get(int i) {
+			return getLong(start + ((long) i << 3));
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		long[] heapArray() {
+			long[] values = new long[length];
+			for (int i = 0; i < length; i++) {
+				values[i] = get(i);
+			}
+			return values;
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package edu.ncsu.csc316.social.manager;
+
+/**
+ * NameIndex finds the int key of a name, such as the rank of a username or
+ * the code of a platform, by binary search over the names in sorted order.
+ * Unlike a lookup in a map from the library, a lookup never changes the
+ * index, so any number of threads can look names up at the same time.
+ * The names are sorted once, with the comparison sorter of a factory, when
+ * the index is created.
+ * @author Arnold Elamthuruthil
+ */
+public class NameIndex {
+	/** Names in sorted order */
+	private String[] names;
+	/** Key of each name, in the same order as names */
+	private int[] keys;
+
+	/**
+	 * Creates an index of names by key
+	 * @param namesByKey name of each key, with no name given to more than one key
+	 * @param factory factory of the sorter the names are sorted with
+	 */
+	public NameIndex(String[] namesByKey, DataStructureFactory factory) {
+		NameEntry[] entries = new NameEntry[namesByKey.length];
+		for (int key = 0; key < entries.length; key++) {
+			entries[key] = new NameEntry(namesByKey[key], key);
+		}
+		factory.<NameEntry>getComparisonSorter(null).sort(entries);
+		names = new String[entries.length];
+		keys = new int[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			names[i] = entries[i].name;
+			keys[i] = entries[i].key;
+		}
+	}
+
+	/**
+	 * Returns the key of a name
+	 * @param name name to look up
+	 * @return key of the name, or -1 if the name is not in the index
+	 */
+	public int keyOf(String name) {
+		int low = 0;
+		int high = names.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int compare = names[mid].compareTo(name);
+			if (compare < 0) {
+				low = mid + 1;
+			} else if (compare > 0) {
+				high = mid - 1;
+			} else {
+				return keys[mid];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the number of names in the index
+	 * @return number of names
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * Name with its key, ordered by name
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class NameEntry implements Comparable<NameEntry> {
+		/** Name of the key */
+		private String name;
+		/** Key of the name */
+		private int key;
+
+		/**
+		 * Creates a NameEntry
+		 * @param name name of the key
+		 * @param key key of the name
+		 */
+		NameEntry(String name, int key) {
+			this.name = name;
+			this.key = key;
+		}
+
+		@Override
+		public int compareTo(NameEntry o) {
+			//The insertion sorter of the library only moves an entry when the comparison is exactly 1
+			return Integer.signum(name.compareTo(o.name));
+		}
+	}
+}
@@ -0,0 +1,376 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * NetworkGenerator writes synthetic people and connection files in the format
+ * InputReader reads, for scale and load testing. The files are the same for
+ * the same seed and settings. The number of connections of each person follows
+ * a power law, so a few people have most of the connections, and the platforms
+ * can be skewed the same way. Connection ids can be repeated, as they are in
+ * connectionsSame.txt.
+ * Nothing is kept in memory per person or per connection, since every person's
+ * name is computed from the seed and the person's number, so files of up to
+ * hundreds of millions of connections can be written.
+ * @author Arnold Elamthuruthil
+ */
+public class NetworkGenerator {
+	/** Platforms of the connections, most popular first when they are skewed */
+	private static final String[] PLATFORMS = { "Facebook", "Instagram", "WhatsApp", "TikTok", "Twitter",
+		"Telegram", "Discord", "Reddit", "LinkedIn", "Twitch", "WeChat", "Snapchat" };
+	/** First names of the people */
+	private static final String[] FIRST_NAMES = { "Napoleon", "Phyliss", "Leonard", "Chang", "Cristobal",
+		"Brooks", "Royce", "Justin", "Billy", "James", "Maria", "Aisha", "Wei", "Sofia", "Mateo", "Priya",
+		"Olga", "Kwame", "Yuki", "Fatima", "Liam", "Noor", "Ivan", "Elena", "Omar", "Grace", "Hiro", "Zara" };
+	/** Last names of the people */
+	private static final String[] LAST_NAMES = { "Kertzmann", "Beahan", "Runolfsdottir", "Murazik", "Jones",
+		"Homenick", "Simonis", "Boyer", "Smith", "Garcia", "Nguyen", "Okafor", "Kowalski", "Tanaka", "Haddad",
+		"Schmidt", "Rossi", "Silva", "Patel", "Kim", "Ivanova", "Dubois", "Larsen", "Moreno", "Cohen" };
+	/** Number of distinct connection ids: four letters and four digits */
+	private static final long ID_SPACE = 26L * 26 * 26 * 26 * 10000;
+	/** Multiplier that scrambles connection numbers into ids, coprime with ID_SPACE */
+	private static final long ID_MULTIPLIER = 2654435761L;
+
+	/** Seed every value is generated from */
+	private long seed;
+	/** Number of people */
+	private int people = 1000;
+	/** Number of connections */
+	private long connections = 10000;
+	/** Power-law exponent of the number of connections per person, 0 for uniform */
+	private double degreeExponent = 1.0;
+	/** Power-law exponent of the popularity of platforms, 0 for uniform */
+	private double platformSkew = 0.8;
+	/** Earliest connection date in epoch milliseconds */
+	private long startDate = 1262322000000L;
+	/** Latest connection date in epoch milliseconds */
+	private long endDate = 1704085200000L;
+	/** Fraction of connections that repeat an earlier connection's id */
+	private double duplicateRate;
+
+	/**
+	 * Creates a NetworkGenerator that generates everything from a seed
+	 * @param seed seed of the network
+	 */
+	public NetworkGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the number of people
+	 * @param people number of people, at least 2
+	 * @throws IllegalArgumentException if there are fewer than 2 people
+	 */
+	public void setPeople(int people) {
+		if (people < 2) {
+			throw new IllegalArgumentException("A network needs at least 2 people");
+		}
+		this.people = people;
+	}
+
+	/**
+	 * Sets the number of connections
+	 * @param connections number of connections
+	 * @throws IllegalArgumentException if the number is negative or more than Integer.MAX_VALUE
+	 */
+	public void setConnections(long connections) {
+		if (connections < 0 || connections > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid number of connections: " + connections);
+		}
+		this.connections = connections;
+	}
+
+	/**
+	 * Sets the power-law exponent of the number of connections per person.
+	 * The person with the k-th most connections is picked in proportion to
+	 * 1 / k^exponent, so 0 picks people uniformly.
+	 * @param degreeExponent exponent of the number of connections per person
+	 * @throws IllegalArgumentException if the exponent is negative
+	 */
+	public void setDegreeExponent(double degreeExponent) {
+		if (degreeExponent < 0) {
+			throw new IllegalArgumentException("Exponent cannot be negative");
+		}
+		this.degreeExponent = degreeExponent;
+	}
+
+	/**
+	 * Sets the power-law exponent of the popularity of platforms, where 0
+	 * puts connections on every platform equally often
+	 * @param platformSkew exponent of the popularity of platforms
+	 * @throws IllegalArgumentException if the exponent is negative
+	 */
+	public void setPlatformSkew(double platformSkew) {
+		if (platformSkew < 0) {
+			throw new IllegalArgumentException("Exponent cannot be negative");
+		}
+		this.platformSkew = platformSkew;
+	}
+
+	/**
+	 * Sets the range of connection dates
+	 * @param start earliest connection date
+	 * @param end latest connection date
+	 * @throws IllegalArgumentException if the end is before the start
+	 */
+	public void setDateRange(Date start, Date end) {
+		if (end.before(start)) {
+			throw new IllegalArgumentException("Date range ends before it starts");
+		}
+		this.startDate = start.getTime();
+		this.endDate = end.getTime();
+	}
+
+	/**
+	 * Sets the fraction of connections that repeat the id of an earlier connection
+	 * @param duplicateRate fraction of connections with a repeated id, from 0 to 1
+	 * @throws IllegalArgumentException if the rate is not between 0 and 1
+	 */
+	public void setDuplicateRate(double duplicateRate) {
+		if (duplicateRate < 0 || duplicateRate > 1) {
+			throw new IllegalArgumentException("Duplicate rate must be between 0 and 1");
+		}
+		this.duplicateRate = duplicateRate;
+	}
+
+	/**
+	 * Writes the people file
+	 * @param fileName name of the people file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writePeople(String fileName) throws IOException {
+		try (Writer out = new BufferedWriter(new FileWriter(fileName), 1 << 16)) {
+			writePeople(out);
+		}
+	}
+
+	/**
+	 * Writes the people to a Writer, one line per person after the header
+	 * @param out writer the people are written to
+	 * @throws IOException if the people cannot be written
+	 */
+	public void writePeople(Writer out) throws IOException {
+		out.write("USERNAME,FIRST_NAME,LAST_NAME\n");
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < people; i++) {
+			line.setLength(0);
+			appendUsername(i, line);
+			line.append(',').append(firstName(i)).append(',').append(lastName(i)).append('\n');
+			out.append(line);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Writes the connection file
+	 * @param fileName name of the connection file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeConnections(String fileName) throws IOException {
+		try (Writer out = new BufferedWriter(new FileWriter(fileName), 1 << 16)) {
+			writeConnections(out);
+		}
+	}
+
+	/**
+	 * Writes the connections to a Writer, one line per connection after the
+	 * header. Dates are written the way Date.toString writes them in the
+	 * default time zone, which is the format InputReader parses.
+	 * @param out writer the connections are written to
+	 * @throws IOException if the connections cannot be written
+	 */
+	public void writeConnections(Writer out) throws IOException {
+		out.write("CONNECTION_ID,USERNAME1,USERNAME2,CONNECTED_SINCE_DATE,SOCIAL_MEDIA_PLATFORM\n");
+		Random random = new Random(seed * 0x9E3779B97F4A7C15L + 1);
+		long multiplier = coprimeMultiplier(people);
+		long offset = Math.floorMod(mix(seed), (long) people);
+		long seconds = (endDate - startDate) / 1000;
+		StringBuilder line = new StringBuilder();
+		for (long i = 0; i < connections; i++) {
+			long number = i;
+			if (i > 0 && random.nextDouble() < duplicateRate) {
+				number = (long) (random.nextDouble() * i);
+			}
+			int first = person(random, multiplier, offset);
+			int second = person(random, multiplier, offset);
+			while (second == first) {
+				second = person(random, multiplier, offset);
+			}
+			long date = startDate + (long) (random.nextDouble() * (seconds + 1)) * 1000;
+			String platform = PLATFORMS[zipf(random, PLATFORMS.length, platformSkew)];
+
+			line.setLength(0);
+			appendId(number, line);
+			line.append(',');
+			appendUsername(first, line);
+			line.append(',');
+			appendUsername(second, line);
+			line.append(',').append(new Date(date)).append(',').append(platform).append('\n');
+			out.append(line);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Picks a person, where people are picked more often the higher their
+	 * power-law rank. Ranks are spread over the people by a fixed permutation
+	 * so that the people with the most connections are not the first people.
+	 * @param random source of random numbers
+	 * @param multiplier multiplier of the permutation, coprime with the number of people
+	 * @param offset offset of the permutation
+	 * @return number of the person
+	 */
+	private int person(Random random, long multiplier, long offset) {
+		int rank = zipf(random, people, degreeExponent);
+		return (int) ((rank * multiplier + offset) % people);
+	}
+
+	/**
+	 * Picks a rank from 0 to n - 1 with a power-law distribution, where rank k
+	 * is picked in proportion to about 1 / (k + 1)^exponent. The inverse of the
+	 * continuous distribution is used, so no table of weights is needed.
+	 * @param random source of random numbers
+	 * @param n number of ranks
+	 * @param exponent exponent of the power law
+	 * @return the rank
+	 */
+	private static int zipf(Random random, int n, double exponent) {
+		double u = random.nextDouble();
+		double x;
+		if (exponent == 0) {
+			return (int) (u * n);
+		} else if (exponent == 1) {
+			x = Math.exp(u * Math.log(n + 1.0));
+		} else {
+			double a = 1 - exponent;
+			x = Math.pow(u * (Math.pow(n + 1.0, a) - 1) + 1, 1 / a);
+		}
+		return Math.min(n - 1, (int) x - 1);
+	}
+
+	/**
+	 * Appends the username of a person, their last name and first initial in
+	 * lower case followed by their number
+	 * @param person number of the person
+	 * @param out builder the username is appended to
+	 */
+	private void appendUsername(int person, StringBuilder out) {
+		String last = lastName(person);
+		for (int i = 0; i < last.length(); i++) {
+			out.append(Character.toLowerCase(last.charAt(i)));
+		}
+		out.append(Character.toLowerCase(firstName(person).charAt(0))).append(person);
+	}
+
+	/**
+	 * Appends the id of a connection, four letters and four digits. Connection
+	 * numbers are scrambled so consecutive connections do not get similar ids,
+	 * and no two numbers get the same id.
+	 * @param number number of the connection
+	 * @param out builder the id is appended to
+	 */
+	private void appendId(long number, StringBuilder out) {
+		long id = (number * ID_MULTIPLIER % ID_SPACE + Math.floorMod(mix(seed), ID_SPACE)) % ID_SPACE;
+		long letters = id / 10000;
+		for (int i = 0; i < 4; i++) {
+			out.append((char) ('A' + letters % 26));
+			letters /= 26;
+		}
+		long digits = id % 10000;
+		for (long place = 1000; place > 0; place /= 10) {
+			out.append((char) ('0' + digits / place % 10));
+		}
+	}
+
+	/**
+	 * Returns the first name of a person
+	 * @param person number of the person
+	 * @return first name of the person
+	 */
+	private String firstName(int person) {
+		return FIRST_NAMES[(int) Math.floorMod(mix(seed + 2L * person), (long) FIRST_NAMES.length)];
+	}
+
+	/**
+	 * Returns the last name of a person
+	 * @param person number of the person
+	 * @return last name of the person
+	 */
+	private String lastName(int person) {
+		return LAST_NAMES[(int) Math.floorMod(mix(seed + 2L * person + 1), (long) LAST_NAMES.length)];
+	}
+
+	/**
+	 * Returns a multiplier coprime with n, so multiplying by it is a permutation of 0 to n - 1
+	 * @param n number of values
+	 * @return the multiplier
+	 */
+	private long coprimeMultiplier(int n) {
+		long multiplier = Math.floorMod(mix(seed + 7), (long) n) | 1;
+		while (gcd(multiplier, n) != 1) {
+			multiplier += 2;
+		}
+		return multiplier;
+	}
+
+	/**
+	 * Returns the greatest common divisor of two numbers
+	 * @param a first number
+	 * @param b second number
+	 * @return greatest common divisor
+	 */
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		return a;
+	}
+
+	/**
+	 * Mixes the bits of a number, so that nearby numbers give unrelated results
+	 * @param x number to mix
+	 * @return mixed number
+	 */
+	private static long mix(long x) {
+		x += 0x9E3779B97F4A7C15L;
+		x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+		x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+		return x ^ (x >>> 31);
+	}
+
+	/**
+	 * Writes a network from the command line. Usage: NetworkGenerator
+	 * peopleFile connectionFile people connections [seed] [degreeExponent]
+	 * [platformSkew] [duplicateRate]
+	 * @param args command line arguments
+	 * @throws IOException if a file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 4) {
+			System.out.println("Usage: NetworkGenerator peopleFile connectionFile people connections"
+					+ " [seed] [degreeExponent] [platformSkew] [duplicateRate]");
+			return;
+		}
+		NetworkGenerator generator = new NetworkGenerator(args.length > 4 ? Long.parseLong(args[4]) : 1);
+		generator.setPeople(Integer.parseInt(args[2]));
+		generator.setConnections(Long.parseLong(args[3]));
+		if (args.length > 5) {
+			generator.setDegreeExponent(Double.parseDouble(args[5]));
+		}
+		if (args.length > 6) {
+			generator.setPlatformSkew(Double.parseDouble(args[6]));
+		}
+		if (args.length > 7) {
+			generator.setDuplicateRate(Double.parseDouble(args[7]));
+		}
+		generator.writePeople(args[0]);
+		generator.writeConnections(args[1]);
+	}
+}
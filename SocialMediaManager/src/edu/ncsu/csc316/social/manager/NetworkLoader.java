@@ -0,0 +1,521 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.social.data.Connection;
+import edu.ncsu.csc316.social.data.Person;
+
+/**
+ * NetworkLoader loads the first state of a network from a people file and a
+ * connection file as a pipeline. Both files are read at the same time, each
+ * by a reader thread that streams its chunks from ParallelInputReader into a
+ * bounded queue. A builder thread for each file takes the chunks off its
+ * queue as they arrive: the people builder fills the people map and then
+ * ranks the people, and the connection builder fills the connections table
+ * and then builds the platform index, which does not need the people. The
+ * person index is built once both builders are done. When a builder falls
+ * behind, its queue fills up and its reader stops parsing ahead, so only a
+ * few chunks are ever waiting. On a machine with one processor the people
+ * file is read once the platform index is built instead.
+ * The load runs on its own daemon threads and the fork-join pool, and its
+ * result is a CompletableFuture. The readers and builders can be run on an
+ * executor instead, which must run at least four tasks at once. A ProgressListener is told how much of each
+ * file has been built into the network and how many indexes are done.
+ * @author Arnold Elamthuruthil
+ */
+public class NetworkLoader {
+	/** Number of parsed chunks each queue holds before its reader waits */
+	private static final int QUEUE_CAPACITY = 4;
+	/** Number of indexes built from the files: the ranking, platform index and person index */
+	private static final int INDEX_COUNT = 3;
+	/** Number of loaders started, used to name their threads */
+	private static final AtomicInteger LOADS = new AtomicInteger();
+
+	/** Name of the people file */
+	private final String peopleFile;
+	/** Name of the connection file */
+	private final String connectionFile;
+	/** Factory of the maps, lists and sorters of the network */
+	private final DataStructureFactory factory;
+	/** Listener told of the progress of the load */
+	private final ProgressListener listener;
+	/** Number of bytes of each chunk the files are streamed in, or 0 to pick one for each file */
+	private final long chunkSize;
+	/** Executor that runs the readers and builders, or null to start a thread for each */
+	private final Executor executor;
+	/** Number of indexes built so far */
+	private final AtomicInteger indexes = new AtomicInteger();
+	/** Number of this load, used to name its threads */
+	private final int load = LOADS.incrementAndGet();
+
+	/**
+	 * Stage of a load that progress is reported for
+	 * @author Arnold Elamthuruthil
+	 */
+	public enum Stage {
+		/** Reading the people file, counted in bytes */
+		PEOPLE,
+		/** Reading the connection file, counted in bytes */
+		CONNECTIONS,
+		/** Building the ranking, platform index and person index, counted in indexes */
+		INDEXES
+	}
+
+	/**
+	 * Listener told of the progress of a load. It is called from the threads
+	 * of the load, so it must be thread-safe and should return quickly.
+	 * @author Arnold Elamthuruthil
+	 */
+	public interface ProgressListener {
+		/**
+		 * Tells the listener how far a stage of the load has got. The last
+		 * call for each stage has done equal to total.
+		 * @param stage stage of the load
+		 * @param done amount of the stage that is done
+		 * @param total amount of the whole stage
+		 */
+		void progress(Stage stage, long done, long total);
+	}
+
+	/**
+	 * Creates a loader of a network
+	 * @param peopleFile name of the people file
+	 * @param connectionFile name of the connection file
+	 * @param factory factory of the maps, lists and sorters of the network
+	 * @param listener listener told of the progress of the load, or null
+	 * @param chunkSize number of bytes of each chunk the files are streamed
+	 * in, or 0 to pick one for each file
+	 */
+	NetworkLoader(String peopleFile, String connectionFile, DataStructureFactory factory,
+			ProgressListener listener, long chunkSize) {
+		this(peopleFile, connectionFile, factory, listener, chunkSize, null);
+	}
+
+	/**
+	 * Creates a loader of a network whose readers and builders run on an executor
+	 * @param peopleFile name of the people file
+	 * @param connectionFile name of the connection file
+	 * @param factory factory of the maps, lists and sorters of the network
+	 * @param listener listener told of the progress of the load, or null
+	 * @param chunkSize number of bytes of each chunk the files are streamed
+	 * in, or 0 to pick one for each file
+	 * @param executor executor that runs at least four tasks at once, or null
+	 * to start a daemon thread for each reader and builder
+	 */
+	NetworkLoader(String peopleFile, String connectionFile, DataStructureFactory factory,
+			ProgressListener listener, long chunkSize, Executor executor) {
+		this.peopleFile = peopleFile;
+		this.connectionFile = connectionFile;
+		this.factory = factory;
+		this.listener = listener == null ? (stage, done, total) -> { } : listener;
+		this.chunkSize = chunkSize;
+		this.executor = executor;
+	}
+
+	/**
+	 * Starts the load of the network
+	 * @return future of the first state of the network. If a file is not
+	 * found it completes with a FileNotFoundException, and if a file cannot
+	 * be parsed with the exception the parser threw. A failure of the
+	 * connection file is reported before one of the people file.
+	 */
+	CompletableFuture<NetworkState> start() {
+		CompletableFuture<ConnectionResult> connections = new ConnectionBuilder().start();
+		CompletableFuture<PeopleResult> people;
+		if (Runtime.getRuntime().availableProcessors() > 1) {
+			people = new PeopleBuilder().start();
+		} else {
+			//With one processor nothing is gained by reading the files at the same time, and
+			//interleaving their objects in the heap slows down the lookups of the person index
+			people = connections.handle((c, e) -> c).thenCompose(c -> new PeopleBuilder().start());
+		}
+		return connections.thenCombine(people, (c, p) -> {
+			PersonIndex personIndex = new PersonIndex(c.connections, p.ranking);
+			indexBuilt();
+			return new NetworkState(factory, p.people, c.connections, personIndex, c.platformIndex, 0);
+		});
+	}
+
+	/**
+	 * Waits for a load to finish and returns its state, throwing what made it fail
+	 * @param load future returned by start
+	 * @return first state of the network
+	 * @throws FileNotFoundException if a file is not found
+	 */
+	static NetworkState await(CompletableFuture<NetworkState> load) throws FileNotFoundException {
+		try {
+			return load.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof FileNotFoundException) {
+				throw (FileNotFoundException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Counts an index as built and tells the listener
+	 */
+	private void indexBuilt() {
+		listener.progress(Stage.INDEXES, indexes.incrementAndGet(), INDEX_COUNT);
+	}
+
+	/**
+	 * Reads one file on a reader thread and builds from its chunks on a
+	 * builder thread, handing the chunks over through a bounded queue
+	 * @param <E> type of each parsed chunk
+	 * @param <R> type of what is built from the file
+	 * @author Arnold Elamthuruthil
+	 */
+	private abstract class Pipeline<E, R> {
+		/** Marks the end of the chunks in the queue */
+		private final Object end = new Object();
+		/** Parsed chunks waiting for the builder */
+		private final BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>(QUEUE_CAPACITY);
+		/** Name of the file */
+		private final String fileName;
+		/** Stage the file's progress is reported as */
+		private final Stage stage;
+		/** Completes when the reader has read the whole file */
+		private final CompletableFuture<Void> read = new CompletableFuture<Void>();
+		/** Whether the builder failed, so the reader stops parsing the file */
+		private volatile boolean cancelled;
+
+		/**
+		 * Creates the pipeline of a file
+		 * @param fileName name of the file
+		 * @param stage stage the file's progress is reported as
+		 */
+		Pipeline(String fileName, Stage stage) {
+			this.fileName = fileName;
+			this.stage = stage;
+		}
+
+		/**
+		 * Starts the reader and builder threads
+		 * @return future of what is built, which fails if either thread fails
+		 */
+		CompletableFuture<R> start() {
+			CompletableFuture<R> built = new CompletableFuture<R>();
+			startThread("reader", () -> {
+				try {
+					read(fileName, chunkSize == 0 ? ParallelInputReader.streamChunkSize(fileName) : chunkSize,
+							(chunk, bytes) -> {
+							if (cancelled) {
+								throw new CancellationException("The builder of " + fileName + " failed");
+							}
+							queue.put(new Chunk(chunk, bytes));
+						});
+					read.complete(null);
+				} catch (Throwable e) {
+					read.completeExceptionally(e);
+				} finally {
+					putEnd();
+				}
+			});
+			startThread("builder", () -> {
+				try {
+					built.complete(build());
+				} catch (CompletionException e) {
+					built.completeExceptionally(e.getCause());
+				} catch (Throwable e) {
+					built.completeExceptionally(e);
+				}
+			});
+			return built;
+		}
+
+		/**
+		 * Runs a reader or builder on the executor of the load, or on a daemon
+		 * thread of its own if there is none
+		 * @param role role of the thread in its pipeline
+		 * @param task what the thread runs
+		 */
+		private void startThread(String role, Runnable task) {
+			if (executor != null) {
+				executor.execute(task);
+				return;
+			}
+			Thread thread = new Thread(task, "network-loader-" + load + "-" + stage.name().toLowerCase() + "-" + role);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		/**
+		 * Puts the end marker in the queue, waiting for room even if interrupted
+		 */
+		private void putEnd() {
+			boolean interrupted = false;
+			while (true) {
+				try {
+					queue.put(end);
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * Takes the chunks off the queue and adds them until the end marker.
+		 * If a chunk fails to be added, even with an Error such as
+		 * OutOfMemoryError, the reader is cancelled and the chunks it already
+		 * queued are taken and dropped, so it never waits on a full queue.
+		 * Nothing more is built if the reader failed.
+		 * @return what is built from the file
+		 * @throws InterruptedException if the thread is interrupted while waiting
+		 */
+		@SuppressWarnings("unchecked")
+		private R build() throws InterruptedException {
+			long total = new File(fileName).length();
+			long done = 0;
+			Throwable failure = null;
+			Object next;
+			while ((next = queue.take()) != end) {
+				if (failure == null) {
+					Chunk chunk = (Chunk) next;
+					try {
+						add((E) chunk.result);
+						done += chunk.bytes;
+						listener.progress(stage, Math.min(done, total), total);
+					} catch (Throwable e) {
+						failure = e;
+						cancelled = true;
+					}
+				}
+			}
+			if (failure != null) {
+				throw new CompletionException(failure);
+			}
+			read.join();
+			listener.progress(stage, total, total);
+			return finish();
+		}
+
+		/**
+		 * Streams the file to a consumer
+		 * @param fileName name of the file
+		 * @param chunkSize number of bytes of each chunk
+		 * @param consumer consumer of the chunks in file order
+		 * @throws FileNotFoundException if the file is not found
+		 * @throws InterruptedException if the thread is interrupted while waiting
+		 */
+		protected abstract void read(String fileName, long chunkSize,
+				ParallelInputReader.ChunkConsumer<E> consumer) throws FileNotFoundException, InterruptedException;
+
+		/**
+		 * Adds a parsed chunk to what is being built
+		 * @param chunk records of the chunk
+		 */
+		protected abstract void add(E chunk);
+
+		/**
+		 * Builds the result once every chunk is added
+		 * @return what is built from the file
+		 */
+		protected abstract R finish();
+
+		/**
+		 * Parsed chunk in the queue
+		 * @author Arnold Elamthuruthil
+		 */
+		private class Chunk {
+			/** Records of the chunk */
+			private final Object result;
+			/** Number of bytes of the chunk */
+			private final int bytes;
+
+			/**
+			 * Creates a queued chunk
+			 * @param result records of the chunk
+			 * @param bytes number of bytes of the chunk
+			 */
+			Chunk(Object result, int bytes) {
+				this.result = result;
+				this.bytes = bytes;
+			}
+		}
+	}
+
+	/**
+	 * Builds the people map and the ranking from the people file
+	 * @author Arnold Elamthuruthil
+	 */
+	private class PeopleBuilder extends Pipeline<List<Person>, PeopleResult> {
+		/** Map of each person with their username as key */
+		private final Map<String, Person> people = factory.getMap();
+		/** Total time spent filling the map, in nanoseconds */
+		private long mapNanos;
+		/** Whether the filling of the map was timed */
+		private boolean timed;
+
+		/**
+		 * Creates the builder of the people file
+		 */
+		PeopleBuilder() {
+			super(peopleFile, Stage.PEOPLE);
+		}
+
+		@Override
+		protected void read(String fileName, long chunkSize, ParallelInputReader.ChunkConsumer<List<Person>> consumer)
+				throws FileNotFoundException, InterruptedException {
+			ParallelInputReader.streamPersonData(fileName, chunkSize, factory, consumer);
+		}
+
+		@Override
+		protected void add(List<Person> chunk) {
+			long start = ManagerMetrics.start();
+			for (Person p : chunk) {
+				people.put(p.getId(), p);
+			}
+			if (start != 0) {
+				mapNanos += System.nanoTime() - start;
+				timed = true;
+			}
+		}
+
+		@Override
+		protected PeopleResult finish() {
+			//The map is filled a chunk at a time, so the phase is recorded as the time of its chunks
+			if (timed) {
+				ManagerMetrics.recordElapsed(ManagerMetrics.Phase.PEOPLE_MAP, mapNanos, people.size(), 0);
+			}
+			PersonRanking ranking = new PersonRanking(people, factory);
+			indexBuilt();
+			return new PeopleResult(people, ranking);
+		}
+	}
+
+	/**
+	 * Builds the connections table and the platform index from the
+	 * connection file, on or off the heap as the factory says
+	 * @author Arnold Elamthuruthil
+	 */
+	private class ConnectionBuilder extends Pipeline<Object, ConnectionResult> {
+		/** Connections added so far when they are kept on the heap */
+		private Connection[] connections = new Connection[0];
+		/** Number of connections added to the array */
+		private int size;
+		/** Store the connections are added to when they are kept off the heap, or null */
+		private final ConnectionStore store;
+
+		/**
+		 * Creates the builder of the connection file
+		 */
+		ConnectionBuilder() {
+			super(connectionFile, Stage.CONNECTIONS);
+			if (factory.isOffHeapConnections()) {
+				long expected = new File(connectionFile).length() / ParallelInputReader.BYTES_PER_CONNECTION;
+				store = new ConnectionStore(factory, (int) Math.min(Integer.MAX_VALUE, expected));
+			} else {
+				store = null;
+			}
+		}
+
+		@Override
+		protected void read(String fileName, long chunkSize, ParallelInputReader.ChunkConsumer<Object> consumer)
+				throws FileNotFoundException, InterruptedException {
+			if (store != null) {
+				ParallelInputReader.streamConnectionStore(fileName, chunkSize, factory, consumer);
+			} else {
+				ParallelInputReader.streamConnectionData(fileName, chunkSize, factory, consumer);
+			}
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected void add(Object chunk) {
+			if (store != null) {
+				store.addAll((ConnectionStore) chunk);
+				return;
+			}
+			List<Connection> list = (List<Connection>) chunk;
+			if (connections.length < size + list.size()) {
+				Connection[] grown = new Connection[Math.max(size + list.size(), connections.length * 2)];
+				System.arraycopy(connections, 0, grown, 0, size);
+				connections = grown;
+			}
+			for (Connection c : list) {
+				connections[size++] = c;
+			}
+		}
+
+		@Override
+		protected ConnectionResult finish() {
+			ConnectionTable table;
+			if (store != null) {
+				table = store;
+			} else {
+				Connection[] trimmed = connections;
+				if (trimmed.length != size) {
+					trimmed = new Connection[size];
+					System.arraycopy(connections, 0, trimmed, 0, size);
+				}
+				table = new ConnectionArray(trimmed);
+			}
+			PlatformIndex platformIndex = new PlatformIndex(table, factory);
+			indexBuilt();
+			return new ConnectionResult(table, platformIndex);
+		}
+	}
+
+	/**
+	 * People map and ranking built from the people file
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class PeopleResult {
+		/** Map of each person with their username as key */
+		private final Map<String, Person> people;
+		/** Ranking of the people */
+		private final PersonRanking ranking;
+
+		/**
+		 * Creates the result of the people file
+		 * @param people map of each person with their username as key
+		 * @param ranking ranking of the people
+		 */
+		PeopleResult(Map<String, Person> people, PersonRanking ranking) {
+			this.people = people;
+			this.ranking = ranking;
+		}
+	}
+
+	/**
+	 * Connections table and platform index built from the connection file
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class ConnectionResult {
+		/** Connections of the network, by position */
+		private final ConnectionTable connections;
+		/** Index of the connections on each platform in date order */
+		private final PlatformIndex platformIndex;
+
+		/**
+		 * Creates the result of the connection file
+		 * @param connections connections of the network, by position
+		 * @param platformIndex index of the connections on each platform in date order
+		 */
+		ConnectionResult(ConnectionTable connections, PlatformIndex platformIndex) {
+			this.connections = connections;
+			this.platformIndex = platformIndex;
+		}
+	}
+}
@@ -0,0 +1,442 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.social.data.Person;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * NetworkSnapshot saves a loaded network and the indexes built from it to a
+ * binary file, and loads them back by memory-mapping the file. Loading a
+ * snapshot skips parsing the text files, parsing the dates and sorting, since
+ * the people are stored in rank order and the sorted index arrays are stored
+ * as they are. The file is mapped in windows, so a snapshot can be larger
+ * than 2 GB, and the indexes and the connections read their columns straight
+ * from the mapping, so loading only creates objects for the people, the
+ * platforms and the usernames that were not ranked.
+ * A snapshot file holds, in order:
+ * <ul>
+ * <li>a header of the magic number, the format version and the number of
+ * people, platforms, connections, person index entries, connections whose
+ * first person was not ranked and connections whose second person was not
+ * ranked</li>
+ * <li>every person's username, first name and last name, in rank order</li>
+ * <li>every platform name, by code</li>
+ * <li>the position and username of each first person that was not ranked,
+ * then of each second person that was not ranked, in position order</li>
+ * <li>the columns of the connections: the ranks of their first people, the
+ * ranks of their second people, their platform codes, their dates in epoch
+ * milliseconds and the start of each id in the id bytes, with the total at
+ * the end. A person who was not ranked has a rank of -1.</li>
+ * <li>the offsets and connection positions of the person index</li>
+ * <li>the offsets, connection positions and dates of the platform index</li>
+ * <li>the UTF-8 bytes of every connection's id, one after another</li>
+ * </ul>
+ * Numbers are big-endian, and Strings are an int length followed by UTF-8 bytes.
+ * @author Arnold Elamthuruthil
+ */
+public class NetworkSnapshot {
+	/** First int of every snapshot file, "SMMS" in ASCII */
+	public static final int MAGIC = 0x534D4D53;
+	/** Version of the snapshot format written by this class */
+	public static final int FORMAT_VERSION = 2;
+
+	/** Index of every person's sorted connections */
+	private PersonIndex personIndex;
+	/** Index of every platform's connections in date order */
+	private PlatformIndex platformIndex;
+
+	/**
+	 * Creates a NetworkSnapshot of the indexes of a network
+	 * @param personIndex index of every person's sorted connections
+	 * @param platformIndex index of every platform's connections in date order
+	 */
+	public NetworkSnapshot(PersonIndex personIndex, PlatformIndex platformIndex) {
+		this.personIndex = personIndex;
+		this.platformIndex = platformIndex;
+	}
+
+	/**
+	 * Returns the index of every person's sorted connections
+	 * @return person index
+	 */
+	public PersonIndex getPersonIndex() {
+		return personIndex;
+	}
+
+	/**
+	 * Returns the index of every platform's connections in date order
+	 * @return platform index
+	 */
+	public PlatformIndex getPlatformIndex() {
+		return platformIndex;
+	}
+
+	/**
+	 * Writes the snapshot to a file, replacing the file if it exists
+	 * @param fileName name of the snapshot file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(String fileName) throws IOException {
+		PersonRanking ranking = personIndex.getRanking();
+		ConnectionTable table = personIndex.getConnections();
+		int size = personIndex.size();
+		int firstUnranked = 0;
+		int secondUnranked = 0;
+		for (int edge = 0; edge < size; edge++) {
+			if (personIndex.firstRankOf(edge) < 0) {
+				firstUnranked++;
+			}
+			if (personIndex.secondRankOf(edge) < 0) {
+				secondUnranked++;
+			}
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(ranking.size());
+			out.writeInt(platformIndex.size());
+			out.writeInt(size);
+			out.writeInt(personIndex.start(ranking.size()));
+			out.writeInt(firstUnranked);
+			out.writeInt(secondUnranked);
+			for (int rank = 0; rank < ranking.size(); rank++) {
+				Person p = ranking.personAt(rank);
+				writeString(out, p.getId());
+				writeString(out, p.getFirst());
+				writeString(out, p.getLast());
+			}
+			for (int code = 0; code < platformIndex.size(); code++) {
+				writeString(out, platformIndex.platformAt(code));
+			}
+			for (int edge = 0; edge < size; edge++) {
+				if (personIndex.firstRankOf(edge) < 0) {
+					out.writeInt(edge);
+					writeString(out, table.firstPerson(edge));
+				}
+			}
+			for (int edge = 0; edge < size; edge++) {
+				if (personIndex.secondRankOf(edge) < 0) {
+					out.writeInt(edge);
+					writeString(out, table.secondPerson(edge));
+				}
+			}
+			int[] codes = new int[size];
+			for (int code = 0; code < platformIndex.size(); code++) {
+				for (int position = platformIndex.start(code); position < platformIndex.end(code); position++) {
+					codes[platformIndex.edgeAt(position)] = code;
+				}
+			}
+			for (int edge = 0; edge < size; edge++) {
+				out.writeInt(personIndex.firstRankOf(edge));
+			}
+			for (int edge = 0; edge < size; edge++) {
+				out.writeInt(personIndex.secondRankOf(edge));
+			}
+			for (int edge = 0; edge < size; edge++) {
+				out.writeInt(codes[edge]);
+			}
+			for (int edge = 0; edge < size; edge++) {
+				out.writeLong(table.date(edge));
+			}
+			long idBytes = 0;
+			out.writeLong(idBytes);
+			for (int edge = 0; edge < size; edge++) {
+				idBytes += table.id(edge).getBytes(StandardCharsets.UTF_8).length;
+				out.writeLong(idBytes);
+			}
+			for (int rank = 0; rank <= ranking.size(); rank++) {
+				out.writeInt(personIndex.start(rank));
+			}
+			for (int position = 0; position < personIndex.start(ranking.size()); position++) {
+				out.writeInt(personIndex.edgeAt(position));
+			}
+			for (int code = 0; code <= platformIndex.size(); code++) {
+				out.writeInt(platformIndex.start(code));
+			}
+			for (int position = 0; position < size; position++) {
+				out.writeInt(platformIndex.edgeAt(position));
+			}
+			for (int position = 0; position < size; position++) {
+				out.writeLong(platformIndex.timeAt(position));
+			}
+			for (int edge = 0; edge < size; edge++) {
+				out.write(table.id(edge).getBytes(StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	/**
+	 * Loads a snapshot from a file written by save, using skip list maps
+	 * @param fileName name of the snapshot file
+	 * @return the loaded snapshot
+	 * @throws FileNotFoundException if the file is not found
+	 * @throws IllegalArgumentException if the file is not a snapshot of a supported version
+	 */
+	public static NetworkSnapshot load(String fileName) throws FileNotFoundException {
+		return load(fileName, new DataStructureFactory(DataStructure.SKIPLIST));
+	}
+
+	/**
+	 * Loads a snapshot from a file written by save. The file is memory-mapped,
+	 * and the indexes and connections read their columns from the mapping.
+	 * @param fileName name of the snapshot file
+	 * @param factory factory of the maps and sorters of the loaded indexes
+	 * @return the loaded snapshot
+	 * @throws FileNotFoundException if the file is not found
+	 * @throws IllegalArgumentException if the file is not a snapshot of a supported version
+	 */
+	public static NetworkSnapshot load(String fileName, DataStructureFactory factory) throws FileNotFoundException {
+		return load(fileName, factory, MappedFile.WINDOW_SHIFT);
+	}
+
+	/**
+	 * Loads a snapshot from a file written by save, mapped in windows of a
+	 * given size
+	 * @param fileName name of the snapshot file
+	 * @param factory factory of the maps and sorters of the loaded indexes
+	 * @param windowShift log2 of the number of bytes of a window of the mapping
+	 * @return the loaded snapshot
+	 * @throws FileNotFoundException if the file is not found
+	 * @throws IllegalArgumentException if the file is not a snapshot of a supported version
+	 */
+	static NetworkSnapshot load(String fileName, DataStructureFactory factory, int windowShift)
+			throws FileNotFoundException {
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "r");
+				FileChannel channel = file.getChannel()) {
+			return read(new Cursor(new MappedFile(channel, windowShift)), fileName, factory);
+		} catch (FileNotFoundException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Snapshot is truncated: " + fileName);
+		}
+	}
+
+	/**
+	 * Reads a snapshot from a mapped snapshot file
+	 * @param in cursor at the start of the file
+	 * @param fileName name of the snapshot file, for error messages
+	 * @param factory factory of the maps and sorters of the indexes
+	 * @return the snapshot
+	 * @throws IllegalArgumentException if the file is not a snapshot of a supported version, or its
+	 *         counts do not fit in the file
+	 */
+	private static NetworkSnapshot read(Cursor in, String fileName, DataStructureFactory factory) {
+		if (in.file.size() < 8 || in.readInt() != MAGIC) {
+			throw new IllegalArgumentException("File is not a network snapshot: " + fileName);
+		}
+		int version = in.readInt();
+		if (version != FORMAT_VERSION) {
+			throw new IllegalArgumentException("Unsupported snapshot version " + version + ": " + fileName);
+		}
+		int people = in.readInt();
+		int platformCount = in.readInt();
+		int size = in.readInt();
+		int edgeCount = in.readInt();
+		int firstUnranked = in.readInt();
+		int secondUnranked = in.readInt();
+		if (people < 0 || platformCount < 0 || size < 0 || edgeCount < 0 || firstUnranked < 0 || secondUnranked < 0
+				|| in.remaining() < minimumBytes(people, platformCount, size, edgeCount,
+						(long) firstUnranked + secondUnranked)) {
+			throw new IllegalArgumentException("Snapshot is corrupt: " + fileName);
+		}
+
+		Person[] ordered = new Person[people];
+		String[] usernames = new String[people];
+		for (int rank = 0; rank < people; rank++) {
+			ordered[rank] = new Person(in.readString(), in.readString(), in.readString());
+			usernames[rank] = ordered[rank].getId();
+		}
+		String[] platforms = new String[platformCount];
+		for (int code = 0; code < platformCount; code++) {
+			platforms[code] = in.readString();
+		}
+		int[] firstEdges = new int[firstUnranked];
+		String[] firstNames = new String[firstUnranked];
+		for (int i = 0; i < firstUnranked; i++) {
+			firstEdges[i] = in.readInt();
+			firstNames[i] = in.readString();
+		}
+		int[] secondEdges = new int[secondUnranked];
+		String[] secondNames = new String[secondUnranked];
+		for (int i = 0; i < secondUnranked; i++) {
+			secondEdges[i] = in.readInt();
+			secondNames[i] = in.readString();
+		}
+		if (!inOrder(firstEdges, size) || !inOrder(secondEdges, size)) {
+			throw new IllegalArgumentException("Snapshot is corrupt: " + fileName);
+		}
+		IntColumn firstRank = in.ints(size);
+		IntColumn secondRank = in.ints(size);
+		IntColumn platformCodes = in.ints(size);
+		LongColumn dates = in.longs(size);
+		LongColumn idOffsets = in.longs(size + 1);
+		IntColumn personOffsets = in.ints(people + 1);
+		IntColumn edges = in.ints(edgeCount);
+		IntColumn platformOffsets = in.ints(platformCount + 1);
+		IntColumn order = in.ints(size);
+		LongColumn times = in.longs(size);
+		long idStart = in.position;
+		in.skip(idOffsets.get(size));
+		ConnectionTable table = new MappedConnections(in.file, usernames, platforms, firstRank, secondRank,
+				platformCodes, dates, idOffsets, idStart, firstEdges, firstNames, secondEdges, secondNames, factory);
+
+		PersonRanking ranking = new PersonRanking(ordered, factory);
+		PersonIndex personIndex = new PersonIndex(ranking, table, firstRank, secondRank, dates, personOffsets,
+				edges);
+		Map<String, Integer> codes = factory.getMap();
+		for (int code = 0; code < platformCount; code++) {
+			codes.put(platforms[code], code);
+		}
+		PlatformIndex platformIndex = new PlatformIndex(table, codes, platforms, platformOffsets, order, times,
+				factory);
+		return new NetworkSnapshot(personIndex, platformIndex);
+	}
+
+	/**
+	 * Returns the fewest bytes the rest of a snapshot can take after its
+	 * header: the three String lengths of each person, the length of each
+	 * platform name, the position and String length of each person who was
+	 * not ranked, and the columns
+	 * @param people number of people
+	 * @param platformCount number of platforms
+	 * @param size number of connections
+	 * @param edgeCount number of person index entries
+	 * @param unranked number of people who were not ranked, first and second
+	 * @return fewest bytes after the header
+	 */
+	private static long minimumBytes(int people, int platformCount, int size, int edgeCount, long unranked) {
+		long strings = 3L * Integer.BYTES * people + (long) Integer.BYTES * platformCount
+				+ 2L * Integer.BYTES * unranked;
+		long connections = (long) size * (4 * Integer.BYTES + 3 * Long.BYTES) + Long.BYTES;
+		long indexes = (long) Integer.BYTES * ((long) people + 1 + edgeCount + platformCount + 1);
+		return strings + connections + indexes;
+	}
+
+	/**
+	 * Returns whether connection positions are increasing and are positions of
+	 * a table, so they can be binary searched
+	 * @param edges connection positions
+	 * @param size number of connections of the table
+	 * @return true if every position is in the table and larger than the one before it
+	 */
+	private static boolean inOrder(int[] edges, int size) {
+		for (int i = 0; i < edges.length; i++) {
+			if (edges[i] < 0 || edges[i] >= size || i > 0 && edges[i] <= edges[i - 1]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes a String as its UTF-8 length and bytes
+	 * @param out stream the String is written to
+	 * @param s String to write
+	 * @throws IOException if the String cannot be written
+	 */
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Position in a mapped snapshot file that the sections of the file are
+	 * read from in order. Every read checks that it stays inside the file.
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class Cursor {
+		/** Mapped snapshot file */
+		private MappedFile file;
+		/** Position of the next byte to read */
+		private long position;
+
+		/**
+		 * Creates a cursor at the start of a file
+		 * @param file mapped snapshot file
+		 */
+		Cursor(MappedFile file) {
+			this.file = file;
+		}
+
+		/**
+		 * Returns the number of bytes after the position
+		 * @return bytes left to read
+		 */
+		long remaining() {
+			return file.size() - position;
+		}
+
+		/**
+		 * Moves past some bytes
+		 * @param length number of bytes
+		 * @throws BufferUnderflowException if the bytes go past the end of the file
+		 */
+		void skip(long length) {
+			if (length < 0 || position + length > file.size()) {
+				throw new BufferUnderflowException();
+			}
+			position += length;
+		}
+
+		/**
+		 * Reads an int
+		 * @return the int
+		 */
+		int readInt() {
+			long at = position;
+			skip(Integer.BYTES);
+			return file.getInt(at);
+		}
+
+		/**
+		 * Reads a String written by writeString. The length is checked against
+		 * the bytes left before the bytes are allocated.
+		 * @return the String
+		 * @throws BufferUnderflowException if the String goes past the end of the file
+		 */
+		String readString() {
+			int length = readInt();
+			long at = position;
+			skip(length);
+			byte[] bytes = new byte[length];
+			file.get(at, bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Returns a column of the next ints of the file and moves past them
+		 * @param length number of ints
+		 * @return column that reads the ints from the file
+		 */
+		IntColumn ints(int length) {
+			IntColumn column = file.ints(position, length);
+			position += (long) length * Integer.BYTES;
+			return column;
+		}
+
+		/**
+		 * Returns a column of the next longs of the file and moves past them
+		 * @param length number of longs
+		 * @return column that reads the longs from the file
+		 */
+		LongColumn longs(int length) {
+			LongColumn column = file.longs(position, length);
+			position += (long) length * Long.BYTES;
+			return column;
+		}
+	}
+}
@@ -0,0 +1,324 @@
+package edu.ncsu.csc316.social.manager;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.social.data.Connection;
+import edu.ncsu.csc316.social.data.Person;
+
+/**
+ * NetworkState is one published version of a loaded network: its connections,
+ * its indexes and the maps the managers return. A state is never changed once
+ * it is built. SocialMediaManager builds the next state off to the side when
+ * people or connections are added and then swaps it in, so a thread that is
+ * reading a state never sees it change and never has to lock it.
+ * Building a state only takes its indexes, so adding a delta does not build
+ * anything in proportion to the whole network. The map of people and the maps
+ * of connections by person and by platform are built the first time they are
+ * asked for, together with the rank or code of every entry of the maps in the
+ * order the maps list them, so readers never look a name up in a map. Lookups
+ * reorder an unordered linked map, so they are not safe to run from more than
+ * one thread. Single usernames and platforms are looked up in NameIndexes
+ * instead, which are built the first time a name is looked up.
+ * @author Arnold Elamthuruthil
+ */
+public class NetworkState {
+	/** Factory of the maps of this state */
+	private final DataStructureFactory factory;
+	/** Connections of the network, by position */
+	private final ConnectionTable connections;
+	/** Sorted adjacency index of every person's connections */
+	private final PersonIndex personIndex;
+	/** Index of the connections on each platform in date order */
+	private final PlatformIndex platformIndex;
+	/** Number of states that came before this one */
+	private final int version;
+	/** Map of each person with their username as key, or null until it is asked for */
+	private volatile Map<String, Person> people;
+	/** Maps of connections by person and by platform, or null until they are asked for */
+	private volatile StateMaps maps;
+	/** Rank of each username, or null until a username is looked up */
+	private volatile NameIndex personNames;
+	/** Code of each platform, or null until a platform is looked up */
+	private volatile NameIndex platformNames;
+	/** Connected components of the network, or null until they are asked for */
+	private volatile ComponentAnalysis components;
+	/** Engine of recommendations, or null until one is asked for */
+	private volatile RecommendationEngine recommendations;
+
+	/**
+	 * Creates a NetworkState. Its maps are built when they are first asked for.
+	 * @param factory factory of the maps
+	 * @param people map of each person with their username as key, or null to
+	 * build it from the ranking of the person index when it is asked for
+	 * @param connections connections of the network, by position
+	 * @param personIndex sorted adjacency index of every person's connections
+	 * @param platformIndex index of the connections on each platform in date order
+	 * @param version number of states that came before this one
+	 */
+	public NetworkState(DataStructureFactory factory, Map<String, Person> people, ConnectionTable connections,
+			PersonIndex personIndex, PlatformIndex platformIndex, int version) {
+		this.factory = factory;
+		this.connections = connections;
+		this.personIndex = personIndex;
+		this.platformIndex = platformIndex;
+		this.version = version;
+		this.people = people;
+	}
+
+	/**
+	 * Returns the state of the same network as the next version, whose maps
+	 * are built again when they are asked for
+	 * @return the rebuilt state
+	 */
+	public NetworkState rebuild() {
+		NetworkState next = new NetworkState(factory, null, connections, personIndex, platformIndex, version + 1);
+		next.keepNames(this);
+		return next;
+	}
+
+	/**
+	 * Reuses the name indexes a previous state has built for the same people
+	 * or the same platforms, so adding connections that only join known
+	 * people on known platforms does not make the next lookup sort every
+	 * username or platform again.
+	 * Called by the thread building this state, before the state is published.
+	 * @param previous state this state was built from
+	 */
+	void keepNames(NetworkState previous) {
+		if (previous.personIndex.getRanking() == personIndex.getRanking()) {
+			personNames = previous.personNames;
+		}
+		//An index built by add keeps the codes of the platforms it was built from
+		if (previous.platformIndex.size() == platformIndex.size()) {
+			platformNames = previous.platformNames;
+		}
+	}
+
+	/**
+	 * Returns the table of the connections of the network, by position
+	 * @return connections of the network
+	 */
+	public ConnectionTable getConnections() {
+		return connections;
+	}
+
+	/**
+	 * Returns the sorted adjacency index of every person's connections
+	 * @return index of every person's connections
+	 */
+	public PersonIndex getPersonIndex() {
+		return personIndex;
+	}
+
+	/**
+	 * Returns the index of the connections on each platform in date order
+	 * @return index of every platform's connections
+	 */
+	public PlatformIndex getPlatformIndex() {
+		return platformIndex;
+	}
+
+	/**
+	 * Returns the number of states that came before this one
+	 * @return version of the state
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the map of each person with their username as key, building it
+	 * from the ranking the first time it is asked for. Two threads may both
+	 * build it, but they build equal maps, so either one can be kept.
+	 * @return map of usernames to people
+	 */
+	public Map<String, Person> getPeople() {
+		Map<String, Person> built = people;
+		if (built == null) {
+			PersonRanking ranking = personIndex.getRanking();
+			built = factory.getMap();
+			for (int rank = 0; rank < ranking.size(); rank++) {
+				built.put(ranking.personAt(rank).getId(), ranking.personAt(rank));
+			}
+			people = built;
+		}
+		return built;
+	}
+
+	/**
+	 * Returns the map of each person with their username as key if it has
+	 * been built, so a state of the same people can share it without
+	 * building it
+	 * @return map of usernames to people, or null if it has not been built
+	 */
+	Map<String, Person> getBuiltPeople() {
+		return people;
+	}
+
+	/**
+	 * Returns the map of each person's username to their sorted connections
+	 * @return map of usernames to connections
+	 */
+	public Map<String, List<Connection>> getConnectionsByPerson() {
+		return maps().byPerson;
+	}
+
+	/**
+	 * Returns the map of each platform to its connections in date order
+	 * @return map of platforms to connections
+	 */
+	public Map<String, List<Connection>> getConnectionsByPlatform() {
+		return maps().byPlatform;
+	}
+
+	/**
+	 * Returns the maps of connections by person and by platform, building
+	 * them the first time they are asked for. Two threads may both build
+	 * them, but they build equal maps, so either one can be kept.
+	 * @return maps of the state
+	 */
+	private StateMaps maps() {
+		StateMaps built = maps;
+		if (built == null) {
+			built = new StateMaps();
+			maps = built;
+		}
+		return built;
+	}
+
+	/**
+	 * Returns the rank of the person with a username. Two threads may both
+	 * build the index of usernames the first time, but they build equal
+	 * indexes, so either one can be kept.
+	 * @param username username of the person
+	 * @return rank of the person, or -1 if there is no person with the username
+	 */
+	public int rankOf(String username) {
+		NameIndex names = personNames;
+		if (names == null) {
+			PersonRanking ranking = personIndex.getRanking();
+			String[] ids = new String[ranking.size()];
+			for (int rank = 0; rank < ids.length; rank++) {
+				ids[rank] = ranking.personAt(rank).getId();
+			}
+			names = new NameIndex(ids, factory);
+			personNames = names;
+		}
+		return names.keyOf(username);
+	}
+
+	/**
+	 * Returns the code of a platform, building the index of platforms the
+	 * first time a platform is looked up
+	 * @param platform name of the platform
+	 * @return code of the platform, or -1 if no connection is on the platform
+	 */
+	public int codeOf(String platform) {
+		NameIndex names = platformNames;
+		if (names == null) {
+			String[] platforms = new String[platformIndex.size()];
+			for (int code = 0; code < platforms.length; code++) {
+				platforms[code] = platformIndex.platformAt(code);
+			}
+			names = new NameIndex(platforms, factory);
+			platformNames = names;
+		}
+		return names.keyOf(platform);
+	}
+
+	/**
+	 * Returns the connected components of the network and of each platform,
+	 * finding them the first time they are asked for. Two threads may both
+	 * find them, but they find equal components, so either one can be kept.
+	 * @return components of the network
+	 */
+	public ComponentAnalysis getComponents() {
+		ComponentAnalysis found = components;
+		if (found == null) {
+			found = new ComponentAnalysis(personIndex, platformIndex);
+			components = found;
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the engine that recommends people to each other, creating it the
+	 * first time a recommendation is asked for
+	 * @return recommendation engine of the network
+	 */
+	public RecommendationEngine getRecommendations() {
+		RecommendationEngine engine = recommendations;
+		if (engine == null) {
+			engine = new RecommendationEngine(personIndex, platformIndex, factory);
+			recommendations = engine;
+		}
+		return engine;
+	}
+
+	/**
+	 * Returns the rank of each person in the order getConnectionsByPerson
+	 * lists them. Callers must not change the array.
+	 * @return ranks of the people in map order
+	 */
+	int[] getPersonKeys() {
+		return maps().personKeys;
+	}
+
+	/**
+	 * Returns the code of each platform in the order getConnectionsByPlatform
+	 * lists them. Callers must not change the array.
+	 * @return codes of the platforms in map order
+	 */
+	int[] getPlatformKeys() {
+		return maps().platformKeys;
+	}
+
+	/**
+	 * Maps of connections by person and by platform of a state, with the key
+	 * of each entry in the order the maps list them. The keys are found in the
+	 * NameIndexes of the state, so building the maps only looks names up in
+	 * maps that are local to the thread building them.
+	 * @author Arnold Elamthuruthil
+	 */
+	private class StateMaps {
+		/** Map of all connections by each person */
+		private Map<String, List<Connection>> byPerson;
+		/** Map of all connections on each platform */
+		private Map<String, List<Connection>> byPlatform;
+		/** Rank of each person in the order byPerson lists them */
+		private int[] personKeys;
+		/** Code of each platform in the order byPlatform lists them */
+		private int[] platformKeys;
+
+		/**
+		 * Builds the maps of the state
+		 */
+		StateMaps() {
+			long start = ManagerMetrics.start();
+			PersonRanking ranking = personIndex.getRanking();
+			byPerson = factory.getMap();
+			byPlatform = factory.getMap();
+			if (ranking.size() != 0 && connections.size() != 0) {
+				for (int rank = 0; rank < ranking.size(); rank++) {
+					byPerson.put(ranking.personAt(rank).getId(), personIndex.connectionsOf(rank));
+				}
+				for (int code = 0; code < platformIndex.size(); code++) {
+					byPlatform.put(platformIndex.platformAt(code), platformIndex.connectionsOn(code));
+				}
+			}
+			personKeys = new int[byPerson.size()];
+			int i = 0;
+			for (String id : byPerson) {
+				personKeys[i] = rankOf(id);
+				i++;
+			}
+			platformKeys = new int[byPlatform.size()];
+			i = 0;
+			for (String platform : byPlatform) {
+				platformKeys[i] = codeOf(platform);
+				i++;
+			}
+			ManagerMetrics.record(ManagerMetrics.Phase.STATE_MAPS, start, personKeys.length + platformKeys.length, 0);
+		}
+	}
+}
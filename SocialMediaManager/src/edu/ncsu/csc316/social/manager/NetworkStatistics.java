@@ -0,0 +1,294 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.util.Calendar;
+
+import edu.ncsu.csc316.social.data.Connection;
+
+/**
+ * NetworkStatistics finds the statistics of a network and of the connections
+ * on each platform in one pass over the platforms' date-ordered buckets of a
+ * PlatformIndex, so every connection is read once and no list of connections
+ * is built for anyone. Each platform's connections are counted into one int
+ * counter per person, which is reset for only the people the platform touched
+ * and reused for the next platform. The people with the most connections are
+ * kept in a TopK of at most k entries. Because the buckets are in date order,
+ * the year of a connection is only worked out when a bucket crosses into a
+ * new year, and the oldest and newest connections are the ends of the bucket.
+ * The statistics of the whole network use the degrees the PersonIndex already
+ * has and combine the statistics of the platforms, so they cost time
+ * proportional to the number of people plus k times the number of platforms.
+ * @author Arnold Elamthuruthil
+ */
+public class NetworkStatistics {
+	/** Statistics of the whole network */
+	private ConnectionStatistics network;
+	/** Statistics of the connections on each platform, by code */
+	private ConnectionStatistics[] platforms;
+
+	/**
+	 * Finds the statistics of a network
+	 * @param index index of the people and connections of the network
+	 * @param platformIndex index of the connections on each platform
+	 * @param k number of people with the most connections, and of oldest and
+	 * newest connections, to keep
+	 */
+	public NetworkStatistics(PersonIndex index, PlatformIndex platformIndex, int k) {
+		int people = index.getRanking().size();
+		int[] degree = new int[people];
+		int[] touched = new int[people];
+		Calendar calendar = Calendar.getInstance();
+		platforms = new ConnectionStatistics[platformIndex.size()];
+		for (int code = 0; code < platforms.length; code++) {
+			platforms[code] = scan(index, platformIndex, code, k, degree, touched, calendar);
+		}
+		network = combine(index, k);
+	}
+
+	/**
+	 * Returns the statistics of the whole network
+	 * @return statistics of the network
+	 */
+	public ConnectionStatistics getStatistics() {
+		return network;
+	}
+
+	/**
+	 * Returns the statistics of the connections on one platform
+	 * @param code code of the platform
+	 * @return statistics of the platform
+	 */
+	public ConnectionStatistics getStatistics(int code) {
+		return platforms[code];
+	}
+
+	/**
+	 * Finds the statistics of one platform's bucket
+	 * @param index index of the people and connections of the network
+	 * @param platformIndex index of the connections on each platform
+	 * @param code code of the platform
+	 * @param k number of people and connections to keep
+	 * @param degree counter of each person's connections, all zero, which is left zero
+	 * @param touched scratch array of at least one int per person
+	 * @param calendar calendar the years are worked out with
+	 * @return statistics of the platform
+	 */
+	private static ConnectionStatistics scan(PersonIndex index, PlatformIndex platformIndex, int code, int k,
+			int[] degree, int[] touched, Calendar calendar) {
+		int from = platformIndex.start(code);
+		int to = platformIndex.end(code);
+		YearCounter years = new YearCounter(calendar);
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			int edge = platformIndex.edgeAt(i);
+			years.add(platformIndex.timeAt(i));
+			int r1 = index.firstRankOf(edge);
+			int r2 = index.secondRankOf(edge);
+			if (r1 >= 0) {
+				if (degree[r1] == 0) {
+					touched[count++] = r1;
+				}
+				degree[r1]++;
+			}
+			if (r2 >= 0) {
+				if (degree[r2] == 0) {
+					touched[count++] = r2;
+				}
+				degree[r2]++;
+			}
+		}
+
+		TopK top = new TopK(k);
+		int max = 0;
+		for (int t = 0; t < count; t++) {
+			int rank = touched[t];
+			top.offer(rank, degree[rank]);
+			max = Math.max(max, degree[rank]);
+		}
+		int[] histogram = new int[max + 1];
+		histogram[0] = degree.length - count;
+		for (int t = 0; t < count; t++) {
+			histogram[degree[touched[t]]]++;
+			degree[touched[t]] = 0;
+		}
+
+		int extremes = Math.max(0, Math.min(k, to - from));
+		int[] oldest = new int[extremes];
+		int[] newest = new int[extremes];
+		for (int i = 0; i < extremes; i++) {
+			oldest[i] = platformIndex.edgeAt(from + i);
+			newest[i] = platformIndex.edgeAt(to - 1 - i);
+		}
+		return build(index, to - from, top, histogram, years.firstYear, years.counts(), oldest, newest);
+	}
+
+	/**
+	 * Finds the statistics of the whole network from the degrees of the person
+	 * index and the statistics of the platforms
+	 * @param index index of the people and connections of the network
+	 * @param k number of people and connections to keep
+	 * @return statistics of the network
+	 */
+	private ConnectionStatistics combine(PersonIndex index, int k) {
+		int people = index.getRanking().size();
+		TopK top = new TopK(k);
+		int max = 0;
+		for (int rank = 0; rank < people; rank++) {
+			top.offer(rank, index.degree(rank));
+			max = Math.max(max, index.degree(rank));
+		}
+		int[] histogram = new int[max + 1];
+		for (int rank = 0; rank < people; rank++) {
+			histogram[index.degree(rank)]++;
+		}
+
+		int connections = 0;
+		int firstYear = Integer.MAX_VALUE;
+		int lastYear = Integer.MIN_VALUE;
+		int extremes = 0;
+		for (ConnectionStatistics p : platforms) {
+			connections += p.getConnectionCount();
+			if (p.getConnectionCount() > 0) {
+				firstYear = Math.min(firstYear, p.getFirstYear());
+				lastYear = Math.max(lastYear, p.getLastYear());
+			}
+			extremes += p.getExtremeCount();
+		}
+		int[] years = new int[0];
+		if (connections == 0) {
+			firstYear = 0;
+		} else {
+			years = new int[lastYear - firstYear + 1];
+			for (ConnectionStatistics p : platforms) {
+				for (int year = p.getFirstYear(); year <= p.getLastYear(); year++) {
+					years[year - firstYear] += p.getConnectionsIn(year);
+				}
+			}
+		}
+
+		//Each platform's oldest and newest are in order, so the ones of the
+		//network are picked from the front of each platform's lists
+		extremes = Math.min(k, extremes);
+		int[] oldest = new int[Math.max(0, extremes)];
+		int[] newest = new int[oldest.length];
+		int[] nextOldest = new int[platforms.length];
+		int[] nextNewest = new int[platforms.length];
+		for (int i = 0; i < oldest.length; i++) {
+			int pickOldest = -1;
+			int pickNewest = -1;
+			for (int code = 0; code < platforms.length; code++) {
+				ConnectionStatistics p = platforms[code];
+				if (nextOldest[code] < p.getExtremeCount() && (pickOldest < 0
+						|| compare(p.getOldest(nextOldest[code]),
+								platforms[pickOldest].getOldest(nextOldest[pickOldest])) < 0)) {
+					pickOldest = code;
+				}
+				if (nextNewest[code] < p.getExtremeCount() && (pickNewest < 0
+						|| compare(p.getNewest(nextNewest[code]),
+								platforms[pickNewest].getNewest(nextNewest[pickNewest])) > 0)) {
+					pickNewest = code;
+				}
+			}
+			oldest[i] = platforms[pickOldest].oldestEdge(nextOldest[pickOldest]++);
+			newest[i] = platforms[pickNewest].newestEdge(nextNewest[pickNewest]++);
+		}
+		return build(index, connections, top, histogram, firstYear, years, oldest, newest);
+	}
+
+	/**
+	 * Builds statistics, emptying the TopK of the people with the most connections
+	 * @param index index of the people and connections of the network
+	 * @param connections number of connections
+	 * @param top people with the most connections
+	 * @param histogram number of people with each number of connections
+	 * @param firstYear first year with a connection
+	 * @param years number of connections made in each year from firstYear on
+	 * @param oldest positions of the oldest connections, oldest first
+	 * @param newest positions of the newest connections, newest first
+	 * @return the statistics
+	 */
+	private static ConnectionStatistics build(PersonIndex index, int connections, TopK top, int[] histogram,
+			int firstYear, int[] years, int[] oldest, int[] newest) {
+		int[] topRanks = new int[top.size()];
+		long[] topDegrees = new long[topRanks.length];
+		top.drain(topRanks, topDegrees);
+		return new ConnectionStatistics(index, connections, topRanks, topDegrees, histogram, firstYear, years,
+				oldest, newest);
+	}
+
+	/**
+	 * Compares two connections by date, and then by connection id, the order
+	 * of the platform buckets
+	 * @param c1 first connection
+	 * @param c2 second connection
+	 * @return negative, zero or positive as the first connection comes before, with or after the second
+	 */
+	private static int compare(Connection c1, Connection c2) {
+		int compare = c1.getDate().compareTo(c2.getDate());
+		if (compare != 0) {
+			return compare;
+		}
+		return c1.getId().compareTo(c2.getId());
+	}
+
+	/**
+	 * Counts connections by year for connections given in date order. The
+	 * year is only worked out with the calendar when a connection is past the
+	 * end of the year of the one before it.
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class YearCounter {
+		/** Calendar the years are worked out with */
+		private Calendar calendar;
+		/** First year counted, or 0 if nothing has been counted */
+		private int firstYear;
+		/** Number of connections in each year from firstYear on, with room to grow */
+		private int[] counts = new int[0];
+		/** Number of years counted */
+		private int size;
+		/** Start of the year after the last connection counted, in epoch milliseconds */
+		private long yearEnd = Long.MIN_VALUE;
+
+		/**
+		 * Creates a YearCounter
+		 * @param calendar calendar the years are worked out with
+		 */
+		YearCounter(Calendar calendar) {
+			this.calendar = calendar;
+		}
+
+		/**
+		 * Counts a connection made at or after the one counted before it
+		 * @param time date of the connection in epoch milliseconds
+		 */
+		void add(long time) {
+			if (time >= yearEnd) {
+				calendar.setTimeInMillis(time);
+				int year = calendar.get(Calendar.YEAR);
+				calendar.clear();
+				calendar.set(year + 1, Calendar.JANUARY, 1);
+				yearEnd = calendar.getTimeInMillis();
+				if (size == 0) {
+					firstYear = year;
+				}
+				int needed = year - firstYear + 1;
+				if (needed > counts.length) {
+					int[] grown = new int[Math.max(needed, counts.length * 2)];
+					System.arraycopy(counts, 0, grown, 0, size);
+					counts = grown;
+				}
+				size = needed;
+			}
+			counts[size - 1]++;
+		}
+
+		/**
+		 * Returns the counts of the years from firstYear to the last year counted
+		 * @return number of connections in each year
+		 */
+		int[] counts() {
+			int[] trimmed = new int[size];
+			System.arraycopy(counts, 0, trimmed, 0, size);
+			return trimmed;
+		}
+	}
+}
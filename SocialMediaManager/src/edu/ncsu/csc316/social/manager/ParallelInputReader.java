@@ -0,0 +1,628 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.data.Connection;
+import edu.ncsu.csc316.social.data.Person;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * ParallelInputReader reads the same people and connection files as
+ * InputReader, but memory-maps the file, splits it into chunks at newline
+ * boundaries and parses the chunks in parallel on a fork-join pool.
+ * The header line is skipped and the records are returned in file order,
+ * so the lists are the same as the ones InputReader produces.
+ * The lists are created by a DataStructureFactory instead of DSAFactory, so
+ * readers with different list types can run at the same time.
+ * A connection file can also be read into an off-heap ConnectionStore, in
+ * which case no Connection object is created while it is read.
+ * A file can also be streamed: its chunks are handed to a ChunkConsumer in
+ * file order as soon as each one is parsed, with only a few chunks parsed
+ * ahead of the consumer, so the records can be used while the rest of the
+ * file is still being read.
+ * @author Arnold Elamthuruthil
+ */
+public class ParallelInputReader {
+	/** Smallest number of bytes worth handing to its own fork-join task */
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+	/** Largest number of bytes mapped for a single chunk */
+	private static final long MAX_CHUNK_SIZE = 1 << 30;
+	/** Number of bytes mapped at a time while looking for a line break */
+	private static final int SCAN_WINDOW = 1 << 16;
+	/** Format of the dates in a connection file */
+	private static final String DATE_FORMAT = "EEE MMM d HH:mm:ss z yyyy";
+	/** Number of fields read from each line of a people file */
+	private static final int PERSON_FIELDS = 3;
+	/** Number of fields read from each line of a connection file */
+	private static final int CONNECTION_FIELDS = 5;
+	/** Rough number of bytes of a line of a connection file, used to size stores */
+	static final int BYTES_PER_CONNECTION = 64;
+	/** Smallest number of bytes of a chunk of a streamed file */
+	private static final long MIN_STREAM_CHUNK_SIZE = 1 << 16;
+	/** Number of chunks a streamed file is split into, unless they would be too small */
+	private static final int STREAM_CHUNKS = 64;
+
+	/**
+	 * Reads a people file and returns a list of the people in it
+	 * @param fileName name of the people file
+	 * @return list of people in file order
+	 * @throws FileNotFoundException if file is not found
+	 */
+	public static List<Person> readPersonData(String fileName) throws FileNotFoundException {
+		return readPersonData(fileName, new DataStructureFactory(DataStructure.SKIPLIST));
+	}
+
+	/**
+	 * Reads a people file into lists created by a factory
+	 * @param fileName name of the people file
+	 * @param factory factory of the lists
+	 * @return list of people in file order
+	 * @throws FileNotFoundException if file is not found
+	 */
+	public static List<Person> readPersonData(String fileName, DataStructureFactory factory)
+			throws FileNotFoundException {
+		return readPersonData(fileName, defaultChunkSize(fileName), factory);
+	}
+
+	/**
+	 * Reads a connection file and returns a list of the connections in it
+	 * @param fileName name of the connection file
+	 * @return list of connections in file order
+	 * @throws FileNotFoundException if file is not found
+	 * @throws IllegalArgumentException if a connection has a date that cannot be parsed
+	 */
+	public static List<Connection> readConnectionData(String fileName) throws FileNotFoundException {
+		return readConnectionData(fileName, new DataStructureFactory(DataStructure.SKIPLIST));
+	}
+
+	/**
+	 * Reads a connection file into lists created by a factory
+	 * @param fileName name of the connection file
+	 * @param factory factory of the lists
+	 * @return list of connections in file order
+	 * @throws FileNotFoundException if file is not found
+	 * @throws IllegalArgumentException if a connection has a date that cannot be parsed
+	 */
+	public static List<Connection> readConnectionData(String fileName, DataStructureFactory factory)
+			throws FileNotFoundException {
+		return readConnectionData(fileName, defaultChunkSize(fileName), factory);
+	}
+
+	/**
+	 * Reads a people file using chunks of roughly the given size
+	 * @param fileName name of the people file
+	 * @param chunkSize number of bytes each task parses, rounded up to the next line
+	 * @param factory factory of the lists
+	 * @return list of people in file order
+	 * @throws FileNotFoundException if file is not found
+	 */
+	static List<Person> readPersonData(String fileName, long chunkSize, DataStructureFactory factory)
+			throws FileNotFoundException {
+		long start = ManagerMetrics.start();
+		ChunkTask[] tasks = split(fileName, chunkSize,
+				chunk -> new PersonChunkTask(chunk, factory.getIndexedList()));
+		List<Person> people = join(tasks, factory);
+		recordParse(fileName, start, people.size());
+		return people;
+	}
+
+	/**
+	 * Reads a connection file using chunks of roughly the given size
+	 * @param fileName name of the connection file
+	 * @param chunkSize number of bytes each task parses, rounded up to the next line
+	 * @param factory factory of the lists
+	 * @return list of connections in file order
+	 * @throws FileNotFoundException if file is not found
+	 */
+	static List<Connection> readConnectionData(String fileName, long chunkSize, DataStructureFactory factory)
+			throws FileNotFoundException {
+		long start = ManagerMetrics.start();
+		ChunkTask[] tasks = split(fileName, chunkSize,
+				chunk -> new ConnectionChunkTask(chunk, factory.getIndexedList()));
+		List<Connection> connections = join(tasks, factory);
+		recordParse(fileName, start, connections.size());
+		return connections;
+	}
+
+	/**
+	 * Reads a connection file into an off-heap ConnectionStore without creating
+	 * a Connection object for any line. Each chunk is parsed into a store of
+	 * its own, and the stores are joined in file order.
+	 * @param fileName name of the connection file
+	 * @param factory factory of the maps of the store's dictionaries
+	 * @return store of the connections in file order
+	 * @throws FileNotFoundException if file is not found
+	 * @throws IllegalArgumentException if a connection has a date that cannot be parsed
+	 */
+	public static ConnectionStore readConnectionStore(String fileName, DataStructureFactory factory)
+			throws FileNotFoundException {
+		return readConnectionStore(fileName, defaultChunkSize(fileName), factory);
+	}
+
+	/**
+	 * Reads a connection file into an off-heap ConnectionStore using chunks of
+	 * roughly the given size
+	 * @param fileName name of the connection file
+	 * @param chunkSize number of bytes each task parses, rounded up to the next line
+	 * @param factory factory of the maps of the store's dictionaries
+	 * @return store of the connections in file order
+	 * @throws FileNotFoundException if file is not found
+	 */
+	static ConnectionStore readConnectionStore(String fileName, long chunkSize, DataStructureFactory factory)
+			throws FileNotFoundException {
+		long start = ManagerMetrics.start();
+		ChunkTask[] tasks = split(fileName, chunkSize, chunk -> new StoreChunkTask(chunk, factory));
+		ForkJoinTask.invokeAll(tasks);
+		ConnectionStore[] parts = new ConnectionStore[tasks.length];
+		for (int i = 0; i < tasks.length; i++) {
+			parts[i] = ((StoreChunkTask) tasks[i]).store;
+		}
+		ConnectionStore store = parts.length == 0 ? new ConnectionStore(factory, 0)
+				: ConnectionStore.join(parts, factory);
+		recordParse(fileName, start, store.size());
+		return store;
+	}
+
+	/**
+	 * Streams the people of a file to a consumer one chunk at a time
+	 * @param fileName name of the people file
+	 * @param chunkSize number of bytes each task parses, rounded up to the next line
+	 * @param factory factory of the lists
+	 * @param consumer consumer of the list of people of each chunk, in file order
+	 * @throws FileNotFoundException if file is not found
+	 * @throws InterruptedException if the thread is interrupted while the consumer waits
+	 */
+	static void streamPersonData(String fileName, long chunkSize, DataStructureFactory factory,
+			ChunkConsumer<? super List<Person>> consumer) throws FileNotFoundException, InterruptedException {
+		long start = ManagerMetrics.start();
+		ChunkTask[] tasks = split(fileName, chunkSize,
+				chunk -> new PersonChunkTask(chunk, factory.getIndexedList()));
+		recordParse(fileName, start, stream(tasks, consumer));
+	}
+
+	/**
+	 * Streams the connections of a file to a consumer one chunk at a time
+	 * @param fileName name of the connection file
+	 * @param chunkSize number of bytes each task parses, rounded up to the next line
+	 * @param factory factory of the lists
+	 * @param consumer consumer of the list of connections of each chunk, in file order
+	 * @throws FileNotFoundException if file is not found
+	 * @throws InterruptedException if the thread is interrupted while the consumer waits
+	 */
+	static void streamConnectionData(String fileName, long chunkSize, DataStructureFactory factory,
+			ChunkConsumer<? super List<Connection>> consumer) throws FileNotFoundException, InterruptedException {
+		long start = ManagerMetrics.start();
+		ChunkTask[] tasks = split(fileName, chunkSize,
+				chunk -> new ConnectionChunkTask(chunk, factory.getIndexedList()));
+		recordParse(fileName, start, stream(tasks, consumer));
+	}
+
+	/**
+	 * Streams the connections of a file to a consumer one chunk at a time,
+	 * each chunk parsed into an off-heap ConnectionStore of its own
+	 * @param fileName name of the connection file
+	 * @param chunkSize number of bytes each task parses, rounded up to the next line
+	 * @param factory factory of the maps of the stores' dictionaries
+	 * @param consumer consumer of the store of each chunk, in file order
+	 * @throws FileNotFoundException if file is not found
+	 * @throws InterruptedException if the thread is interrupted while the consumer waits
+	 */
+	static void streamConnectionStore(String fileName, long chunkSize, DataStructureFactory factory,
+			ChunkConsumer<? super ConnectionStore> consumer) throws FileNotFoundException, InterruptedException {
+		long start = ManagerMetrics.start();
+		ChunkTask[] tasks = split(fileName, chunkSize, chunk -> new StoreChunkTask(chunk, factory));
+		recordParse(fileName, start, stream(tasks, consumer));
+	}
+
+	/**
+	 * Picks a chunk size that splits a file into enough chunks to stream it
+	 * @param fileName name of the file to read
+	 * @return number of bytes each task should parse
+	 */
+	static long streamChunkSize(String fileName) {
+		long perChunk = new File(fileName).length() / STREAM_CHUNKS;
+		return Math.max(MIN_STREAM_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, perChunk));
+	}
+
+	/**
+	 * Runs the tasks on the fork-join pool a few at a time ahead of the
+	 * consumer, and hands the result of each one to the consumer in file
+	 * order from the calling thread
+	 * @param <E> type of the result of each chunk
+	 * @param tasks tasks in file order
+	 * @param consumer consumer of the results
+	 * @return number of records of every chunk
+	 * @throws InterruptedException if the thread is interrupted while the consumer waits
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E> int stream(ChunkTask[] tasks, ChunkConsumer<? super E> consumer) throws InterruptedException {
+		int ahead = ForkJoinPool.getCommonPoolParallelism() + 1;
+		for (int i = 0; i < tasks.length && i < ahead; i++) {
+			tasks[i].fork();
+		}
+		int records = 0;
+		try {
+			for (int i = 0; i < tasks.length; i++) {
+				tasks[i].join();
+				if (i + ahead < tasks.length) {
+					tasks[i + ahead].fork();
+				}
+				records += tasks[i].records();
+				consumer.accept((E) tasks[i].result(), tasks[i].chunk.limit());
+			}
+		} finally {
+			for (ChunkTask task : tasks) {
+				task.cancel(false);
+			}
+		}
+		return records;
+	}
+
+	/**
+	 * Records the parse of a file with ManagerMetrics, if it was timed
+	 * @param fileName name of the file that was read
+	 * @param start start time returned by ManagerMetrics.start
+	 * @param records number of records read from the file
+	 */
+	private static void recordParse(String fileName, long start, int records) {
+		if (start != 0) {
+			ManagerMetrics.recordParse(start, records, new File(fileName).length());
+		}
+	}
+
+	/**
+	 * Picks a chunk size that gives every worker of the common pool a share of the file
+	 * @param fileName name of the file to read
+	 * @return number of bytes each task should parse
+	 */
+	private static long defaultChunkSize(String fileName) {
+		long perWorker = new File(fileName).length() / ForkJoinPool.getCommonPoolParallelism();
+		return Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, perWorker));
+	}
+
+	/**
+	 * Maps the file and creates one task for each newline aligned chunk after the header
+	 * @param fileName name of the file to read
+	 * @param chunkSize number of bytes each task should parse
+	 * @param tasks creates the task for a mapped chunk
+	 * @return tasks in file order
+	 * @throws FileNotFoundException if file is not found
+	 */
+	private static ChunkTask[] split(String fileName, long chunkSize, TaskFactory tasks)
+			throws FileNotFoundException {
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "r");
+				FileChannel channel = file.getChannel()) {
+			long size = channel.size();
+			long start = nextLine(channel, 0, size);
+			long step = Math.max(1, Math.min(MAX_CHUNK_SIZE, chunkSize));
+			ChunkTask[] created = new ChunkTask[(int) ((size - start) / step) + 1];
+			int count = 0;
+			while (start < size) {
+				long end = nextLine(channel, Math.min(size, start + step) - 1, size);
+				created[count++] = tasks.create(channel.map(MapMode.READ_ONLY, start, end - start));
+				start = end;
+			}
+			ChunkTask[] used = new ChunkTask[count];
+			System.arraycopy(created, 0, used, 0, count);
+			return used;
+		} catch (FileNotFoundException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Finds the start of the line after the given position
+	 * @param channel file being read
+	 * @param position position to start looking from
+	 * @param size size of the file
+	 * @return position just after the next line break, or the size of the file
+	 * @throws IOException if the file cannot be mapped
+	 */
+	private static long nextLine(FileChannel channel, long position, long size) throws IOException {
+		while (position < size) {
+			int length = (int) Math.min(SCAN_WINDOW, size - position);
+			MappedByteBuffer window = channel.map(MapMode.READ_ONLY, position, length);
+			for (int i = 0; i < length; i++) {
+				if (window.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += length;
+		}
+		return size;
+	}
+
+	/**
+	 * Runs every task on the fork-join pool and appends their records in file order
+	 * @param <E> type of record the tasks parse
+	 * @param tasks record tasks in file order
+	 * @param factory factory of the list
+	 * @return list of every record
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E> List<E> join(ChunkTask[] tasks, DataStructureFactory factory) {
+		ForkJoinTask.invokeAll(tasks);
+		List<E> records = factory.getIndexedList();
+		for (ChunkTask task : tasks) {
+			for (E record : ((RecordChunkTask<E>) task).records) {
+				records.addLast(record);
+			}
+		}
+		return records;
+	}
+
+	/**
+	 * Receives the parsed chunks of a streamed file
+	 * @param <E> type of the result of each chunk
+	 * @author Arnold Elamthuruthil
+	 */
+	interface ChunkConsumer<E> {
+		/**
+		 * Receives the result of the next chunk of the file
+		 * @param result records of the chunk
+		 * @param bytes number of bytes of the chunk
+		 * @throws InterruptedException if the thread is interrupted while waiting
+		 */
+		void accept(E result, int bytes) throws InterruptedException;
+	}
+
+	/**
+	 * Creates the parsing task for one mapped chunk of a file
+	 * @author Arnold Elamthuruthil
+	 */
+	private interface TaskFactory {
+		/**
+		 * Creates a task for the chunk
+		 * @param chunk mapped bytes of whole lines
+		 * @return task that parses the chunk
+		 */
+		ChunkTask create(MappedByteBuffer chunk);
+	}
+
+	/**
+	 * Task that splits every line of one chunk of a file into its fields and
+	 * parses them. Blank lines are skipped.
+	 * @author Arnold Elamthuruthil
+	 */
+	private abstract static class ChunkTask extends RecursiveAction {
+		/** Mapped bytes of the chunk */
+		private final MappedByteBuffer chunk;
+		/** Number of fields read from each line */
+		private final int fieldCount;
+
+		/**
+		 * Creates a task for a chunk
+		 * @param chunk mapped bytes of whole lines
+		 * @param fieldCount number of fields read from each line
+		 */
+		ChunkTask(MappedByteBuffer chunk, int fieldCount) {
+			this.chunk = chunk;
+			this.fieldCount = fieldCount;
+		}
+
+		@Override
+		protected void compute() {
+			String[] fields = new String[fieldCount];
+			byte[] line = new byte[256];
+			int limit = chunk.limit();
+			int start = 0;
+			while (start < limit) {
+				int end = start;
+				while (end < limit && chunk.get(end) != '\n') {
+					end++;
+				}
+				int length = end - start;
+				if (length > 0 && chunk.get(end - 1) == '\r') {
+					length--;
+				}
+				if (length > 0) {
+					if (line.length < length) {
+						line = new byte[Math.max(length, line.length * 2)];
+					}
+					chunk.get(start, line, 0, length);
+					splitFields(line, length, fields);
+					parseLine(fields);
+				}
+				start = end + 1;
+			}
+		}
+
+		/**
+		 * Splits a comma separated line into its leading fields
+		 * @param line bytes of the line
+		 * @param length number of bytes in the line
+		 * @param fields array filled with the fields
+		 * @throws NoSuchElementException if the line has too few fields
+		 */
+		private static void splitFields(byte[] line, int length, String[] fields) {
+			int start = 0;
+			for (int i = 0; i < fields.length; i++) {
+				if (start > length) {
+					throw new NoSuchElementException();
+				}
+				int end = start;
+				while (end < length && line[end] != ',') {
+					end++;
+				}
+				fields[i] = new String(line, start, end - start, StandardCharsets.UTF_8);
+				start = end + 1;
+			}
+		}
+
+		/**
+		 * Parses the fields of a line
+		 * @param fields fields of the line
+		 */
+		protected abstract void parseLine(String[] fields);
+
+		/**
+		 * Returns what the task parsed the chunk into
+		 * @return result of the chunk
+		 */
+		protected abstract Object result();
+
+		/**
+		 * Returns the number of records the task parsed
+		 * @return number of records
+		 */
+		protected abstract int records();
+	}
+
+	/**
+	 * Task that parses every line of a chunk into a record of a list
+	 * @param <E> type of record the task parses
+	 * @author Arnold Elamthuruthil
+	 */
+	private abstract static class RecordChunkTask<E> extends ChunkTask {
+		/** Records parsed from the chunk, in file order */
+		private final List<E> records;
+
+		/**
+		 * Creates a task for a chunk
+		 * @param chunk mapped bytes of whole lines
+		 * @param fieldCount number of fields read from each line
+		 * @param records empty list the task fills
+		 */
+		RecordChunkTask(MappedByteBuffer chunk, int fieldCount, List<E> records) {
+			super(chunk, fieldCount);
+			this.records = records;
+		}
+
+		@Override
+		protected void parseLine(String[] fields) {
+			records.addLast(parseRecord(fields));
+		}
+
+		@Override
+		protected Object result() {
+			return records;
+		}
+
+		@Override
+		protected int records() {
+			return records.size();
+		}
+
+		/**
+		 * Creates a record from the fields of a line
+		 * @param fields fields of the line
+		 * @return record for the line
+		 */
+		protected abstract E parseRecord(String[] fields);
+	}
+
+	/**
+	 * Parses the lines of a people file
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class PersonChunkTask extends RecordChunkTask<Person> {
+		/**
+		 * Creates a task for a chunk of a people file
+		 * @param chunk mapped bytes of whole lines
+		 * @param records empty list the task fills
+		 */
+		PersonChunkTask(MappedByteBuffer chunk, List<Person> records) {
+			super(chunk, PERSON_FIELDS, records);
+		}
+
+		@Override
+		protected Person parseRecord(String[] fields) {
+			return new Person(fields[0], fields[1], fields[2]);
+		}
+	}
+
+	/**
+	 * Parses the lines of a connection file. Each task has its own date
+	 * format since SimpleDateFormat is not thread-safe.
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class ConnectionChunkTask extends RecordChunkTask<Connection> {
+		/** Parser for the connection dates of this chunk */
+		private final SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT);
+
+		/**
+		 * Creates a task for a chunk of a connection file
+		 * @param chunk mapped bytes of whole lines
+		 * @param records empty list the task fills
+		 */
+		ConnectionChunkTask(MappedByteBuffer chunk, List<Connection> records) {
+			super(chunk, CONNECTION_FIELDS, records);
+		}
+
+		@Override
+		protected Connection parseRecord(String[] fields) {
+			return new Connection(fields[0], new String[] {fields[1], fields[2]}, parseDate(format, fields[3]),
+					fields[4]);
+		}
+	}
+
+	/**
+	 * Parses the lines of a connection file into the columns of an off-heap
+	 * ConnectionStore of the chunk's own
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class StoreChunkTask extends ChunkTask {
+		/** Parser for the connection dates of this chunk */
+		private final SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT);
+		/** Store the chunk's connections are added to */
+		private final ConnectionStore store;
+
+		/**
+		 * Creates a task for a chunk of a connection file
+		 * @param chunk mapped bytes of whole lines
+		 * @param factory factory of the maps of the store's dictionaries
+		 */
+		StoreChunkTask(MappedByteBuffer chunk, DataStructureFactory factory) {
+			super(chunk, CONNECTION_FIELDS);
+			store = new ConnectionStore(factory, chunk.limit() / BYTES_PER_CONNECTION);
+		}
+
+		@Override
+		protected void parseLine(String[] fields) {
+			store.add(fields[0], fields[1], fields[2], parseDate(format, fields[3]).getTime(), fields[4]);
+		}
+
+		@Override
+		protected Object result() {
+			return store;
+		}
+
+		@Override
+		protected int records() {
+			return store.size();
+		}
+	}
+
+	/**
+	 * Parses the date of a connection
+	 * @param format parser of the dates of the chunk
+	 * @param field date field of a line
+	 * @return the date
+	 * @throws IllegalArgumentException if the date cannot be parsed
+	 */
+	private static Date parseDate(SimpleDateFormat format, String field) {
+		try {
+			return format.parse(field);
+		} catch (ParseException e) {
+			throw new IllegalArgumentException("Input file contains an unparseable date: " + e.getMessage());
+		}
+	}
+}
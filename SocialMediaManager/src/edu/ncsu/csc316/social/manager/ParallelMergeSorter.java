@@ -0,0 +1,664 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.ncsu.csc316.dsa.sorter.Sorter;
+
+/**
+ * ParallelMergeSorter is a stable merge sort that runs on the fork-join pool
+ * and takes advantage of order that is already in the data. An array is split
+ * in halves until a range is small enough for one task. Each task finds the
+ * runs already in its range, ascending or strictly descending, extends short
+ * runs with binary insertion sort and merges the runs pairwise. Halves are
+ * merged into each other by splitting the merge at a binary-searched
+ * position, so large merges are parallel too. Two ranges that are already in order are
+ * never merged, so data that is already sorted, such as connections exported
+ * in date order, costs one comparison per element.
+ * The slices of an int array, such as the slices of a PersonIndex, can be
+ * sorted in place the same way, with many slices sorted at the same time.
+ * The sorter counts the comparisons it makes, for ManagerMetrics.
+ * @param <E> type of the elements
+ * @author Arnold Elamthuruthil
+ */
+public class ParallelMergeSorter<E> implements Sorter<E> {
+	/** Runs shorter than this are extended with binary insertion sort */
+	private static final int MIN_RUN = 32;
+	/** Smallest number of elements worth handing to their own fork-join task */
+	private static final int MIN_ELEMENTS_PER_TASK = 1 << 13;
+
+	/** Comparator of the elements */
+	private Comparator<? super E> comparator;
+	/** Largest number of elements a task sorts or merges itself */
+	private int taskSize;
+	/** Number of comparisons made by the last sort */
+	private long comparisons;
+
+	/**
+	 * Creates a ParallelMergeSorter
+	 * @param comparator comparator of the elements
+	 */
+	public ParallelMergeSorter(Comparator<? super E> comparator) {
+		this(comparator, MIN_ELEMENTS_PER_TASK);
+	}
+
+	/**
+	 * Creates a ParallelMergeSorter whose tasks sort or merge at most the given
+	 * number of elements
+	 * @param comparator comparator of the elements
+	 * @param taskSize largest number of elements a task handles itself
+	 */
+	ParallelMergeSorter(Comparator<? super E> comparator, int taskSize) {
+		this.comparator = comparator;
+		this.taskSize = Math.max(2, taskSize);
+	}
+
+	/**
+	 * Sorts an array, keeping elements that compare equal in their order.
+	 * A sorter can only sort one array at a time.
+	 * @param data array to sort
+	 */
+	@Override
+	public void sort(E[] data) {
+		comparisons = 0;
+		if (data.length < 2) {
+			return;
+		}
+		SortTask task = new SortTask(data, Arrays.copyOf(data, data.length), 0, data.length);
+		if (data.length <= taskSize) {
+			task.compute();
+		} else {
+			ForkJoinPool.commonPool().invoke(task);
+		}
+		comparisons = task.comparisons;
+	}
+
+	/**
+	 * Returns the number of comparisons made by the last sort
+	 * @return number of comparisons
+	 */
+	public long getComparisons() {
+		return comparisons;
+	}
+
+	/**
+	 * Sorts every slice of an int array in place on the fork-join pool. Slice
+	 * s is items[offsets[s]] to items[offsets[s + 1] - 1]. Slices are grouped
+	 * into tasks of about the same number of items, and each slice is sorted
+	 * by one task with a stable natural merge sort.
+	 * @param items array holding the slices
+	 * @param offsets start of each slice, with the end of the last slice after it
+	 * @param count number of slices
+	 * @param comparator comparator of the items of a slice
+	 * @return number of comparisons made
+	 */
+	public static long sortSlices(int[] items, int[] offsets, int count, SliceComparator comparator) {
+		SliceTask task = new SliceTask(items, new int[items.length], offsets, 0, count, comparator,
+				MIN_ELEMENTS_PER_TASK);
+		if (offsets[count] - offsets[0] <= MIN_ELEMENTS_PER_TASK) {
+			task.compute();
+		} else {
+			ForkJoinPool.commonPool().invoke(task);
+		}
+		return task.comparisons;
+	}
+
+	/**
+	 * Sorts one slice of an int array in place with a stable natural merge sort
+	 * @param items array holding the slice
+	 * @param owner slice number passed to the comparator
+	 * @param low first position of the slice
+	 * @param high position after the slice
+	 * @param buffer scratch array at least as long as high
+	 * @param comparator comparator of the items of the slice
+	 * @return number of comparisons made
+	 */
+	public static long sortSlice(int[] items, int owner, int low, int high, int[] buffer,
+			SliceComparator comparator) {
+		SliceSorter sorter = new SliceSorter(items, buffer, comparator);
+		sorter.sort(owner, low, high);
+		return sorter.comparisons;
+	}
+
+	/**
+	 * Compares two items of the same slice of an int array
+	 * @author Arnold Elamthuruthil
+	 */
+	public interface SliceComparator {
+		/**
+		 * Compares two items of a slice
+		 * @param owner number of the slice the items are in
+		 * @param i1 first item
+		 * @param i2 second item
+		 * @return negative, zero or positive as the first item comes before, with or after the second
+		 */
+		int compare(int owner, int i1, int i2);
+	}
+
+	/**
+	 * Fork-join task that counts the comparisons it makes
+	 * @author Arnold Elamthuruthil
+	 */
+	private abstract class CountingTask extends RecursiveAction {
+		/** Array being sorted */
+		protected E[] data;
+		/** Scratch array as long as data */
+		protected E[] buffer;
+		/** Number of comparisons made by the task and the tasks it forked */
+		protected long comparisons;
+
+		/**
+		 * Creates a CountingTask
+		 * @param data array being sorted
+		 * @param buffer scratch array as long as data
+		 */
+		CountingTask(E[] data, E[] buffer) {
+			this.data = data;
+			this.buffer = buffer;
+		}
+
+		/**
+		 * Compares two elements and counts the comparison
+		 * @param e1 first element
+		 * @param e2 second element
+		 * @return negative, zero or positive as the first element comes before, with or after the second
+		 */
+		protected int compare(E e1, E e2) {
+			comparisons++;
+			return comparator.compare(e1, e2);
+		}
+	}
+
+	/**
+	 * Fork-join task that sorts a range of the array
+	 * @author Arnold Elamthuruthil
+	 */
+	private class SortTask extends CountingTask {
+		/** First position of the range */
+		private int low;
+		/** Position after the range */
+		private int high;
+
+		/**
+		 * Creates a SortTask
+		 * @param data array being sorted
+		 * @param buffer scratch array as long as data
+		 * @param low first position of the range
+		 * @param high position after the range
+		 */
+		SortTask(E[] data, E[] buffer, int low, int high) {
+			super(data, buffer);
+			this.low = low;
+			this.high = high;
+		}
+
+		@Override
+		protected void compute() {
+			if (high - low <= taskSize) {
+				sortRuns();
+				return;
+			}
+			int mid = (low + high) >>> 1;
+			SortTask left = new SortTask(data, buffer, low, mid);
+			SortTask right = new SortTask(data, buffer, mid, high);
+			invokeAll(left, right);
+			comparisons += left.comparisons + right.comparisons;
+			if (compare(data[mid - 1], data[mid]) <= 0) {
+				return;
+			}
+			System.arraycopy(data, low, buffer, low, high - low);
+			MergeTask merge = new MergeTask(data, buffer, low, mid, mid, high, low);
+			merge.compute();
+			comparisons += merge.comparisons;
+		}
+
+		/**
+		 * Sorts the range by finding its runs and merging them pairwise
+		 */
+		private void sortRuns() {
+			int[] runs = new int[(high - low) / MIN_RUN + 2];
+			int count = 0;
+			int start = low;
+			while (start < high) {
+				int end = runEnd(start);
+				if (end - start < MIN_RUN && end < high) {
+					int forced = Math.min(high, start + MIN_RUN);
+					insertionSort(start, end, forced);
+					end = forced;
+				}
+				runs[count++] = start;
+				start = end;
+			}
+			runs[count] = high;
+			while (count > 1) {
+				int merged = 0;
+				for (int r = 0; r < count; r += 2) {
+					if (r + 1 < count) {
+						mergeRuns(runs[r], runs[r + 1], runs[r + 2]);
+					}
+					runs[merged++] = runs[r];
+				}
+				runs[merged] = high;
+				count = merged;
+			}
+		}
+
+		/**
+		 * Finds the end of the run starting at a position, reversing it if it
+		 * is strictly descending
+		 * @param start first position of the run
+		 * @return position after the run
+		 */
+		private int runEnd(int start) {
+			int end = start + 1;
+			if (end == high) {
+				return end;
+			}
+			if (compare(data[end], data[start]) < 0) {
+				end++;
+				while (end < high && compare(data[end], data[end - 1]) < 0) {
+					end++;
+				}
+				for (int i = start, j = end - 1; i < j; i++, j--) {
+					E swap = data[i];
+					data[i] = data[j];
+					data[j] = swap;
+				}
+			} else {
+				end++;
+				while (end < high && compare(data[end], data[end - 1]) >= 0) {
+					end++;
+				}
+			}
+			return end;
+		}
+
+		/**
+		 * Extends a sorted run by inserting the elements after it, finding
+		 * where each goes with a binary search past any equal elements
+		 * @param start first position of the run
+		 * @param sorted position after the sorted part of the run
+		 * @param end position after the run once it is extended
+		 */
+		private void insertionSort(int start, int sorted, int end) {
+			for (int i = sorted; i < end; i++) {
+				E element = data[i];
+				int low = start;
+				int high = i;
+				while (low < high) {
+					int mid = (low + high) >>> 1;
+					if (compare(element, data[mid]) < 0) {
+						high = mid;
+					} else {
+						low = mid + 1;
+					}
+				}
+				System.arraycopy(data, low, data, low + 1, i - low);
+				data[low] = element;
+			}
+		}
+
+		/**
+		 * Merges two adjacent sorted runs, copying only the first to the buffer
+		 * @param start first position of the first run
+		 * @param mid first position of the second run
+		 * @param end position after the second run
+		 */
+		private void mergeRuns(int start, int mid, int end) {
+			if (compare(data[mid - 1], data[mid]) <= 0) {
+				return;
+			}
+			System.arraycopy(data, start, buffer, start, mid - start);
+			int left = start;
+			int right = mid;
+			int out = start;
+			while (left < mid && right < end) {
+				if (compare(data[right], buffer[left]) < 0) {
+					data[out++] = data[right++];
+				} else {
+					data[out++] = buffer[left++];
+				}
+			}
+			System.arraycopy(buffer, left, data, out, mid - left);
+		}
+	}
+
+	/**
+	 * Fork-join task that merges two sorted ranges of the buffer into the array.
+	 * A merge too big for one task is split at the middle of the larger range
+	 * and the position the middle element goes to in the other range.
+	 * @author Arnold Elamthuruthil
+	 */
+	private class MergeTask extends CountingTask {
+		/** First position of the first range */
+		private int low1;
+		/** Position after the first range */
+		private int high1;
+		/** First position of the second range */
+		private int low2;
+		/** Position after the second range */
+		private int high2;
+		/** Position of the array the merged ranges start at */
+		private int out;
+
+		/**
+		 * Creates a MergeTask
+		 * @param data array the ranges are merged into
+		 * @param buffer array holding the two sorted ranges
+		 * @param low1 first position of the first range
+		 * @param high1 position after the first range
+		 * @param low2 first position of the second range
+		 * @param high2 position after the second range
+		 * @param out position of the array the merged ranges start at
+		 */
+		MergeTask(E[] data, E[] buffer, int low1, int high1, int low2, int high2, int out) {
+			super(data, buffer);
+			this.low1 = low1;
+			this.high1 = high1;
+			this.low2 = low2;
+			this.high2 = high2;
+			this.out = out;
+		}
+
+		@Override
+		protected void compute() {
+			if (high1 - low1 + high2 - low2 <= taskSize) {
+				merge();
+				return;
+			}
+			int mid1;
+			int mid2;
+			//Elements equal to the middle element stay on the side that keeps
+			//the first range's elements first
+			if (high1 - low1 >= high2 - low2) {
+				mid1 = (low1 + high1) >>> 1;
+				mid2 = search(low2, high2, buffer[mid1], false);
+			} else {
+				mid2 = (low2 + high2) >>> 1;
+				mid1 = search(low1, high1, buffer[mid2], true);
+			}
+			MergeTask left = new MergeTask(data, buffer, low1, mid1, low2, mid2, out);
+			MergeTask right = new MergeTask(data, buffer, mid1, high1, mid2, high2,
+					out + mid1 - low1 + mid2 - low2);
+			invokeAll(left, right);
+			comparisons += left.comparisons + right.comparisons;
+		}
+
+		/**
+		 * Merges the two ranges, taking the first range's element on ties
+		 */
+		private void merge() {
+			int left = low1;
+			int right = low2;
+			int i = out;
+			while (left < high1 && right < high2) {
+				if (compare(buffer[right], buffer[left]) < 0) {
+					data[i++] = buffer[right++];
+				} else {
+					data[i++] = buffer[left++];
+				}
+			}
+			System.arraycopy(buffer, left, data, i, high1 - left);
+			System.arraycopy(buffer, right, data, i + high1 - left, high2 - right);
+		}
+
+		/**
+		 * Finds where an element goes in a sorted range of the buffer
+		 * @param low first position of the range
+		 * @param high position after the range
+		 * @param key element to look for
+		 * @param after true to go after elements equal to the key, false to go before them
+		 * @return first position whose element comes after the key, or is not before it
+		 */
+		private int search(int low, int high, E key, boolean after) {
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				int compare = compare(buffer[mid], key);
+				if (compare < 0 || after && compare == 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+	}
+
+	/**
+	 * Fork-join task that sorts a range of the slices of an int array. Ranges
+	 * with too many items are split at the slice where half the items are.
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class SliceTask extends RecursiveAction {
+		/** Array holding the slices */
+		private int[] items;
+		/** Scratch array as long as items */
+		private int[] buffer;
+		/** Start of each slice */
+		private int[] offsets;
+		/** First slice of the range */
+		private int low;
+		/** Slice after the range */
+		private int high;
+		/** Comparator of the items of a slice */
+		private SliceComparator comparator;
+		/** Largest number of items a task sorts itself */
+		private int taskSize;
+		/** Number of comparisons made by the task and the tasks it forked */
+		private long comparisons;
+
+		/**
+		 * Creates a SliceTask
+		 * @param items array holding the slices
+		 * @param buffer scratch array as long as items
+		 * @param offsets start of each slice
+		 * @param low first slice of the range
+		 * @param high slice after the range
+		 * @param comparator comparator of the items of a slice
+		 * @param taskSize largest number of items a task sorts itself
+		 */
+		SliceTask(int[] items, int[] buffer, int[] offsets, int low, int high, SliceComparator comparator,
+				int taskSize) {
+			this.items = items;
+			this.buffer = buffer;
+			this.offsets = offsets;
+			this.low = low;
+			this.high = high;
+			this.comparator = comparator;
+			this.taskSize = taskSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (high - low > 1 && offsets[high] - offsets[low] > taskSize) {
+				int half = (offsets[low] + offsets[high]) >>> 1;
+				int mid = low + 1;
+				int top = high - 1;
+				while (mid < top) {
+					int m = (mid + top) >>> 1;
+					if (offsets[m] < half) {
+						mid = m + 1;
+					} else {
+						top = m;
+					}
+				}
+				SliceTask left = new SliceTask(items, buffer, offsets, low, mid, comparator, taskSize);
+				SliceTask right = new SliceTask(items, buffer, offsets, mid, high, comparator, taskSize);
+				invokeAll(left, right);
+				comparisons = left.comparisons + right.comparisons;
+				return;
+			}
+			SliceSorter sorter = new SliceSorter(items, buffer, comparator);
+			for (int s = low; s < high; s++) {
+				sorter.sort(s, offsets[s], offsets[s + 1]);
+			}
+			comparisons = sorter.comparisons;
+		}
+	}
+
+	/**
+	 * Stable natural merge sort of the slices of an int array, used by one
+	 * thread at a time
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class SliceSorter {
+		/** Array holding the slices */
+		private int[] items;
+		/** Scratch array at least as long as the slices sorted */
+		private int[] buffer;
+		/** Comparator of the items of a slice */
+		private SliceComparator comparator;
+		/** Number of comparisons made */
+		private long comparisons;
+
+		/**
+		 * Creates a SliceSorter
+		 * @param items array holding the slices
+		 * @param buffer scratch array at least as long as the slices sorted
+		 * @param comparator comparator of the items of a slice
+		 */
+		SliceSorter(int[] items, int[] buffer, SliceComparator comparator) {
+			this.items = items;
+			this.buffer = buffer;
+			this.comparator = comparator;
+		}
+
+		/**
+		 * Compares two items of a slice and counts the comparison
+		 * @param owner number of the slice
+		 * @param i1 first item
+		 * @param i2 second item
+		 * @return negative, zero or positive as the first item comes before, with or after the second
+		 */
+		private int compare(int owner, int i1, int i2) {
+			comparisons++;
+			return comparator.compare(owner, i1, i2);
+		}
+
+		/**
+		 * Sorts one slice by finding its runs and merging them pairwise
+		 * @param owner number of the slice
+		 * @param low first position of the slice
+		 * @param high position after the slice
+		 */
+		void sort(int owner, int low, int high) {
+			if (high - low < 2) {
+				return;
+			}
+			if (high - low <= MIN_RUN) {
+				insertionSort(owner, low, low + 1, high);
+				return;
+			}
+			int[] runs = new int[(high - low) / MIN_RUN + 2];
+			int count = 0;
+			int start = low;
+			while (start < high) {
+				int end = runEnd(owner, start, high);
+				if (end - start < MIN_RUN && end < high) {
+					int forced = Math.min(high, start + MIN_RUN);
+					insertionSort(owner, start, end, forced);
+					end = forced;
+				}
+				runs[count++] = start;
+				start = end;
+			}
+			runs[count] = high;
+			while (count > 1) {
+				int merged = 0;
+				for (int r = 0; r < count; r += 2) {
+					if (r + 1 < count) {
+						mergeRuns(owner, runs[r], runs[r + 1], runs[r + 2]);
+					}
+					runs[merged++] = runs[r];
+				}
+				runs[merged] = high;
+				count = merged;
+			}
+		}
+
+		/**
+		 * Finds the end of the run starting at a position, reversing it if it
+		 * is strictly descending
+		 * @param owner number of the slice
+		 * @param start first position of the run
+		 * @param high position after the slice
+		 * @return position after the run
+		 */
+		private int runEnd(int owner, int start, int high) {
+			int end = start + 1;
+			if (end == high) {
+				return end;
+			}
+			if (compare(owner, items[end], items[start]) < 0) {
+				end++;
+				while (end < high && compare(owner, items[end], items[end - 1]) < 0) {
+					end++;
+				}
+				for (int i = start, j = end - 1; i < j; i++, j--) {
+					int swap = items[i];
+					items[i] = items[j];
+					items[j] = swap;
+				}
+			} else {
+				end++;
+				while (end < high && compare(owner, items[end], items[end - 1]) >= 0) {
+					end++;
+				}
+			}
+			return end;
+		}
+
+		/**
+		 * Extends a sorted run by inserting the items after it, finding where
+		 * each goes with a binary search past any equal items
+		 * @param owner number of the slice
+		 * @param start first position of the run
+		 * @param sorted position after the sorted part of the run
+		 * @param end position after the run once it is extended
+		 */
+		private void insertionSort(int owner, int start, int sorted, int end) {
+			for (int i = sorted; i < end; i++) {
+				int item = items[i];
+				int low = start;
+				int high = i;
+				while (low < high) {
+					int mid = (low + high) >>> 1;
+					if (compare(owner, item, items[mid]) < 0) {
+						high = mid;
+					} else {
+						low = mid + 1;
+					}
+				}
+				System.arraycopy(items, low, items, low + 1, i - low);
+				items[low] = item;
+			}
+		}
+
+		/**
+		 * Merges two adjacent sorted runs, copying only the first to the buffer
+		 * @param owner number of the slice
+		 * @param start first position of the first run
+		 * @param mid first position of the second run
+		 * @param end position after the second run
+		 */
+		private void mergeRuns(int owner, int start, int mid, int end) {
+			if (compare(owner, items[mid - 1], items[mid]) <= 0) {
+				return;
+			}
+			System.arraycopy(items, start, buffer, start, mid - start);
+			int left = start;
+			int right = mid;
+			int out = start;
+			while (left < mid && right < end) {
+				if (compare(owner, items[right], buffer[left]) < 0) {
+					items[out++] = items[right++];
+				} else {
+					items[out++] = buffer[left++];
+				}
+			}
+			System.arraycopy(buffer, left, items, out, mid - left);
+		}
+	}
+}
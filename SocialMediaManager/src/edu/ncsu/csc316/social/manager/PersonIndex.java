@@ -0,0 +1,493 @@
+package edu.ncsu.csc316.social.manager;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.data.Connection;
+import edu.ncsu.csc316.social.data.Person;
+
+/**
+ * PersonIndex is a compressed-sparse-row adjacency index of the connections
+ * of every person. People are numbered by their rank in a PersonRanking. The
+ * connections of the person with rank r are the connection positions
+ * edges[offsets[r]] to edges[offsets[r + 1] - 1], sorted by the rank of the
+ * other person and then by date. The index is built with two counting passes
+ * and sorted once, with the slices sorted in place at the same time by a
+ * ParallelMergeSorter, so lists of connections are views over the columns
+ * of edges and offsets. The columns of an index that is built are arrays on
+ * the heap, and the columns of an index loaded from a snapshot are read
+ * straight from the mapped file.
+ * An index is never changed once it is built. When connections or people are
+ * added, add builds the next index by merging the new connections into the
+ * sorted slices of this one. The arrays of ranks and dates by connection may
+ * be longer than the network, and the first index built by add from this one
+ * writes the new connections into the room at their end instead of copying
+ * them, since no index reads past its own connections. An index built by add
+ * from a loaded snapshot copies the mapped columns onto the heap once.
+ * @author Arnold Elamthuruthil
+ */
+public class PersonIndex {
+	/** Ranking the people of the index are numbered by */
+	private PersonRanking ranking;
+	/** Connections of the network, by position */
+	private ConnectionTable connections;
+	/** Rank of the first person in each connection, or -1 if the person is unknown */
+	private IntColumn firstRank;
+	/** Rank of the second person in each connection, or -1 if the person is unknown */
+	private IntColumn secondRank;
+	/** Date of each connection in epoch milliseconds */
+	private LongColumn dates;
+	/** Start of each person's connections in edges, with the total at the end */
+	private IntColumn offsets;
+	/** Connection positions of every person's connections, one person after another */
+	private IntColumn edges;
+	/** Whether an index built by add already uses the room at the end of firstRank, secondRank and dates */
+	private boolean tailClaimed;
+
+	/**
+	 * Builds the index for the connections of a network
+	 * @param connections connections of the network, by position
+	 * @param ranking ranking of the people of the network
+	 */
+	public PersonIndex(ConnectionTable connections, PersonRanking ranking) {
+		this.ranking = ranking;
+		this.connections = connections;
+		long start = ManagerMetrics.start();
+		int size = connections.size();
+		int[] first = new int[size];
+		int[] second = new int[size];
+		long[] times = new long[size];
+		int i;
+		for (i = 0; i < size; i++) {
+			first[i] = ranking.rankOf(connections.firstPerson(i));
+			second[i] = ranking.rankOf(connections.secondPerson(i));
+			times[i] = connections.date(i);
+		}
+		firstRank = IntColumn.of(first);
+		secondRank = IntColumn.of(second);
+		dates = LongColumn.of(times);
+		//First pass counts the connections of each person
+		int people = ranking.size();
+		int[] starts = new int[people + 1];
+		for (i = 0; i < size; i++) {
+			if (first[i] >= 0) {
+				starts[first[i] + 1]++;
+			}
+			if (second[i] >= 0) {
+				starts[second[i] + 1]++;
+			}
+		}
+		for (int r = 0; r < people; r++) {
+			starts[r + 1] += starts[r];
+		}
+		//Second pass places each connection in the slices of both people
+		int[] slices = new int[starts[people]];
+		int[] next = new int[people];
+		System.arraycopy(starts, 0, next, 0, people);
+		for (i = 0; i < size; i++) {
+			if (first[i] >= 0) {
+				slices[next[first[i]]++] = i;
+			}
+			if (second[i] >= 0) {
+				slices[next[second[i]]++] = i;
+			}
+		}
+		offsets = IntColumn.of(starts);
+		edges = IntColumn.of(slices);
+		ManagerMetrics.record(ManagerMetrics.Phase.BUCKETING, start, size, 0);
+		start = ManagerMetrics.start();
+		long comparisons = ParallelMergeSorter.sortSlices(slices, starts, people, this::compare);
+		ManagerMetrics.record(ManagerMetrics.Phase.PERSON_SORT, start, slices.length, comparisons);
+	}
+
+	/**
+	 * Creates an index from columns that are already built and sorted, such as
+	 * the mapped columns of a snapshot
+	 * @param ranking ranking the people of the index are numbered by
+	 * @param connections connections of the network, by position
+	 * @param firstRank rank of the first person in each connection
+	 * @param secondRank rank of the second person in each connection
+	 * @param dates date of each connection in epoch milliseconds
+	 * @param offsets start of each person's connections in edges
+	 * @param edges connection positions of every person's sorted connections
+	 */
+	PersonIndex(PersonRanking ranking, ConnectionTable connections, IntColumn firstRank, IntColumn secondRank,
+			LongColumn dates, IntColumn offsets, IntColumn edges) {
+		this.ranking = ranking;
+		this.connections = connections;
+		this.firstRank = firstRank;
+		this.secondRank = secondRank;
+		this.dates = dates;
+		this.offsets = offsets;
+		this.edges = edges;
+	}
+
+	/**
+	 * Creates an empty index that add fills in
+	 */
+	private PersonIndex() {
+		//Fields are set by add
+	}
+
+	/**
+	 * Returns the index of a network this index's network has grown into, by
+	 * new connections at the end of the connections table, new people in the
+	 * ranking, or both. Only the new connections are sorted, and each person's
+	 * slice is merged with the new connections of that person, so no slice is
+	 * sorted again. The exception is a connection to a person this index did
+	 * not know: once the person is ranked, the slice of the other person in
+	 * the connection is sorted again, since the connection moves in it.
+	 * When no people are added, the ranks and dates of the old connections are
+	 * kept where they are and only the new connections are looked up. Each
+	 * new connection is placed in its slice by binary search, so the work that
+	 * grows with the whole network is copying the old slices into the new
+	 * edges in bulk. New people
+	 * change the ranks of the people after them, so then the ranks of the old
+	 * connections are also renumbered in one pass without lookups.
+	 * @param connections connections of the network, with the connections of
+	 * this index at the same positions at the start
+	 * @param ranking ranking of the people, which is this index's ranking or
+	 * one built from it with PersonRanking.add
+	 * @return index of the grown network
+	 */
+	public PersonIndex add(ConnectionTable connections, PersonRanking ranking) {
+		long start = ManagerMetrics.start();
+		int oldSize = this.connections.size();
+		int size = connections.size();
+		int people = ranking.size();
+		int[] remap = ranking.ranksFrom(this.ranking);
+		boolean grown = people != this.ranking.size();
+		//The columns of a snapshot are copied onto the heap here, and the next index keeps heap arrays
+		int[] oldFirst = firstRank.heapArray();
+		int[] oldSecond = secondRank.heapArray();
+		long[] oldDates = dates.heapArray();
+		int[] oldOffsets = offsets.heapArray();
+		int[] oldEdges = edges.heapArray();
+		PersonIndex index = new PersonIndex();
+		index.ranking = ranking;
+		index.connections = connections;
+		boolean inPlace = claimTail() && oldDates.length >= size;
+		int capacity = inPlace ? oldDates.length : Math.max(size, oldSize + (oldSize >> 1));
+		long[] newDates = inPlace ? oldDates : copy(oldDates, oldSize, capacity);
+		int[] newFirst = inPlace && !grown ? oldFirst : new int[capacity];
+		int[] newSecond = inPlace && !grown ? oldSecond : new int[capacity];
+		if (!grown && !inPlace) {
+			System.arraycopy(oldFirst, 0, newFirst, 0, oldSize);
+			System.arraycopy(oldSecond, 0, newSecond, 0, oldSize);
+		}
+		index.dates = LongColumn.of(newDates);
+		index.firstRank = IntColumn.of(newFirst);
+		index.secondRank = IntColumn.of(newSecond);
+		//Counts the new connections of each person, including connections
+		//to people who were not ranked before
+		int[] added = new int[people + 1];
+		boolean[] resort = new boolean[people];
+		int i;
+		for (i = 0; grown && i < oldSize; i++) {
+			int first = oldFirst[i] >= 0 ? remap[oldFirst[i]] : -1;
+			int second = oldSecond[i] >= 0 ? remap[oldSecond[i]] : -1;
+			if (first < 0) {
+				first = ranking.rankOf(connections.firstPerson(i));
+				if (first >= 0) {
+					added[first + 1]++;
+					if (second >= 0) {
+						resort[second] = true;
+					}
+				}
+			}
+			if (second < 0) {
+				second = ranking.rankOf(connections.secondPerson(i));
+				if (second >= 0) {
+					added[second + 1]++;
+					if (oldFirst[i] >= 0) {
+						resort[first] = true;
+					}
+				}
+			}
+			newFirst[i] = first;
+			newSecond[i] = second;
+		}
+		for (i = oldSize; i < size; i++) {
+			newFirst[i] = ranking.rankOf(connections.firstPerson(i));
+			newSecond[i] = ranking.rankOf(connections.secondPerson(i));
+			newDates[i] = connections.date(i);
+			if (newFirst[i] >= 0) {
+				added[newFirst[i] + 1]++;
+			}
+			if (newSecond[i] >= 0) {
+				added[newSecond[i] + 1]++;
+			}
+		}
+		for (int r = 0; r < people; r++) {
+			added[r + 1] += added[r];
+		}
+		//Places the new connections of each person in a slice of delta and sorts it
+		int[] delta = new int[added[people]];
+		int[] next = new int[people];
+		System.arraycopy(added, 0, next, 0, people);
+		for (i = grown ? 0 : oldSize; i < size; i++) {
+			boolean old = i < oldSize;
+			if (newFirst[i] >= 0 && (!old || oldFirst[i] < 0)) {
+				delta[next[newFirst[i]]++] = i;
+			}
+			if (newSecond[i] >= 0 && (!old || oldSecond[i] < 0)) {
+				delta[next[newSecond[i]]++] = i;
+			}
+		}
+		long comparisons = ParallelMergeSorter.sortSlices(delta, added, people, index::compare);
+		int[] buffer = new int[0];
+		//Merges each person's old slice with their new connections
+		int[] previous = new int[people];
+		for (int r = 0; r < people; r++) {
+			previous[r] = -1;
+		}
+		for (int r = 0; r < remap.length; r++) {
+			previous[remap[r]] = r;
+		}
+		int[] newOffsets = new int[people + 1];
+		for (int r = 0; r < people; r++) {
+			int degree = previous[r] >= 0 ? degree(previous[r]) : 0;
+			newOffsets[r + 1] = newOffsets[r] + degree + added[r + 1] - added[r];
+		}
+		int[] newEdges = new int[newOffsets[people]];
+		index.offsets = IntColumn.of(newOffsets);
+		index.edges = IntColumn.of(newEdges);
+		//Old slices with nothing new are next to each other in both arrays, so they are copied a run at a time
+		int runFrom = 0;
+		int runTo = 0;
+		int runLength = 0;
+		for (int r = 0; r < people; r++) {
+			int left = previous[r] >= 0 ? oldOffsets[previous[r]] : 0;
+			int leftEnd = previous[r] >= 0 ? oldOffsets[previous[r] + 1] : 0;
+			int right = added[r];
+			int rightEnd = added[r + 1];
+			int out = newOffsets[r];
+			if (right == rightEnd && !resort[r]) {
+				if (runFrom + runLength != left || runTo + runLength != out) {
+					System.arraycopy(oldEdges, runFrom, newEdges, runTo, runLength);
+					runFrom = left;
+					runTo = out;
+					runLength = 0;
+				}
+				runLength += leftEnd - left;
+				continue;
+			}
+			//Each new connection is placed by binary search, and the old ones before it are copied in bulk
+			for (; right < rightEnd; right++) {
+				int insert = index.insertionPoint(r, left, leftEnd, oldEdges, delta[right]);
+				System.arraycopy(oldEdges, left, newEdges, out, insert - left);
+				out += insert - left;
+				left = insert;
+				newEdges[out++] = delta[right];
+			}
+			System.arraycopy(oldEdges, left, newEdges, out, leftEnd - left);
+			if (resort[r]) {
+				if (buffer.length < newEdges.length) {
+					buffer = new int[newEdges.length];
+				}
+				comparisons += ParallelMergeSorter.sortSlice(newEdges, r, newOffsets[r], newOffsets[r + 1],
+						buffer, index::compare);
+			}
+		}
+		System.arraycopy(oldEdges, runFrom, newEdges, runTo, runLength);
+		ManagerMetrics.record(ManagerMetrics.Phase.PERSON_SORT, start, size - oldSize, comparisons);
+		return index;
+	}
+
+	/**
+	 * Returns the position in a range of a slice of an older index after every
+	 * connection that comes before or with a new connection, by binary search
+	 * @param owner rank of the person whose slice the range is in
+	 * @param low first position of the range
+	 * @param high position after the range
+	 * @param oldEdges edges of the older index
+	 * @param edge position of the new connection
+	 * @return position the new connection goes before
+	 */
+	private int insertionPoint(int owner, int low, int high, int[] oldEdges, int edge) {
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compare(owner, oldEdges[mid], edge) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Claims the room at the end of firstRank, secondRank and dates for an
+	 * index built from this one by add
+	 * @return true if no index had claimed it before
+	 */
+	private synchronized boolean claimTail() {
+		if (tailClaimed) {
+			return false;
+		}
+		tailClaimed = true;
+		return true;
+	}
+
+	/**
+	 * Copies the first values of an array into a longer one
+	 * @param values array to copy
+	 * @param length number of values to copy
+	 * @param capacity length of the new array
+	 * @return the new array
+	 */
+	private static long[] copy(long[] values, int length, int capacity) {
+		long[] copy = new long[capacity];
+		System.arraycopy(values, 0, copy, 0, length);
+		return copy;
+	}
+
+	/**
+	 * Returns the ranking the people of the index are numbered by
+	 * @return ranking of the people
+	 */
+	public PersonRanking getRanking() {
+		return ranking;
+	}
+
+	/**
+	 * Returns the table of the connections of the network
+	 * @return connections of the network, by position
+	 */
+	public ConnectionTable getConnections() {
+		return connections;
+	}
+
+	/**
+	 * Returns a view of the sorted connections of the person with the given rank
+	 * @param rank rank of the person
+	 * @return read-only list of the person's connections
+	 */
+	public List<Connection> connectionsOf(int rank) {
+		return new ConnectionListView(connections, edges, offsets.get(rank), offsets.get(rank + 1));
+	}
+
+	/**
+	 * Returns the number of connections of the person with the given rank
+	 * @param rank rank of the person
+	 * @return number of connections of the person
+	 */
+	public int degree(int rank) {
+		return offsets.get(rank + 1) - offsets.get(rank);
+	}
+
+	/**
+	 * Returns the position in edges where the person's connections start
+	 * @param rank rank of the person
+	 * @return first position of the person's connections
+	 */
+	public int start(int rank) {
+		return offsets.get(rank);
+	}
+
+	/**
+	 * Returns the connection at a position of edges
+	 * @param position position in edges
+	 * @return connection at the position
+	 */
+	public Connection connectionAt(int position) {
+		return connections.get(edges.get(position));
+	}
+
+	/**
+	 * Returns the number of connections in the network
+	 * @return number of connections
+	 */
+	public int size() {
+		return connections.size();
+	}
+
+	/**
+	 * Returns the connection at a position of the network
+	 * @param edge position of the connection in the network
+	 * @return connection at the position
+	 */
+	public Connection connection(int edge) {
+		return connections.get(edge);
+	}
+
+	/**
+	 * Returns the position in the network of the connection at a position of edges
+	 * @param position position in edges
+	 * @return position of the connection in the network
+	 */
+	public int edgeAt(int position) {
+		return edges.get(position);
+	}
+
+	/**
+	 * Returns the rank of the other person of the connection at a position of edges
+	 * @param rank rank of the person whose slice the position is in
+	 * @param position position in edges
+	 * @return rank of the other person, or -1 if the person is unknown
+	 */
+	public int otherRankAt(int rank, int position) {
+		return other(rank, edges.get(position));
+	}
+
+	/**
+	 * Returns the rank of the first person of a connection
+	 * @param edge position of the connection in the network
+	 * @return rank of the first person, or -1 if the person is unknown
+	 */
+	public int firstRankOf(int edge) {
+		return firstRank.get(edge);
+	}
+
+	/**
+	 * Returns the rank of the second person of a connection
+	 * @param edge position of the connection in the network
+	 * @return rank of the second person, or -1 if the person is unknown
+	 */
+	public int secondRankOf(int edge) {
+		return secondRank.get(edge);
+	}
+
+	/**
+	 * Returns the other person of the connection at a position of edges
+	 * @param rank rank of the person whose slice the position is in
+	 * @param position position in edges
+	 * @return other person of the connection, or null if the person is unknown
+	 */
+	public Person otherAt(int rank, int position) {
+		int other = other(rank, edges.get(position));
+		if (other < 0) {
+			return null;
+		}
+		return ranking.personAt(other);
+	}
+
+	/**
+	 * Returns the rank of the person that is not the owner in a connection
+	 * @param owner rank of the person whose slice the connection is in
+	 * @param edge position of the connection
+	 * @return rank of the other person
+	 */
+	private int other(int owner, int edge) {
+		int first = firstRank.get(edge);
+		if (first == owner) {
+			return secondRank.get(edge);
+		}
+		return first;
+	}
+
+	/**
+	 * Compares two connections in the same person's slice by the rank of the
+	 * other person and then by date
+	 * @param owner rank of the person whose slice the connections are in
+	 * @param e1 position of the first connection
+	 * @param e2 position of the second connection
+	 * @return negative, zero or positive as the first connection comes before, with or after the second
+	 */
+	private int compare(int owner, int e1, int e2) {
+		int o1 = other(owner, e1);
+		int o2 = other(owner, e2);
+		if (o1 != o2) {
+			return Integer.compare(o1, o2);
+		}
+		return Long.compare(dates.get(e1), dates.get(e2));
+	}
+}
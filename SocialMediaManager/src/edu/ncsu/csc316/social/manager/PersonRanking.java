@@ -0,0 +1,271 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.util.Comparator;
+
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.social.data.Person;
+
+/**
+ * PersonRanking is a one-time ranking pass over the people of a network.
+ * Every person gets an int rank, where a lower rank means the person comes
+ * first when sorted by last name, then first name, then username. Comparing
+ * two ranks gives the same result as comparing the two Person objects, so
+ * sorts can compare ints instead of looking people up and comparing Strings.
+ * Each username is also given a slot that never changes, so that new people
+ * can be ranked by merging them into the ranking without looking up the
+ * people who were already ranked. The slots are kept in layers of maps, the
+ * newest first. Adding people builds a map of only the new people and merges
+ * into it the layers below that are no bigger than it, so a username is
+ * copied into a new map a logarithmic number of times over any number of
+ * adds, and a lookup searches a logarithmic number of layers. Layers are
+ * shared by the rankings built from each other, but a map is never changed
+ * once it is a layer, and a ranking is never changed once it is built.
+ * @author Arnold Elamthuruthil
+ */
+public class PersonRanking {
+	/** Factory of the map of slots and the sorter of new people */
+	private DataStructureFactory factory;
+	/** Newest layer of the maps of each username to its slot */
+	private SlotLayer slots;
+	/** People in rank order */
+	private Person[] ordered;
+	/** Rank of the person in each slot */
+	private int[] rankBySlot;
+	/** Slot of the person with each rank */
+	private int[] slotByRank;
+
+	/**
+	 * Ranks every person in the map
+	 * @param people map of usernames to Person objects
+	 * @param factory factory of the map of slots and the sorter
+	 */
+	public PersonRanking(Map<String, Person> people, DataStructureFactory factory) {
+		this.factory = factory;
+		ordered = new Person[people.size()];
+		int i = 0;
+		for (Person p : people.values()) {
+			ordered[i] = p;
+			i++;
+		}
+		long start = ManagerMetrics.start();
+		PersonComparator comparator = new PersonComparator();
+		factory.getComparisonSorter(comparator).sort(ordered);
+		ManagerMetrics.record(ManagerMetrics.Phase.RANKING, start, ordered.length, comparator.comparisons);
+		rank();
+	}
+
+	/**
+	 * Creates a ranking of people who are already in rank order, such as the
+	 * people of a snapshot
+	 * @param ordered people in rank order
+	 * @param factory factory of the map of slots and the sorter
+	 */
+	PersonRanking(Person[] ordered, DataStructureFactory factory) {
+		this.factory = factory;
+		this.ordered = ordered;
+		rank();
+	}
+
+	/**
+	 * Gives every person of ordered the slot of their rank
+	 */
+	private void rank() {
+		Map<String, Integer> all = factory.getMap();
+		rankBySlot = new int[ordered.length];
+		slotByRank = new int[ordered.length];
+		for (int rank = 0; rank < ordered.length; rank++) {
+			all.put(ordered[rank].getId(), rank);
+			rankBySlot[rank] = rank;
+			slotByRank[rank] = rank;
+		}
+		slots = new SlotLayer(all, null);
+	}
+
+	/**
+	 * Creates a ranking from arrays built by add
+	 * @param factory factory of the map of slots and the sorter
+	 * @param slots newest layer of the maps of each username to its slot
+	 * @param ordered people in rank order
+	 * @param rankBySlot rank of the person in each slot
+	 * @param slotByRank slot of the person with each rank
+	 */
+	private PersonRanking(DataStructureFactory factory, SlotLayer slots, Person[] ordered,
+			int[] rankBySlot, int[] slotByRank) {
+		this.factory = factory;
+		this.slots = slots;
+		this.ordered = ordered;
+		this.rankBySlot = rankBySlot;
+		this.slotByRank = slotByRank;
+	}
+
+	/**
+	 * Returns a ranking of the people of this ranking and some new people. Only
+	 * the new people are sorted, and each is placed among the people already
+	 * in rank order by a binary search, so nobody who was already ranked is
+	 * compared or looked up. The new people get their own layer of slots on
+	 * top of the layers of this ranking, which are not changed, so this
+	 * ranking can still be read by other threads while add runs. What is left
+	 * in proportion to the whole ranking is copying its arrays in bulk.
+	 * Each person keeps the slot they had in this ranking.
+	 * @param added new people, none of whom have a username that is already ranked
+	 * @return ranking of the people of both
+	 */
+	public PersonRanking add(Person[] added) {
+		if (added.length == 0) {
+			return this;
+		}
+		long start = ManagerMetrics.start();
+		Person[] sorted = new Person[added.length];
+		System.arraycopy(added, 0, sorted, 0, added.length);
+		PersonComparator comparator = new PersonComparator();
+		factory.getComparisonSorter(comparator).sort(sorted);
+
+		Map<String, Integer> newSlots = factory.getMap();
+		int size = ordered.length + sorted.length;
+		Person[] merged = new Person[size];
+		int[] newRankBySlot = new int[size];
+		int[] newSlotByRank = new int[size];
+		int oldRank = 0;
+		for (int next = 0; next < sorted.length; next++) {
+			int insert = insertionPoint(sorted[next], oldRank, comparator);
+			System.arraycopy(ordered, oldRank, merged, oldRank + next, insert - oldRank);
+			System.arraycopy(slotByRank, oldRank, newSlotByRank, oldRank + next, insert - oldRank);
+			oldRank = insert;
+			int slot = ordered.length + next;
+			merged[oldRank + next] = sorted[next];
+			newSlotByRank[oldRank + next] = slot;
+			newSlots.put(sorted[next].getId(), slot);
+		}
+		System.arraycopy(ordered, oldRank, merged, oldRank + sorted.length, ordered.length - oldRank);
+		System.arraycopy(slotByRank, oldRank, newSlotByRank, oldRank + sorted.length, ordered.length - oldRank);
+		for (int rank = 0; rank < size; rank++) {
+			newRankBySlot[newSlotByRank[rank]] = rank;
+		}
+		//Merges the layers below that are no bigger than the new one, so layers at least double going down
+		SlotLayer below = slots;
+		while (below != null && below.slots.size() <= newSlots.size()) {
+			for (Map.Entry<String, Integer> entry : below.slots.entrySet()) {
+				newSlots.put(entry.getKey(), entry.getValue());
+			}
+			below = below.below;
+		}
+		ManagerMetrics.record(ManagerMetrics.Phase.RANKING, start, sorted.length, comparator.comparisons);
+		return new PersonRanking(factory, new SlotLayer(newSlots, below), merged, newRankBySlot, newSlotByRank);
+	}
+
+	/**
+	 * Returns the rank of the first ranked person at or after a rank who comes
+	 * after a new person, by binary search
+	 * @param person new person
+	 * @param from first rank searched
+	 * @param comparator comparator of the people
+	 * @return rank the new person is placed before
+	 */
+	private int insertionPoint(Person person, int from, PersonComparator comparator) {
+		int low = from;
+		int high = ordered.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (comparator.compare(ordered[mid], person) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the rank in this ranking of every person of a ranking this one was
+	 * merged from
+	 * @param previous ranking this ranking was built from with add, or this ranking
+	 * @return rank in this ranking of each rank of the previous ranking
+	 */
+	public int[] ranksFrom(PersonRanking previous) {
+		int[] ranks = new int[previous.size()];
+		for (int rank = 0; rank < ranks.length; rank++) {
+			ranks[rank] = rankBySlot[previous.slotByRank[rank]];
+		}
+		return ranks;
+	}
+
+	/**
+	 * Returns the rank of the person with the given username. An unordered
+	 * linked map reorders itself on lookups, so with that map type rankOf must
+	 * not be called by more than one thread at a time.
+	 * @param id username of the person
+	 * @return rank of the person, or -1 if there is no person with the username
+	 */
+	public int rankOf(String id) {
+		for (SlotLayer layer = slots; layer != null; layer = layer.below) {
+			Integer slot = layer.slots.get(id);
+			if (slot != null) {
+				return rankBySlot[slot];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the person with the given rank
+	 * @param rank rank of the person
+	 * @return person with the rank
+	 */
+	public Person personAt(int rank) {
+		return ordered[rank];
+	}
+
+	/**
+	 * Returns the number of people that were ranked
+	 * @return number of ranked people
+	 */
+	public int size() {
+		return ordered.length;
+	}
+
+	/**
+	 * Map of the slots of some usernames, with the layer of the usernames
+	 * that were ranked before them
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class SlotLayer {
+		/** Map of each username of the layer to its slot */
+		private Map<String, Integer> slots;
+		/** Layer of the usernames ranked before these, or null */
+		private SlotLayer below;
+
+		/**
+		 * Creates a SlotLayer
+		 * @param slots map of each username of the layer to its slot
+		 * @param below layer of the usernames ranked before these, or null
+		 */
+		SlotLayer(Map<String, Integer> slots, SlotLayer below) {
+			this.slots = slots;
+			this.below = below;
+		}
+	}
+
+	/**
+	 * Comparator that orders people by last name, then first name, then
+	 * username, and counts its comparisons for ManagerMetrics
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class PersonComparator implements Comparator<Person> {
+		/** Number of comparisons made */
+		private long comparisons;
+
+		@Override
+		public int compare(Person o1, Person o2) {
+			comparisons++;
+			int last = o1.getLast().compareTo(o2.getLast());
+			if (last == 0) {
+				int first = o1.getFirst().compareTo(o2.getFirst());
+				if (first == 0) {
+					return o1.getId().compareTo(o2.getId());
+				}
+				return first;
+			}
+			return last;
+		}
+	}
+}
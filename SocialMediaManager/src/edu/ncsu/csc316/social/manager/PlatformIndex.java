@@ -0,0 +1,432 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.util.Comparator;
+
+import edu.ncsu.csc316.dsa.data.Identifiable;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.social.data.Connection;
+
+/**
+ * PlatformIndex groups the connections of a network by platform. Platforms
+ * are dictionary-encoded to small int codes in the order they are first seen.
+ * The connections are sorted by date once with a ParallelMergeSorter, which
+ * costs one comparison per connection when they are already in date order,
+ * and then bucketed by platform code with the non-comparison sorter, which
+ * keeps the date order inside each bucket. The connections on the platform
+ * with code p are the connection positions order[offsets[p]] to
+ * order[offsets[p + 1] - 1]. An index is never changed once it is built; add
+ * builds the index of a grown network by merging the new connections into the
+ * buckets of this one.
+ * The date of each connection in order is also kept as epoch milliseconds in
+ * times, so the connections on a platform in a range of dates are found with
+ * two binary searches inside the platform's bucket.
+ * The columns of an index that is built are arrays on the heap, and the
+ * columns of an index loaded from a snapshot are read straight from the
+ * mapped file until add copies them onto the heap for the next index.
+ * @author Arnold Elamthuruthil
+ */
+public class PlatformIndex {
+	/** Factory of the map of codes and the sorters */
+	private DataStructureFactory factory;
+	/** Connections of the network, by position */
+	private ConnectionTable connections;
+	/** Map of each platform name to its code */
+	private Map<String, Integer> codes;
+	/** Platform names, by code */
+	private String[] platforms;
+	/** Start of each platform's bucket in order, with the total at the end */
+	private IntColumn offsets;
+	/** Connection positions grouped by platform, in date order inside each platform */
+	private IntColumn order;
+	/** Date in epoch milliseconds of the connection at each position of order */
+	private LongColumn times;
+
+	/**
+	 * Builds the index for the connections of a network
+	 * @param connections connections of the network, by position
+	 * @param factory factory of the map of codes and the sorters
+	 */
+	public PlatformIndex(ConnectionTable connections, DataStructureFactory factory) {
+		this.factory = factory;
+		this.connections = connections;
+		long start = ManagerMetrics.start();
+		codes = factory.getMap();
+		int size = connections.size();
+		String[] names = new String[size];
+		PlatformEntry[] entries = new PlatformEntry[size];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			String platform = connections.platform(i);
+			Integer code = codes.get(platform);
+			if (code == null) {
+				code = count;
+				codes.put(platform, code);
+				names[count] = platform;
+				count++;
+			}
+			entries[i] = new PlatformEntry(i, code, connections.date(i));
+		}
+		platforms = new String[count];
+		System.arraycopy(names, 0, platforms, 0, count);
+
+		int[] starts = new int[count + 1];
+		int[] positions = new int[size];
+		long[] dates = new long[size];
+		offsets = IntColumn.of(starts);
+		order = IntColumn.of(positions);
+		times = LongColumn.of(dates);
+		if (size == 0) {
+			return;
+		}
+		ParallelMergeSorter<PlatformEntry> sorter = new ParallelMergeSorter<PlatformEntry>(new DateComparator());
+		sorter.sort(entries);
+		factory.<PlatformEntry>getNonComparisonSorter().sort(entries);
+		for (int i = 0; i < size; i++) {
+			positions[i] = entries[i].position;
+			dates[i] = entries[i].date;
+			starts[entries[i].code + 1]++;
+		}
+		for (int p = 0; p < count; p++) {
+			starts[p + 1] += starts[p];
+		}
+		ManagerMetrics.record(ManagerMetrics.Phase.PLATFORM_INDEX, start, size, sorter.getComparisons());
+	}
+
+	/**
+	 * Creates an index from columns that are already built and sorted, such as
+	 * the mapped columns of a snapshot
+	 * @param connections connections of the network, by position
+	 * @param codes map of each platform name to its code
+	 * @param platforms platform names, by code
+	 * @param offsets start of each platform's bucket in order
+	 * @param order connection positions grouped by platform in date order
+	 * @param times date of the connection at each position of order
+	 * @param factory factory of the sorters add uses
+	 */
+	PlatformIndex(ConnectionTable connections, Map<String, Integer> codes, String[] platforms, IntColumn offsets,
+			IntColumn order, LongColumn times, DataStructureFactory factory) {
+		this.factory = factory;
+		this.connections = connections;
+		this.codes = codes;
+		this.platforms = platforms;
+		this.offsets = offsets;
+		this.order = order;
+		this.times = times;
+	}
+
+	/**
+	 * Creates an empty index that add fills in
+	 */
+	private PlatformIndex() {
+		//Fields are set by add
+	}
+
+	/**
+	 * Returns the index of a network this index's network has grown into by
+	 * new connections at the end of the connections table. Only the new
+	 * connections are sorted and bucketed, and each platform's bucket is merged
+	 * with the new connections on the platform, while the buckets with nothing
+	 * new are copied in bulk. The map of codes is shared with this index
+	 * unless there are new platforms, which get the next codes in a copy of
+	 * the map, so this index is not changed.
+	 * @param connections connections of the network, with the connections of
+	 * this index at the same positions at the start
+	 * @return index of the grown network
+	 */
+	public PlatformIndex add(ConnectionTable connections) {
+		long start = ManagerMetrics.start();
+		int oldSize = this.connections.size();
+		int size = connections.size();
+		//The columns of a snapshot are copied onto the heap here, and the next index keeps heap arrays
+		int[] oldOffsets = offsets.heapArray();
+		int[] oldOrder = order.heapArray();
+		long[] oldTimes = times.heapArray();
+		PlatformIndex index = new PlatformIndex();
+		index.factory = factory;
+		index.connections = connections;
+		index.codes = codes;
+		String[] names = new String[platforms.length + size - oldSize];
+		System.arraycopy(platforms, 0, names, 0, platforms.length);
+		PlatformEntry[] entries = new PlatformEntry[size - oldSize];
+		int count = platforms.length;
+		for (int i = oldSize; i < size; i++) {
+			String platform = connections.platform(i);
+			Integer code = index.codes.get(platform);
+			if (code == null) {
+				if (index.codes == codes) {
+					index.codes = factory.getMap();
+					for (int c = 0; c < platforms.length; c++) {
+						index.codes.put(platforms[c], c);
+					}
+				}
+				code = count;
+				index.codes.put(platform, code);
+				names[count] = platform;
+				count++;
+			}
+			entries[i - oldSize] = index.new PlatformEntry(i, code, connections.date(i));
+		}
+		index.platforms = new String[count];
+		System.arraycopy(names, 0, index.platforms, 0, count);
+		ParallelMergeSorter<PlatformEntry> sorter = new ParallelMergeSorter<PlatformEntry>(index.new DateComparator());
+		if (entries.length > 0) {
+			sorter.sort(entries);
+			factory.<PlatformEntry>getNonComparisonSorter().sort(entries);
+		}
+		int[] added = new int[count + 1];
+		for (PlatformEntry entry : entries) {
+			added[entry.code + 1]++;
+		}
+		for (int p = 0; p < count; p++) {
+			added[p + 1] += added[p];
+		}
+		int[] newOffsets = new int[count + 1];
+		for (int p = 0; p < count; p++) {
+			int bucket = p < platforms.length ? oldOffsets[p + 1] - oldOffsets[p] : 0;
+			newOffsets[p + 1] = newOffsets[p] + bucket + added[p + 1] - added[p];
+		}
+		int[] newOrder = new int[size];
+		long[] newTimes = new long[size];
+		index.offsets = IntColumn.of(newOffsets);
+		index.order = IntColumn.of(newOrder);
+		index.times = LongColumn.of(newTimes);
+		for (int p = 0; p < count; p++) {
+			int left = p < platforms.length ? oldOffsets[p] : 0;
+			int leftEnd = p < platforms.length ? oldOffsets[p + 1] : 0;
+			int right = added[p];
+			int rightEnd = added[p + 1];
+			int out = newOffsets[p];
+			//Each new connection is placed by binary search, and the old ones before it are copied in bulk
+			for (; right < rightEnd; right++) {
+				int insert = index.insertionPoint(left, leftEnd, oldTimes, oldOrder, entries[right]);
+				System.arraycopy(oldOrder, left, newOrder, out, insert - left);
+				System.arraycopy(oldTimes, left, newTimes, out, insert - left);
+				out += insert - left;
+				left = insert;
+				newTimes[out] = entries[right].date;
+				newOrder[out++] = entries[right].position;
+			}
+			System.arraycopy(oldOrder, left, newOrder, out, leftEnd - left);
+			System.arraycopy(oldTimes, left, newTimes, out, leftEnd - left);
+		}
+		ManagerMetrics.record(ManagerMetrics.Phase.PLATFORM_INDEX, start, entries.length, sorter.getComparisons());
+		return index;
+	}
+
+	/**
+	 * Returns the position in a range of a bucket of an older index after
+	 * every connection that comes before or with a new connection, by binary
+	 * search over the dates of the bucket
+	 * @param low first position of the range
+	 * @param high position after the range
+	 * @param oldTimes dates of the older index, by position
+	 * @param oldOrder connection positions of the older index
+	 * @param entry new connection
+	 * @return position the new connection goes before
+	 */
+	private int insertionPoint(int low, int high, long[] oldTimes, int[] oldOrder, PlatformEntry entry) {
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int compare = Long.compare(oldTimes[mid], entry.date);
+			if (compare == 0) {
+				compare = connections.compareIds(oldOrder[mid], entry.position);
+			}
+			if (compare <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the number of platforms in the index
+	 * @return number of platforms
+	 */
+	public int size() {
+		return platforms.length;
+	}
+
+	/**
+	 * Returns the name of the platform with the given code
+	 * @param code code of the platform
+	 * @return name of the platform
+	 */
+	public String platformAt(int code) {
+		return platforms[code];
+	}
+
+	/**
+	 * Returns the code of the platform with the given name. An unordered
+	 * linked map reorders itself on lookups, so with that map type codeOf must
+	 * not be called by more than one thread at a time.
+	 * @param platform name of the platform
+	 * @return code of the platform, or -1 if no connection in the index is on the platform
+	 */
+	public int codeOf(String platform) {
+		Integer code = codes.get(platform);
+		if (code == null) {
+			return -1;
+		}
+		return code;
+	}
+
+	/**
+	 * Returns the position in order where a platform's connections start
+	 * @param code code of the platform
+	 * @return first position of the platform's connections
+	 */
+	public int start(int code) {
+		return offsets.get(code);
+	}
+
+	/**
+	 * Returns the position in order after a platform's connections
+	 * @param code code of the platform
+	 * @return position after the platform's connections
+	 */
+	public int end(int code) {
+		return offsets.get(code + 1);
+	}
+
+	/**
+	 * Returns the position in the network of the connection at a position of order
+	 * @param position position in order
+	 * @return position of the connection in the network
+	 */
+	public int edgeAt(int position) {
+		return order.get(position);
+	}
+
+	/**
+	 * Returns the date of the connection at a position of order
+	 * @param position position in order
+	 * @return date of the connection in epoch milliseconds
+	 */
+	public long timeAt(int position) {
+		return times.get(position);
+	}
+
+	/**
+	 * Returns the connection at a position of order
+	 * @param position position in order
+	 * @return connection at the position
+	 */
+	public Connection connectionAt(int position) {
+		return connections.get(order.get(position));
+	}
+
+	/**
+	 * Returns a view of the connections on a platform in date order
+	 * @param code code of the platform
+	 * @return read-only list of the platform's connections
+	 */
+	public List<Connection> connectionsOn(int code) {
+		return new ConnectionListView(connections, order, offsets.get(code), offsets.get(code + 1));
+	}
+
+	/**
+	 * Returns the first position of a platform's bucket whose connection was
+	 * made at or after a time, by binary search
+	 * @param code code of the platform
+	 * @param time time in epoch milliseconds
+	 * @return first position in order at or after the time, or the end of the
+	 * bucket if every connection on the platform is older
+	 */
+	public int positionOf(int code, long time) {
+		int low = offsets.get(code);
+		int high = offsets.get(code + 1);
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (times.get(mid) < time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the number of connections on a platform made in a range of times
+	 * @param code code of the platform
+	 * @param from first time of the range in epoch milliseconds
+	 * @param to time after the range in epoch milliseconds
+	 * @return number of connections made at or after from and before to
+	 */
+	public int countBetween(int code, long from, long to) {
+		if (from >= to) {
+			return 0;
+		}
+		return positionOf(code, to) - positionOf(code, from);
+	}
+
+	/**
+	 * Returns a view of the connections on a platform made in a range of times,
+	 * in date order. Iterating the view reads the connections straight from
+	 * the index, one at a time.
+	 * @param code code of the platform
+	 * @param from first time of the range in epoch milliseconds
+	 * @param to time after the range in epoch milliseconds
+	 * @return read-only list of the connections made at or after from and before to
+	 */
+	public List<Connection> connectionsBetween(int code, long from, long to) {
+		int start = positionOf(code, from);
+		int end = Math.max(start, positionOf(code, to));
+		return new ConnectionListView(connections, order, start, end);
+	}
+
+	/**
+	 * Connection position with its platform code and date. The code is the
+	 * id used by the non-comparison sorter.
+	 * @author Arnold Elamthuruthil
+	 */
+	private class PlatformEntry implements Identifiable, Comparable<PlatformEntry> {
+		/** Position of the connection */
+		private int position;
+		/** Code of the connection's platform */
+		private int code;
+		/** Date of the connection in epoch milliseconds */
+		private long date;
+
+		/**
+		 * Creates a PlatformEntry
+		 * @param position position of the connection
+		 * @param code code of the connection's platform
+		 * @param date date of the connection in epoch milliseconds
+		 */
+		PlatformEntry(int position, int code, long date) {
+			this.position = position;
+			this.code = code;
+			this.date = date;
+		}
+
+		@Override
+		public int getId() {
+			return code;
+		}
+
+		@Override
+		public int compareTo(PlatformEntry o) {
+			return Integer.compare(position, o.position);
+		}
+	}
+
+	/**
+	 * Comparator that orders connections by date, and then by connection id
+	 * @author Arnold Elamthuruthil
+	 */
+	private class DateComparator implements Comparator<PlatformEntry> {
+
+		@Override
+		public int compare(PlatformEntry o1, PlatformEntry o2) {
+			int date = Long.compare(o1.date, o2.date);
+			if (date == 0) {
+				return connections.compareIds(o1.position, o2.position);
+			}
+			return date;
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package edu.ncsu.csc316.social.manager;
+
+import edu.ncsu.csc316.social.data.Person;
+
+/**
+ * Recommendation is a person someone may know, with the number of people
+ * the two of them are both connected to
+ * @author Arnold Elamthuruthil
+ */
+public class Recommendation {
+	/** Person who is recommended */
+	private Person person;
+	/** Number of people both people are connected to */
+	private int mutualConnections;
+
+	/**
+	 * Creates a Recommendation
+	 * @param person person who is recommended
+	 * @param mutualConnections number of people both people are connected to
+	 */
+	public Recommendation(Person person, int mutualConnections) {
+		this.person = person;
+		this.mutualConnections = mutualConnections;
+	}
+
+	/**
+	 * Returns the person who is recommended
+	 * @return recommended person
+	 */
+	public Person getPerson() {
+		return person;
+	}
+
+	/**
+	 * Returns the number of people both people are connected to
+	 * @return number of mutual connections
+	 */
+	public int getMutualConnections() {
+		return mutualConnections;
+	}
+}
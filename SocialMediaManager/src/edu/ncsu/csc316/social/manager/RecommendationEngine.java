@@ -0,0 +1,255 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.ncsu.csc316.dsa.list.List;
+
+/**
+ * RecommendationEngine finds the people someone may know: the people they
+ * are not connected to who share the most connections with them. People are
+ * numbered by rank, and the connections of each person are read from the
+ * slices of a PersonIndex, which are sorted by the rank of the other person,
+ * so each neighbor is found once by skipping repeated ranks.
+ * Mutual connections are counted in an int array with one counter per
+ * person, walking the neighbors of each neighbor. The person and their
+ * neighbors are marked in the array so they are never counted, and only the
+ * counters that were touched are reset, so a query costs time proportional to
+ * the number of people two steps away, not the size of the network. The best
+ * k are kept in a TopK, a heap of at most k entries.
+ * Recommendations can be restricted to the connections on one platform, and
+ * can be found for every person at once on the fork-join pool.
+ * @author Arnold Elamthuruthil
+ */
+public class RecommendationEngine {
+	/** Smallest number of people worth handing to their own fork-join task */
+	private static final int MIN_PEOPLE_PER_TASK = 256;
+	/** Number of tasks made for each worker of the pool, so busy workers can be helped */
+	private static final int TASKS_PER_WORKER = 4;
+	/** Counter value of people who are never recommended */
+	private static final int EXCLUDED = -1;
+
+	/** Index of every person's connections */
+	private PersonIndex index;
+	/** Factory of the lists of recommendations */
+	private DataStructureFactory factory;
+	/** Code of the platform of each connection, by position */
+	private int[] platformOf;
+	/** Counters left over from the last query, or null if a query is using them */
+	private AtomicReference<Counters> spare = new AtomicReference<Counters>();
+
+	/**
+	 * Creates a RecommendationEngine for a network
+	 * @param index index of every person's connections
+	 * @param platformIndex index of the connections on each platform
+	 * @param factory factory of the lists of recommendations
+	 */
+	public RecommendationEngine(PersonIndex index, PlatformIndex platformIndex, DataStructureFactory factory) {
+		this.index = index;
+		this.factory = factory;
+		platformOf = new int[index.size()];
+		for (int code = 0; code < platformIndex.size(); code++) {
+			for (int i = platformIndex.start(code); i < platformIndex.end(code); i++) {
+				platformOf[platformIndex.edgeAt(i)] = code;
+			}
+		}
+	}
+
+	/**
+	 * Returns the people the person with a rank may know, with the most mutual
+	 * connections first. People with the same number of mutual connections are
+	 * in rank order. Only people with at least one mutual connection are
+	 * recommended. Safe to call from many threads.
+	 * @param rank rank of the person
+	 * @param code code of the platform to count connections on, or -1 for every platform
+	 * @param k largest number of people to recommend
+	 * @return list of at most k recommendations
+	 */
+	public List<Recommendation> recommend(int rank, int code, int k) {
+		Counters counters = spare.getAndSet(null);
+		if (counters == null) {
+			counters = new Counters(index.getRanking().size());
+		}
+		List<Recommendation> best = topK(rank, code, k, counters);
+		spare.set(counters);
+		return best;
+	}
+
+	/**
+	 * Finds the recommendations of every person on the fork-join pool. Each
+	 * task has its own counters, so the people are split into a few tasks for
+	 * each worker.
+	 * @param code code of the platform to count connections on, or -1 for every platform
+	 * @param k largest number of people to recommend to each person
+	 * @return recommendations of each person, by rank
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public List<Recommendation>[] recommendAll(int code, int k) {
+		int people = index.getRanking().size();
+		List<Recommendation>[] all = new List[people];
+		int perTask = Math.max(MIN_PEOPLE_PER_TASK,
+				people / (ForkJoinPool.getCommonPoolParallelism() * TASKS_PER_WORKER) + 1);
+		ForkJoinPool.commonPool().invoke(new BatchTask(all, code, k, 0, people, perTask));
+		return all;
+	}
+
+	/**
+	 * Counts the mutual connections of one person's candidates and returns the
+	 * best k
+	 * @param rank rank of the person
+	 * @param code code of the platform to count connections on, or -1 for every platform
+	 * @param k largest number of people to return
+	 * @param counters counters of the thread, all zero
+	 * @return list of the best candidates, best first
+	 */
+	private List<Recommendation> topK(int rank, int code, int k, Counters counters) {
+		int[] count = counters.count;
+		int touched = 0;
+		count[rank] = EXCLUDED;
+		counters.touched[touched++] = rank;
+		int start = index.start(rank);
+		int end = start + index.degree(rank);
+		int last = -1;
+		for (int i = start; i < end; i++) {
+			int other = neighborAt(rank, i, code);
+			if (other >= 0 && other != last && other != rank) {
+				count[other] = EXCLUDED;
+				counters.touched[touched++] = other;
+				last = other;
+			}
+		}
+
+		last = -1;
+		for (int i = start; i < end; i++) {
+			int friend = neighborAt(rank, i, code);
+			if (friend < 0 || friend == last || friend == rank) {
+				continue;
+			}
+			last = friend;
+			int friendStart = index.start(friend);
+			int friendEnd = friendStart + index.degree(friend);
+			int previous = -1;
+			for (int j = friendStart; j < friendEnd; j++) {
+				int candidate = neighborAt(friend, j, code);
+				if (candidate < 0 || candidate == previous) {
+					continue;
+				}
+				previous = candidate;
+				if (count[candidate] == 0) {
+					counters.touched[touched++] = candidate;
+				}
+				if (count[candidate] != EXCLUDED) {
+					count[candidate]++;
+				}
+			}
+		}
+
+		TopK best = new TopK(k);
+		for (int t = 0; t < touched; t++) {
+			int candidate = counters.touched[t];
+			int mutual = count[candidate];
+			count[candidate] = 0;
+			if (mutual > 0) {
+				best.offer(candidate, mutual);
+			}
+		}
+		int[] ranks = new int[best.size()];
+		long[] mutuals = new long[ranks.length];
+		best.drain(ranks, mutuals);
+		List<Recommendation> list = factory.getIndexedList();
+		PersonRanking ranking = index.getRanking();
+		for (int i = 0; i < ranks.length; i++) {
+			list.addLast(new Recommendation(ranking.personAt(ranks[i]), (int) mutuals[i]));
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the rank of the other person of a connection in a person's slice
+	 * if the connection is on the platform
+	 * @param rank rank of the person whose slice the position is in
+	 * @param position position in the index
+	 * @param code code of the platform, or -1 for every platform
+	 * @return rank of the other person, or -1 if the person is unknown or the
+	 * connection is on another platform
+	 */
+	private int neighborAt(int rank, int position, int code) {
+		if (code >= 0 && platformOf[index.edgeAt(position)] != code) {
+			return -1;
+		}
+		return index.otherRankAt(rank, position);
+	}
+
+	/**
+	 * Counter of each person's mutual connections and the people whose
+	 * counters have been touched, used by one thread at a time
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class Counters {
+		/** Mutual connections of each person, or EXCLUDED */
+		private int[] count;
+		/** People whose counters are not zero */
+		private int[] touched;
+
+		/**
+		 * Creates zeroed counters
+		 * @param people number of people in the network
+		 */
+		Counters(int people) {
+			count = new int[people];
+			touched = new int[people];
+		}
+	}
+
+	/**
+	 * Fork-join task that finds the recommendations of a range of people
+	 * @author Arnold Elamthuruthil
+	 */
+	private class BatchTask extends RecursiveAction {
+		/** Recommendations of each person, by rank */
+		private List<Recommendation>[] all;
+		/** Code of the platform, or -1 for every platform */
+		private int code;
+		/** Largest number of people to recommend to each person */
+		private int k;
+		/** First rank of the range */
+		private int low;
+		/** Rank after the range */
+		private int high;
+		/** Largest number of people a task finds recommendations for itself */
+		private int perTask;
+
+		/**
+		 * Creates a BatchTask
+		 * @param all recommendations of each person, by rank
+		 * @param code code of the platform, or -1 for every platform
+		 * @param k largest number of people to recommend to each person
+		 * @param low first rank of the range
+		 * @param high rank after the range
+		 * @param perTask largest number of people a task handles itself
+		 */
+		BatchTask(List<Recommendation>[] all, int code, int k, int low, int high, int perTask) {
+			this.all = all;
+			this.code = code;
+			this.k = k;
+			this.low = low;
+			this.high = high;
+			this.perTask = perTask;
+		}
+
+		@Override
+		protected void compute() {
+			if (high - low > perTask) {
+				int mid = (low + high) >>> 1;
+				invokeAll(new BatchTask(all, code, k, low, mid, perTask),
+						new BatchTask(all, code, k, mid, high, perTask));
+				return;
+			}
+			Counters counters = new Counters(index.getRanking().size());
+			for (int rank = low; rank < high; rank++) {
+				all[rank] = topK(rank, code, k, counters);
+			}
+		}
+	}
+}
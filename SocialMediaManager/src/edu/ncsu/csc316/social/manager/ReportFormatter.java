@@ -0,0 +1,195 @@
+package edu.ncsu.csc316.social.manager;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import edu.ncsu.csc316.social.data.Person;
+
+/**
+ * ReportFormatter holds the pieces of text the reports are made of, so that
+ * rendering a line only appends text that already exists. Each person's
+ * "First Last (id)" label is built once when the formatter is created.
+ * Dates are not kept per connection, so rendering or writing a report does
+ * not grow the heap with the size of the network. Instead each thread that
+ * renders has its own DateText, which formats a date into a reusable char
+ * buffer and keeps the text of a few hundred recent dates by second, so a
+ * date that repeats is only formatted once while it stays in the cache.
+ * The formatter can be shared by the threads rendering a report.
+ * @author Arnold Elamthuruthil
+ */
+public class ReportFormatter {
+	/** Index of the connections the dates belong to */
+	private PersonIndex index;
+	/** "First Last (id)" label of each person, by rank */
+	private String[] labels;
+	/** Date formatter of each thread that renders with this formatter */
+	private ThreadLocal<DateText> dates = ThreadLocal.withInitial(DateText::new);
+
+	/**
+	 * Creates a ReportFormatter and builds the label of every person in the index
+	 * @param index index of the people and connections of a network
+	 */
+	public ReportFormatter(PersonIndex index) {
+		this.index = index;
+		PersonRanking ranking = index.getRanking();
+		labels = new String[ranking.size()];
+		StringBuilder label = new StringBuilder();
+		for (int rank = 0; rank < labels.length; rank++) {
+			Person p = ranking.personAt(rank);
+			label.setLength(0);
+			label.append(p.getFirst()).append(" ").append(p.getLast());
+			label.append(" (").append(p.getId()).append(")");
+			labels[rank] = label.toString();
+		}
+	}
+
+	/**
+	 * Returns the "First Last (id)" label of a person
+	 * @param rank rank of the person
+	 * @return label of the person
+	 */
+	public String label(int rank) {
+		return labels[rank];
+	}
+
+	/**
+	 * Appends the date of a connection formatted the way Date.toString does
+	 * @param edge position of the connection in the network
+	 * @param out builder the date is appended to
+	 */
+	public void appendDate(int edge, StringBuilder out) {
+		appendTime(index.getConnections().date(edge), out);
+	}
+
+	/**
+	 * Appends a time formatted the way Date.toString does
+	 * @param time time in epoch milliseconds
+	 * @param out builder the date is appended to
+	 */
+	void appendTime(long time, StringBuilder out) {
+		dates.get().append(time, out);
+	}
+
+	/**
+	 * Formats dates for one thread in the default time zone, the way
+	 * Date.toString does, into a reusable char buffer. The text of recent
+	 * dates is kept in a direct-mapped cache keyed by the second.
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class DateText {
+		/** Number of dates in the cache, a power of two */
+		private static final int CACHE_SIZE = 256;
+		/** Starting number of chars of the buffer, which fits any date with a short zone name */
+		private static final int BUFFER_SIZE = 64;
+		/** Earliest year formatted here, as older dates may be on the Julian calendar */
+		private static final int MIN_YEAR = 1900;
+		/** Latest year formatted here */
+		private static final int MAX_YEAR = 9999;
+		/** Number of milliseconds in a second */
+		private static final long MILLIS_PER_SECOND = 1000;
+		/** Abbreviations of the days of the week, from Sunday */
+		private static final String[] DAYS = { "Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat" };
+		/** Abbreviations of the months, from January */
+		private static final String[] MONTHS = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug",
+			"Sep", "Oct", "Nov", "Dec" };
+
+		/** Calendar of the default time zone that dates are split into fields with */
+		private Calendar calendar;
+		/** Short name of the time zone in standard time */
+		private String standardZone;
+		/** Short name of the time zone in daylight saving time */
+		private String daylightZone;
+		/** Buffer the date being formatted is written to */
+		private char[] buffer = new char[BUFFER_SIZE];
+		/** Second of each cached date, or Long.MIN_VALUE for an empty entry */
+		private long[] seconds = new long[CACHE_SIZE];
+		/** Text of each cached date */
+		private char[][] texts = new char[CACHE_SIZE][];
+
+		/**
+		 * Creates a formatter for the default time zone with an empty cache
+		 */
+		DateText() {
+			TimeZone zone = TimeZone.getDefault();
+			calendar = new GregorianCalendar(zone, Locale.US);
+			standardZone = zone.getDisplayName(false, TimeZone.SHORT, Locale.US);
+			daylightZone = zone.getDisplayName(true, TimeZone.SHORT, Locale.US);
+			Arrays.fill(seconds, Long.MIN_VALUE);
+		}
+
+		/**
+		 * Appends a formatted time
+		 * @param time time in epoch milliseconds
+		 * @param out builder the date is appended to
+		 */
+		void append(long time, StringBuilder out) {
+			long second = Math.floorDiv(time, MILLIS_PER_SECOND);
+			int slot = (int) (second ^ (second >>> 32)) & (CACHE_SIZE - 1);
+			if (seconds[slot] != second) {
+				calendar.setTimeInMillis(time);
+				int year = calendar.get(Calendar.YEAR);
+				if (year < MIN_YEAR || year > MAX_YEAR || calendar.get(Calendar.ERA) != GregorianCalendar.AD) {
+					out.append(new Date(time).toString());
+					return;
+				}
+				int length = format(year);
+				texts[slot] = Arrays.copyOf(buffer, length);
+				seconds[slot] = second;
+			}
+			out.append(texts[slot]);
+		}
+
+		/**
+		 * Writes the fields of the calendar into the buffer
+		 * @param year year of the calendar
+		 * @return number of chars written
+		 */
+		private int format(int year) {
+			int i = put(DAYS[calendar.get(Calendar.DAY_OF_WEEK) - Calendar.SUNDAY], 0);
+			buffer[i++] = ' ';
+			i = put(MONTHS[calendar.get(Calendar.MONTH)], i);
+			buffer[i++] = ' ';
+			i = putTwoDigits(calendar.get(Calendar.DAY_OF_MONTH), i);
+			buffer[i++] = ' ';
+			i = putTwoDigits(calendar.get(Calendar.HOUR_OF_DAY), i);
+			buffer[i++] = ':';
+			i = putTwoDigits(calendar.get(Calendar.MINUTE), i);
+			buffer[i++] = ':';
+			i = putTwoDigits(calendar.get(Calendar.SECOND), i);
+			buffer[i++] = ' ';
+			i = put(calendar.get(Calendar.DST_OFFSET) != 0 ? daylightZone : standardZone, i);
+			buffer[i++] = ' ';
+			return put(Integer.toString(year), i);
+		}
+
+		/**
+		 * Writes a String into the buffer, growing it if needed
+		 * @param text text to write
+		 * @param i position to write at
+		 * @return position after the text
+		 */
+		private int put(String text, int i) {
+			if (buffer.length < i + text.length() + 1) {
+				buffer = Arrays.copyOf(buffer, (i + text.length() + 1) * 2);
+			}
+			text.getChars(0, text.length(), buffer, i);
+			return i + text.length();
+		}
+
+		/**
+		 * Writes a number of at most two digits into the buffer, padded with a zero
+		 * @param value number to write
+		 * @param i position to write at
+		 * @return position after the number
+		 */
+		private int putTwoDigits(int value, int i) {
+			buffer[i] = (char) ('0' + value / 10);
+			buffer[i + 1] = (char) ('0' + value % 10);
+			return i + 2;
+		}
+	}
+}
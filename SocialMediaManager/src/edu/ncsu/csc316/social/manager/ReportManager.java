@@ -1,13 +1,25 @@
 package edu.ncsu.csc316.social.manager;
 
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 
 import edu.ncsu.csc316.dsa.list.List;
 import edu.ncsu.csc316.dsa.map.Map;
 import edu.ncsu.csc316.social.data.Connection;
-import edu.ncsu.csc316.social.data.Person;
 import edu.ncsu.csc316.social.dsa.Algorithm;
-import edu.ncsu.csc316.social.dsa.DSAFactory;
 import edu.ncsu.csc316.social.dsa.DataStructure;
 
 /**
@@ -16,15 +28,29 @@ import edu.ncsu.csc316.social.dsa.DataStructure;
  * The people/platform are sorted alphabetically, while the connections
  * are sorted by either the other username in the connection, or date.
  * These lists are output as strings, and have error messages if no people or connections
- * are input.
+ * are input. Each report is rendered once for each state of the manager's network and
+ * cached with that state, so a report is never mixed from two states and is dropped
+ * when people or connections are added or the manager is invalidated. Reports can be
+ * read from many threads without locking, while the network is being changed.
+ * Large reports can instead be streamed to a Writer, OutputStream or
+ * channel, or iterated one person or platform block at a time.
  * @author Arnold Elamthuruthil
  */
 public class ReportManager {
+	/** Number of sections rendered together by one fork-join task */
+	private static final int SECTIONS_PER_TASK = 64;
+	/** Number of chars of rendered sections written to a Writer at a time */
+	private static final int WRITE_BUFFER_SIZE = 8192;
+	/** Number of people and of connections listed in each block of the statistics report */
+	private static final int STATISTICS_COUNT = 5;
+
 	/** Single instance of the SocialMediaManager */
 	private SocialMediaManager manager;
 
-    /** Map of usernames mapped to a Person object */
-    private Map<String, Person> persons;
+    /** Reports cached for the latest state of the network a report was read from */
+    private final AtomicReference<CachedReports> cache = new AtomicReference<CachedReports>();
+    /** Whether reports are rendered on the fork-join pool */
+    private volatile boolean parallel;
     
     /**
 	 * Creates a ReportManager with the default map type, SkipList
@@ -37,65 +63,220 @@ public class ReportManager {
     }
 
     /**
-	 * Creates a ReportManager with the custom map type. Also creates a persons object
-	 * that is a map of all people's usernames as strings, mapped to the corresponding
-	 * Person object.
+	 * Creates a ReportManager with the custom map type
 	 * @param peopleFile input people text file
 	 * @param connectionFile input connections text file
 	 * @param mapType type of map to implement
 	 * @throws FileNotFoundException if file is not found
 	 */
 	public ReportManager(String peopleFile, String connectionFile, DataStructure mapType) throws FileNotFoundException {
-        DSAFactory.setListType(DataStructure.ARRAYBASEDLIST);
-        DSAFactory.setComparisonSorterType(Algorithm.QUICKSORT);
-        DSAFactory.setNonComparisonSorterType(Algorithm.COUNTING_SORT);
-        DSAFactory.setMapType(mapType);
-        this.manager = new SocialMediaManager(peopleFile, connectionFile, mapType);
-        this.persons = manager.getPeople();
-        
+        this(peopleFile, connectionFile, mapType, Algorithm.QUICKSORT);
+    }
+
+    /**
+	 * Creates a ReportManager with the custom map type and comparison sorter
+	 * type, so that configurations can be compared
+	 * @param peopleFile input people text file
+	 * @param connectionFile input connections text file
+	 * @param mapType type of map to implement
+	 * @param sorterType type of comparison sorter to sort people and dates with
+	 * @throws FileNotFoundException if file is not found
+	 */
+	public ReportManager(String peopleFile, String connectionFile, DataStructure mapType, Algorithm sorterType)
+			throws FileNotFoundException {
+        this(peopleFile, connectionFile, new DataStructureFactory(mapType).withComparisonSorter(sorterType));
+    }
+
+    /**
+	 * Creates a ReportManager whose manager builds its maps, lists and sorters
+	 * with the given factory. Report managers with different factories can be
+	 * built and used at the same time on different threads.
+	 * @param peopleFile input people text file
+	 * @param connectionFile input connections text file
+	 * @param factory factory of the maps, lists and sorters
+	 * @throws FileNotFoundException if file is not found
+	 */
+	public ReportManager(String peopleFile, String connectionFile, DataStructureFactory factory)
+			throws FileNotFoundException {
+        this.manager = new SocialMediaManager(peopleFile, connectionFile, factory);
+    }
+
+    /**
+     * Starts loading a ReportManager in the background with the given
+     * factory, and returns right away. The files are read at the same time
+     * and the indexes are built while they are read, as by the constructor.
+     * @param peopleFile input people text file
+     * @param connectionFile input connections text file
+     * @param factory factory of the maps, lists and sorters
+     * @param listener listener told of the progress of the load, or null
+     * @return future of the report manager, which completes with a
+     * FileNotFoundException if a file is not found
+     */
+    public static CompletableFuture<ReportManager> loadAsync(String peopleFile, String connectionFile,
+            DataStructureFactory factory, NetworkLoader.ProgressListener listener) {
+        return loadAsync(new NetworkLoader(peopleFile, connectionFile, factory, listener, 0), factory);
+    }
+
+    /**
+     * Returns a future of the report manager of the network a loader loads
+     * @param loader loader of the network
+     * @param factory factory of the maps, lists and sorters the loader uses
+     * @return future of the report manager
+     */
+    static CompletableFuture<ReportManager> loadAsync(NetworkLoader loader, DataStructureFactory factory) {
+        return SocialMediaManager.loadAsync(loader, factory).thenApply(ReportManager::new);
+    }
+
+    /**
+     * Creates a ReportManager for a manager that is already loaded
+     * @param manager manager of the network the reports are about
+     */
+    private ReportManager(SocialMediaManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Creates a ReportManager from a snapshot file written by saveSnapshot,
+     * with the default map type, SkipList
+     * @param snapshotFile snapshot file
+     * @return report manager of the network in the snapshot
+     * @throws FileNotFoundException if file is not found
+     * @throws IllegalArgumentException if the file is not a snapshot of a supported version
+     */
+    public static ReportManager loadSnapshot(String snapshotFile) throws FileNotFoundException {
+        return new ReportManager(SocialMediaManager.loadSnapshot(snapshotFile, DataStructure.SKIPLIST));
+    }
+
+    /**
+     * Saves the network to a snapshot file that loadSnapshot can start from
+     * @param snapshotFile snapshot file, which is replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void saveSnapshot(String snapshotFile) throws IOException {
+        manager.saveSnapshot(snapshotFile);
+    }
+
+    /**
+     * Drops the cached reports and the manager's cached maps, so the next
+     * report is rendered again
+     */
+    public void invalidate() {
+    	manager.invalidate();
+    }
+
+    /**
+     * Adds the new people in a delta file to the network, so the next report
+     * includes them
+     * @param peopleFile input people text file
+     * @throws FileNotFoundException if file is not found
+     */
+    public void addPeople(String peopleFile) throws FileNotFoundException {
+    	manager.addPeople(peopleFile);
+    }
+
+    /**
+     * Adds the connections in a delta file to the network, so the next report
+     * includes them
+     * @param connectionFile input connections text file
+     * @throws FileNotFoundException if file is not found
+     */
+    public void addConnections(String connectionFile) throws FileNotFoundException {
+    	manager.addConnections(connectionFile);
+    }
+
+    /**
+     * Returns the reports cached for the manager's current state, replacing
+     * the cache if it belongs to an older state
+     * @return cached reports of the current state
+     */
+    private CachedReports reports() {
+    	NetworkState state = manager.getState();
+    	CachedReports cached = cache.get();
+    	if (cached == null || cached.state != state) {
+    		CachedReports fresh = new CachedReports(state);
+    		//A thread that loses the race still uses its own cache, which
+    		//belongs to the state it read
+    		cache.compareAndSet(cached, fresh);
+    		cached = fresh;
+    	}
+    	return cached;
+    }
+
+    /**
+     * Sets whether reports are rendered on the fork-join pool. In parallel mode
+     * groups of person or platform blocks are rendered concurrently and joined
+     * in the same order, so the reports are identical to the serial ones.
+     * @param parallel true to render blocks in parallel
+     */
+    public void setParallel(boolean parallel) {
+    	this.parallel = parallel;
     }
 
     /**
      * Prints a list with the usernames of the people and 
      * the list of their connections. The people are in alphabetic order and the 
      * list of their connections are also sorted by name, then id, then date.
+     * The connections are read straight from the manager's sorted index.
      * @return String version list of usernames and list of connections for the usernames
      */
 	public String getConnectionsByPerson() {
-		Map<String, List<Connection>> map = manager.getConnectionsByPerson();
-		if (map.size() == 0) {
-			if (persons.size() == 0) {
-				return "No people information was provided.";
-			} else {
-				return "No connections exist in the social media network.";
-			}
-		}
-    	StringBuilder out = new StringBuilder();
-
-    	for (String id : map) {
-    		Person p = persons.get(id);
-    		List<Connection> connections = map.get(id);
-    		out.append("Connections for ").append(p.getFirst()).append(" ");
-    		out.append(p.getLast()).append(" (").append(id).append(") {\n");
-    		if (connections.size() == 0) {
-    			out.append("   No connections exist\n");
-    		} else {
-    			for (Connection c : connections) {
-        			String p1Id = c.getPeople()[0];
-        			if (p1Id.equals(id)) {
-        				p1Id = c.getPeople()[1];
-        			}
-        			Person p1 = persons.get((String) p1Id);
-        			out.append("   ").append(p1.getFirst()).append(" ");
-        			out.append(p1.getLast()).append(" (").append(p1Id);
-        			out.append(") on ").append(c.getPlatform()).append(" since ");
-        			out.append(c.getDate().toString()).append("\n");
-        		}
-    		}
-    		out.append("}\n");
-    	}
-    	return out.toString();	
-    }
+		CachedReports reports = reports();
+		String report = reports.personReport;
+		if (report == null) {
+			report = emptyMessage(reports.state, reports.state.getConnectionsByPerson());
+			if (report == null) {
+				report = render(reports.state.getPersonKeys(), new PersonRenderer(reports));
+			}
+			reports.personReport = report;
+		}
+		return report;
+	}
+
+	/**
+	 * Writes the report returned by getConnectionsByPerson to a Writer a few
+	 * people at a time, so the whole report is never held in memory.
+	 * The writer is flushed but not closed.
+	 * @param out writer the report is written to
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeConnectionsByPerson(Writer out) throws IOException {
+		CachedReports reports = reports();
+		write(reports.state.getPersonKeys(), new PersonRenderer(reports),
+				emptyMessage(reports.state, reports.state.getConnectionsByPerson()), out);
+	}
+
+	/**
+	 * Writes the report returned by getConnectionsByPerson to a stream as UTF-8,
+	 * a few people at a time. The stream is flushed but not closed.
+	 * @param out stream the report is written to
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeConnectionsByPerson(OutputStream out) throws IOException {
+		writeConnectionsByPerson(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Writes the report returned by getConnectionsByPerson to a channel as UTF-8,
+	 * a few people at a time. The channel is not closed.
+	 * @param out channel the report is written to
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeConnectionsByPerson(WritableByteChannel out) throws IOException {
+		writeConnectionsByPerson(Channels.newWriter(out, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns an iterator over the report returned by getConnectionsByPerson
+	 * that renders one "Connections for" block each time next is called.
+	 * If there are no people or no connections the only block is the message
+	 * getConnectionsByPerson would return.
+	 * @return iterator over the blocks of the report
+	 */
+	public Iterator<String> personSections() {
+		CachedReports reports = reports();
+		return new SectionIterator(reports.state.getPersonKeys(), new PersonRenderer(reports),
+				emptyMessage(reports.state, reports.state.getConnectionsByPerson()));
+	}
 
 	/**
      * Prints a list with the platforms the connections and the list of their connections
@@ -104,40 +285,601 @@ public class ReportManager {
      * @return String version of list of platforms and list of connections for each platform
      */
 	public String getConnectionsByPlatform() {
-		Map<String, List<Connection>> map = manager.getConnectionsByPlatform();
-		if (map.size() == 0) {
-			if (persons.size() == 0) {
-				return "No people information was provided."; 
+		CachedReports reports = reports();
+		String report = reports.platformReport;
+		if (report == null) {
+			report = emptyMessage(reports.state, reports.state.getConnectionsByPlatform());
+			if (report == null) {
+				report = render(reports.state.getPlatformKeys(), new PlatformRenderer(reports));
+			}
+			reports.platformReport = report;
+		}
+		return report;
+	}
+
+	/**
+	 * Writes the report returned by getConnectionsByPlatform to a Writer a few
+	 * platforms at a time, so the whole report is never held in memory.
+	 * The writer is flushed but not closed.
+	 * @param out writer the report is written to
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeConnectionsByPlatform(Writer out) throws IOException {
+		CachedReports reports = reports();
+		write(reports.state.getPlatformKeys(), new PlatformRenderer(reports),
+				emptyMessage(reports.state, reports.state.getConnectionsByPlatform()), out);
+	}
+
+	/**
+	 * Writes the report returned by getConnectionsByPlatform to a stream as UTF-8,
+	 * a few platforms at a time. The stream is flushed but not closed.
+	 * @param out stream the report is written to
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeConnectionsByPlatform(OutputStream out) throws IOException {
+		writeConnectionsByPlatform(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Writes the report returned by getConnectionsByPlatform to a channel as UTF-8,
+	 * a few platforms at a time. The channel is not closed.
+	 * @param out channel the report is written to
+	 * @throws IOException if the report cannot be written
+	 */
+	public void writeConnectionsByPlatform(WritableByteChannel out) throws IOException {
+		writeConnectionsByPlatform(Channels.newWriter(out, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns an iterator over the report returned by getConnectionsByPlatform
+	 * that renders one "Connections on" block each time next is called.
+	 * If there are no people or no connections the only block is the message
+	 * getConnectionsByPlatform would return.
+	 * @return iterator over the blocks of the report
+	 */
+	public Iterator<String> platformSections() {
+		CachedReports reports = reports();
+		return new SectionIterator(reports.state.getPlatformKeys(), new PlatformRenderer(reports),
+				emptyMessage(reports.state, reports.state.getConnectionsByPlatform()));
+	}
+
+	/**
+	 * Returns the "Connections for" block of one person, as it appears in the
+	 * report returned by getConnectionsByPerson. The person is looked up without
+	 * building any map, so it is safe to call from many threads.
+	 * @param username username of the person
+	 * @return block of the person, or null if there is no person with the username
+	 */
+	public String getPersonSection(String username) {
+		CachedReports reports = reports();
+		int rank = reports.state.rankOf(username);
+		if (rank < 0) {
+			return null;
+		}
+		StringBuilder out = new StringBuilder();
+		new PersonRenderer(reports).append(rank, out);
+		return out.toString();
+	}
+
+	/**
+	 * Returns the "Connections on" block of one platform, as it appears in the
+	 * report returned by getConnectionsByPlatform
+	 * @param platform name of the platform
+	 * @return block of the platform, or null if no connection is on the platform
+	 */
+	public String getPlatformSection(String platform) {
+		CachedReports reports = reports();
+		int code = reports.state.codeOf(platform);
+		if (code < 0) {
+			return null;
+		}
+		StringBuilder out = new StringBuilder();
+		new PlatformRenderer(reports).append(code, out);
+		return out.toString();
+	}
+
+	/**
+	 * Prints the connected components of the whole network and then of the
+	 * connections on each platform, with the platforms in the same order as
+	 * getConnectionsByPlatform. Components are listed largest first, each with
+	 * its size and its members in alphabetic order.
+	 * @return String version of the components of the network and of each platform
+	 */
+	public String getComponentReport() {
+		CachedReports reports = reports();
+		String report = reports.componentReport;
+		if (report == null) {
+			report = emptyMessage(reports.state, reports.state.getConnectionsByPlatform());
+			if (report == null) {
+				ComponentAnalysis analysis = reports.state.getComponents();
+				PlatformIndex platforms = reports.state.getPlatformIndex();
+				ReportFormatter format = reports.formatter();
+				StringBuilder out = new StringBuilder();
+				appendComponents("Components of the social media network", analysis.getComponents(), format, out);
+				for (int code : reports.state.getPlatformKeys()) {
+					appendComponents("Components on " + platforms.platformAt(code), analysis.getComponents(code),
+							format, out);
+				}
+				report = out.toString();
+			}
+			reports.componentReport = report;
+		}
+		return report;
+	}
+
+	/**
+	 * Appends one block of the component report
+	 * @param title first line of the block, without the brace
+	 * @param components components listed in the block
+	 * @param format labels of the people
+	 * @param out builder the block is appended to
+	 */
+	private static void appendComponents(String title, Components components, ReportFormatter format,
+			StringBuilder out) {
+		out.append(title).append(" {\n");
+		for (int c = 0; c < components.count(); c++) {
+			int size = components.size(c);
+			out.append("   ").append(size).append(size == 1 ? " person: " : " people: ");
+			for (int i = 0; i < size; i++) {
+				if (i > 0) {
+					out.append(", ");
+				}
+				out.append(format.label(components.memberAt(c, i)));
+			}
+			out.append('\n');
+		}
+		out.append("}\n");
+	}
+
+	/**
+	 * Prints the statistics of the whole network and then of the connections
+	 * on each platform, with the platforms in the same order as
+	 * getConnectionsByPlatform. Each block lists the number of connections, the
+	 * five people with the most connections, how many people have each number
+	 * of connections, the connections made in each year, and the five oldest
+	 * and five newest connections.
+	 * @return String version of the statistics of the network and of each platform
+	 */
+	public String getStatisticsReport() {
+		CachedReports reports = reports();
+		String report = reports.statisticsReport;
+		if (report == null) {
+			report = emptyMessage(reports.state, reports.state.getConnectionsByPlatform());
+			if (report == null) {
+				NetworkStatistics statistics = new NetworkStatistics(reports.state.getPersonIndex(),
+						reports.state.getPlatformIndex(), STATISTICS_COUNT);
+				PlatformIndex platforms = reports.state.getPlatformIndex();
+				StringBuilder out = new StringBuilder();
+				appendStatistics("Statistics of the social media network", statistics.getStatistics(), reports, out);
+				for (int code : reports.state.getPlatformKeys()) {
+					appendStatistics("Statistics on " + platforms.platformAt(code), statistics.getStatistics(code),
+							reports, out);
+				}
+				report = out.toString();
+			}
+			reports.statisticsReport = report;
+		}
+		return report;
+	}
+
+	/**
+	 * Appends one block of the statistics report
+	 * @param title first line of the block, without the brace
+	 * @param statistics statistics listed in the block
+	 * @param reports cached reports of the state the statistics are about
+	 * @param out builder the block is appended to
+	 */
+	private static void appendStatistics(String title, ConnectionStatistics statistics, CachedReports reports,
+			StringBuilder out) {
+		ReportFormatter format = reports.formatter();
+		PersonIndex index = reports.state.getPersonIndex();
+		out.append(title).append(" {\n");
+		out.append("   Connections: ").append(statistics.getConnectionCount()).append('\n');
+		out.append("   Most connections:\n");
+		for (int i = 0; i < statistics.getTopCount(); i++) {
+			out.append("      ").append(format.label(statistics.getTopRank(i))).append(": ");
+			out.append(statistics.getTopDegree(i)).append('\n');
+		}
+		out.append("   People by number of connections:\n");
+		for (int degree = 0; degree <= statistics.getMaxDegree(); degree++) {
+			if (statistics.getPeopleWithDegree(degree) != 0) {
+				out.append("      ").append(degree).append(": ");
+				out.append(statistics.getPeopleWithDegree(degree)).append('\n');
+			}
+		}
+		out.append("   Connections by year:\n");
+		for (int year = statistics.getFirstYear(); year <= statistics.getLastYear(); year++) {
+			if (statistics.getConnectionsIn(year) != 0) {
+				out.append("      ").append(year).append(": ").append(statistics.getConnectionsIn(year)).append('\n');
+			}
+		}
+		out.append("   Oldest connections:\n");
+		for (int i = 0; i < statistics.getExtremeCount(); i++) {
+			appendConnection(statistics.oldestEdge(i), index, format, out);
+		}
+		out.append("   Newest connections:\n");
+		for (int i = 0; i < statistics.getExtremeCount(); i++) {
+			appendConnection(statistics.newestEdge(i), index, format, out);
+		}
+		out.append("}\n");
+	}
+
+	/**
+	 * Appends a line with the date and the two people of a connection, the way
+	 * the report by platform shows them
+	 * @param edge position of the connection in the network
+	 * @param index index of the people of the connections
+	 * @param format labels and dates of the report
+	 * @param out builder the line is appended to
+	 */
+	private static void appendConnection(int edge, PersonIndex index, ReportFormatter format, StringBuilder out) {
+		int r1 = index.firstRankOf(edge);
+		int r2 = index.secondRankOf(edge);
+		out.append("      ");
+		format.appendDate(edge, out);
+		out.append(": ");
+		out.append(format.label(Math.min(r1, r2))).append(" <--> ");
+		out.append(format.label(Math.max(r1, r2))).append('\n');
+	}
+
+	/**
+	 * Returns the message a report shows when there is nothing to list
+	 * @param state state of the network the report is about
+	 * @param map map the report lists
+	 * @return message for an empty report, or null if the map has entries
+	 */
+	private static String emptyMessage(NetworkState state, Map<String, List<Connection>> map) {
+		if (map.size() != 0) {
+			return null;
+		}
+		if (state.getPeople().size() == 0) {
+			return "No people information was provided.";
+		}
+		return "No connections exist in the social media network.";
+	}
+
+	/**
+	 * Renders every section of a report into one String, on the fork-join
+	 * pool if parallel mode is on
+	 * @param keys keys of the sections in report order
+	 * @param renderer renderer of one section
+	 * @return the report
+	 */
+	private String render(int[] keys, SectionRenderer renderer) {
+		long start = ManagerMetrics.start();
+		String report;
+		if (!parallel) {
+			StringBuilder out = new StringBuilder();
+			for (int key : keys) {
+				renderer.append(key, out);
+			}
+			report = out.toString();
+		} else {
+			String[] parts = renderParallel(keys, 0, keys.length, renderer);
+			int length = 0;
+			for (String part : parts) {
+				length += part.length();
+			}
+			StringBuilder out = new StringBuilder(length);
+			for (String part : parts) {
+				out.append(part);
+			}
+			report = out.toString();
+		}
+		ManagerMetrics.record(ManagerMetrics.Phase.REPORT, start, report.length(), 0);
+		return report;
+	}
+
+	/**
+	 * Writes every section of a report, then flushes the writer. In parallel
+	 * mode a window of sections is rendered concurrently before it is written.
+	 * @param keys keys of the sections in report order
+	 * @param renderer renderer of one section
+	 * @param empty message of an empty report, or null if the report has sections
+	 * @param out writer the report is written to
+	 * @throws IOException if the report cannot be written
+	 */
+	private void write(int[] keys, SectionRenderer renderer, String empty, Writer out) throws IOException {
+		long start = ManagerMetrics.start();
+		long chars = 0;
+		if (empty != null) {
+			out.write(empty);
+			chars = empty.length();
+		} else if (parallel) {
+			int window = SECTIONS_PER_TASK * ForkJoinPool.getCommonPoolParallelism() * 2;
+			for (int from = 0; from < keys.length; from += window) {
+				for (String part : renderParallel(keys, from, Math.min(keys.length, from + window), renderer)) {
+					out.write(part);
+					chars += part.length();
+				}
+			}
+		} else {
+			//Sections are collected in one builder and copied out through a
+			//char buffer, so neither is reallocated once they are big enough
+			StringBuilder sections = new StringBuilder(WRITE_BUFFER_SIZE * 2);
+			char[] buffer = new char[WRITE_BUFFER_SIZE];
+			for (int key : keys) {
+				renderer.append(key, sections);
+				if (sections.length() >= WRITE_BUFFER_SIZE) {
+					chars += drain(sections, buffer, out);
+				}
+			}
+			chars += drain(sections, buffer, out);
+		}
+		out.flush();
+		ManagerMetrics.record(ManagerMetrics.Phase.REPORT, start, chars, 0);
+	}
+
+	/**
+	 * Writes the contents of a builder through a char buffer and empties the builder
+	 * @param sections builder holding rendered sections
+	 * @param buffer buffer the sections are copied through
+	 * @param out writer the sections are written to
+	 * @return number of chars written
+	 * @throws IOException if the sections cannot be written
+	 */
+	private static int drain(StringBuilder sections, char[] buffer, Writer out) throws IOException {
+		int length = sections.length();
+		for (int i = 0; i < length; i += buffer.length) {
+			int end = Math.min(length, i + buffer.length);
+			sections.getChars(i, end, buffer, 0);
+			out.write(buffer, 0, end - i);
+		}
+		sections.setLength(0);
+		return length;
+	}
+
+	/**
+	 * Renders a range of sections on the fork-join pool
+	 * @param keys keys of the sections in report order
+	 * @param from first section of the range
+	 * @param to section after the range
+	 * @param renderer renderer of one section
+	 * @return rendered groups of sections in report order
+	 */
+	private String[] renderParallel(int[] keys, int from, int to, SectionRenderer renderer) {
+		String[] parts = new String[(to - from + SECTIONS_PER_TASK - 1) / SECTIONS_PER_TASK];
+		ForkJoinPool.commonPool().invoke(new RenderTask(keys, from, renderer, parts, 0, parts.length));
+		return parts;
+	}
+
+	/**
+	 * Reports and formatter cached for one state of the network. Two threads
+	 * may render the same report at the same time, but they render equal
+	 * Strings from the same state, so either one can be kept.
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class CachedReports {
+		/** State of the network the reports are about */
+		private final NetworkState state;
+		/** Report of connections by person, or null until it is rendered */
+		private volatile String personReport;
+		/** Report of connections by platform, or null until it is rendered */
+		private volatile String platformReport;
+		/** Report of connected components, or null until it is rendered */
+		private volatile String componentReport;
+		/** Report of statistics, or null until it is rendered */
+		private volatile String statisticsReport;
+		/** Labels and dates shared by both reports, or null until a report is rendered */
+		private volatile ReportFormatter formatter;
+
+		/**
+		 * Creates an empty cache for a state
+		 * @param state state of the network the reports are about
+		 */
+		CachedReports(NetworkState state) {
+			this.state = state;
+		}
+
+		/**
+		 * Returns the labels and dates of the reports, creating them the first
+		 * time a report is rendered
+		 * @return formatter of the reports
+		 */
+		ReportFormatter formatter() {
+			ReportFormatter format = formatter;
+			if (format == null) {
+				format = new ReportFormatter(state.getPersonIndex());
+				formatter = format;
+			}
+			return format;
+		}
+	}
+
+	/**
+	 * Renders one section of a report
+	 * @author Arnold Elamthuruthil
+	 */
+	private interface SectionRenderer {
+		/**
+		 * Appends the section of one key
+		 * @param key rank of a person or code of a platform
+		 * @param out builder the section is appended to
+		 */
+		void append(int key, StringBuilder out);
+	}
+
+	/**
+	 * Renders the "Connections for" block of one person
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class PersonRenderer implements SectionRenderer {
+		/** Index of every person's sorted connections */
+		private PersonIndex index;
+		/** Labels and dates of the report */
+		private ReportFormatter format;
+
+		/**
+		 * Creates a PersonRenderer for the state of some cached reports
+		 * @param reports cached reports of the state the report is about
+		 */
+		PersonRenderer(CachedReports reports) {
+			index = reports.state.getPersonIndex();
+			format = reports.formatter();
+		}
+
+		@Override
+		public void append(int rank, StringBuilder out) {
+			out.append("Connections for ").append(format.label(rank)).append(" {\n");
+			int start = index.start(rank);
+			int end = start + index.degree(rank);
+			if (start == end) {
+				out.append("   No connections exist\n");
 			} else {
-				return "No connections exist in the social media network.";
+				for (int i = start; i < end; i++) {
+					int edge = index.edgeAt(i);
+					out.append("   ").append(format.label(index.otherRankAt(rank, i)));
+					out.append(" on ").append(index.connection(edge).getPlatform()).append(" since ");
+					format.appendDate(edge, out);
+					out.append('\n');
+				}
 			}
+			out.append("}\n");
+		}
+	}
+
+	/**
+	 * Renders the "Connections on" block of one platform
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class PlatformRenderer implements SectionRenderer {
+		/** Index of every platform's connections in date order */
+		private PlatformIndex platforms;
+		/** Index of every person's connections, used for the ranks of the two people */
+		private PersonIndex index;
+		/** Labels and dates of the report */
+		private ReportFormatter format;
+
+		/**
+		 * Creates a PlatformRenderer for the state of some cached reports
+		 * @param reports cached reports of the state the report is about
+		 */
+		PlatformRenderer(CachedReports reports) {
+			platforms = reports.state.getPlatformIndex();
+			index = reports.state.getPersonIndex();
+			format = reports.formatter();
 		}
-    	StringBuilder out = new StringBuilder();
-    	
-		for (String platform : map) {
-	        out.append("Connections on ").append(platform).append(" {\n");
-			List<Connection> platConns = map.get(platform);
-			for (Connection c : platConns) {
+
+		@Override
+		public void append(int code, StringBuilder out) {
+			out.append("Connections on ").append(platforms.platformAt(code)).append(" {\n");
+			for (int i = platforms.start(code); i < platforms.end(code); i++) {
+				int edge = platforms.edgeAt(i);
 				//Orders the two people in the connection
-				String[] peoples = c.getPeople();
-				Person u1 = persons.get(peoples[0]);
-				Person u2 = persons.get(peoples[1]);
-				String u1Str = u1.getFirst() + " " + u1.getLast() + " (" +
-						u1.getId() + ")";
-				String u2Str = u2.getFirst() + " " + u2.getLast() + " (" +
-						u2.getId() + ")";
-				String date = c.getDate().toString();
-				out.append("   ").append(date).append(": ");
-				if (u1.compareTo(u2) < 0) {
-	                out.append(u1Str).append(" <--> ").append(u2Str).append("\n");
-	            } else {
-	                out.append(u2Str).append(" <--> ").append(u1Str).append("\n");
-	            }
- 			}
-	        out.append("}\n");
-		}
-    	return out.toString();
-    }
-    
+				int r1 = index.firstRankOf(edge);
+				int r2 = index.secondRankOf(edge);
+				out.append("   ");
+				format.appendDate(edge, out);
+				out.append(": ");
+				out.append(format.label(Math.min(r1, r2))).append(" <--> ");
+				out.append(format.label(Math.max(r1, r2))).append('\n');
+			}
+			out.append("}\n");
+		}
+	}
+
+	/**
+	 * Fork-join task that renders groups of SECTIONS_PER_TASK sections
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class RenderTask extends RecursiveAction {
+		/** Keys of the sections in report order */
+		private int[] keys;
+		/** Section the first group starts at */
+		private int from;
+		/** Renderer of one section */
+		private SectionRenderer renderer;
+		/** Rendered groups, by group number */
+		private String[] parts;
+		/** First group this task renders */
+		private int low;
+		/** Group after the last one this task renders */
+		private int high;
+
+		/**
+		 * Creates a RenderTask
+		 * @param keys keys of the sections in report order
+		 * @param from section the first group starts at
+		 * @param renderer renderer of one section
+		 * @param parts rendered groups, by group number
+		 * @param low first group to render
+		 * @param high group after the last one to render
+		 */
+		RenderTask(int[] keys, int from, SectionRenderer renderer, String[] parts, int low, int high) {
+			this.keys = keys;
+			this.from = from;
+			this.renderer = renderer;
+			this.parts = parts;
+			this.low = low;
+			this.high = high;
+		}
+
+		@Override
+		protected void compute() {
+			if (high - low > 1) {
+				int mid = (low + high) >>> 1;
+				invokeAll(new RenderTask(keys, from, renderer, parts, low, mid),
+						new RenderTask(keys, from, renderer, parts, mid, high));
+				return;
+			}
+			int first = from + low * SECTIONS_PER_TASK;
+			int last = Math.min(keys.length, first + SECTIONS_PER_TASK);
+			StringBuilder out = new StringBuilder();
+			for (int i = first; i < last; i++) {
+				renderer.append(keys[i], out);
+			}
+			parts[low] = out.toString();
+		}
+	}
+
+	/**
+	 * Iterator that renders one section of a report at a time. An empty
+	 * report has its message as its only section.
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class SectionIterator implements Iterator<String> {
+		/** Keys of the sections in report order */
+		private int[] keys;
+		/** Renderer of one section */
+		private SectionRenderer renderer;
+		/** Message of an empty report that has not been returned, or null */
+		private String message;
+		/** Next section to render */
+		private int next;
+		/** Builder reused for every section */
+		private StringBuilder buffer = new StringBuilder();
+
+		/**
+		 * Creates a SectionIterator
+		 * @param keys keys of the sections in report order
+		 * @param renderer renderer of one section
+		 * @param message message of an empty report, or null if the report has sections
+		 */
+		SectionIterator(int[] keys, SectionRenderer renderer, String message) {
+			this.keys = keys;
+			this.renderer = renderer;
+			this.message = message;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return message != null || next < keys.length;
+		}
 
+		@Override
+		public String next() {
+			if (message != null) {
+				String section = message;
+				message = null;
+				return section;
+			}
+			if (next >= keys.length) {
+				throw new NoSuchElementException();
+			}
+			buffer.setLength(0);
+			renderer.append(keys[next], buffer);
+			next++;
+			return buffer.toString();
+		}
+	}
 }
@@ -1,17 +1,17 @@
 package edu.ncsu.csc316.social.manager;
 
 import java.io.FileNotFoundException;
-import java.util.Comparator;
+import java.io.IOException;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 import edu.ncsu.csc316.dsa.list.List;
 import edu.ncsu.csc316.dsa.map.Map;
 import edu.ncsu.csc316.social.data.Connection;
 import edu.ncsu.csc316.social.data.Person;
 import edu.ncsu.csc316.social.dsa.Algorithm;
-import edu.ncsu.csc316.social.dsa.DSAFactory;
 import edu.ncsu.csc316.social.dsa.DataStructure;
-import edu.ncsu.csc316.social.io.InputReader;
 
 /**
  * SocialMediaManager accepts input files of lists of people
@@ -21,18 +21,25 @@ import edu.ncsu.csc316.social.io.InputReader;
  * are sorted by either the other username in the connection, or date.
  * SocialMediaManager also has a getPeople method that returns a map of
  * username mapped to the Person.
+ * The maps, lists and sorters come from the manager's own
+ * DataStructureFactory, so managers with different map and sorter
+ * types can be built and used at the same time on different threads.
+ * The loaded network is published as an immutable NetworkState behind an
+ * atomic reference. Queries read the current state without locking, so any
+ * number of threads can query the manager while people or connections are
+ * added. Changes are made one at a time: each one builds the next state off
+ * to the side from the current one and then swaps it in, and a query that
+ * started before the swap finishes on the state it started with.
  * @author Arnold Elamthuruthil
  */
 public class SocialMediaManager {
 	
-	/** List of people in input file */
-	private List<Person> people;
-	/** List of connections in input file */
-	private List<Connection> conn;
-	/** Map of each person with their username as key */
-	private Map<String, Person> pMap;
-	/** Map of all connections by each person */
-	private Map<String, List<Connection>> personMap;
+	/** Factory of the maps, lists and sorters of this manager */
+	private DataStructureFactory factory;
+	/** Current state of the network */
+	private final AtomicReference<NetworkState> state = new AtomicReference<NetworkState>();
+	/** Lock held while the next state is built, so changes are made one at a time */
+	private final Object writeLock = new Object();
 
 	/**
 	 * Creates a SocialMediaManager with the default map type, SkipList.
@@ -45,10 +52,8 @@ public class SocialMediaManager {
     }
 
     /**
-	 * Creates a SocialMediaManager and sets the list type, comparison sorter
-	 * type, nonComparison Sorter type, and map type. It creates
-	 * a list of all connections and people found in the input files. A map
-	 * that maps username to Person object is also created.
+	 * Creates a SocialMediaManager with the custom map type and quicksort as
+	 * the comparison sorter
 	 * @param peopleFile input people text file
 	 * @param connectionFile input connections text file
 	 * @param mapType type of map to implement
@@ -56,186 +61,423 @@ public class SocialMediaManager {
 	 */
     public SocialMediaManager(String peopleFile, String connectionFile, DataStructure mapType)
             throws FileNotFoundException {
-        DSAFactory.setListType(DataStructure.ARRAYBASEDLIST);
-        DSAFactory.setComparisonSorterType(Algorithm.QUICKSORT);
-        DSAFactory.setNonComparisonSorterType(Algorithm.COUNTING_SORT);
-        DSAFactory.setMapType(mapType);
-        this.conn = InputReader.readConnectionData(connectionFile);
-        this.people = InputReader.readPersonData(peopleFile);
-        this.pMap = getPeople();
+        this(peopleFile, connectionFile, mapType, Algorithm.QUICKSORT);
     }
-    
+
+    /**
+	 * Creates a SocialMediaManager with the custom map type and comparison
+	 * sorter type, array-based lists and counting sort
+	 * @param peopleFile input people text file
+	 * @param connectionFile input connections text file
+	 * @param mapType type of map to implement
+	 * @param sorterType type of comparison sorter to sort people and dates with
+	 * @throws FileNotFoundException if file is not found
+	 */
+    public SocialMediaManager(String peopleFile, String connectionFile, DataStructure mapType, Algorithm sorterType)
+            throws FileNotFoundException {
+        this(peopleFile, connectionFile, new DataStructureFactory(mapType).withComparisonSorter(sorterType));
+    }
+
+    /**
+	 * Creates a SocialMediaManager that builds its maps, lists and sorters
+	 * with the given factory. The input files are read at the same time and
+	 * parsed in parallel by a NetworkLoader. The map that maps username to
+	 * Person object and the table of connections are filled while the files
+	 * are still being read. The ranking of the people and the index of every
+	 * platform's connections in date order are built once their own file is
+	 * read, and the index of every person's sorted connections once both are.
+	 * @param peopleFile input people text file
+	 * @param connectionFile input connections text file
+	 * @param factory factory of the maps, lists and sorters
+	 * @throws FileNotFoundException if file is not found
+	 */
+    public SocialMediaManager(String peopleFile, String connectionFile, DataStructureFactory factory)
+            throws FileNotFoundException {
+        this(factory);
+        state.set(NetworkLoader.await(new NetworkLoader(peopleFile, connectionFile, factory, null, 0).start()));
+    }
+
+    /**
+     * Starts loading a SocialMediaManager in the background the same way the
+     * constructor does, and returns right away
+     * @param peopleFile input people text file
+     * @param connectionFile input connections text file
+     * @param factory factory of the maps, lists and sorters
+     * @param listener listener told of the progress of the load, or null
+     * @return future of the manager, which completes with a FileNotFoundException
+     * if a file is not found
+     */
+    public static CompletableFuture<SocialMediaManager> loadAsync(String peopleFile, String connectionFile,
+            DataStructureFactory factory, NetworkLoader.ProgressListener listener) {
+        return loadAsync(new NetworkLoader(peopleFile, connectionFile, factory, listener, 0), factory);
+    }
+
+    /**
+     * Returns a future of the manager of the network a loader loads
+     * @param loader loader of the network
+     * @param factory factory of the maps, lists and sorters the loader uses
+     * @return future of the manager
+     */
+    static CompletableFuture<SocialMediaManager> loadAsync(NetworkLoader loader, DataStructureFactory factory) {
+        return loader.start().thenApply(loaded -> {
+        	SocialMediaManager manager = new SocialMediaManager(factory);
+        	manager.state.set(loaded);
+        	return manager;
+        });
+    }
+
+    /**
+     * Creates a SocialMediaManager with no network
+     * @param factory factory of the maps, lists and sorters
+     */
+    private SocialMediaManager(DataStructureFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Creates a SocialMediaManager from a snapshot file written by saveSnapshot.
+     * The people, connections and sorted indexes are read from the snapshot,
+     * so no text or dates are parsed and nothing is sorted.
+     * @param snapshotFile snapshot file
+     * @param mapType type of map to implement
+     * @return manager of the network in the snapshot
+     * @throws FileNotFoundException if file is not found
+     * @throws IllegalArgumentException if the file is not a snapshot of a supported version
+     */
+    public static SocialMediaManager loadSnapshot(String snapshotFile, DataStructure mapType)
+            throws FileNotFoundException {
+        return loadSnapshot(snapshotFile, new DataStructureFactory(mapType));
+    }
+
+    /**
+     * Creates a SocialMediaManager from a snapshot file written by saveSnapshot
+     * that builds its maps, lists and sorters with the given factory
+     * @param snapshotFile snapshot file
+     * @param factory factory of the maps, lists and sorters
+     * @return manager of the network in the snapshot
+     * @throws FileNotFoundException if file is not found
+     * @throws IllegalArgumentException if the file is not a snapshot of a supported version
+     */
+    public static SocialMediaManager loadSnapshot(String snapshotFile, DataStructureFactory factory)
+            throws FileNotFoundException {
+        SocialMediaManager manager = new SocialMediaManager(factory);
+        NetworkSnapshot snapshot = NetworkSnapshot.load(snapshotFile, factory);
+        PersonIndex personIndex = snapshot.getPersonIndex();
+        manager.state.set(new NetworkState(factory, null, personIndex.getConnections(), personIndex,
+        		snapshot.getPlatformIndex(), 0));
+        return manager;
+    }
+
+    /**
+     * Saves the network and its sorted indexes to a snapshot file that
+     * loadSnapshot can start from
+     * @param snapshotFile snapshot file, which is replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void saveSnapshot(String snapshotFile) throws IOException {
+    	NetworkState current = state.get();
+    	new NetworkSnapshot(current.getPersonIndex(), current.getPlatformIndex()).save(snapshotFile);
+    }
+
     /**
      * Retrieves a map with the usernames of the people as 
-     * keys and the Person with the username as the value
+     * keys and the Person with the username as the value.
+     * The map belongs to the current state, so callers should not change it.
+     * With an unordered linked map, lookups reorder the map, so only one
+     * thread at a time should look people up in it.
      * @return map of username and Person object
      */
     public Map<String, Person> getPeople() {
-      	pMap = DSAFactory.getMap(null);
-        for (Person p : people) {
-        	pMap.put(p.getId(), p);
-        }
-        
-        return pMap;
+        return state.get().getPeople();
     }
 
     /**
      * Returns a map with the usernames of the people as keys and 
      * the list of their connections as the values. The people are sorted
      * alphabetically by last, then first name. The lists of connections
-     * are sorted by the second name, then id, then date.
+     * are sorted by the second name, then id, then date. The lists are
+     * read-only views over the index of the current state, and the map
+     * belongs to the state, so callers should not change it.
      * @return map of usernames and list of connections for the usernames
      */
 	public Map<String, List<Connection>> getConnectionsByPerson() {
-		personMap = DSAFactory.getMap(null);
-		if (people.size() == 0 || conn.size() == 0) {
-    		return personMap;
-    	} 
-    	for (Person p : people) {
-    		personMap.put(p.getId(), DSAFactory.getIndexedList());
-    	}
-    	for (Connection c : conn) {
-    		String[] p = c.getPeople();
-    		//Find first id map
-    		List<Connection> old1 = personMap.get(p[0]);
-    		old1.addLast(c);
-    		personMap.put(p[0], old1);
-    		//Find second id map
-    		List<Connection> old2 = personMap.get(p[1]);
-    		old2.addLast(c);
-    		personMap.put(p[1], old2);
-    	}
-    	for (List<Connection> list : personMap.values()) {
-    		int size = list.size();
-    		Connection[] connArr = new Connection[size];
-    		for (int i = 0; i < size; i++) {
-    			connArr[i] = list.get(i);
-    		}
-    		DSAFactory.getComparisonSorter(new SamePersonConnectionComparator()).sort(connArr);
-          	
-    		int i = 0;
-         	for (Connection c : connArr) {
-         		list.set(i, c);
-         		i++;
-         	}
-    	}
-    	
-		return personMap;
+		return state.get().getConnectionsByPerson();
     }
 
 	/**
      * Returns a map with the platforms the connections are made on as keys and 
      * the list of their connections as the values. The platforms are sorted 
      * alphabetically, and their connections are sorted by date, then id.
+     * The lists are read-only views over the index of the current state,
+     * and the map belongs to the state, so callers should not change it.
      * @return map of platforms and list of connections for the platforms
      */
     public Map<String, List<Connection>> getConnectionsByPlatform() {
-    	Map<String, List<Connection>> platformMap = DSAFactory.getMap(null);
-    	if (people.size() == 0 || conn.size() == 0) {
-    		return platformMap;
+        return state.get().getConnectionsByPlatform();
+    }
+
+    /**
+     * Returns the connections of one person, sorted the same way as in
+     * getConnectionsByPerson. The list is a read-only view over the person's
+     * slice of the index, so no map is built and nothing is sorted: the cost is
+     * a binary search for the username, plus building the search index of
+     * usernames once for each set of people.
+     * @param username username of the person
+     * @return read-only list of the person's connections, or null if there is
+     * no person with the username
+     */
+    public List<Connection> getConnectionsFor(String username) {
+    	NetworkState current = state.get();
+    	int rank = current.rankOf(username);
+    	if (rank < 0) {
+    		return null;
+    	}
+    	return current.getPersonIndex().connectionsOf(rank);
+    }
+
+    /**
+     * Returns the connections on one platform, sorted by date, then id, the
+     * same way as in getConnectionsByPlatform. The list is a read-only view
+     * over the platform's bucket of the index.
+     * @param platform name of the platform
+     * @return read-only list of the platform's connections, or null if no
+     * connection is on the platform
+     */
+    public List<Connection> getConnectionsOn(String platform) {
+    	NetworkState current = state.get();
+    	int code = current.codeOf(platform);
+    	if (code < 0) {
+    		return null;
+    	}
+    	return current.getPlatformIndex().connectionsOn(code);
+    }
+
+    /**
+     * Returns the connected components of the network and of the connections
+     * on each platform. They are found once for each state of the network, by
+     * union-find over the connections on the fork-join pool.
+     * @return components of the current state of the network
+     */
+    public ComponentAnalysis getComponents() {
+    	return state.get().getComponents();
+    }
+
+    /**
+     * Returns the statistics of the network and of the connections on each
+     * platform: the people with the most connections, how many people have
+     * each number of connections, the connections made in each year and the
+     * oldest and newest connections. They are found in one pass over the
+     * connections of the current state, without building any map or list.
+     * @param k number of people with the most connections, and of oldest and
+     * newest connections, to keep
+     * @return statistics of the current state of the network
+     */
+    public NetworkStatistics getStatistics(int k) {
+    	NetworkState current = state.get();
+    	return new NetworkStatistics(current.getPersonIndex(), current.getPlatformIndex(), k);
+    }
+
+    /**
+     * Returns the people a person may know: the people they are not connected
+     * to, ranked by the number of people both of them are connected to. People
+     * with the same number of mutual connections are sorted alphabetically by
+     * last, then first name. Only people with a mutual connection are listed.
+     * @param username username of the person
+     * @param k largest number of people to recommend
+     * @return list of at most k recommendations, or null if there is no person
+     * with the username
+     */
+    public List<Recommendation> getRecommendations(String username, int k) {
+    	return getRecommendations(username, null, k);
+    }
+
+    /**
+     * Returns the people a person may know on one platform, counting only the
+     * connections on that platform. A person who is connected to the person on
+     * another platform can be recommended.
+     * @param username username of the person
+     * @param platform name of the platform, or null for every platform
+     * @param k largest number of people to recommend
+     * @return list of at most k recommendations, which is empty if no connection
+     * is on the platform, or null if there is no person with the username
+     */
+    public List<Recommendation> getRecommendations(String username, String platform, int k) {
+    	NetworkState current = state.get();
+    	int rank = current.rankOf(username);
+    	if (rank < 0) {
+    		return null;
     	}
-    	
-        Connection[] dateArr = new Connection[conn.size()];
-        for (int i = 0; i < conn.size(); i++) {
-            dateArr[i] = conn.get(i);
-        }
-        DSAFactory.getComparisonSorter(new DateComparator()).sort(dateArr);
-        
-        List<String> platforms = DSAFactory.getIndexedList();
-        boolean contains = false;
-        for (int i = 0; i < dateArr.length; i++) {
-            String platform = dateArr[i].getPlatform();
-            
-            for (String p : platforms) {
-            	if (p.equals(platform)) {
-            		contains = true;
-            	}
-            }
-            if (!contains) {
-                platformMap.put(platform, DSAFactory.getIndexedList());
-                platforms.addLast(platform);
-            } 
-            
-            platformMap.get(platform).addLast(dateArr[i]);
-            contains = false;
-        }
-        
-        return platformMap;
-    }
-    
-    /**
-     * Comparator that compares dates and returns an integer representing
-     * their comparison
-     * @author Arnold Elamthuruthil
-     */
-    private class DateComparator implements Comparator<Connection> {
-
-    	@Override
-    	public int compare(Connection o1, Connection o2) {
-    		Date d1 = o1.getDate();
-    		Date d2 = o2.getDate();
-    		int date = d1.compareTo(d2);
-    		if (date == 0) {
-    			return o1.getId().compareTo(o2.getId());
+    	int code = -1;
+    	if (platform != null) {
+    		code = current.codeOf(platform);
+    		if (code < 0) {
+    			return factory.getIndexedList();
     		}
-    		return date;
     	}
+    	return current.getRecommendations().recommend(rank, code, k);
+    }
+
+    /**
+     * Returns the recommendations of every person, found in parallel on the
+     * fork-join pool
+     * @param platform name of the platform, or null for every platform
+     * @param k largest number of people to recommend to each person
+     * @return map of each username to the person's recommendations, which are
+     * empty if no connection is on the platform
+     */
+    public Map<String, List<Recommendation>> getAllRecommendations(String platform, int k) {
+    	NetworkState current = state.get();
+    	PersonRanking ranking = current.getPersonIndex().getRanking();
+    	Map<String, List<Recommendation>> all = factory.getMap();
+    	int code = platform == null ? -1 : current.codeOf(platform);
+    	if (platform != null && code < 0) {
+    		for (int rank = 0; rank < ranking.size(); rank++) {
+    			all.put(ranking.personAt(rank).getId(), factory.getIndexedList());
+    		}
+    		return all;
+    	}
+    	List<Recommendation>[] byRank = current.getRecommendations().recommendAll(code, k);
+    	for (int rank = 0; rank < byRank.length; rank++) {
+    		all.put(ranking.personAt(rank).getId(), byRank[rank]);
+    	}
+    	return all;
+    }
 
+    /**
+     * Returns the connections on one platform made in a range of dates, in
+     * date order. The range is found with two binary searches over the
+     * platform's dates, and the list is a read-only view that reads the
+     * connections from the index as it is iterated, so a query costs
+     * O(log n + k) for k connections in the range.
+     * @param platform name of the platform
+     * @param from first date of the range
+     * @param to date after the range
+     * @return read-only list of the platform's connections made at or after
+     * from and before to, or null if no connection is on the platform
+     */
+    public List<Connection> getConnectionsOn(String platform, Date from, Date to) {
+    	NetworkState current = state.get();
+    	int code = current.codeOf(platform);
+    	if (code < 0) {
+    		return null;
+    	}
+    	return current.getPlatformIndex().connectionsBetween(code, from.getTime(), to.getTime());
+    }
+
+    /**
+     * Returns the number of connections on one platform made in a range of
+     * dates, using two binary searches
+     * @param platform name of the platform
+     * @param from first date of the range
+     * @param to date after the range
+     * @return number of the platform's connections made at or after from and
+     * before to, or 0 if no connection is on the platform
+     */
+    public int countConnectionsOn(String platform, Date from, Date to) {
+    	NetworkState current = state.get();
+    	int code = current.codeOf(platform);
+    	if (code < 0) {
+    		return 0;
+    	}
+    	return current.getPlatformIndex().countBetween(code, from.getTime(), to.getTime());
     }
-    
-    /**
-     * Comparator that compares Connections and returns an integer representing
-     * their comparison. First finds which two usernames are the same, and then
-     * compares the other two usernames. If there are two pairs of usernames, then
-     * compare dates.
-     * @author Arnold Elamthuruthil
-     */
-    private class SamePersonConnectionComparator implements Comparator<Connection> {
-
-    	@Override
-    	public int compare(Connection o1, Connection o2) {
-    		String[] n1 = o1.getPeople();
-            String[] n2 = o2.getPeople();
-
-            Person p1 = pMap.get(n1[0]);
-            Person p2 = pMap.get(n1[1]);
-            Person p3 = pMap.get(n2[0]);
-            Person p4 = pMap.get(n2[1]);
-            
-            Person compare1 = null;
-            Person compare2 = null;
-                    
-            
-            int date = o1.getDate().compareTo(o2.getDate());
-
-            if (p1.equals(p3) && !p2.equals(p4)) {
-            	compare1 = p2;
-    			compare2 = p4;
-    		} else if (p1.equals(p4) && !p2.equals(p3)) {
-    			compare1 = p2;
-    			compare2 = p3;
-    		} else if (p2.equals(p3) && !p1.equals(p4)) {
-    			compare1 = p1;
-    			compare2 = p4;
-    		} else if (p2.equals(p4) && !p1.equals(p3)) {
-    			compare1 = p1;
-    			compare2 = p3;
-    		} else {
-    			return date;
+
+    /**
+     * Reads a delta file of people and adds every person whose username is not
+     * already in the network. If the file lists a new username more than once,
+     * the last record is used, as when the network is loaded. The new people
+     * are merged into the indexes without sorting the people or connections
+     * already in them. The file is read before the write lock is taken.
+     * @param peopleFile input people text file
+     * @throws FileNotFoundException if file is not found
+     */
+    public void addPeople(String peopleFile) throws FileNotFoundException {
+    	List<Person> added = ParallelInputReader.readPersonData(peopleFile, factory);
+    	synchronized (writeLock) {
+    		NetworkState current = state.get();
+    		PersonRanking ranking = current.getPersonIndex().getRanking();
+    		Map<String, Person> fresh = factory.getMap();
+    		for (Person p : added) {
+    			if (ranking.rankOf(p.getId()) < 0) {
+    				fresh.put(p.getId(), p);
+    			}
     		}
-            int last = compare1.getLast().compareTo(compare2.getLast());
-        	if (last == 0) {
-        		int first = compare1.getFirst().compareTo(compare2.getFirst());
-        		if (first == 0) {
-        			int id = compare1.getId().compareTo(compare2.getId());
-        			if (id == 0) {
-        				return date;
-        			}
-        			return id;
-        		}
-        		return first;
-        	}
-			return last;
+    		if (fresh.size() == 0) {
+    			return;
+    		}
+    		Person[] newPeople = new Person[fresh.size()];
+    		int i = 0;
+    		for (Person p : fresh.values()) {
+    			newPeople[i] = p;
+    			i++;
+    		}
+    		ConnectionTable connections = current.getConnections();
+    		PersonIndex personIndex = current.getPersonIndex().add(connections, ranking.add(newPeople));
+    		NetworkState next = new NetworkState(factory, null, connections, personIndex,
+    				current.getPlatformIndex(), current.getVersion() + 1);
+    		next.keepNames(current);
+    		state.set(next);
+    	}
+    }
+
+    /**
+     * Reads a delta file of connections and adds them to the network. Only the
+     * new connections are sorted, and they are merged into each person's and
+     * each platform's sorted connections. The file is read before the write
+     * lock is taken.
+     * @param connectionFile input connections text file
+     * @throws FileNotFoundException if file is not found
+     */
+    public void addConnections(String connectionFile) throws FileNotFoundException {
+    	List<Connection> added = ParallelInputReader.readConnectionData(connectionFile, factory);
+    	if (added.size() == 0) {
+    		return;
+    	}
+    	synchronized (writeLock) {
+    		NetworkState current = state.get();
+    		ConnectionTable grown = current.getConnections().append(added);
+    		PersonIndex personIndex = current.getPersonIndex().add(grown, current.getPersonIndex().getRanking());
+    		PlatformIndex platformIndex = current.getPlatformIndex().add(grown);
+    		NetworkState next = new NetworkState(factory, current.getBuiltPeople(), grown, personIndex, platformIndex,
+    				current.getVersion() + 1);
+    		next.keepNames(current);
+    		state.set(next);
+    	}
+    }
+
+    /**
+     * Builds every map of the network again as a new state, so cached
+     * results outside the manager, such as the reports of a ReportManager,
+     * are dropped too
+     */
+    public void invalidate() {
+    	synchronized (writeLock) {
+    		state.set(state.get().rebuild());
     	}
     }
+
+    /**
+     * Returns the current state of the network. Everything read from one
+     * state belongs to the same version of the network.
+     * @return current state
+     */
+    NetworkState getState() {
+    	return state.get();
+    }
+
+    /**
+     * Returns the sorted adjacency index that getConnectionsByPerson is a view of
+     * @return index of every person's connections
+     */
+    PersonIndex getPersonIndex() {
+    	return state.get().getPersonIndex();
+    }
+
+    /**
+     * Returns the index that getConnectionsByPlatform is a view of
+     * @return index of every platform's connections
+     */
+    PlatformIndex getPlatformIndex() {
+    	return state.get().getPlatformIndex();
+    }
 }
@@ -2,15 +2,28 @@ package edu.ncsu.csc316.social.manager;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.InputMismatchException;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import edu.ncsu.csc316.social.dsa.DataStructure;
 
 /**
  * UI that prompts whether you want to display connections by
- * person, platform, or you want to exit.
+ * person, platform, save a snapshot of the network, display the connected
+ * components or statistics, or you want to exit.
+ * People and connection files are loaded in the background, so the menu is
+ * shown with the progress of the load right away, and an option that needs
+ * the network waits for the load to finish.
  * @author Arnold Elamthuruthil
  */
 public class SocialMediaManagerUI {
+	/** Extension of snapshot files, which are loaded instead of a people and connection file */
+	private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
 	/**
 	 * Main method where the report manager is ran.
 	 * @param args command line arguments 
@@ -21,33 +34,54 @@ public class SocialMediaManagerUI {
         String connectionFile;
 
         do {
-            System.out.print("Enter the people file name: ");
+            System.out.print("Enter the people file name (or a " + SNAPSHOT_EXTENSION + " file): ");
             peopleFile = "input/" + scanner.nextLine();
         } while (!isValidFile(peopleFile));
 
-        do {
-            System.out.print("Enter the connection file name: ");
-            connectionFile = "input/" + scanner.nextLine();
-        } while (!isValidFile(connectionFile));
-
-        ReportManager reportManager;
+        CompletableFuture<ReportManager> loading;
+        LoadProgress progress = new LoadProgress();
         try {
-            reportManager = new ReportManager(peopleFile, connectionFile);
+            if (peopleFile.endsWith(SNAPSHOT_EXTENSION)) {
+                loading = CompletableFuture.completedFuture(ReportManager.loadSnapshot(peopleFile));
+            } else {
+                do {
+                    System.out.print("Enter the connection file name: ");
+                    connectionFile = "input/" + scanner.nextLine();
+                } while (!isValidFile(connectionFile));
+                loading = ReportManager.loadAsync(peopleFile, connectionFile,
+                        new DataStructureFactory(DataStructure.SKIPLIST), progress);
+            }
         } catch (FileNotFoundException e) {
             System.out.println("File not found: " + e.getMessage());
             return;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unable to load snapshot: " + e.getMessage());
+            return;
         }
 
         int choice;
         do {
+            if (!loading.isDone()) {
+                System.out.println("\nLoading the network: " + progress);
+            }
             System.out.println("\nChoose an option:");
             System.out.println("1. Display connections by person");
             System.out.println("2. Display connections by platform");
             System.out.println("3. Exit SocialMediaManager");
+            System.out.println("4. Save a snapshot of the network");
+            System.out.println("5. Display connected components");
+            System.out.println("6. Display network statistics");
             System.out.print("Enter : ");
             try {
                 choice = scanner.nextInt();
                 scanner.nextLine();
+                ReportManager reportManager = null;
+                if (choice >= 1 && choice <= 6 && choice != 3) {
+                    reportManager = awaitManager(loading);
+                    if (reportManager == null) {
+                        return;
+                    }
+                }
                 switch (choice) {
                     case 1:
                         displayConnectionsByPerson(reportManager);
@@ -58,8 +92,17 @@ public class SocialMediaManagerUI {
                     case 3:
                         System.out.println("Exiting.");
                         return;
+                    case 4:
+                        saveSnapshot(reportManager, scanner);
+                        break;
+                    case 5:
+                        System.out.println(reportManager.getComponentReport());
+                        break;
+                    case 6:
+                        System.out.println(reportManager.getStatisticsReport());
+                        break;
                     default:
-                        System.out.println("Invalid choice. Please enter a number 1-3.");
+                        System.out.println("Invalid choice. Please enter a number 1-6.");
                 }
             } catch (InputMismatchException e) {
                 System.out.println("Invalid input. Please enter a number.");
@@ -69,14 +112,94 @@ public class SocialMediaManagerUI {
         } while (true);
     }
 
+    private static ReportManager awaitManager(CompletableFuture<ReportManager> loading) {
+        if (!loading.isDone()) {
+            System.out.println("Waiting for the network to finish loading...");
+        }
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof FileNotFoundException) {
+                System.out.println("File not found: " + e.getCause().getMessage());
+            } else {
+                System.out.println("Unable to load the network: " + e.getCause().getMessage());
+            }
+            return null;
+        }
+    }
+
     private static void displayConnectionsByPerson(ReportManager reportManager) {
-        String connectionsByPerson = reportManager.getConnectionsByPerson();
-        System.out.println(connectionsByPerson);
+        PrintWriter out = new PrintWriter(System.out);
+        try {
+            reportManager.writeConnectionsByPerson(out);
+        } catch (IOException e) {
+            System.out.println("Unable to display report: " + e.getMessage());
+        }
+        System.out.println();
     }
 
     private static void displayConnectionsByPlatform(ReportManager reportManager) {
-        String connectionsByPlatform = reportManager.getConnectionsByPlatform();
-        System.out.println(connectionsByPlatform);
+        PrintWriter out = new PrintWriter(System.out);
+        try {
+            reportManager.writeConnectionsByPlatform(out);
+        } catch (IOException e) {
+            System.out.println("Unable to display report: " + e.getMessage());
+        }
+        System.out.println();
+    }
+
+    private static void saveSnapshot(ReportManager reportManager, Scanner scanner) {
+        System.out.print("Enter the snapshot file name: ");
+        String snapshotFile = "input/" + scanner.nextLine();
+        if (!snapshotFile.endsWith(SNAPSHOT_EXTENSION)) {
+            snapshotFile += SNAPSHOT_EXTENSION;
+        }
+        try {
+            reportManager.saveSnapshot(snapshotFile);
+            System.out.println("Saved " + snapshotFile);
+        } catch (IOException e) {
+            System.out.println("Unable to save snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Keeps the latest progress of each stage of a load for the menu
+     * @author Arnold Elamthuruthil
+     */
+    private static class LoadProgress implements NetworkLoader.ProgressListener {
+        /** Percent of the people file loaded */
+        private volatile long people;
+        /** Percent of the connection file loaded */
+        private volatile long connections;
+        /** Number of indexes built */
+        private volatile long indexes;
+        /** Number of indexes to build */
+        private volatile long indexCount;
+
+        @Override
+        public void progress(NetworkLoader.Stage stage, long done, long total) {
+            long percent = total == 0 ? 100 : done * 100 / total;
+            switch (stage) {
+                case PEOPLE:
+                    people = percent;
+                    break;
+                case CONNECTIONS:
+                    connections = percent;
+                    break;
+                default:
+                    indexes = done;
+                    indexCount = total;
+            }
+        }
+
+        @Override
+        public String toString() {
+            String loaded = "people " + people + "%, connections " + connections + "%";
+            if (indexCount != 0) {
+                loaded += ", indexes " + indexes + "/" + indexCount;
+            }
+            return loaded;
+        }
     }
 
     private static boolean isValidFile(String fileName) {
@@ -0,0 +1,104 @@
+package edu.ncsu.csc316.social.manager;
+
+import edu.ncsu.csc316.dsa.priority_queue.HeapPriorityQueue;
+import edu.ncsu.csc316.dsa.priority_queue.PriorityQueue;
+
+/**
+ * TopK keeps the k int ids with the largest values offered to it, in a
+ * HeapPriorityQueue that never holds more than k entries. The worst of the
+ * entries kept is at the top of the heap, so an offer is compared with it and
+ * only replaces it if better. Ids with the same value are ordered by id, the
+ * smaller id first.
+ * @author Arnold Elamthuruthil
+ */
+public class TopK {
+	/** Largest number of ids kept */
+	private int k;
+	/** Best ids offered so far, worst at the top */
+	private PriorityQueue<Entry, Integer> heap = new HeapPriorityQueue<Entry, Integer>();
+
+	/**
+	 * Creates an empty TopK
+	 * @param k largest number of ids kept
+	 */
+	public TopK(int k) {
+		this.k = k;
+	}
+
+	/**
+	 * Offers an id with a value
+	 * @param id id offered
+	 * @param value value of the id
+	 */
+	public void offer(int id, long value) {
+		if (heap.size() < k) {
+			heap.insert(new Entry(id, value), null);
+		} else if (k > 0 && heap.min().getKey().isWorseThan(id, value)) {
+			heap.deleteMin();
+			heap.insert(new Entry(id, value), null);
+		}
+	}
+
+	/**
+	 * Returns the number of ids kept
+	 * @return number of ids, at most k
+	 */
+	public int size() {
+		return heap.size();
+	}
+
+	/**
+	 * Empties the TopK into arrays, best first
+	 * @param ids array the ids are written to, at least size() long
+	 * @param values array the values are written to, at least size() long
+	 * @return number of ids written
+	 */
+	public int drain(int[] ids, long[] values) {
+		int count = heap.size();
+		for (int i = count - 1; i >= 0; i--) {
+			Entry e = heap.deleteMin().getKey();
+			ids[i] = e.id;
+			values[i] = e.value;
+		}
+		return count;
+	}
+
+	/**
+	 * Id and value in the heap, ordered worst first
+	 * @author Arnold Elamthuruthil
+	 */
+	private static class Entry implements Comparable<Entry> {
+		/** Id offered */
+		private int id;
+		/** Value of the id */
+		private long value;
+
+		/**
+		 * Creates an Entry
+		 * @param id id offered
+		 * @param value value of the id
+		 */
+		Entry(int id, long value) {
+			this.id = id;
+			this.value = value;
+		}
+
+		/**
+		 * Returns whether this entry comes after another id and value
+		 * @param otherId id of the other entry
+		 * @param otherValue value of the other entry
+		 * @return true if the other id and value are better
+		 */
+		boolean isWorseThan(int otherId, long otherValue) {
+			return value < otherValue || value == otherValue && id > otherId;
+		}
+
+		@Override
+		public int compareTo(Entry o) {
+			if (value != o.value) {
+				return Long.compare(value, o.value);
+			}
+			return Integer.compare(o.id, id);
+		}
+	}
+}
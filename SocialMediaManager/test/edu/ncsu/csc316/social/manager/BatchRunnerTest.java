@@ -0,0 +1,131 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.sorter.Sorter;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * Tests the BatchRunner class
+ * @author Arnold Elamthuruthil
+ */
+public class BatchRunnerTest {
+	/** Runner of the batches, two jobs at a time */
+	private final BatchRunner runner = new BatchRunner(new DataStructureFactory(DataStructure.SKIPLIST), 2);
+
+	/**
+	 * Writes a manifest to a new temporary folder
+	 * @param lines lines of the manifest
+	 * @return the manifest file
+	 * @throws IOException if the manifest cannot be written
+	 */
+	private static File manifest(String... lines) throws IOException {
+		File folder = Files.createTempDirectory("batch").toFile();
+		File manifest = new File(folder, "manifest.txt");
+		try (Writer out = new FileWriter(manifest)) {
+			for (String line : lines) {
+				out.write(line + "\n");
+			}
+		}
+		return manifest;
+	}
+
+	/**
+	 * Tests that comments and blank lines are skipped, relative paths are
+	 * relative to the manifest, and a line without three fields is rejected
+	 * @throws IOException if the manifest cannot be read
+	 */
+	@Test
+	public void testReadManifest() throws IOException {
+		String input = new File("input").getAbsolutePath();
+		File manifest = manifest("# nightly regions", "", input + "/people2.txt, " + input + "/connections2.txt, east");
+		List<BatchRunner.Job> jobs = runner.readManifest(manifest.getPath());
+		assertEquals(1, jobs.size());
+		assertEquals(input + "/people2.txt", jobs.get(0).getPeopleFile());
+		assertEquals(input + "/connections2.txt", jobs.get(0).getConnectionFile());
+		assertEquals(new File(manifest.getParentFile(), "east").getPath(), jobs.get(0).getOutputDirectory());
+
+		try {
+			runner.readManifest(manifest("people.txt,connections.txt").getPath());
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().startsWith("Line 1 of "));
+		}
+	}
+
+	/**
+	 * Tests that each job writes both reports, that a failed job does not
+	 * stop the others, and that the summary counts them
+	 * @throws Exception if a file cannot be read or written
+	 */
+	@Test
+	public void testRun() throws Exception {
+		String input = new File("input").getAbsolutePath();
+		File manifest = manifest(input + "/people2.txt," + input + "/connections2.txt,two",
+				input + "/peopleFull.txt," + input + "/connectionsFull.txt,full",
+				input + "/peopleFull.txt," + input + "/missing.txt,missing",
+				input + "/peopleFull.txt," + input + "/emptyConn.txt,empty");
+		List<BatchRunner.Result> results = runner.run(runner.readManifest(manifest.getPath()));
+		assertEquals(4, results.size());
+
+		String[][] files = { { "people2.txt", "connections2.txt" }, { "peopleFull.txt", "connectionsFull.txt" } };
+		for (int i = 0; i < files.length; i++) {
+			BatchRunner.Result result = results.get(i);
+			assertNull(result.getFailure());
+			ReportManager expected = new ReportManager("input/" + files[i][0], "input/" + files[i][1]);
+			File folder = new File(result.getJob().getOutputDirectory());
+			assertEquals(expected.getConnectionsByPerson(), new String(
+					Files.readAllBytes(new File(folder, BatchRunner.PERSON_REPORT).toPath()), StandardCharsets.UTF_8));
+			assertEquals(expected.getConnectionsByPlatform(), new String(
+					Files.readAllBytes(new File(folder, BatchRunner.PLATFORM_REPORT).toPath()), StandardCharsets.UTF_8));
+			assertTrue(result.getBytesWritten() > 0);
+		}
+		assertTrue(results.get(2).getFailure().startsWith("FileNotFoundException"));
+		assertNull(results.get(3).getFailure());
+
+		String summary = runner.summarize(results, 1000000000L);
+		assertTrue(summary.startsWith("Ran 4 jobs, 2 at a time, in 1.00 s: 3 succeeded, 1 failed"));
+	}
+
+	/**
+	 * Tests that a job that fails with an Error is recorded as failed and
+	 * the other jobs are still collected
+	 * @throws Exception if a file cannot be read or written
+	 */
+	@Test
+	public void testRunError() throws Exception {
+		DataStructureFactory failing = new DataStructureFactory(DataStructure.SKIPLIST) {
+			@Override
+			public <E extends Comparable<E>> Sorter<E> getComparisonSorter(Comparator<E> comparator) {
+				throw new OutOfMemoryError("Java heap space");
+			}
+		};
+		BatchRunner failingRunner = new BatchRunner(failing, 2);
+		String input = new File("input").getAbsolutePath();
+		File manifest = manifest(input + "/people2.txt," + input + "/connections2.txt,two",
+				input + "/peopleFull.txt," + input + "/missing.txt,missing");
+		List<BatchRunner.Result> results = failingRunner.run(failingRunner.readManifest(manifest.getPath()));
+		assertEquals(2, results.size());
+		assertEquals("OutOfMemoryError: Java heap space", results.get(0).getFailure());
+		assertTrue(results.get(1).getFailure().startsWith("FileNotFoundException"));
+	}
+
+	/**
+	 * Tests that a parallelism below 1 is rejected
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidParallelism() {
+		new BatchRunner(new DataStructureFactory(DataStructure.SKIPLIST), 0);
+	}
+}
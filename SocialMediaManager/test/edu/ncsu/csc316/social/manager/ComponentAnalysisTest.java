@@ -0,0 +1,157 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Tests the ComponentAnalysis class
+ * @author Arnold Elamthuruthil
+ */
+public class ComponentAnalysisTest {
+
+	/**
+	 * Tests the components of a small network and of its platforms
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testSmallNetwork() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/people2.txt", "input/connections2.txt");
+		ComponentAnalysis analysis = m.getComponents();
+		PersonRanking ranking = m.getPersonIndex().getRanking();
+		Components network = analysis.getComponents();
+		assertEquals(1, network.count());
+		assertEquals(3, network.size(0));
+		assertEquals("boyerj706", ranking.personAt(network.memberAt(0, 0)).getId());
+		assertEquals("kertzmannn329", ranking.personAt(network.memberAt(0, 1)).getId());
+		assertEquals("simonisr882", ranking.personAt(network.memberAt(0, 2)).getId());
+
+		Components twitch = analysis.getComponents(m.getPlatformIndex().codeOf("Twitch"));
+		assertEquals(1, twitch.count());
+		assertEquals(2, twitch.people());
+		assertEquals(-1, twitch.componentOf(ranking.rankOf("kertzmannn329")));
+		assertEquals(0, twitch.componentOf(ranking.rankOf("simonisr882")));
+	}
+
+	/**
+	 * Tests that people without connections are components of one in the
+	 * whole network, listed after the larger components
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testNoConnections() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/people2.txt", "input/emptyConn.txt");
+		Components network = m.getComponents().getComponents();
+		assertEquals(3, network.count());
+		for (int c = 0; c < 3; c++) {
+			assertEquals(1, network.size(c));
+			assertEquals(c, network.memberAt(c, 0));
+		}
+	}
+
+	/**
+	 * Tests that the components of a generated network are the same as the
+	 * ones found by label propagation, with partitions small enough that the
+	 * forests of many tasks are merged
+	 * @throws IOException if the files cannot be written
+	 */
+	@Test
+	public void testGeneratedNetwork() throws IOException {
+		File people = File.createTempFile("people", ".txt");
+		File connections = File.createTempFile("connections", ".txt");
+		try {
+			NetworkGenerator generator = new NetworkGenerator(316);
+			generator.setPeople(400);
+			generator.setConnections(300);
+			generator.writePeople(people.getPath());
+			generator.writeConnections(connections.getPath());
+			SocialMediaManager m = new SocialMediaManager(people.getPath(), connections.getPath());
+			PersonIndex index = m.getPersonIndex();
+			PlatformIndex platforms = m.getPlatformIndex();
+			for (int partitionSize : new int[] { 1, 7, 1000 }) {
+				ComponentAnalysis analysis = new ComponentAnalysis(index, platforms, partitionSize);
+				assertComponents(index, null, 0, index.size(), true, analysis.getComponents());
+				for (int code = 0; code < platforms.size(); code++) {
+					assertComponents(index, platforms, platforms.start(code), platforms.end(code), false,
+							analysis.getComponents(code));
+				}
+			}
+		} finally {
+			people.delete();
+			connections.delete();
+		}
+	}
+
+	/**
+	 * Checks components against the labels found by repeatedly giving both
+	 * people of every edge the smaller of their labels
+	 * @param index index of the network
+	 * @param order platform index the range is in, or null for connection positions
+	 * @param from first position of the edges
+	 * @param to position after the edges
+	 * @param everyone whether every person should be in a component
+	 * @param components components to check
+	 */
+	private void assertComponents(PersonIndex index, PlatformIndex order, int from, int to, boolean everyone,
+			Components components) {
+		int people = index.getRanking().size();
+		int[] label = new int[people];
+		boolean[] present = new boolean[people];
+		for (int rank = 0; rank < people; rank++) {
+			label[rank] = rank;
+			present[rank] = everyone;
+		}
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = from; i < to; i++) {
+				int edge = order == null ? i : order.edgeAt(i);
+				int r1 = index.firstRankOf(edge);
+				int r2 = index.secondRankOf(edge);
+				if (r1 < 0 || r2 < 0) {
+					continue;
+				}
+				present[r1] = true;
+				present[r2] = true;
+				int min = Math.min(label[r1], label[r2]);
+				if (label[r1] != min || label[r2] != min) {
+					label[r1] = min;
+					label[r2] = min;
+					changed = true;
+				}
+			}
+		}
+		int[] sizes = new int[people];
+		int total = 0;
+		for (int rank = 0; rank < people; rank++) {
+			if (present[rank]) {
+				sizes[label[rank]]++;
+				total++;
+			} else {
+				assertEquals(-1, components.componentOf(rank));
+			}
+		}
+		assertEquals(total, components.people());
+		for (int c = 0; c < components.count(); c++) {
+			int first = components.memberAt(c, 0);
+			assertEquals(sizes[label[first]], components.size(c));
+			for (int i = 0; i < components.size(c); i++) {
+				int rank = components.memberAt(c, i);
+				assertEquals(label[first], label[rank]);
+				assertEquals(c, components.componentOf(rank));
+				if (i > 0) {
+					assertTrue(components.memberAt(c, i - 1) < rank);
+				}
+			}
+			if (c > 0) {
+				int previous = components.size(c - 1);
+				assertTrue(previous > components.size(c)
+						|| previous == components.size(c) && components.memberAt(c - 1, 0) < first);
+			}
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.list.ArrayBasedList;
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.data.Connection;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * Tests the ConnectionStore class
+ * @author Arnold Elamthuruthil
+ */
+public class ConnectionStoreTest {
+	/** Factory of the maps of the dictionaries */
+	private static final DataStructureFactory FACTORY = new DataStructureFactory(DataStructure.SEARCHTABLE);
+
+	/**
+	 * Tests that packed ids compare like the Strings and unpack to them, and
+	 * that ids that cannot be packed are rejected
+	 */
+	@Test
+	public void testPack() {
+		String[] ids = { "", "0", "A", "AB", "AB0", "ABC", "Z9", "a", "zzzzzzzz" };
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals(ids[i], ConnectionStore.unpack(ConnectionStore.pack(ids[i])));
+			for (int j = 0; j < ids.length; j++) {
+				assertEquals(Integer.signum(ids[i].compareTo(ids[j])),
+						Long.signum(Long.compare(ConnectionStore.pack(ids[i]), ConnectionStore.pack(ids[j]))));
+			}
+		}
+		assertEquals(-1, ConnectionStore.pack("123456789"));
+		assertEquals(-1, ConnectionStore.pack("caf\u00e9"));
+	}
+
+	/**
+	 * Tests that added connections are read back field by field and as
+	 * Connections, with short and long ids
+	 */
+	@Test
+	public void testAdd() {
+		ConnectionStore store = new ConnectionStore(FACTORY, 3);
+		assertEquals(0, store.size());
+		store.add("C1", "alice", "bob", 1000L, "Twitch");
+		store.add("a-very-long-id", "bob", "carol", 2000L, "Telegram");
+		store.add("C0", "alice", "carol", 3000L, "Twitch");
+		assertEquals(3, store.size());
+		assertTrue(store.getOffHeapBytes() > 0);
+
+		assertEquals("bob", store.firstPerson(1));
+		assertEquals("carol", store.secondPerson(1));
+		assertEquals(2000L, store.date(1));
+		assertEquals("Telegram", store.platform(1));
+		Connection c = store.get(1);
+		assertEquals("a-very-long-id", c.getId());
+		assertArrayEquals(new String[] { "bob", "carol" }, c.getPeople());
+		assertEquals(new Date(2000L), c.getDate());
+		assertEquals("Telegram", c.getPlatform());
+
+		assertTrue(store.compareIds(0, 2) > 0);
+		assertTrue(store.compareIds(1, 0) > 0);
+		assertTrue(store.compareIds(0, 1) < 0);
+		assertEquals(0, store.compareIds(2, 2));
+	}
+
+	/**
+	 * Tests that stores filled apart are joined in order with their
+	 * dictionaries merged
+	 */
+	@Test
+	public void testJoin() {
+		ConnectionStore first = new ConnectionStore(FACTORY, 1);
+		first.add("C1", "alice", "bob", 1000L, "Twitch");
+		ConnectionStore second = new ConnectionStore(FACTORY, 2);
+		second.add("a-very-long-id", "carol", "alice", 2000L, "Telegram");
+		second.add("C3", "bob", "carol", 3000L, "Twitch");
+		ConnectionStore joined = ConnectionStore.join(new ConnectionStore[] { first, second }, FACTORY);
+		assertEquals(3, joined.size());
+		assertEquals("alice", joined.firstPerson(0));
+		assertEquals("carol", joined.firstPerson(1));
+		assertEquals("alice", joined.secondPerson(1));
+		assertEquals("a-very-long-id", joined.get(1).getId());
+		assertEquals("Twitch", joined.platform(2));
+		assertEquals(3000L, joined.date(2));
+		assertSame(first, ConnectionStore.join(new ConnectionStore[] { first }, FACTORY));
+	}
+
+	/**
+	 * Tests that appending keeps the old store unchanged whether the columns
+	 * are shared or copied, across segments
+	 */
+	@Test
+	public void testAppend() {
+		ConnectionStore store = new ConnectionStore(FACTORY, 1);
+		store.add("C0", "alice", "bob", 0L, "Twitch");
+		List<Connection> added = new ArrayBasedList<Connection>();
+		for (int i = 1; i <= 3000; i++) {
+			added.addLast(new Connection("C" + i, new String[] { "p" + i, "alice" }, new Date(i), "P" + i % 7));
+		}
+		ConnectionTable shared = store.append(added);
+		assertEquals(1, store.size());
+		assertEquals(3001, shared.size());
+		assertEquals("p3000", shared.firstPerson(3000));
+		assertEquals("P" + 3000 % 7, shared.platform(3000));
+		assertEquals(3000L, shared.date(3000));
+
+		//The columns past the first store were written, so this one copies
+		List<Connection> other = new ArrayBasedList<Connection>();
+		other.addLast(new Connection("X", new String[] { "dave", "erin" }, new Date(5), "Signal"));
+		ConnectionTable copied = store.append(other);
+		assertEquals(2, copied.size());
+		assertEquals("dave", copied.firstPerson(1));
+		assertEquals("Signal", copied.platform(1));
+		assertEquals("p1", shared.firstPerson(1));
+		assertEquals("C1", shared.get(1).getId());
+	}
+}
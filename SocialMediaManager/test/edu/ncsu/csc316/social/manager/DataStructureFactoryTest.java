@@ -0,0 +1,107 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.list.ArrayBasedList;
+import edu.ncsu.csc316.dsa.list.SinglyLinkedList;
+import edu.ncsu.csc316.dsa.map.SearchTableMap;
+import edu.ncsu.csc316.dsa.map.SkipListMap;
+import edu.ncsu.csc316.dsa.map.UnorderedLinkedMap;
+import edu.ncsu.csc316.dsa.sorter.CountingSorter;
+import edu.ncsu.csc316.dsa.sorter.MergeSorter;
+import edu.ncsu.csc316.dsa.sorter.QuickSorter;
+import edu.ncsu.csc316.dsa.sorter.RadixSorter;
+import edu.ncsu.csc316.social.data.Person;
+import edu.ncsu.csc316.social.dsa.Algorithm;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * Tests the DataStructureFactory class
+ * @author Arnold Elamthuruthil
+ */
+public class DataStructureFactoryTest {
+
+	/**
+	 * Tests that the default factory creates the types the managers have always used
+	 */
+	@Test
+	public void testDefaults() {
+		DataStructureFactory f = new DataStructureFactory(DataStructure.SEARCHTABLE);
+		assertEquals(DataStructure.SEARCHTABLE, f.getMapType());
+		assertEquals(DataStructure.ARRAYBASEDLIST, f.getListType());
+		assertEquals(Algorithm.QUICKSORT, f.getComparisonSorterType());
+		assertEquals(Algorithm.COUNTING_SORT, f.getNonComparisonSorterType());
+		assertTrue(f.getMap() instanceof SearchTableMap);
+		assertTrue(f.getIndexedList() instanceof ArrayBasedList);
+		assertTrue(f.<Person>getComparisonSorter(null) instanceof QuickSorter);
+		assertTrue(f.getNonComparisonSorter() instanceof CountingSorter);
+		assertTrue(new DataStructureFactory(DataStructure.SKIPLIST).getMap() instanceof SkipListMap);
+		assertTrue(new DataStructureFactory(DataStructure.UNORDEREDLINKEDMAP).getMap()
+				instanceof UnorderedLinkedMap);
+	}
+
+	/**
+	 * Tests that withComparisonSorter() changes only the sorter of a new factory
+	 */
+	@Test
+	public void testWithComparisonSorter() {
+		DataStructureFactory f = new DataStructureFactory(DataStructure.SKIPLIST, DataStructure.SINGLYLINKEDLIST,
+				Algorithm.QUICKSORT, Algorithm.RADIX_SORT);
+		DataStructureFactory merge = f.withComparisonSorter(Algorithm.MERGESORT);
+		assertEquals(Algorithm.QUICKSORT, f.getComparisonSorterType());
+		assertTrue(merge.<Person>getComparisonSorter(null) instanceof MergeSorter);
+		assertTrue(merge.getIndexedList() instanceof SinglyLinkedList);
+		assertTrue(merge.getNonComparisonSorter() instanceof RadixSorter);
+	}
+
+	/**
+	 * Tests that withOffHeapConnections() changes only the connection storage
+	 * and that withComparisonSorter() keeps it
+	 */
+	@Test
+	public void testWithOffHeapConnections() {
+		DataStructureFactory f = new DataStructureFactory(DataStructure.SKIPLIST);
+		assertFalse(f.isOffHeapConnections());
+		DataStructureFactory offHeap = f.withOffHeapConnections(true);
+		assertFalse(f.isOffHeapConnections());
+		assertTrue(offHeap.isOffHeapConnections());
+		assertTrue(offHeap.getMap() instanceof SkipListMap);
+		assertTrue(offHeap.withComparisonSorter(Algorithm.MERGESORT).isOffHeapConnections());
+		assertFalse(offHeap.withOffHeapConnections(false).isOffHeapConnections());
+	}
+
+	/**
+	 * Tests that types of the wrong kind are rejected
+	 */
+	@Test
+	public void testInvalidTypes() {
+		try {
+			new DataStructureFactory(DataStructure.ARRAYBASEDLIST);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Not a type of map: ARRAYBASEDLIST", e.getMessage());
+		}
+		try {
+			new DataStructureFactory(DataStructure.SKIPLIST).withComparisonSorter(Algorithm.COUNTING_SORT);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Not a comparison-based sorter: COUNTING_SORT", e.getMessage());
+		}
+		try {
+			new DataStructureFactory(DataStructure.SKIPLIST, DataStructure.SKIPLIST, Algorithm.QUICKSORT,
+					Algorithm.COUNTING_SORT);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Not a type of list: SKIPLIST", e.getMessage());
+		}
+		try {
+			new DataStructureFactory(DataStructure.SKIPLIST, DataStructure.ARRAYBASEDLIST, Algorithm.QUICKSORT,
+					Algorithm.MERGESORT);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Not a non-comparison-based sorter: MERGESORT", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.lang.management.ManagementFactory;
+
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the ManagerMetrics class
+ * @author Arnold Elamthuruthil
+ */
+public class ManagerMetricsTest {
+
+	/**
+	 * Turns the metrics off and clears them after each test
+	 */
+	@After
+	public void tearDown() {
+		ManagerMetrics metrics = ManagerMetrics.getInstance();
+		metrics.setEnabled(false);
+		metrics.reset();
+	}
+
+	/**
+	 * Tests that loading a network and rendering a report are recorded while
+	 * the metrics are on, and that nothing is recorded while they are off
+	 * @throws FileNotFoundException if an input file is missing
+	 */
+	@Test
+	public void testRecord() throws FileNotFoundException {
+		ManagerMetrics metrics = ManagerMetrics.getInstance();
+		metrics.reset();
+		metrics.setEnabled(true);
+		assertTrue(metrics.isEnabled());
+		ReportManager r = new ReportManager("input/people2.txt", "input/connections2.txt");
+		String report = r.getConnectionsByPerson();
+
+		assertTrue(metrics.getRecordsParsed() > 0);
+		assertEquals(new File("input/people2.txt").length() + new File("input/connections2.txt").length(),
+				metrics.getBytesParsed());
+		assertTrue(metrics.getParseNanos() > 0);
+		assertTrue(metrics.getParseRecordsPerSecond() > 0);
+		assertTrue(metrics.getPersonComparisons() > 0);
+		assertTrue(metrics.getConnectionComparisons() > 0);
+		assertTrue(metrics.getDateComparisons() > 0);
+		assertTrue(metrics.getPlatformConnectionsScanned() > 0);
+		assertEquals(1, metrics.getReportsRendered());
+		assertEquals(report.length(), metrics.getReportChars());
+
+		metrics.reset();
+		assertEquals(0, metrics.getRecordsParsed());
+		assertEquals(0, metrics.getReportsRendered());
+		assertEquals(0.0, metrics.getParseRecordsPerSecond(), 0.0);
+
+		metrics.setEnabled(false);
+		r = new ReportManager("input/people2.txt", "input/connections2.txt");
+		r.getConnectionsByPerson();
+		assertEquals(0, metrics.getRecordsParsed());
+		assertEquals(0, metrics.getPersonSortNanos());
+		assertEquals(0, metrics.getReportsRendered());
+	}
+
+	/**
+	 * Tests that registering the MBean more than once is allowed, and that
+	 * its attributes can be read and set through the MBean server
+	 * @throws JMException if the MBean cannot be reached
+	 */
+	@Test
+	public void testRegister() throws JMException {
+		ManagerMetrics.register();
+		ManagerMetrics.register();
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(ManagerMetrics.OBJECT_NAME);
+		assertTrue(server.isRegistered(name));
+		assertEquals(Boolean.FALSE, server.getAttribute(name, "Enabled"));
+		server.setAttribute(name, new Attribute("Enabled", Boolean.TRUE));
+		assertTrue(ManagerMetrics.getInstance().isEnabled());
+	}
+}
@@ -0,0 +1,107 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the ManagerServer class
+ * @author Arnold Elamthuruthil
+ */
+public class ManagerServerTest {
+	/** Reports the server is started with */
+	private ReportManager reports;
+	/** Server started for each test */
+	private ManagerServer server;
+
+	/**
+	 * Starts a server on a free port
+	 * @throws IOException if the server cannot be started
+	 */
+	@Before
+	public void setUp() throws IOException {
+		reports = new ReportManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		server = new ManagerServer(reports, 0);
+		server.start();
+	}
+
+	/**
+	 * Stops the server
+	 */
+	@After
+	public void tearDown() {
+		server.stop();
+	}
+
+	/**
+	 * Tests that the full reports are served as ReportManager renders them
+	 * @throws IOException if a request fails
+	 */
+	@Test
+	public void testReports() throws IOException {
+		assertEquals(reports.getConnectionsByPerson(), get("/report/person", 200));
+		assertEquals(reports.getConnectionsByPlatform(), get("/report/platform", 200));
+	}
+
+	/**
+	 * Tests the blocks of single people and platforms
+	 * @throws IOException if a request fails
+	 */
+	@Test
+	public void testSections() throws IOException {
+		String person = get("/person/boyerj706", 200);
+		assertTrue(person.startsWith("Connections for Justin Boyer (boyerj706) {\n"));
+		assertTrue(reports.getConnectionsByPerson().contains(person));
+		String platform = get("/platform/Telegram", 200);
+		assertTrue(platform.startsWith("Connections on Telegram {\n"));
+		assertTrue(reports.getConnectionsByPlatform().contains(platform));
+
+		assertEquals("No person has the username nobody.\n", get("/person/nobody", 404));
+		assertEquals("No connections exist on Myspace.\n", get("/platform/Myspace", 404));
+		assertEquals("Unknown query: /people\n", get("/people", 404));
+	}
+
+	/**
+	 * Tests that only GET requests are answered
+	 * @throws IOException if a request fails
+	 */
+	@Test
+	public void testMethod() throws IOException {
+		HttpURLConnection c = (HttpURLConnection) new URL("http://localhost:" + server.getPort()
+				+ "/report/person").openConnection();
+		c.setRequestMethod("DELETE");
+		assertEquals(405, c.getResponseCode());
+		assertEquals("GET", c.getHeaderField("Allow"));
+		c.disconnect();
+	}
+
+	/**
+	 * Sends a GET request to the server
+	 * @param path path of the request
+	 * @param status status the response must have
+	 * @return body of the response
+	 * @throws IOException if the request fails
+	 */
+	private String get(String path, int status) throws IOException {
+		HttpURLConnection c = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path)
+				.openConnection();
+		assertEquals(status, c.getResponseCode());
+		assertEquals("text/plain; charset=utf-8", c.getContentType());
+		try (InputStream in = status == 200 ? c.getInputStream() : c.getErrorStream()) {
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			in.transferTo(body);
+			return body.toString(StandardCharsets.UTF_8);
+		} finally {
+			c.disconnect();
+		}
+	}
+}
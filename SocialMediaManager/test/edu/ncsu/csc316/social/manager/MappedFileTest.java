@@ -0,0 +1,108 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.FileChannel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the MappedFile class
+ * @author Arnold Elamthuruthil
+ */
+public class MappedFileTest {
+	/** File mapped by each test */
+	private File file;
+
+	/**
+	 * Writes a file of a byte, then the ints 0 to 9, then the longs 0 to 9,
+	 * so no number starts at the start of a window
+	 * @throws IOException if the file cannot be written
+	 */
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("mapped", ".bin");
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+			out.writeByte(7);
+			for (int i = 0; i < 10; i++) {
+				out.writeInt(i);
+			}
+			for (long i = 0; i < 10; i++) {
+				out.writeLong(i);
+			}
+		}
+	}
+
+	/**
+	 * Deletes the file
+	 */
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Tests reading numbers, columns and bytes across windows of 8 and 16 bytes
+	 * @throws IOException if the file cannot be mapped
+	 */
+	@Test
+	public void testWindows() throws IOException {
+		for (int shift : new int[] { 3, 4, MappedFile.WINDOW_SHIFT }) {
+			try (RandomAccessFile in = new RandomAccessFile(file, "r"); FileChannel channel = in.getChannel()) {
+				MappedFile mapped = new MappedFile(channel, shift);
+				assertEquals(121, mapped.size());
+				IntColumn ints = mapped.ints(1, 10);
+				LongColumn longs = mapped.longs(41, 10);
+				for (int i = 0; i < 10; i++) {
+					assertEquals(i, mapped.getInt(1 + 4 * i));
+					assertEquals(i, ints.get(i));
+					assertEquals(i, mapped.getLong(41 + 8 * i));
+					assertEquals(i, longs.get(i));
+				}
+				assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 }, ints.heapArray());
+				assertEquals(9, longs.heapArray()[9]);
+				byte[] bytes = new byte[41];
+				mapped.get(0, bytes);
+				assertEquals(7, bytes[0]);
+				assertEquals(9, bytes[40]);
+			}
+		}
+	}
+
+	/**
+	 * Tests that reads past the end of the file are rejected
+	 * @throws IOException if the file cannot be mapped
+	 */
+	@Test
+	public void testBounds() throws IOException {
+		try (RandomAccessFile in = new RandomAccessFile(file, "r"); FileChannel channel = in.getChannel()) {
+			MappedFile mapped = new MappedFile(channel, 4);
+			try {
+				mapped.ints(1, 31);
+				fail();
+			} catch (BufferUnderflowException e) {
+				assertEquals(121, mapped.size());
+			}
+			try {
+				mapped.longs(41, 11);
+				fail();
+			} catch (BufferUnderflowException e) {
+				assertEquals(121, mapped.size());
+			}
+			try {
+				mapped.get(100, new byte[22]);
+				fail();
+			} catch (BufferUnderflowException e) {
+				assertEquals(121, mapped.size());
+			}
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.social.dsa.Algorithm;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * Tests the NameIndex class
+ * @author Arnold Elamthuruthil
+ */
+public class NameIndexTest {
+
+	/**
+	 * Tests that every name is found with its key and other names are not found
+	 */
+	@Test
+	public void testKeyOf() {
+		String[] names = { "Twitch", "Discord", "LinkedIn", "Telegram", "WeChat" };
+		for (Algorithm sorter : new Algorithm[] { Algorithm.QUICKSORT, Algorithm.MERGESORT, Algorithm.BUBBLE_SORT }) {
+			NameIndex index = new NameIndex(names,
+					new DataStructureFactory(DataStructure.SKIPLIST).withComparisonSorter(sorter));
+			assertEquals(5, index.size());
+			for (int key = 0; key < names.length; key++) {
+				assertEquals(key, index.keyOf(names[key]));
+			}
+			assertEquals(-1, index.keyOf("Myspace"));
+			assertEquals(-1, index.keyOf("A"));
+			assertEquals(-1, index.keyOf("Z"));
+		}
+		assertEquals(-1, new NameIndex(new String[0], new DataStructureFactory(DataStructure.SKIPLIST)).keyOf("x"));
+	}
+}
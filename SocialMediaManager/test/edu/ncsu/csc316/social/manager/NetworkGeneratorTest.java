@@ -0,0 +1,168 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.data.Connection;
+import edu.ncsu.csc316.social.data.Person;
+import edu.ncsu.csc316.social.dsa.DSAFactory;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * Tests the NetworkGenerator class
+ * @author Arnold Elamthuruthil
+ */
+public class NetworkGeneratorTest {
+	/** Generated people file */
+	private File people;
+	/** Generated connection file */
+	private File connections;
+
+	/**
+	 * Creates the files and sets the list type the readers use
+	 * @throws IOException if the files cannot be created
+	 */
+	@Before
+	public void setUp() throws IOException {
+		DSAFactory.setListType(DataStructure.ARRAYBASEDLIST);
+		people = File.createTempFile("people", ".txt");
+		connections = File.createTempFile("connections", ".txt");
+	}
+
+	/**
+	 * Deletes the files
+	 */
+	@After
+	public void tearDown() {
+		people.delete();
+		connections.delete();
+	}
+
+	/**
+	 * Tests that the files can be read and load into a manager
+	 * @throws IOException if the files cannot be written
+	 */
+	@Test
+	public void testWrite() throws IOException {
+		NetworkGenerator generator = new NetworkGenerator(42);
+		generator.setPeople(50);
+		generator.setConnections(500);
+		generator.setDateRange(new Date(1262322000000L), new Date(1293858000000L));
+		generator.writePeople(people.getPath());
+		generator.writeConnections(connections.getPath());
+
+		List<Person> p = ParallelInputReader.readPersonData(people.getPath());
+		List<Connection> c = ParallelInputReader.readConnectionData(connections.getPath());
+		assertEquals(50, p.size());
+		assertEquals(500, c.size());
+		for (Connection connection : c) {
+			assertNotEquals(connection.getPeople()[0], connection.getPeople()[1]);
+			assertTrue(connection.getDate().getTime() >= 1262322000000L);
+			assertTrue(connection.getDate().getTime() <= 1293858000000L);
+		}
+		SocialMediaManager m = new SocialMediaManager(people.getPath(), connections.getPath());
+		assertEquals(50, m.getPeople().size());
+	}
+
+	/**
+	 * Tests that the same seed writes the same files and another seed does not
+	 * @throws IOException if the files cannot be written
+	 */
+	@Test
+	public void testDeterministic() throws IOException {
+		assertEquals(generate(7, 0), generate(7, 0));
+		assertNotEquals(generate(7, 0), generate(8, 0));
+	}
+
+	/**
+	 * Tests that connection ids are unique unless duplicates are asked for
+	 * @throws IOException if the files cannot be written
+	 */
+	@Test
+	public void testDuplicateIds() throws IOException {
+		assertEquals(1000, countIds(generate(3, 0)));
+		assertTrue(countIds(generate(3, 0.3)) < 800);
+	}
+
+	/**
+	 * Tests that the people with the most connections have far more than the average
+	 * @throws IOException if the files cannot be written
+	 */
+	@Test
+	public void testPowerLaw() throws IOException {
+		NetworkGenerator generator = new NetworkGenerator(5);
+		generator.setPeople(1000);
+		generator.setConnections(20000);
+		generator.setDegreeExponent(1.2);
+		generator.writePeople(people.getPath());
+		generator.writeConnections(connections.getPath());
+		PersonIndex index = new SocialMediaManager(people.getPath(), connections.getPath()).getPersonIndex();
+		int max = 0;
+		for (int rank = 0; rank < 1000; rank++) {
+			max = Math.max(max, index.degree(rank));
+		}
+		assertTrue(max > 20 * 40);
+	}
+
+	/**
+	 * Tests invalid settings
+	 */
+	@Test
+	public void testInvalidSettings() {
+		NetworkGenerator generator = new NetworkGenerator(1);
+		try {
+			generator.setPeople(1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("A network needs at least 2 people", e.getMessage());
+		}
+		try {
+			generator.setDuplicateRate(1.5);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Duplicate rate must be between 0 and 1", e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the connections generated from a seed
+	 * @param seed seed of the network
+	 * @param duplicateRate fraction of repeated connection ids
+	 * @return the connection file's text
+	 * @throws IOException if the connections cannot be written
+	 */
+	private String generate(long seed, double duplicateRate) throws IOException {
+		NetworkGenerator generator = new NetworkGenerator(seed);
+		generator.setPeople(100);
+		generator.setConnections(1000);
+		generator.setDuplicateRate(duplicateRate);
+		StringWriter out = new StringWriter();
+		generator.writeConnections(out);
+		return out.toString();
+	}
+
+	/**
+	 * Counts the distinct connection ids of a connection file's text
+	 * @param text connection file's text
+	 * @return number of distinct ids
+	 */
+	private int countIds(String text) {
+		Set<String> ids = new HashSet<String>();
+		String[] lines = text.split("\n");
+		for (int i = 1; i < lines.length; i++) {
+			ids.add(lines[i].substring(0, lines[i].indexOf(',')));
+		}
+		return ids.size();
+	}
+}
@@ -0,0 +1,96 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * Tests the NetworkLoader class
+ * @author Arnold Elamthuruthil
+ */
+public class NetworkLoaderTest {
+
+	/**
+	 * Tests that networks loaded from files streamed in many small chunks,
+	 * on and off the heap, give the same reports as the constructor, and
+	 * that the last progress of each stage is its total
+	 * @throws Exception if a file is not found
+	 */
+	@Test
+	public void testLoad() throws Exception {
+		ReportManager expected = new ReportManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		DataStructureFactory factory = new DataStructureFactory(DataStructure.SKIPLIST);
+		for (DataStructureFactory f : new DataStructureFactory[] { factory, factory.withOffHeapConnections(true) }) {
+			ConcurrentHashMap<NetworkLoader.Stage, long[]> last = new ConcurrentHashMap<NetworkLoader.Stage, long[]>();
+			NetworkLoader loader = new NetworkLoader("input/peopleFull.txt", "input/connectionsFull.txt", f,
+					(stage, done, total) -> last.put(stage, new long[] { done, total }), 32);
+			ReportManager r = ReportManager.loadAsync(loader, f).join();
+			assertEquals(expected.getConnectionsByPerson(), r.getConnectionsByPerson());
+			assertEquals(expected.getConnectionsByPlatform(), r.getConnectionsByPlatform());
+			assertArrayEquals(new long[] { new File("input/peopleFull.txt").length(),
+					new File("input/peopleFull.txt").length() }, last.get(NetworkLoader.Stage.PEOPLE));
+			assertArrayEquals(new long[] { new File("input/connectionsFull.txt").length(),
+					new File("input/connectionsFull.txt").length() }, last.get(NetworkLoader.Stage.CONNECTIONS));
+			assertArrayEquals(new long[] { 3, 3 }, last.get(NetworkLoader.Stage.INDEXES));
+		}
+
+		ReportManager empty = ReportManager.loadAsync("input/peopleFull.txt", "input/emptyConn.txt", factory, null)
+				.join();
+		assertEquals("No connections exist in the social media network.", empty.getConnectionsByPerson());
+	}
+
+	/**
+	 * Tests that a missing file fails the future with a FileNotFoundException,
+	 * which the constructor throws
+	 */
+	@Test
+	public void testMissingFile() {
+		DataStructureFactory factory = new DataStructureFactory(DataStructure.SKIPLIST);
+		CompletableFuture<ReportManager> load = ReportManager.loadAsync("input/missing.txt",
+				"input/connectionsFull.txt", factory, null);
+		try {
+			load.join();
+			fail();
+		} catch (CompletionException e) {
+			assertTrue(e.getCause() instanceof FileNotFoundException);
+		}
+		try {
+			new SocialMediaManager("input/peopleFull.txt", "input/missing.txt", factory);
+			fail();
+		} catch (FileNotFoundException e) {
+			assertTrue(e.getMessage().contains("missing.txt"));
+		}
+	}
+
+	/**
+	 * Tests that an Error thrown while a chunk is added fails the future
+	 * instead of leaving the reader waiting on a full queue
+	 * @throws Exception if the load does not finish in time
+	 */
+	@Test
+	public void testBuilderError() throws Exception {
+		DataStructureFactory factory = new DataStructureFactory(DataStructure.SKIPLIST);
+		NetworkLoader loader = new NetworkLoader("input/peopleFull.txt", "input/connectionsFull.txt", factory,
+				(stage, done, total) -> {
+					if (stage == NetworkLoader.Stage.CONNECTIONS) {
+						throw new OutOfMemoryError("Java heap space");
+					}
+				}, 32);
+		try {
+			loader.start().get(30, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof OutOfMemoryError);
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.social.data.Connection;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * Tests the NetworkSnapshot class
+ * @author Arnold Elamthuruthil
+ */
+public class NetworkSnapshotTest {
+	/** Snapshot file used by each test */
+	private File snapshot;
+
+	/**
+	 * Creates the snapshot file
+	 * @throws IOException if the file cannot be created
+	 */
+	@Before
+	public void setUp() throws IOException {
+		snapshot = File.createTempFile("network", ".snapshot");
+	}
+
+	/**
+	 * Deletes the snapshot file
+	 */
+	@After
+	public void tearDown() {
+		snapshot.delete();
+	}
+
+	/**
+	 * Tests that a loaded snapshot gives the same reports as the text files
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	@Test
+	public void testSaveAndLoad() throws IOException {
+		ReportManager r = new ReportManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		r.saveSnapshot(snapshot.getPath());
+		ReportManager loaded = ReportManager.loadSnapshot(snapshot.getPath());
+		assertEquals(r.getConnectionsByPerson(), loaded.getConnectionsByPerson());
+		assertEquals(r.getConnectionsByPlatform(), loaded.getConnectionsByPlatform());
+	}
+
+	/**
+	 * Tests a snapshot of an empty network, and of connections to people who are not known
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	@Test
+	public void testSaveAndLoadPartial() throws IOException {
+		ReportManager empty = new ReportManager("input/peopleFull.txt", "input/emptyConn.txt");
+		empty.saveSnapshot(snapshot.getPath());
+		assertEquals("No connections exist in the social media network.",
+				ReportManager.loadSnapshot(snapshot.getPath()).getConnectionsByPlatform());
+
+		SocialMediaManager m = new SocialMediaManager("input/people2.txt", "input/connectionsFull.txt");
+		m.saveSnapshot(snapshot.getPath());
+		SocialMediaManager loaded = SocialMediaManager.loadSnapshot(snapshot.getPath(), DataStructure.SEARCHTABLE);
+		assertEquals(3, loaded.getPeople().size());
+		List<Connection> expected = m.getConnectionsByPlatform().get("Facebook");
+		List<Connection> actual = loaded.getConnectionsByPlatform().get("Facebook");
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getId(), actual.get(i).getId());
+			assertEquals(expected.get(i).getPeople()[0], actual.get(i).getPeople()[0]);
+			assertEquals(expected.get(i).getDate(), actual.get(i).getDate());
+		}
+		loaded.addPeople("input/peopleDelta.txt");
+		assertEquals(6, loaded.getConnectionsByPerson().get("runolfsdottirl591").size());
+	}
+
+	/**
+	 * Tests that a snapshot mapped in windows of a few bytes, so that numbers
+	 * and Strings cross windows, loads the same indexes
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	@Test
+	public void testLoadInWindows() throws IOException {
+		SocialMediaManager m = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		m.saveSnapshot(snapshot.getPath());
+		DataStructureFactory factory = new DataStructureFactory(DataStructure.SKIPLIST);
+		NetworkSnapshot whole = NetworkSnapshot.load(snapshot.getPath(), factory);
+		NetworkSnapshot windowed = NetworkSnapshot.load(snapshot.getPath(), factory, 4);
+		PersonIndex expected = whole.getPersonIndex();
+		PersonIndex actual = windowed.getPersonIndex();
+		assertEquals(expected.size(), actual.size());
+		for (int rank = 0; rank < expected.getRanking().size(); rank++) {
+			assertConnections(expected.connectionsOf(rank), actual.connectionsOf(rank));
+		}
+		for (int code = 0; code < whole.getPlatformIndex().size(); code++) {
+			assertConnections(whole.getPlatformIndex().connectionsOn(code),
+					windowed.getPlatformIndex().connectionsOn(code));
+		}
+	}
+
+	/**
+	 * Tests adding people and connections to a network loaded from a
+	 * snapshot, with the new connections on and off the heap
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	@Test
+	public void testAddAfterLoad() throws IOException {
+		SocialMediaManager m = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		m.saveSnapshot(snapshot.getPath());
+		m.addPeople("input/peopleDelta.txt");
+		m.addConnections("input/connectionsDelta.txt");
+		for (boolean offHeap : new boolean[] { false, true }) {
+			SocialMediaManager loaded = SocialMediaManager.loadSnapshot(snapshot.getPath(),
+					new DataStructureFactory(DataStructure.SKIPLIST).withOffHeapConnections(offHeap));
+			loaded.addPeople("input/peopleDelta.txt");
+			loaded.addConnections("input/connectionsDelta.txt");
+			assertMaps(m.getConnectionsByPerson(), loaded.getConnectionsByPerson());
+			assertMaps(m.getConnectionsByPlatform(), loaded.getConnectionsByPlatform());
+		}
+	}
+
+	/**
+	 * Tests loading a snapshot that is cut short
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testLoadTruncated() throws IOException {
+		new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt").saveSnapshot(snapshot.getPath());
+		try (RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+			file.setLength(file.length() - 1);
+		}
+		NetworkSnapshot.load(snapshot.getPath());
+	}
+
+	/**
+	 * Checks that two maps of connections have the same connections in the same order
+	 * @param expected expected map
+	 * @param actual actual map
+	 */
+	private static void assertMaps(Map<String, List<Connection>> expected, Map<String, List<Connection>> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (String key : expected) {
+			assertConnections(expected.get(key), actual.get(key));
+		}
+	}
+
+	/**
+	 * Checks that two lists have the same connections in the same order
+	 * @param expected expected connections
+	 * @param actual actual connections
+	 */
+	private static void assertConnections(List<Connection> expected, List<Connection> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getId(), actual.get(i).getId());
+			assertArrayEquals(expected.get(i).getPeople(), actual.get(i).getPeople());
+			assertEquals(expected.get(i).getDate(), actual.get(i).getDate());
+			assertEquals(expected.get(i).getPlatform(), actual.get(i).getPlatform());
+		}
+	}
+
+	/**
+	 * Tests loading snapshots whose header counts or String lengths are too
+	 * large or negative for the file
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	@Test
+	public void testLoadCorruptCounts() throws IOException {
+		new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt").saveSnapshot(snapshot.getPath());
+		int people = NetworkSnapshot.load(snapshot.getPath()).getPersonIndex().getRanking().size();
+		int[] corrupt = { -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 1 << 24 };
+		// The six counts of the header, then the length of the first username
+		for (int position = 8; position <= 32; position += 4) {
+			for (int value : corrupt) {
+				try (RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+					file.seek(position);
+					int saved = file.readInt();
+					file.seek(position);
+					file.writeInt(value);
+					try {
+						NetworkSnapshot.load(snapshot.getPath());
+						fail();
+					} catch (IllegalArgumentException e) {
+						assertTrue(e.getMessage().endsWith(snapshot.getPath()));
+					}
+					file.seek(position);
+					file.writeInt(saved);
+				}
+			}
+		}
+		assertEquals(people, NetworkSnapshot.load(snapshot.getPath()).getPersonIndex().getRanking().size());
+	}
+
+	/**
+	 * Tests loading a file that is not a snapshot
+	 * @throws IOException if the file cannot be written
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testLoadNotSnapshot() throws IOException {
+		try (FileWriter out = new FileWriter(snapshot)) {
+			out.write("USERNAME,FIRST_NAME,LAST_NAME\n");
+		}
+		NetworkSnapshot.load(snapshot.getPath());
+	}
+
+	/**
+	 * Tests loading a snapshot that is missing
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test(expected = FileNotFoundException.class)
+	public void testLoadMissing() throws FileNotFoundException {
+		NetworkSnapshot.load("input/missing.snapshot");
+	}
+}
@@ -0,0 +1,165 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Calendar;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.social.data.Connection;
+
+/**
+ * Tests the NetworkStatistics class
+ * @author Arnold Elamthuruthil
+ */
+public class NetworkStatisticsTest {
+
+	/**
+	 * Tests the statistics of a small network
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testSmallNetwork() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/people2.txt", "input/connections2.txt");
+		NetworkStatistics statistics = m.getStatistics(1);
+		ConnectionStatistics network = statistics.getStatistics();
+		assertEquals(2, network.getConnectionCount());
+		assertEquals(1, network.getTopCount());
+		assertEquals("boyerj706", m.getPersonIndex().getRanking().personAt(network.getTopRank(0)).getId());
+		assertEquals(2, network.getTopDegree(0));
+		assertEquals(2, network.getMaxDegree());
+		assertEquals(0, network.getPeopleWithDegree(0));
+		assertEquals(2, network.getPeopleWithDegree(1));
+		assertEquals(1, network.getPeopleWithDegree(2));
+		assertEquals(1, network.getExtremeCount());
+		assertEquals("WTSO7763", network.getOldest(0).getId());
+		assertEquals("HQLO6804", network.getNewest(0).getId());
+
+		ConnectionStatistics twitch = statistics.getStatistics(m.getPlatformIndex().codeOf("Twitch"));
+		assertEquals(1, twitch.getConnectionCount());
+		assertEquals(1, twitch.getPeopleWithDegree(0));
+		assertEquals(0, twitch.getConnectionsIn(2016));
+	}
+
+	/**
+	 * Tests the statistics of a network without connections
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testNoConnections() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/people2.txt", "input/emptyConn.txt");
+		ConnectionStatistics network = m.getStatistics(5).getStatistics();
+		assertEquals(0, network.getConnectionCount());
+		assertEquals(3, network.getTopCount());
+		assertEquals(3, network.getPeopleWithDegree(0));
+		assertEquals(0, network.getExtremeCount());
+		assertTrue(network.getLastYear() < network.getFirstYear());
+	}
+
+	/**
+	 * Tests that the statistics of a generated network match the ones found by
+	 * looking at every connection and person separately
+	 * @throws IOException if the files cannot be written
+	 */
+	@Test
+	public void testGeneratedNetwork() throws IOException {
+		File people = File.createTempFile("people", ".txt");
+		File connections = File.createTempFile("connections", ".txt");
+		try {
+			NetworkGenerator generator = new NetworkGenerator(2020);
+			generator.setPeople(300);
+			generator.setConnections(3000);
+			generator.writePeople(people.getPath());
+			generator.writeConnections(connections.getPath());
+			SocialMediaManager m = new SocialMediaManager(people.getPath(), connections.getPath());
+			PersonIndex index = m.getPersonIndex();
+			PlatformIndex platforms = m.getPlatformIndex();
+			NetworkStatistics statistics = m.getStatistics(7);
+			assertStatistics(index, null, statistics.getStatistics(), 7);
+			for (int code = 0; code < platforms.size(); code++) {
+				assertStatistics(index, platforms.platformAt(code), statistics.getStatistics(code), 7);
+			}
+		} finally {
+			people.delete();
+			connections.delete();
+		}
+	}
+
+	/**
+	 * Checks statistics against counts made one connection at a time
+	 * @param index index of the network
+	 * @param platform platform of the statistics, or null for the whole network
+	 * @param statistics statistics to check
+	 * @param k number of people and connections kept
+	 */
+	private void assertStatistics(PersonIndex index, String platform, ConnectionStatistics statistics, int k) {
+		int people = index.getRanking().size();
+		int[] degree = new int[people];
+		int[] years = new int[3000];
+		int count = 0;
+		Connection[] kept = new Connection[index.size()];
+		Calendar calendar = Calendar.getInstance();
+		for (int edge = 0; edge < index.size(); edge++) {
+			Connection c = index.connection(edge);
+			if (platform != null && !platform.equals(c.getPlatform())) {
+				continue;
+			}
+			kept[count++] = c;
+			calendar.setTime(c.getDate());
+			years[calendar.get(Calendar.YEAR)]++;
+			degree[index.firstRankOf(edge)]++;
+			degree[index.secondRankOf(edge)]++;
+		}
+		assertEquals(count, statistics.getConnectionCount());
+		for (int year = 0; year < years.length; year++) {
+			assertEquals(years[year], statistics.getConnectionsIn(year));
+		}
+		int[] histogram = new int[count * 2 + 1];
+		int max = 0;
+		for (int rank = 0; rank < people; rank++) {
+			histogram[degree[rank]]++;
+			max = Math.max(max, degree[rank]);
+		}
+		assertEquals(max, statistics.getMaxDegree());
+		for (int d = 0; d <= max; d++) {
+			assertEquals(histogram[d], statistics.getPeopleWithDegree(d));
+		}
+
+		assertEquals(Math.min(k, people), statistics.getTopCount());
+		for (int i = 0; i < statistics.getTopCount(); i++) {
+			int rank = statistics.getTopRank(i);
+			assertEquals(degree[rank], statistics.getTopDegree(i));
+			for (int other = 0; other < people; other++) {
+				boolean listed = false;
+				for (int j = 0; j < statistics.getTopCount(); j++) {
+					listed |= statistics.getTopRank(j) == other;
+				}
+				if (!listed) {
+					assertTrue(degree[other] < degree[rank] || degree[other] == degree[rank] && other > rank);
+				}
+			}
+		}
+
+		Arrays.sort(kept, 0, count, this::compare);
+		assertEquals(Math.min(k, count), statistics.getExtremeCount());
+		for (int i = 0; i < statistics.getExtremeCount(); i++) {
+			assertSame(kept[i], statistics.getOldest(i));
+			assertSame(kept[count - 1 - i], statistics.getNewest(i));
+		}
+	}
+
+	/**
+	 * Compares two connections by date, then id
+	 * @param c1 first connection
+	 * @param c2 second connection
+	 * @return negative, zero or positive as the first comes before, with or after the second
+	 */
+	private int compare(Connection c1, Connection c2) {
+		int compare = c1.getDate().compareTo(c2.getDate());
+		return compare != 0 ? compare : c1.getId().compareTo(c2.getId());
+	}
+}
@@ -0,0 +1,128 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.data.Connection;
+import edu.ncsu.csc316.social.data.Person;
+import edu.ncsu.csc316.social.dsa.DSAFactory;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+import edu.ncsu.csc316.social.io.InputReader;
+
+/**
+ * Tests the ParallelInputReader class
+ * @author Arnold Elamthuruthil
+ */
+public class ParallelInputReaderTest {
+	/** Factory of the lists ParallelInputReader builds */
+	private DataStructureFactory factory;
+
+	/**
+	 * Sets the list type both readers build their lists with
+	 */
+	@Before
+	public void setUp() {
+		DSAFactory.setListType(DataStructure.ARRAYBASEDLIST);
+		factory = new DataStructureFactory(DataStructure.SKIPLIST);
+	}
+
+	/**
+	 * Tests that readConnectionData() matches InputReader for a file split into many chunks
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testReadConnectionDataChunks() throws FileNotFoundException {
+		List<Connection> exp = InputReader.readConnectionData("input/connectionsFull.txt");
+		for (long chunkSize = 1; chunkSize <= 2048; chunkSize *= 4) {
+			List<Connection> out = ParallelInputReader.readConnectionData("input/connectionsFull.txt", chunkSize,
+					factory);
+			assertEquals(exp.size(), out.size());
+			for (int i = 0; i < exp.size(); i++) {
+				Connection e = exp.get(i);
+				Connection o = out.get(i);
+				assertEquals(e.getId(), o.getId());
+				assertEquals(e.getPeople()[0], o.getPeople()[0]);
+				assertEquals(e.getPeople()[1], o.getPeople()[1]);
+				assertEquals(e.getDate(), o.getDate());
+				assertEquals(e.getPlatform(), o.getPlatform());
+			}
+		}
+	}
+
+	/**
+	 * Tests that readPersonData() matches InputReader, including trailing spaces
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testReadPersonData() throws FileNotFoundException {
+		List<Person> exp = InputReader.readPersonData("input/peopleSame.txt");
+		List<Person> out = ParallelInputReader.readPersonData("input/peopleSame.txt", 16, factory);
+		assertEquals(exp.size(), out.size());
+		for (int i = 0; i < exp.size(); i++) {
+			assertEquals(exp.get(i).getId(), out.get(i).getId());
+			assertEquals(exp.get(i).getFirst(), out.get(i).getFirst());
+			assertEquals(exp.get(i).getLast(), out.get(i).getLast());
+		}
+		assertEquals("Boyer ", out.get(1).getLast());
+	}
+
+	/**
+	 * Tests that streaming a file hands every chunk to the consumer in file
+	 * order, on or off the heap
+	 * @throws Exception if file is not found or the thread is interrupted
+	 */
+	@Test
+	public void testStreamConnectionData() throws Exception {
+		List<Connection> exp = InputReader.readConnectionData("input/connectionsFull.txt");
+		List<Connection> out = factory.getIndexedList();
+		int[] chunks = new int[1];
+		long[] bytes = new long[1];
+		ParallelInputReader.streamConnectionData("input/connectionsFull.txt", 64, factory, (chunk, size) -> {
+			for (Connection c : chunk) {
+				out.addLast(c);
+			}
+			chunks[0]++;
+			bytes[0] += size;
+		});
+		assertTrue(chunks[0] > 1);
+		assertTrue(bytes[0] < new File("input/connectionsFull.txt").length());
+		assertEquals(exp.size(), out.size());
+		for (int i = 0; i < exp.size(); i++) {
+			assertEquals(exp.get(i).getId(), out.get(i).getId());
+		}
+
+		ConnectionStore store = new ConnectionStore(factory, exp.size());
+		ParallelInputReader.streamConnectionStore("input/connectionsFull.txt", 64, factory,
+				(chunk, size) -> store.addAll(chunk));
+		assertEquals(exp.size(), store.size());
+		for (int i = 0; i < exp.size(); i++) {
+			assertEquals(exp.get(i).getId(), store.get(i).getId());
+			assertEquals(exp.get(i).getDate(), store.get(i).getDate());
+		}
+	}
+
+	/**
+	 * Tests reading files that only have a header
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testReadEmpty() throws FileNotFoundException {
+		assertEquals(0, ParallelInputReader.readPersonData("input/emptyPeople.txt").size());
+		assertEquals(0, ParallelInputReader.readConnectionData("input/emptyConn.txt").size());
+	}
+
+	/**
+	 * Tests reading a file that does not exist
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test(expected = FileNotFoundException.class)
+	public void testReadMissingFile() throws FileNotFoundException {
+		ParallelInputReader.readConnectionData("input/missing.txt");
+	}
+}
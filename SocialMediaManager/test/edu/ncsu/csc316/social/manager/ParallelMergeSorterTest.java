@@ -0,0 +1,127 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the ParallelMergeSorter class
+ * @author Arnold Elamthuruthil
+ */
+public class ParallelMergeSorterTest {
+	/** Compares the key of each pair, leaving the position to show stability */
+	private static final Comparator<int[]> BY_KEY = (a, b) -> Integer.compare(a[0], b[0]);
+
+	/**
+	 * Returns pairs of a random key and the position of the pair
+	 * @param size number of pairs
+	 * @param keys number of different keys
+	 * @param seed seed of the random keys
+	 * @return the pairs
+	 */
+	private static int[][] pairs(int size, int keys, long seed) {
+		Random random = new Random(seed);
+		int[][] pairs = new int[size][];
+		for (int i = 0; i < size; i++) {
+			pairs[i] = new int[] { random.nextInt(keys), i };
+		}
+		return pairs;
+	}
+
+	/**
+	 * Tests that arrays are sorted stably, sequentially and with tasks small
+	 * enough that the sorts and merges are split
+	 */
+	@Test
+	public void testSort() {
+		int[] sizes = { 0, 1, 2, 31, 33, 100, 1000, 5000 };
+		int[] taskSizes = { 2, 7, 64, 1 << 13 };
+		for (int size : sizes) {
+			for (int taskSize : taskSizes) {
+				int[][] data = pairs(size, Math.max(1, size / 4), size * 31L + taskSize);
+				int[][] expected = data.clone();
+				Arrays.sort(expected, BY_KEY);
+				new ParallelMergeSorter<int[]>(BY_KEY, taskSize).sort(data);
+				for (int i = 0; i < size; i++) {
+					assertSame(expected[i], data[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that sorted data costs one comparison per element, and that
+	 * descending and mostly sorted data are sorted stably
+	 */
+	@Test
+	public void testRuns() {
+		int size = 10000;
+		int[][] sorted = new int[size][];
+		for (int i = 0; i < size; i++) {
+			sorted[i] = new int[] { i / 3, i };
+		}
+		ParallelMergeSorter<int[]> sorter = new ParallelMergeSorter<int[]>(BY_KEY, 1000);
+		int[][] data = sorted.clone();
+		sorter.sort(data);
+		assertArrayEquals(sorted, data);
+		assertTrue(sorter.getComparisons() < size + 20);
+
+		int[][] descending = new int[size][];
+		for (int i = 0; i < size; i++) {
+			descending[i] = new int[] { (size - i) / 3, i };
+		}
+		int[][] expected = descending.clone();
+		Arrays.sort(expected, BY_KEY);
+		sorter.sort(descending);
+		for (int i = 0; i < size; i++) {
+			assertSame(expected[i], descending[i]);
+		}
+
+		data = sorted.clone();
+		int[] swap = data[500];
+		data[500] = data[9000];
+		data[9000] = swap;
+		expected = data.clone();
+		Arrays.sort(expected, BY_KEY);
+		sorter.sort(data);
+		for (int i = 0; i < size; i++) {
+			assertSame(expected[i], data[i]);
+		}
+	}
+
+	/**
+	 * Tests that each slice of an int array is sorted stably by its own order
+	 * and that the items outside the slices are left alone
+	 */
+	@Test
+	public void testSortSlices() {
+		Random random = new Random(7);
+		int[] offsets = { 1, 1, 4, 40, 41, 20041 };
+		int[] items = new int[offsets[offsets.length - 1] + 1];
+		for (int i = 0; i < items.length; i++) {
+			items[i] = random.nextInt(1000) * 100000 + i;
+		}
+		int[] original = items.clone();
+		//Slice s orders items by their key modulo s + 2, keeping position order on ties
+		ParallelMergeSorter.SliceComparator comparator = (s, a, b) -> Integer.compare(a / 100000 % (s + 2),
+				b / 100000 % (s + 2));
+		long comparisons = ParallelMergeSorter.sortSlices(items, offsets, offsets.length - 1, comparator);
+		assertTrue(comparisons > 0);
+		assertEquals(original[0], items[0]);
+		assertEquals(original[items.length - 1], items[items.length - 1]);
+		for (int s = 0; s < offsets.length - 1; s++) {
+			for (int i = offsets[s] + 1; i < offsets[s + 1]; i++) {
+				int compare = comparator.compare(s, items[i - 1], items[i]);
+				assertTrue(compare < 0 || compare == 0 && items[i - 1] % 100000 < items[i] % 100000);
+			}
+		}
+
+		int[] slice = { 5, 3, 9, 3, 1 };
+		ParallelMergeSorter.sortSlice(slice, 0, 1, 4, new int[slice.length], (s, a, b) -> Integer.compare(a, b));
+		assertArrayEquals(new int[] { 5, 3, 3, 9, 1 }, slice);
+	}
+}
@@ -0,0 +1,67 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.data.Connection;
+
+/**
+ * Tests the PersonIndex class
+ * @author Arnold Elamthuruthil
+ */
+public class PersonIndexTest {
+
+	/**
+	 * Tests that each person's slice is sorted by the other person's name
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testConnectionsOf() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		PersonIndex index = m.getPersonIndex();
+		int rank = index.getRanking().rankOf("kertzmannn329");
+		assertEquals(4, index.degree(rank));
+
+		List<Connection> list = index.connectionsOf(rank);
+		assertEquals("WTSO7763", list.get(0).getId());
+		assertEquals("XAFL8903", list.get(1).getId());
+		assertEquals("RUIN7780", list.get(2).getId());
+		assertEquals("QOYT6634", list.get(3).getId());
+		assertEquals("boyerj706", index.otherAt(rank, index.start(rank)).getId());
+		assertEquals("simonisr882", index.otherAt(rank, index.start(rank) + 3).getId());
+	}
+
+	/**
+	 * Tests that connections with the same other person are sorted by date
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testConnectionsOfSameOther() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		PersonIndex index = m.getPersonIndex();
+		List<Connection> list = index.connectionsOf(index.getRanking().rankOf("runolfsdottirl591"));
+		int i = 0;
+		for (Connection c : list) {
+			if (i > 0 && list.get(i - 1).getPeople()[0].equals(c.getPeople()[0])
+					&& list.get(i - 1).getPeople()[1].equals(c.getPeople()[1])) {
+				assertTrue(list.get(i - 1).getDate().compareTo(c.getDate()) <= 0);
+			}
+			i++;
+		}
+		assertEquals(6, i);
+	}
+
+	/**
+	 * Tests that the views cannot be changed
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void testViewIsReadOnly() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/people1.txt", "input/connections1.txt");
+		m.getConnectionsByPerson().get("boyerj706").removeFirst();
+	}
+}
@@ -0,0 +1,132 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.social.data.Person;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * Tests the PersonRanking class
+ * @author Arnold Elamthuruthil
+ */
+public class PersonRankingTest {
+	/** Factory of the maps and sorters of the rankings */
+	private static final DataStructureFactory FACTORY = new DataStructureFactory(DataStructure.SKIPLIST);
+
+	/**
+	 * Returns a map of people by username
+	 * @param people people to put in the map
+	 * @return the map
+	 */
+	private static Map<String, Person> map(Person... people) {
+		Map<String, Person> map = FACTORY.getMap();
+		for (Person p : people) {
+			map.put(p.getId(), p);
+		}
+		return map;
+	}
+
+	/**
+	 * Tests that people are ranked by last name, then first name, then
+	 * username, including ties on last and first name
+	 */
+	@Test
+	public void testOrder() {
+		Person simonis = new Person("simonisr882", "Royce", "Simonis");
+		Person boyerJ2 = new Person("boyerj9", "Justin", "Boyer");
+		Person boyerJ1 = new Person("boyerj706", "Justin", "Boyer");
+		Person boyerA = new Person("boyera1", "Amy", "Boyer");
+		Person kertzmann = new Person("kertzmannn329", "Napoleon", "Kertzmann");
+		PersonRanking ranking = new PersonRanking(map(simonis, boyerJ2, boyerJ1, boyerA, kertzmann), FACTORY);
+		assertEquals(5, ranking.size());
+		Person[] expected = { boyerA, boyerJ1, boyerJ2, kertzmann, simonis };
+		for (int rank = 0; rank < expected.length; rank++) {
+			assertSame(expected[rank], ranking.personAt(rank));
+			assertEquals(rank, ranking.rankOf(expected[rank].getId()));
+		}
+	}
+
+	/**
+	 * Tests that rankOf returns -1 for usernames that are not ranked
+	 */
+	@Test
+	public void testRankOfUnknown() {
+		PersonRanking ranking = new PersonRanking(map(new Person("boyerj706", "Justin", "Boyer")), FACTORY);
+		assertEquals(-1, ranking.rankOf("nobody"));
+		assertEquals(-1, ranking.rankOf(""));
+		assertEquals(-1, new PersonRanking(map(), FACTORY).rankOf("boyerj706"));
+	}
+
+	/**
+	 * Tests that add merges new people into the ranking without changing the
+	 * old ranking, and that every person keeps their slot, so ranks can be
+	 * carried from any earlier ranking to a later one
+	 */
+	@Test
+	public void testAdd() {
+		Person boyer = new Person("boyerj706", "Justin", "Boyer");
+		Person simonis = new Person("simonisr882", "Royce", "Simonis");
+		PersonRanking first = new PersonRanking(map(boyer, simonis), FACTORY);
+		assertSame(first, first.add(new Person[0]));
+
+		Person kertzmann = new Person("kertzmannn329", "Napoleon", "Kertzmann");
+		Person adams = new Person("adamsz1", "Zoe", "Adams");
+		PersonRanking second = first.add(new Person[] { kertzmann, adams });
+		assertEquals(2, first.size());
+		assertEquals(-1, first.rankOf("adamsz1"));
+		assertEquals(1, first.rankOf("simonisr882"));
+		assertEquals(4, second.size());
+		Person[] expected = { adams, boyer, kertzmann, simonis };
+		for (int rank = 0; rank < expected.length; rank++) {
+			assertSame(expected[rank], second.personAt(rank));
+			assertEquals(rank, second.rankOf(expected[rank].getId()));
+		}
+
+		Person zed = new Person("zz1", "Zed", "Zulu");
+		PersonRanking third = second.add(new Person[] { zed });
+		assertArrayEquals(new int[] { 1, 3 }, second.ranksFrom(first));
+		assertArrayEquals(new int[] { 1, 3 }, third.ranksFrom(first));
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, third.ranksFrom(second));
+		assertArrayEquals(new int[] { 0, 1, 2, 3, 4 }, third.ranksFrom(third));
+		assertEquals(4, third.rankOf("zz1"));
+		assertEquals(-1, second.rankOf("zz1"));
+	}
+
+	/**
+	 * Tests that a ranking grown by many adds of different sizes ranks every
+	 * person the same as a ranking of all of them built at once, and that the
+	 * rankings it was built from still only know their own people
+	 */
+	@Test
+	public void testAddMany() {
+		Map<String, Person> all = map();
+		PersonRanking first = new PersonRanking(map(new Person("m000", "First", "Middle")), FACTORY);
+		all.put("m000", first.personAt(0));
+		PersonRanking ranking = first;
+		int next = 1;
+		for (int round = 1; round <= 12; round++) {
+			Person[] added = new Person[round % 4 + 1];
+			for (int i = 0; i < added.length; i++) {
+				int n = next * 37 % 101;
+				added[i] = new Person(String.format("u%03d", next), "First" + n % 3, "Last" + n % 7);
+				all.put(added[i].getId(), added[i]);
+				next++;
+			}
+			ranking = ranking.add(added);
+		}
+		PersonRanking expected = new PersonRanking(all, FACTORY);
+		assertEquals(expected.size(), ranking.size());
+		for (int rank = 0; rank < expected.size(); rank++) {
+			assertSame(expected.personAt(rank), ranking.personAt(rank));
+			assertEquals(rank, ranking.rankOf(expected.personAt(rank).getId()));
+		}
+		assertEquals(-1, first.rankOf("u001"));
+		assertEquals(0, first.rankOf("m000"));
+		assertEquals(-1, ranking.rankOf("u999"));
+		int[] ranks = ranking.ranksFrom(first);
+		assertEquals(ranking.rankOf("m000"), ranks[0]);
+	}
+}
@@ -0,0 +1,131 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Date;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.social.data.Connection;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * Tests the PlatformIndex class
+ * @author Arnold Elamthuruthil
+ */
+public class PlatformIndexTest {
+
+	/**
+	 * Tests that platforms are coded in the order they are first seen
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testCodes() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		PlatformIndex index = m.getPlatformIndex();
+		assertEquals(11, index.size());
+		assertEquals("Telegram", index.platformAt(0));
+		assertEquals("Twitch", index.platformAt(1));
+		assertEquals(2, index.codeOf("Discord"));
+		assertEquals(-1, index.codeOf("MySpace"));
+	}
+
+	/**
+	 * Tests that each platform's connections are in date order
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testConnectionsOn() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		PlatformIndex index = m.getPlatformIndex();
+		List<Connection> facebook = index.connectionsOn(index.codeOf("Facebook"));
+		assertEquals(3, facebook.size());
+		assertEquals("SCEN2300", facebook.get(0).getId());
+		assertEquals("WPEM8662", facebook.get(1).getId());
+		assertEquals("EDTL0714", facebook.get(2).getId());
+	}
+
+	/**
+	 * Tests that the connections in a range of dates are the ones a linear scan
+	 * of each platform finds, before and after a delta and after a snapshot load
+	 * @throws IOException if a file cannot be read or written
+	 */
+	@Test
+	public void testConnectionsBetween() throws IOException {
+		SocialMediaManager m = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		assertRanges(m.getPlatformIndex());
+		m.addPeople("input/peopleDelta.txt");
+		m.addConnections("input/connectionsDelta.txt");
+		assertRanges(m.getPlatformIndex());
+		File snapshot = File.createTempFile("network", ".snapshot");
+		try {
+			m.saveSnapshot(snapshot.getPath());
+			assertRanges(SocialMediaManager.loadSnapshot(snapshot.getPath(), DataStructure.SKIPLIST).getPlatformIndex());
+		} finally {
+			snapshot.delete();
+		}
+
+		Date from = new Date(0);
+		Date to = new Date(Long.MAX_VALUE);
+		assertEquals(m.getConnectionsOn("Facebook").size(), m.countConnectionsOn("Facebook", from, to));
+		assertEquals(0, m.countConnectionsOn("Facebook", to, from));
+		assertEquals(0, m.getConnectionsOn("Facebook", to, from).size());
+		assertEquals(0, m.countConnectionsOn("MySpace", from, to));
+		assertNull(m.getConnectionsOn("MySpace", from, to));
+	}
+
+	/**
+	 * Checks that two connections are the same connection. A table that is not
+	 * on the heap creates a Connection each time one is asked for, so they are
+	 * compared by their fields.
+	 * @param expected expected connection
+	 * @param actual actual connection
+	 */
+	private static void assertConnection(Connection expected, Connection actual) {
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getDate(), actual.getDate());
+		assertEquals(expected.getPlatform(), actual.getPlatform());
+	}
+
+	/**
+	 * Checks every range between the dates of each platform's connections
+	 * against a linear scan of the platform
+	 * @param index index to check
+	 */
+	private void assertRanges(PlatformIndex index) {
+		for (int code = 0; code < index.size(); code++) {
+			List<Connection> all = index.connectionsOn(code);
+			long[] bounds = new long[all.size() + 2];
+			bounds[0] = Long.MIN_VALUE;
+			bounds[1] = Long.MAX_VALUE;
+			for (int i = 0; i < all.size(); i++) {
+				bounds[i + 2] = all.get(i).getDate().getTime() + i % 2;
+			}
+			for (long from : bounds) {
+				for (long to : bounds) {
+					List<Connection> range = index.connectionsBetween(code, from, to);
+					int count = 0;
+					for (Connection c : all) {
+						long time = c.getDate().getTime();
+						if (time >= from && time < to) {
+							assertConnection(c, range.get(count));
+							count++;
+						}
+					}
+					assertEquals(count, range.size());
+					assertEquals(count, index.countBetween(code, from, to));
+					int iterated = 0;
+					for (Connection c : range) {
+						assertConnection(range.get(iterated), c);
+						iterated++;
+					}
+					assertEquals(count, iterated);
+				}
+			}
+		}
+	}
+}
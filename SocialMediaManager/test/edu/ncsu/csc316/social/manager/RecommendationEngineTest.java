@@ -0,0 +1,154 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.dsa.list.List;
+import edu.ncsu.csc316.dsa.map.Map;
+import edu.ncsu.csc316.social.data.Connection;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
+/**
+ * Tests the RecommendationEngine class
+ * @author Arnold Elamthuruthil
+ */
+public class RecommendationEngineTest {
+
+	/**
+	 * Tests the recommendations of a small network
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testSmallNetwork() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/people2.txt", "input/connections2.txt");
+		List<Recommendation> list = m.getRecommendations("kertzmannn329", 5);
+		assertEquals(1, list.size());
+		assertEquals("simonisr882", list.get(0).getPerson().getId());
+		assertEquals(1, list.get(0).getMutualConnections());
+		assertEquals(0, m.getRecommendations("boyerj706", 5).size());
+		assertEquals(0, m.getRecommendations("kertzmannn329", 0).size());
+
+		//Kertzmann and Simonis only share Boyer across two platforms
+		assertEquals(0, m.getRecommendations("kertzmannn329", "Telegram", 5).size());
+		assertEquals(0, m.getRecommendations("kertzmannn329", "MySpace", 5).size());
+		assertNull(m.getRecommendations("nobody", 5));
+
+		Map<String, List<Recommendation>> all = m.getAllRecommendations(null, 5);
+		assertEquals(3, all.size());
+		assertEquals("kertzmannn329", all.get("simonisr882").get(0).getPerson().getId());
+		assertEquals(0, m.getAllRecommendations("MySpace", 5).get("boyerj706").size());
+	}
+
+	/**
+	 * Tests that the recommendations of a generated network match the ones
+	 * found by checking every pair of people, on every platform and on one
+	 * platform, one at a time and as a batch
+	 * @throws IOException if the files cannot be written
+	 */
+	@Test
+	public void testGeneratedNetwork() throws IOException {
+		File people = File.createTempFile("people", ".txt");
+		File connections = File.createTempFile("connections", ".txt");
+		try {
+			NetworkGenerator generator = new NetworkGenerator(19);
+			generator.setPeople(120);
+			generator.setConnections(900);
+			generator.writePeople(people.getPath());
+			generator.writeConnections(connections.getPath());
+			SocialMediaManager m = new SocialMediaManager(people.getPath(), connections.getPath());
+			PersonIndex index = m.getPersonIndex();
+			PlatformIndex platforms = m.getPlatformIndex();
+			RecommendationEngine engine = new RecommendationEngine(index, platforms, new DataStructureFactory(DataStructure.SKIPLIST));
+			for (int code = -1; code < 2; code++) {
+				boolean[][] adjacent = adjacency(index, platforms, code);
+				List<Recommendation>[] all = engine.recommendAll(code, 4);
+				for (int rank = 0; rank < adjacent.length; rank++) {
+					int[] expected = bruteForce(adjacent, rank, 4);
+					assertRecommendations(index, expected, engine.recommend(rank, code, 4));
+					assertRecommendations(index, expected, all[rank]);
+				}
+			}
+		} finally {
+			people.delete();
+			connections.delete();
+		}
+	}
+
+	/**
+	 * Builds the adjacency matrix of the connections on a platform
+	 * @param index index of the network
+	 * @param platforms index of the platforms
+	 * @param code code of the platform, or -1 for every platform
+	 * @return whether each pair of people is connected
+	 */
+	private boolean[][] adjacency(PersonIndex index, PlatformIndex platforms, int code) {
+		int people = index.getRanking().size();
+		boolean[][] adjacent = new boolean[people][people];
+		for (int edge = 0; edge < index.size(); edge++) {
+			Connection c = index.connection(edge);
+			int r1 = index.firstRankOf(edge);
+			int r2 = index.secondRankOf(edge);
+			if (r1 >= 0 && r2 >= 0 && r1 != r2 && (code < 0 || c.getPlatform().equals(platforms.platformAt(code)))) {
+				adjacent[r1][r2] = true;
+				adjacent[r2][r1] = true;
+			}
+		}
+		return adjacent;
+	}
+
+	/**
+	 * Finds the best recommendations by counting the mutual connections of
+	 * every pair of people
+	 * @param adjacent whether each pair of people is connected
+	 * @param rank rank of the person
+	 * @param k largest number of people to recommend
+	 * @return ranks of the best people, each followed by its count
+	 */
+	private int[] bruteForce(boolean[][] adjacent, int rank, int k) {
+		int people = adjacent.length;
+		int[] mutual = new int[people];
+		for (int other = 0; other < people; other++) {
+			if (other == rank || adjacent[rank][other]) {
+				continue;
+			}
+			for (int friend = 0; friend < people; friend++) {
+				if (adjacent[rank][friend] && adjacent[friend][other]) {
+					mutual[other]++;
+				}
+			}
+		}
+		int[] best = new int[2 * k];
+		int found = 0;
+		for (int count = people; count > 0 && found < k; count--) {
+			for (int other = 0; other < people && found < k; other++) {
+				if (mutual[other] == count) {
+					best[2 * found] = other;
+					best[2 * found + 1] = count;
+					found++;
+				}
+			}
+		}
+		int[] trimmed = new int[2 * found];
+		System.arraycopy(best, 0, trimmed, 0, trimmed.length);
+		return trimmed;
+	}
+
+	/**
+	 * Checks a list of recommendations against ranks and counts
+	 * @param index index of the network
+	 * @param expected ranks of the best people, each followed by its count
+	 * @param actual recommendations to check
+	 */
+	private void assertRecommendations(PersonIndex index, int[] expected, List<Recommendation> actual) {
+		assertEquals(expected.length / 2, actual.size());
+		for (int i = 0; i < actual.size(); i++) {
+			assertSame(index.getRanking().personAt(expected[2 * i]), actual.get(i).getPerson());
+			assertEquals(expected[2 * i + 1], actual.get(i).getMutualConnections());
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.FileNotFoundException;
+import java.util.Date;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the ReportFormatter class
+ * @author Arnold Elamthuruthil
+ */
+public class ReportFormatterTest {
+
+	/**
+	 * Tests the labels of the people
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testLabel() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/people2.txt", "input/connections2.txt");
+		PersonIndex index = m.getPersonIndex();
+		ReportFormatter format = new ReportFormatter(index);
+		assertEquals("Justin Boyer (boyerj706)", format.label(index.getRanking().rankOf("boyerj706")));
+		assertEquals("Royce Simonis (simonisr882)", format.label(index.getRanking().rankOf("simonisr882")));
+	}
+
+	/**
+	 * Tests that the dates of connections are formatted like Date.toString,
+	 * including dates that repeat and dates that collide in the cache
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testDate() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		PersonIndex index = m.getPersonIndex();
+		ReportFormatter format = new ReportFormatter(index);
+		for (int pass = 0; pass < 2; pass++) {
+			for (int edge = 0; edge < index.size(); edge++) {
+				StringBuilder out = new StringBuilder("x");
+				format.appendDate(edge, out);
+				assertEquals("x" + index.connection(edge).getDate().toString(), out.toString());
+			}
+		}
+	}
+
+	/**
+	 * Tests that times across daylight saving changes, far apart and before
+	 * 1900 are formatted like Date.toString
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testTimes() throws FileNotFoundException {
+		SocialMediaManager m = new SocialMediaManager("input/people2.txt", "input/connections2.txt");
+		ReportFormatter format = new ReportFormatter(m.getPersonIndex());
+		Random random = new Random(42);
+		long[] times = new long[5000];
+		for (int i = 0; i < times.length; i++) {
+			times[i] = random.nextLong() % 4000000000000L;
+		}
+		//Around the daylight saving changes of 2016 in New York
+		times[0] = 1457852399000L;
+		times[1] = 1457852400000L;
+		times[2] = 1478411999999L;
+		times[3] = 1478412000000L;
+		times[4] = -5000000000000L;
+		times[5] = 0;
+		times[6] = -1;
+		for (long time : times) {
+			StringBuilder out = new StringBuilder();
+			format.appendTime(time, out);
+			assertEquals(new Date(time).toString(), out.toString());
+		}
+	}
+}
@@ -2,10 +2,21 @@ package edu.ncsu.csc316.social.manager;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
+import edu.ncsu.csc316.social.dsa.Algorithm;
+import edu.ncsu.csc316.social.dsa.DataStructure;
+
 /**
  * Tests the ReportManager class
  * @author Arnold Elamthuruthil
@@ -140,8 +151,279 @@ public class ReportManagerTest {
 		assertEquals(exp, platform);
 		
 	}
-	
-	
-	
 
+	/**
+	 * Tests that reports are cached until invalidate() is called
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testInvalidate() throws FileNotFoundException {
+		ReportManager r = new ReportManager("input/people2.txt", "input/connections2.txt");
+		String byPerson = r.getConnectionsByPerson();
+		String byPlatform = r.getConnectionsByPlatform();
+		assertSame(byPerson, r.getConnectionsByPerson());
+		assertSame(byPlatform, r.getConnectionsByPlatform());
+
+		r.invalidate();
+		String newByPerson = r.getConnectionsByPerson();
+		assertNotSame(byPerson, newByPerson);
+		assertEquals(byPerson, newByPerson);
+		assertEquals(byPlatform, r.getConnectionsByPlatform());
+	}
+
+	/**
+	 * Tests that the streamed reports match the String reports
+	 * @throws IOException if the report cannot be written
+	 */
+	@Test
+	public void testWriteReports() throws IOException {
+		ReportManager r = new ReportManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		StringWriter byPerson = new StringWriter();
+		r.writeConnectionsByPerson(byPerson);
+		assertEquals(r.getConnectionsByPerson(), byPerson.toString());
+
+		ByteArrayOutputStream byPlatform = new ByteArrayOutputStream();
+		r.writeConnectionsByPlatform(byPlatform);
+		assertEquals(r.getConnectionsByPlatform(), byPlatform.toString(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Tests iterating over the blocks of the reports
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testSections() throws FileNotFoundException {
+		ReportManager r = new ReportManager("input/people2.txt", "input/connections2.txt");
+		Iterator<String> sections = r.personSections();
+		assertEquals("Connections for Justin Boyer (boyerj706) {\n"
+				+ "   Napoleon Kertzmann (kertzmannn329) on Telegram since Wed Nov 16 03:42:00 EST 2016\n"
+				+ "   Royce Simonis (simonisr882) on Twitch since Mon Aug 03 02:54:39 EDT 2020\n"
+				+ "}\n", sections.next());
+		assertTrue(sections.hasNext());
+		sections.next();
+		sections.next();
+		assertFalse(sections.hasNext());
+
+		ReportManager empty = new ReportManager("input/peopleFull.txt", "input/emptyConn.txt");
+		Iterator<String> platforms = empty.platformSections();
+		assertEquals("No connections exist in the social media network.", platforms.next());
+		assertFalse(platforms.hasNext());
+	}
+
+	/**
+	 * Tests that reports rendered in parallel match the serial reports
+	 * @throws IOException if the report cannot be written
+	 */
+	@Test
+	public void testParallel() throws IOException {
+		ReportManager serial = new ReportManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		ReportManager parallel = new ReportManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		parallel.setParallel(true);
+		assertEquals(serial.getConnectionsByPerson(), parallel.getConnectionsByPerson());
+		assertEquals(serial.getConnectionsByPlatform(), parallel.getConnectionsByPlatform());
+
+		StringWriter byPerson = new StringWriter();
+		parallel.writeConnectionsByPerson(byPerson);
+		assertEquals(serial.getConnectionsByPerson(), byPerson.toString());
+		StringWriter byPlatform = new StringWriter();
+		parallel.writeConnectionsByPlatform(byPlatform);
+		assertEquals(serial.getConnectionsByPlatform(), byPlatform.toString());
+
+		ReportManager empty = new ReportManager("input/peopleFull.txt", "input/emptyConn.txt");
+		empty.setParallel(true);
+		assertEquals("No connections exist in the social media network.", empty.getConnectionsByPerson());
+	}
+
+	/**
+	 * Tests that a manager that keeps its connections off the heap gives the
+	 * same reports as one that keeps them as Connection objects, before and
+	 * after connections are added
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testOffHeapConnections() throws FileNotFoundException {
+		DataStructureFactory offHeap = new DataStructureFactory(DataStructure.SEARCHTABLE)
+				.withOffHeapConnections(true);
+		ReportManager full = new ReportManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		ReportManager r = new ReportManager("input/peopleFull.txt", "input/connectionsFull.txt", offHeap);
+		assertEquals(full.getConnectionsByPerson(), r.getConnectionsByPerson());
+		assertEquals(full.getConnectionsByPlatform(), r.getConnectionsByPlatform());
+
+		ReportManager delta = new ReportManager("input/people2.txt", "input/connections2.txt", offHeap);
+		delta.addPeople("input/peopleDelta.txt");
+		delta.addConnections("input/connectionsDelta.txt");
+		assertEquals(full.getConnectionsByPerson(), delta.getConnectionsByPerson());
+		assertEquals(full.getConnectionsByPlatform(), delta.getConnectionsByPlatform());
+
+		ReportManager empty = new ReportManager("input/peopleFull.txt", "input/emptyConn.txt", offHeap);
+		assertEquals("No connections exist in the social media network.", empty.getConnectionsByPerson());
+	}
+
+	/**
+	 * Tests that reports include people and connections added from delta files
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testAddDeltas() throws FileNotFoundException {
+		ReportManager full = new ReportManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		ReportManager r = new ReportManager("input/people2.txt", "input/connections2.txt");
+		String before = r.getConnectionsByPerson();
+		r.addPeople("input/peopleDelta.txt");
+		r.addConnections("input/connectionsDelta.txt");
+		assertNotEquals(before, r.getConnectionsByPerson());
+		assertEquals(full.getConnectionsByPerson(), r.getConnectionsByPerson());
+		assertEquals(full.getConnectionsByPlatform(), r.getConnectionsByPlatform());
+	}
+
+	/**
+	 * Tests that managers with different map and sorter types built at the
+	 * same time on different threads give the same reports as when they are
+	 * built one at a time
+	 * @throws Exception if a manager cannot be built
+	 */
+	@Test
+	public void testConcurrentFactories() throws Exception {
+		DataStructureFactory[] factories = {
+			new DataStructureFactory(DataStructure.SKIPLIST),
+			new DataStructureFactory(DataStructure.SEARCHTABLE).withComparisonSorter(Algorithm.MERGESORT),
+			new DataStructureFactory(DataStructure.UNORDEREDLINKEDMAP, DataStructure.SINGLYLINKEDLIST,
+					Algorithm.INSERTION_SORT, Algorithm.RADIX_SORT)
+		};
+		String[] expected = new String[factories.length];
+		for (int i = 0; i < factories.length; i++) {
+			expected[i] = new ReportManager("input/peopleFull.txt", "input/connectionsFull.txt", factories[i])
+					.getConnectionsByPerson();
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(factories.length);
+		try {
+			for (int round = 0; round < 5; round++) {
+				@SuppressWarnings("unchecked")
+				Future<String>[] reports = new Future[factories.length];
+				for (int i = 0; i < factories.length; i++) {
+					DataStructureFactory factory = factories[i];
+					reports[i] = pool.submit(() -> new ReportManager("input/peopleFull.txt",
+							"input/connectionsFull.txt", factory).getConnectionsByPerson());
+				}
+				for (int i = 0; i < factories.length; i++) {
+					assertEquals(expected[i], reports[i].get());
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Tests that reports read while deltas are added are always the report of
+	 * one whole version of the network
+	 * @throws Exception if a report cannot be read
+	 */
+	@Test
+	public void testReadsDuringDeltas() throws Exception {
+		ReportManager expected = new ReportManager("input/people2.txt", "input/connections2.txt");
+		String before = expected.getConnectionsByPerson();
+		expected.addPeople("input/peopleDelta.txt");
+		String withPeople = expected.getConnectionsByPerson();
+		expected.addConnections("input/connectionsDelta.txt");
+		String withConnections = expected.getConnectionsByPerson();
+
+		ReportManager r = new ReportManager("input/people2.txt", "input/connections2.txt");
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			@SuppressWarnings("unchecked")
+			Future<String>[] readers = new Future[4];
+			for (int i = 0; i < readers.length; i++) {
+				readers[i] = pool.submit(() -> {
+					String report = r.getConnectionsByPerson();
+					while (!report.equals(withConnections)) {
+						if (!report.equals(before) && !report.equals(withPeople)) {
+							return report;
+						}
+						report = r.getConnectionsByPerson();
+					}
+					return report;
+				});
+			}
+			r.addPeople("input/peopleDelta.txt");
+			r.addConnections("input/connectionsDelta.txt");
+			for (Future<String> reader : readers) {
+				assertEquals(withConnections, reader.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Tests that the block of one person or platform matches its block in the full report
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testPersonAndPlatformSection() throws FileNotFoundException {
+		ReportManager r = new ReportManager("input/people2.txt", "input/connections2.txt");
+		String person = r.getPersonSection("kertzmannn329");
+		assertTrue(person.startsWith("Connections for Napoleon Kertzmann (kertzmannn329) {\n"));
+		assertTrue(person.endsWith("}\n"));
+		assertTrue(r.getConnectionsByPerson().contains(person));
+		assertNull(r.getPersonSection("nobody"));
+
+		String platform = r.getPlatformSection("Twitch");
+		assertTrue(platform.startsWith("Connections on Twitch {\n"));
+		assertTrue(r.getConnectionsByPlatform().contains(platform));
+		assertNull(r.getPlatformSection("Myspace"));
+	}
+
+	/**
+	 * Tests the report of connected components
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testGetComponentReport() throws FileNotFoundException {
+		ReportManager r = new ReportManager("input/people2.txt", "input/connections2.txt");
+		String exp = "Components of the social media network {\n"
+				+ "   3 people: Justin Boyer (boyerj706), Napoleon Kertzmann (kertzmannn329), Royce Simonis (simonisr882)\n"
+				+ "}\n"
+				+ "Components on Telegram {\n"
+				+ "   2 people: Justin Boyer (boyerj706), Napoleon Kertzmann (kertzmannn329)\n"
+				+ "}\n"
+				+ "Components on Twitch {\n"
+				+ "   2 people: Justin Boyer (boyerj706), Royce Simonis (simonisr882)\n"
+				+ "}\n";
+		assertEquals(exp, r.getComponentReport());
+		assertSame(r.getComponentReport(), r.getComponentReport());
+
+		ReportManager empty = new ReportManager("input/people2.txt", "input/emptyConn.txt");
+		assertEquals("No connections exist in the social media network.", empty.getComponentReport());
+	}
+
+	/**
+	 * Tests the report of statistics
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testGetStatisticsReport() throws FileNotFoundException {
+		ReportManager r = new ReportManager("input/people2.txt", "input/connections2.txt");
+		String twitch = "Statistics on Twitch {\n"
+				+ "   Connections: 1\n"
+				+ "   Most connections:\n"
+				+ "      Justin Boyer (boyerj706): 1\n"
+				+ "      Royce Simonis (simonisr882): 1\n"
+				+ "   People by number of connections:\n"
+				+ "      0: 1\n"
+				+ "      1: 2\n"
+				+ "   Connections by year:\n"
+				+ "      2020: 1\n"
+				+ "   Oldest connections:\n"
+				+ "      Mon Aug 03 02:54:39 EDT 2020: Justin Boyer (boyerj706) <--> Royce Simonis (simonisr882)\n"
+				+ "   Newest connections:\n"
+				+ "      Mon Aug 03 02:54:39 EDT 2020: Justin Boyer (boyerj706) <--> Royce Simonis (simonisr882)\n"
+				+ "}\n";
+		String report = r.getStatisticsReport();
+		assertTrue(report.startsWith("Statistics of the social media network {\n   Connections: 2\n"));
+		assertTrue(report.endsWith(twitch));
+		assertTrue(report.indexOf("Statistics on Telegram {") < report.indexOf("Statistics on Twitch {"));
+
+		ReportManager empty = new ReportManager("input/people2.txt", "input/emptyConn.txt");
+		assertEquals("No connections exist in the social media network.", empty.getStatisticsReport());
+	}
 }
@@ -2,7 +2,11 @@ package edu.ncsu.csc316.social.manager;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import org.junit.Test;
 
@@ -170,4 +174,164 @@ public class SocialMediaManagerTest {
         assertEquals(1, connectionsForPerson3.size());
     }
 
+	/**
+	 * Tests that the maps are cached until invalidate() is called
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testInvalidate() throws FileNotFoundException {
+		SocialMediaManager c = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		Map<String, List<Connection>> byPerson = c.getConnectionsByPerson();
+		Map<String, List<Connection>> byPlatform = c.getConnectionsByPlatform();
+		Map<String, Person> people = c.getPeople();
+		assertSame(byPerson, c.getConnectionsByPerson());
+		assertSame(byPlatform, c.getConnectionsByPlatform());
+		assertSame(people, c.getPeople());
+
+		c.invalidate();
+		assertNotSame(byPerson, c.getConnectionsByPerson());
+		assertNotSame(byPlatform, c.getConnectionsByPlatform());
+		assertNotSame(people, c.getPeople());
+		assertEquals(8, c.getConnectionsByPerson().size());
+		assertEquals(11, c.getConnectionsByPlatform().size());
+	}
+
+	/**
+	 * Tests adding people and connections from delta files
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testAddPeopleAndConnections() throws FileNotFoundException {
+		SocialMediaManager c = new SocialMediaManager("input/people2.txt", "input/connections2.txt");
+		assertEquals(3, c.getConnectionsByPerson().size());
+		c.addPeople("input/peopleDelta.txt");
+		c.addPeople("input/people2.txt");
+		assertEquals(8, c.getPeople().size());
+		assertEquals(8, c.getConnectionsByPerson().size());
+		assertEquals(0, c.getConnectionsByPerson().get("homenickb690").size());
+		c.addConnections("input/connectionsDelta.txt");
+		assertEquals(11, c.getConnectionsByPlatform().size());
+
+		SocialMediaManager full = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		assertSameConnections(full.getConnectionsByPerson(), c.getConnectionsByPerson());
+		assertSameConnections(full.getConnectionsByPlatform(), c.getConnectionsByPlatform());
+	}
+
+	/**
+	 * Tests adding connections one delta file at a time, so later deltas grow
+	 * into the room the earlier ones left, and that the maps of every earlier
+	 * state stay the same while later states are built
+	 * @throws IOException if a delta file cannot be written
+	 */
+	@Test
+	public void testAddConnectionsOneAtATime() throws IOException {
+		java.util.List<String> lines = Files.readAllLines(Paths.get("input/connectionsDelta.txt"));
+		SocialMediaManager c = new SocialMediaManager("input/peopleFull.txt", "input/connections2.txt");
+		java.util.List<Map<String, List<Connection>>> maps = new java.util.ArrayList<Map<String, List<Connection>>>();
+		java.util.List<String> rendered = new java.util.ArrayList<String>();
+		File folder = Files.createTempDirectory("deltas").toFile();
+		for (int i = 1; i < lines.size(); i++) {
+			maps.add(c.getConnectionsByPerson());
+			rendered.add(render(c.getConnectionsByPerson()));
+			File delta = new File(folder, "delta" + i + ".txt");
+			Files.write(delta.toPath(), java.util.Arrays.asList(lines.get(0), lines.get(i)));
+			c.addConnections(delta.getPath());
+		}
+		for (int i = 0; i < maps.size(); i++) {
+			assertEquals(rendered.get(i), render(maps.get(i)));
+		}
+		SocialMediaManager full = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		assertSameConnections(full.getConnectionsByPerson(), c.getConnectionsByPerson());
+		assertSameConnections(full.getConnectionsByPlatform(), c.getConnectionsByPlatform());
+	}
+
+	/**
+	 * Returns the ids of the connections of every key of a map, in order
+	 * @param map map of connections
+	 * @return the keys and ids
+	 */
+	private static String render(Map<String, List<Connection>> map) {
+		StringBuilder out = new StringBuilder();
+		for (String key : map) {
+			out.append(key).append(":");
+			for (Connection connection : map.get(key)) {
+				out.append(" ").append(connection.getId());
+			}
+			out.append("\n");
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Tests adding people who are in connections that were already loaded
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testAddPeopleToKnownConnections() throws FileNotFoundException {
+		SocialMediaManager c = new SocialMediaManager("input/people2.txt", "input/connectionsFull.txt");
+		c.addPeople("input/peopleDelta.txt");
+		SocialMediaManager full = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		assertSameConnections(full.getConnectionsByPerson(), c.getConnectionsByPerson());
+	}
+
+	/**
+	 * Tests looking up the connections of one person or one platform
+	 * @throws FileNotFoundException if file is not found
+	 */
+	@Test
+	public void testGetConnectionsForAndOn() throws FileNotFoundException {
+		SocialMediaManager c = new SocialMediaManager("input/people2.txt", "input/connections2.txt");
+		Map<String, List<Connection>> byPerson = c.getConnectionsByPerson();
+		for (String id : byPerson) {
+			assertSameList(byPerson.get(id), c.getConnectionsFor(id));
+		}
+		Map<String, List<Connection>> byPlatform = c.getConnectionsByPlatform();
+		for (String platform : byPlatform) {
+			assertSameList(byPlatform.get(platform), c.getConnectionsOn(platform));
+		}
+		assertNull(c.getConnectionsFor("homenickb690"));
+		assertNull(c.getConnectionsOn("Myspace"));
+
+		c.addPeople("input/peopleDelta.txt");
+		assertEquals(0, c.getConnectionsFor("homenickb690").size());
+		c.addConnections("input/connectionsDelta.txt");
+		SocialMediaManager full = new SocialMediaManager("input/peopleFull.txt", "input/connectionsFull.txt");
+		for (String id : full.getConnectionsByPerson()) {
+			assertSameList(full.getConnectionsFor(id), c.getConnectionsFor(id));
+		}
+		for (String platform : full.getConnectionsByPlatform()) {
+			assertSameList(full.getConnectionsOn(platform), c.getConnectionsOn(platform));
+		}
+	}
+
+	/**
+	 * Asserts that two lists have the same connections in the same order
+	 * @param expected expected list
+	 * @param actual actual list
+	 */
+	private void assertSameList(List<Connection> expected, List<Connection> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getId(), actual.get(i).getId());
+		}
+	}
+
+	/**
+	 * Asserts that two maps have the same keys in the same order, with the
+	 * same connections in the same order
+	 * @param expected expected map
+	 * @param actual actual map
+	 */
+	private void assertSameConnections(Map<String, List<Connection>> expected, Map<String, List<Connection>> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (String key : expected) {
+			List<Connection> e = expected.get(key);
+			List<Connection> a = actual.get(key);
+			assertEquals(e.size(), a.size());
+			for (int i = 0; i < e.size(); i++) {
+				assertEquals(e.get(i).getId(), a.get(i).getId());
+			}
+		}
+	}
+
 }
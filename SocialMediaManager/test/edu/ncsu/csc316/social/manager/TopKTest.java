@@ -0,0 +1,49 @@
+package edu.ncsu.csc316.social.manager;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests the TopK class
+ * @author Arnold Elamthuruthil
+ */
+public class TopKTest {
+
+	/**
+	 * Tests that the largest values are kept, with ties in id order
+	 */
+	@Test
+	public void testOffer() {
+		TopK top = new TopK(3);
+		long[] offered = { 4, 9, 1, 9, 4, 7, 4 };
+		for (int id = 0; id < offered.length; id++) {
+			top.offer(id, offered[id]);
+		}
+		assertEquals(3, top.size());
+		int[] ids = new int[3];
+		long[] values = new long[3];
+		assertEquals(3, top.drain(ids, values));
+		assertArrayEquals(new int[] { 1, 3, 5 }, ids);
+		assertArrayEquals(new long[] { 9, 9, 7 }, values);
+		assertEquals(0, top.size());
+	}
+
+	/**
+	 * Tests a TopK that keeps nothing and one that is offered fewer than k ids
+	 */
+	@Test
+	public void testSmall() {
+		TopK none = new TopK(0);
+		none.offer(1, 5);
+		assertEquals(0, none.size());
+
+		TopK top = new TopK(5);
+		top.offer(2, 3);
+		top.offer(1, 3);
+		int[] ids = new int[2];
+		long[] values = new long[2];
+		assertEquals(2, top.drain(ids, values));
+		assertArrayEquals(new int[] { 1, 2 }, ids);
+	}
+}